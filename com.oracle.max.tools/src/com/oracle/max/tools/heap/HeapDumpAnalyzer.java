@@ -0,0 +1,956 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.tools.heap;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.sun.max.program.option.*;
+
+/**
+ * Offline analyzer for HPROF heap dumps such as those written by {@code com.sun.max.vm.heap.HeapDump}.
+ * It prints a class histogram and the objects with the largest retained sizes, derived from the
+ * dominator tree of the object graph.
+ * <p>
+ * The heap dump segments are parsed in parallel, in two passes: the first collects object identifiers,
+ * class layouts and roots, the second builds the reference graph in compressed sparse row form. The
+ * dominator tree is computed with the Lengauer-Tarjan algorithm from a virtual root referring to all GC
+ * roots, and the class histogram is aggregated in parallel over ranges of objects.
+ * <p>
+ * Shallow sizes are the recorded instance size for instances and a 16 byte header plus the elements
+ * for arrays; for dumps in which the instance size excludes the header they are approximate.
+ */
+public final class HeapDumpAnalyzer {
+
+    private static final OptionSet options = new OptionSet();
+
+    private static final Option<File> INPUT_FILE = options.newFileOption("in", (File) null,
+            "the heap dump to analyze");
+    private static final Option<Integer> TOP = options.newIntegerOption("top", 30,
+            "number of classes and objects to report");
+    private static final Option<Integer> THREADS = options.newIntegerOption("threads", Runtime.getRuntime().availableProcessors(),
+            "number of threads used to parse and aggregate (defaults to the number of available processors)");
+    private static final Option<Boolean> HELP = options.newBooleanOption("help", false,
+            "show help message and exits.");
+
+    // top-level records
+    private static final int STRING = 0x01;
+    private static final int LOAD_CLASS = 0x02;
+    private static final int HEAP_DUMP = 0x0C;
+    private static final int HEAP_DUMP_SEGMENT = 0x1C;
+
+    // heap dump sub-records
+    private static final int ROOT_UNKNOWN = 0xFF;
+    private static final int ROOT_JNI_GLOBAL = 0x01;
+    private static final int ROOT_JNI_LOCAL = 0x02;
+    private static final int ROOT_JAVA_FRAME = 0x03;
+    private static final int ROOT_NATIVE_STACK = 0x04;
+    private static final int ROOT_STICKY_CLASS = 0x05;
+    private static final int ROOT_THREAD_BLOCK = 0x06;
+    private static final int ROOT_MONITOR_USED = 0x07;
+    private static final int ROOT_THREAD_OBJECT = 0x08;
+    private static final int CLASS_DUMP = 0x20;
+    private static final int INSTANCE_DUMP = 0x21;
+    private static final int OBJ_ARRAY_DUMP = 0x22;
+    private static final int PRIM_ARRAY_DUMP = 0x23;
+
+    private static final int T_OBJECT = 2;
+
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    private final File file;
+    private final ExecutorService executor;
+    private int idSize;
+
+    private final Map<Long, String> strings = new HashMap<Long, String>();
+    private final Map<Long, Long> classNameIds = new HashMap<Long, Long>();
+    private final List<Segment> segments = new ArrayList<Segment>();
+    private final ConcurrentMap<Long, ClassInfo> classes = new ConcurrentHashMap<Long, ClassInfo>();
+
+    /**
+     * Sorted identifiers of all objects and classes; the position of an identifier is its node index.
+     * The virtual root has index {@code ids.length}.
+     */
+    private long[] ids;
+    private int root;
+    private long[] shallow;
+    private int[] classSlot;
+    private ClassInfo[] classBySlot;
+    private int[] edgeOffsets;
+    private int[] edgeTargets;
+
+    HeapDumpAnalyzer(File file, int threads) {
+        this.file = file;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    public static void main(String[] args) throws Exception {
+        options.parseArguments(args);
+        final String[] arguments = options.getArguments();
+        if (HELP.getValue() || (INPUT_FILE.getValue() == null && arguments.length != 1)) {
+            System.out.println("Usage: HeapDumpAnalyzer [options] [heap dump]");
+            options.printHelp(System.out, 80);
+            return;
+        }
+        final File file = INPUT_FILE.getValue() != null ? INPUT_FILE.getValue() : new File(arguments[0]);
+        final HeapDumpAnalyzer analyzer = new HeapDumpAnalyzer(file, Math.max(1, THREADS.getValue()));
+        try {
+            analyzer.analyze(System.out, TOP.getValue());
+        } finally {
+            analyzer.executor.shutdown();
+        }
+    }
+
+    void analyze(PrintStream out, int top) throws Exception {
+        readRecords();
+        final long[] roots = collect();
+        buildGraph(roots);
+        final Dominators dominators = new Dominators(ids.length + 1, edgeOffsets, edgeTargets, root);
+        final long[] retained = dominators.retainedSizes(shallow);
+
+        long edges = edgeOffsets[ids.length + 1];
+        out.println("Heap dump " + file + ": " + (ids.length - classes.size()) + " objects, " + classes.size() + " classes, " +
+                    edges + " references, " + roots.length + " roots");
+        printHistogram(out, top);
+        printLargestRetained(out, top, dominators, retained);
+        long unreachableCount = 0;
+        long unreachableBytes = 0;
+        for (int node = 0; node < ids.length; node++) {
+            if (!dominators.isReachable(node)) {
+                unreachableCount++;
+                unreachableBytes += shallow[node];
+            }
+        }
+        out.println("Unreachable: " + unreachableCount + " objects, " + unreachableBytes + " bytes");
+    }
+
+    /**
+     * Reads the top-level records, keeping strings and class names and locating the heap dump segments.
+     */
+    private void readRecords() throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        try {
+            final StringBuilder format = new StringBuilder();
+            for (int b = in.read(); b > 0; b = in.read()) {
+                format.append((char) b);
+            }
+            if (!format.toString().startsWith("JAVA PROFILE ")) {
+                throw new IOException("not an HPROF file: " + file);
+            }
+            idSize = in.readInt();
+            if (idSize != 4 && idSize != 8) {
+                throw new IOException("unsupported identifier size " + idSize);
+            }
+            in.readLong();
+            long position = format.length() + 1 + 4 + 8;
+            while (true) {
+                final int tag = in.read();
+                if (tag < 0) {
+                    break;
+                }
+                in.readInt();
+                final long length = in.readInt() & 0xFFFFFFFFL;
+                position += 9;
+                if (tag == STRING) {
+                    final long id = readId(in);
+                    final byte[] bytes = new byte[(int) length - idSize];
+                    in.readFully(bytes);
+                    strings.put(id, new String(bytes, "UTF-8"));
+                } else if (tag == LOAD_CLASS) {
+                    in.readInt();
+                    final long classId = readId(in);
+                    in.readInt();
+                    classNameIds.put(classId, readId(in));
+                } else {
+                    if (tag == HEAP_DUMP || tag == HEAP_DUMP_SEGMENT) {
+                        segments.add(new Segment(position, length));
+                    }
+                    skipFully(in, length);
+                }
+                position += length;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private long readId(DataInputStream in) throws IOException {
+        return idSize == 8 ? in.readLong() : in.readInt() & 0xFFFFFFFFL;
+    }
+
+    private static void skipFully(DataInputStream in, long n) throws IOException {
+        long remaining = n;
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private <T> List<T> runAll(List<Callable<T>> tasks) throws Exception {
+        final List<T> results = new ArrayList<T>(tasks.size());
+        for (Future<T> future : executor.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * First pass: collects the identifiers of all objects and classes, the class layouts and the roots.
+     *
+     * @return the identifiers of the roots
+     */
+    private long[] collect() throws Exception {
+        final List<Callable<LongList[]>> tasks = new ArrayList<Callable<LongList[]>>();
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            for (final Segment segment : segments) {
+                segment.map(raf.getChannel());
+                tasks.add(new Callable<LongList[]>() {
+                    public LongList[] call() {
+                        return segment.collect();
+                    }
+                });
+            }
+            final List<LongList[]> results = runAll(tasks);
+
+            int count = 0;
+            int rootCount = 0;
+            for (LongList[] result : results) {
+                count += result[0].size;
+                rootCount += result[1].size;
+            }
+            final long[] all = new long[count];
+            final long[] roots = new long[rootCount];
+            count = 0;
+            rootCount = 0;
+            for (LongList[] result : results) {
+                count = result[0].copyTo(all, count);
+                rootCount = result[1].copyTo(roots, rootCount);
+            }
+            Arrays.sort(all);
+            int unique = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (i == 0 || all[i] != all[i - 1]) {
+                    all[unique++] = all[i];
+                }
+            }
+            ids = Arrays.copyOf(all, unique);
+            root = ids.length;
+
+            int slot = 0;
+            classBySlot = new ClassInfo[classes.size()];
+            for (ClassInfo classInfo : classes.values()) {
+                classInfo.slot = slot;
+                classBySlot[slot++] = classInfo;
+                final Long nameId = classNameIds.get(classInfo.id);
+                final String name = nameId == null ? null : strings.get(nameId);
+                classInfo.name = name == null ? "0x" + Long.toHexString(classInfo.id) : name.replace('/', '.');
+            }
+            for (ClassInfo classInfo : classes.values()) {
+                classInfo.layout(classes);
+            }
+            return roots;
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Second pass: records the class and shallow size of each node and builds the reference graph.
+     */
+    private void buildGraph(long[] roots) throws Exception {
+        final int nodes = ids.length + 1;
+        shallow = new long[nodes];
+        classSlot = new int[nodes];
+        Arrays.fill(classSlot, -1);
+        final List<Callable<IntList[]>> tasks = new ArrayList<Callable<IntList[]>>();
+        for (final Segment segment : segments) {
+            tasks.add(new Callable<IntList[]>() {
+                public IntList[] call() {
+                    return segment.edges();
+                }
+            });
+        }
+        final List<IntList[]> results = runAll(tasks);
+
+        final IntList rootTargets = new IntList(1 << 10);
+        final BitSet seen = new BitSet(nodes);
+        for (long id : roots) {
+            final int node = Arrays.binarySearch(ids, id);
+            if (node >= 0 && !seen.get(node)) {
+                seen.set(node);
+                rootTargets.add(node);
+            }
+        }
+        final int[] degree = new int[nodes];
+        for (IntList[] result : results) {
+            final IntList sources = result[0];
+            final IntList degrees = result[1];
+            for (int i = 0; i < sources.size; i++) {
+                degree[sources.values[i]] += degrees.values[i];
+            }
+        }
+        degree[root] = rootTargets.size;
+        edgeOffsets = new int[nodes + 1];
+        for (int node = 0; node < nodes; node++) {
+            edgeOffsets[node + 1] = edgeOffsets[node] + degree[node];
+        }
+        edgeTargets = new int[edgeOffsets[nodes]];
+        System.arraycopy(rootTargets.values, 0, edgeTargets, edgeOffsets[root], rootTargets.size);
+
+        // A class dumped twice contributes its edges twice; the fill pointers keep the copies disjoint.
+        final int[] fill = Arrays.copyOf(edgeOffsets, nodes);
+        final List<Callable<Void>> copies = new ArrayList<Callable<Void>>();
+        for (final IntList[] result : results) {
+            final int[] start = new int[result[0].size];
+            for (int i = 0; i < start.length; i++) {
+                final int node = result[0].values[i];
+                start[i] = fill[node];
+                fill[node] += result[1].values[i];
+            }
+            copies.add(new Callable<Void>() {
+                public Void call() {
+                    final IntList targets = result[2];
+                    int t = 0;
+                    for (int i = 0; i < start.length; i++) {
+                        final int n = result[1].values[i];
+                        System.arraycopy(targets.values, t, edgeTargets, start[i], n);
+                        t += n;
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(copies);
+    }
+
+    private void printHistogram(PrintStream out, int top) throws Exception {
+        final int slots = classBySlot.length;
+        final int nodes = ids.length;
+        final int threads = Math.max(1, THREADS.getValue());
+        final int chunk = (nodes + threads - 1) / threads;
+        final List<Callable<long[][]>> tasks = new ArrayList<Callable<long[][]>>();
+        for (int start = 0; start < nodes; start += chunk) {
+            final int from = start;
+            final int to = Math.min(nodes, start + chunk);
+            tasks.add(new Callable<long[][]>() {
+                public long[][] call() {
+                    final long[] counts = new long[slots];
+                    final long[] bytes = new long[slots];
+                    for (int node = from; node < to; node++) {
+                        final int slot = classSlot[node];
+                        if (slot >= 0) {
+                            counts[slot]++;
+                            bytes[slot] += shallow[node];
+                        }
+                    }
+                    return new long[][] {counts, bytes};
+                }
+            });
+        }
+        final long[] counts = new long[slots];
+        final long[] bytes = new long[slots];
+        for (long[][] partial : runAll(tasks)) {
+            for (int slot = 0; slot < slots; slot++) {
+                counts[slot] += partial[0][slot];
+                bytes[slot] += partial[1][slot];
+            }
+        }
+        final Integer[] order = new Integer[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            order[slot] = slot;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Long.compare(bytes[b], bytes[a]);
+            }
+        });
+        out.println();
+        out.println("Class histogram (by shallow size):");
+        out.printf("%12s %14s  %s%n", "instances", "bytes", "class");
+        for (int i = 0; i < Math.min(top, slots) && counts[order[i]] > 0; i++) {
+            final int slot = order[i];
+            out.printf("%12d %14d  %s%n", counts[slot], bytes[slot], classBySlot[slot].name);
+        }
+    }
+
+    private void printLargestRetained(PrintStream out, int top, Dominators dominators, final long[] retained) {
+        final PriorityQueue<Integer> largest = new PriorityQueue<Integer>(top + 1, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Long.compare(retained[a], retained[b]);
+            }
+        });
+        for (int node = 0; node < ids.length; node++) {
+            if (dominators.isReachable(node)) {
+                largest.add(node);
+                if (largest.size() > top) {
+                    largest.poll();
+                }
+            }
+        }
+        final List<Integer> nodes = new ArrayList<Integer>(largest);
+        Collections.sort(nodes, largest.comparator());
+        Collections.reverse(nodes);
+        out.println();
+        out.println("Largest retained sizes:");
+        out.printf("%14s %12s  %s%n", "retained", "shallow", "object");
+        for (int node : nodes) {
+            out.printf("%14d %12d  %s%n", retained[node], shallow[node], describe(node));
+        }
+    }
+
+    private String describe(int node) {
+        final String address = "0x" + Long.toHexString(ids[node]);
+        final int slot = classSlot[node];
+        if (slot >= 0) {
+            return classBySlot[slot].name + "@" + address;
+        }
+        final ClassInfo classInfo = classes.get(ids[node]);
+        return classInfo != null ? "class " + classInfo.name : address;
+    }
+
+    static int typeSize(int type, int idSize) {
+        switch (type) {
+            case T_OBJECT: return idSize;
+            case 4:
+            case 8: return 1;
+            case 5:
+            case 9: return 2;
+            case 6:
+            case 10: return 4;
+            case 7:
+            case 11: return 8;
+            default:
+                throw new IllegalArgumentException("invalid basic type " + type);
+        }
+    }
+
+    /**
+     * A class layout as described by its class dump record.
+     */
+    static final class ClassInfo {
+        final long id;
+        final long superId;
+        final int instanceSize;
+        final byte[] fieldTypes;
+        final long[] references;
+        int slot;
+        String name;
+
+        /**
+         * The types of the values in an instance dump of this class: its own fields followed by those of its superclasses.
+         */
+        byte[] instanceLayout;
+
+        ClassInfo(long id, long superId, int instanceSize, byte[] fieldTypes, long[] references) {
+            this.id = id;
+            this.superId = superId;
+            this.instanceSize = instanceSize;
+            this.fieldTypes = fieldTypes;
+            this.references = references;
+        }
+
+        void layout(Map<Long, ClassInfo> classes) {
+            int length = 0;
+            for (ClassInfo c = this; c != null; c = classes.get(c.superId)) {
+                length += c.fieldTypes.length;
+            }
+            instanceLayout = new byte[length];
+            int i = 0;
+            for (ClassInfo c = this; c != null; c = classes.get(c.superId)) {
+                System.arraycopy(c.fieldTypes, 0, instanceLayout, i, c.fieldTypes.length);
+                i += c.fieldTypes.length;
+            }
+        }
+    }
+
+    /**
+     * A heap dump (segment) record, parsed independently of the others.
+     */
+    final class Segment {
+        final long position;
+        final long length;
+        ByteBuffer buffer;
+
+        Segment(long position, long length) {
+            this.position = position;
+            this.length = length;
+        }
+
+        void map(FileChannel channel) throws IOException {
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("heap dump segment at " + position + " is too large: " + length);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        private long id(ByteBuffer b) {
+            return idSize == 8 ? b.getLong() : b.getInt() & 0xFFFFFFFFL;
+        }
+
+        private void skip(ByteBuffer b, int n) {
+            b.position(b.position() + n);
+        }
+
+        /**
+         * Parses a class dump, registering the class on the first pass.
+         */
+        private ClassInfo classDump(ByteBuffer b, boolean register) {
+            final long id = id(b);
+            b.getInt();
+            final long superId = id(b);
+            final long loaderId = id(b);
+            skip(b, 4 * idSize);
+            final int instanceSize = b.getInt();
+            final int constants = b.getShort() & 0xFFFF;
+            for (int i = 0; i < constants; i++) {
+                b.getShort();
+                skip(b, typeSize(b.get(), idSize));
+            }
+            final LongList references = new LongList(8);
+            references.add(loaderId);
+            final int statics = b.getShort() & 0xFFFF;
+            for (int i = 0; i < statics; i++) {
+                id(b);
+                final int type = b.get();
+                if (type == T_OBJECT) {
+                    references.add(id(b));
+                } else {
+                    skip(b, typeSize(type, idSize));
+                }
+            }
+            final int fields = b.getShort() & 0xFFFF;
+            final byte[] fieldTypes = new byte[fields];
+            for (int i = 0; i < fields; i++) {
+                id(b);
+                fieldTypes[i] = b.get();
+            }
+            final ClassInfo classInfo = new ClassInfo(id, superId, instanceSize, fieldTypes, references.toArray());
+            if (register) {
+                classes.putIfAbsent(id, classInfo);
+            }
+            return classInfo;
+        }
+
+        /**
+         * First pass over the segment.
+         *
+         * @return the identifiers of the objects and classes, and those of the roots
+         */
+        LongList[] collect() {
+            final ByteBuffer b = buffer.duplicate();
+            final LongList objects = new LongList(1 << 16);
+            final LongList roots = new LongList(1 << 10);
+            while (b.hasRemaining()) {
+                final int tag = b.get() & 0xFF;
+                switch (tag) {
+                    case ROOT_UNKNOWN:
+                    case ROOT_STICKY_CLASS:
+                    case ROOT_MONITOR_USED:
+                        roots.add(id(b));
+                        break;
+                    case ROOT_JNI_GLOBAL:
+                        roots.add(id(b));
+                        id(b);
+                        break;
+                    case ROOT_NATIVE_STACK:
+                    case ROOT_THREAD_BLOCK:
+                        roots.add(id(b));
+                        b.getInt();
+                        break;
+                    case ROOT_JNI_LOCAL:
+                    case ROOT_JAVA_FRAME:
+                    case ROOT_THREAD_OBJECT:
+                        roots.add(id(b));
+                        b.getInt();
+                        b.getInt();
+                        break;
+                    case CLASS_DUMP:
+                        objects.add(classDump(b, true).id);
+                        break;
+                    case INSTANCE_DUMP:
+                        objects.add(id(b));
+                        b.getInt();
+                        id(b);
+                        skip(b, b.getInt());
+                        break;
+                    case OBJ_ARRAY_DUMP: {
+                        objects.add(id(b));
+                        b.getInt();
+                        final int length = b.getInt();
+                        id(b);
+                        skip(b, length * idSize);
+                        break;
+                    }
+                    case PRIM_ARRAY_DUMP: {
+                        objects.add(id(b));
+                        b.getInt();
+                        final int length = b.getInt();
+                        skip(b, length * typeSize(b.get(), idSize));
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException("unknown heap dump sub-record 0x" + Integer.toHexString(tag) + " at " + (position + b.position() - 1));
+                }
+            }
+            return new LongList[] {objects, roots};
+        }
+
+        private void edge(long id, IntList targets) {
+            if (id != 0) {
+                final int target = Arrays.binarySearch(ids, id);
+                if (target >= 0) {
+                    targets.add(target);
+                }
+            }
+        }
+
+        /**
+         * Second pass over the segment.
+         *
+         * @return the source nodes, their number of edges and the edge targets in source order
+         */
+        IntList[] edges() {
+            final ByteBuffer b = buffer.duplicate();
+            final IntList sources = new IntList(1 << 16);
+            final IntList degrees = new IntList(1 << 16);
+            final IntList targets = new IntList(1 << 18);
+            while (b.hasRemaining()) {
+                final int tag = b.get() & 0xFF;
+                final int before = targets.size;
+                int source = -1;
+                switch (tag) {
+                    case ROOT_UNKNOWN:
+                    case ROOT_STICKY_CLASS:
+                    case ROOT_MONITOR_USED:
+                        skip(b, idSize);
+                        break;
+                    case ROOT_JNI_GLOBAL:
+                        skip(b, 2 * idSize);
+                        break;
+                    case ROOT_NATIVE_STACK:
+                    case ROOT_THREAD_BLOCK:
+                        skip(b, idSize + 4);
+                        break;
+                    case ROOT_JNI_LOCAL:
+                    case ROOT_JAVA_FRAME:
+                    case ROOT_THREAD_OBJECT:
+                        skip(b, idSize + 8);
+                        break;
+                    case CLASS_DUMP: {
+                        final ClassInfo classInfo = classDump(b, false);
+                        source = Arrays.binarySearch(ids, classInfo.id);
+                        edge(classInfo.superId, targets);
+                        for (long id : classInfo.references) {
+                            edge(id, targets);
+                        }
+                        break;
+                    }
+                    case INSTANCE_DUMP: {
+                        source = Arrays.binarySearch(ids, id(b));
+                        b.getInt();
+                        final ClassInfo classInfo = classes.get(id(b));
+                        final int length = b.getInt();
+                        final int end = b.position() + length;
+                        edge(classInfo == null ? 0 : classInfo.id, targets);
+                        if (classInfo != null) {
+                            classSlot[source] = classInfo.slot;
+                            shallow[source] = classInfo.instanceSize > 0 ? classInfo.instanceSize : ARRAY_HEADER_SIZE + length;
+                            for (byte type : classInfo.instanceLayout) {
+                                if (type == T_OBJECT) {
+                                    edge(id(b), targets);
+                                } else {
+                                    skip(b, typeSize(type, idSize));
+                                }
+                            }
+                        }
+                        b.position(end);
+                        break;
+                    }
+                    case OBJ_ARRAY_DUMP: {
+                        source = Arrays.binarySearch(ids, id(b));
+                        b.getInt();
+                        final int length = b.getInt();
+                        final ClassInfo classInfo = classes.get(id(b));
+                        if (classInfo != null) {
+                            classSlot[source] = classInfo.slot;
+                            edge(classInfo.id, targets);
+                        }
+                        shallow[source] = ARRAY_HEADER_SIZE + (long) length * idSize;
+                        for (int i = 0; i < length; i++) {
+                            edge(id(b), targets);
+                        }
+                        break;
+                    }
+                    case PRIM_ARRAY_DUMP: {
+                        source = Arrays.binarySearch(ids, id(b));
+                        b.getInt();
+                        final int length = b.getInt();
+                        final int type = b.get();
+                        final ClassInfo classInfo = primitiveArrayClass(type);
+                        if (classInfo != null) {
+                            classSlot[source] = classInfo.slot;
+                        }
+                        shallow[source] = ARRAY_HEADER_SIZE + (long) length * typeSize(type, idSize);
+                        skip(b, length * typeSize(type, idSize));
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException("unknown heap dump sub-record 0x" + Integer.toHexString(tag) + " at " + (position + b.position() - 1));
+                }
+                if (source >= 0) {
+                    sources.add(source);
+                    degrees.add(targets.size - before);
+                }
+            }
+            return new IntList[] {sources, degrees, targets};
+        }
+    }
+
+    private static final String[] PRIMITIVE_ARRAY_NAMES = {
+        null, null, null, null, "boolean[]", "char[]", "float[]", "double[]", "byte[]", "short[]", "int[]", "long[]"
+    };
+
+    private volatile Map<Integer, ClassInfo> primitiveArrayClasses;
+
+    /**
+     * Primitive array records do not name their class; it is found by name.
+     */
+    ClassInfo primitiveArrayClass(int type) {
+        Map<Integer, ClassInfo> map = primitiveArrayClasses;
+        if (map == null) {
+            synchronized (this) {
+                map = primitiveArrayClasses;
+                if (map == null) {
+                    map = new HashMap<Integer, ClassInfo>();
+                    for (ClassInfo classInfo : classBySlot) {
+                        for (int t = 4; t < PRIMITIVE_ARRAY_NAMES.length; t++) {
+                            final String descriptor = "[" + "ZCFDBSIJ".charAt(t - 4);
+                            if (classInfo.name.equals(descriptor) || classInfo.name.equals(PRIMITIVE_ARRAY_NAMES[t])) {
+                                map.put(t, classInfo);
+                            }
+                        }
+                    }
+                    primitiveArrayClasses = map;
+                }
+            }
+        }
+        return map.get(type);
+    }
+
+    /**
+     * Dominator tree of a graph in compressed sparse row form, computed with the Lengauer-Tarjan algorithm
+     * (the simple version with path compression). All per-vertex arrays are indexed by depth-first number.
+     */
+    static final class Dominators {
+        private final int[] dfn;
+        private final int[] vertex;
+        private final int[] idom;
+        private final int count;
+
+        Dominators(int nodes, int[] offsets, int[] targets, int root) {
+            dfn = new int[nodes];
+            Arrays.fill(dfn, -1);
+            vertex = new int[nodes];
+            final int[] parent = new int[nodes];
+
+            // iterative depth-first search
+            final int[] stack = new int[nodes];
+            final int[] next = new int[nodes];
+            int n = 0;
+            int sp = 0;
+            dfn[root] = n;
+            vertex[n++] = root;
+            parent[0] = -1;
+            stack[sp++] = root;
+            next[root] = offsets[root];
+            while (sp > 0) {
+                final int v = stack[sp - 1];
+                if (next[v] == offsets[v + 1]) {
+                    sp--;
+                    continue;
+                }
+                final int w = targets[next[v]++];
+                if (dfn[w] < 0) {
+                    dfn[w] = n;
+                    vertex[n] = w;
+                    parent[n] = dfn[v];
+                    n++;
+                    next[w] = offsets[w];
+                    stack[sp++] = w;
+                }
+            }
+            count = n;
+
+            // predecessors of the reachable vertices, by depth-first number
+            final int[] predOffsets = new int[count + 1];
+            for (int d = 0; d < count; d++) {
+                final int v = vertex[d];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    predOffsets[dfn[targets[e]] + 1]++;
+                }
+            }
+            for (int d = 0; d < count; d++) {
+                predOffsets[d + 1] += predOffsets[d];
+            }
+            final int[] preds = new int[predOffsets[count]];
+            final int[] fill = Arrays.copyOf(predOffsets, count);
+            for (int d = 0; d < count; d++) {
+                final int v = vertex[d];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    preds[fill[dfn[targets[e]]]++] = d;
+                }
+            }
+
+            final int[] semi = new int[count];
+            final int[] label = new int[count];
+            final int[] ancestor = new int[count];
+            final int[] bucketHead = new int[count];
+            final int[] bucketNext = new int[count];
+            idom = new int[count];
+            for (int d = 0; d < count; d++) {
+                semi[d] = d;
+                label[d] = d;
+                ancestor[d] = -1;
+                bucketHead[d] = -1;
+            }
+            for (int w = count - 1; w > 0; w--) {
+                for (int p = predOffsets[w]; p < predOffsets[w + 1]; p++) {
+                    final int u = eval(preds[p], ancestor, label, semi, stack);
+                    if (semi[u] < semi[w]) {
+                        semi[w] = semi[u];
+                    }
+                }
+                bucketNext[w] = bucketHead[semi[w]];
+                bucketHead[semi[w]] = w;
+                ancestor[w] = parent[w];
+                final int p = parent[w];
+                for (int v = bucketHead[p]; v >= 0; v = bucketNext[v]) {
+                    final int u = eval(v, ancestor, label, semi, stack);
+                    idom[v] = semi[u] < semi[v] ? u : p;
+                }
+                bucketHead[p] = -1;
+            }
+            for (int w = 1; w < count; w++) {
+                if (idom[w] != semi[w]) {
+                    idom[w] = idom[idom[w]];
+                }
+            }
+            idom[0] = -1;
+        }
+
+        private static int eval(int v, int[] ancestor, int[] label, int[] semi, int[] stack) {
+            if (ancestor[v] < 0) {
+                return v;
+            }
+            // compress the ancestor path of v, deepest first
+            int sp = 0;
+            for (int x = v; ancestor[ancestor[x]] >= 0; x = ancestor[x]) {
+                stack[sp++] = x;
+            }
+            while (sp > 0) {
+                final int x = stack[--sp];
+                final int a = ancestor[x];
+                if (semi[label[a]] < semi[label[x]]) {
+                    label[x] = label[a];
+                }
+                ancestor[x] = ancestor[a];
+            }
+            return label[v];
+        }
+
+        boolean isReachable(int node) {
+            return dfn[node] >= 0;
+        }
+
+        /**
+         * Computes the retained size of every reachable node: its shallow size plus that of all nodes it dominates.
+         */
+        long[] retainedSizes(long[] shallow) {
+            final long[] byDfn = new long[count];
+            for (int d = 0; d < count; d++) {
+                byDfn[d] = shallow[vertex[d]];
+            }
+            // a dominator always has a smaller depth-first number than the nodes it dominates
+            for (int d = count - 1; d > 0; d--) {
+                byDfn[idom[d]] += byDfn[d];
+            }
+            final long[] retained = new long[shallow.length];
+            for (int d = 0; d < count; d++) {
+                retained[vertex[d]] = byDfn[d];
+            }
+            return retained;
+        }
+    }
+
+    static final class LongList {
+        long[] values;
+        int size;
+
+        LongList(int capacity) {
+            values = new long[capacity];
+        }
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int copyTo(long[] destination, int position) {
+            System.arraycopy(values, 0, destination, position, size);
+            return position + size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    static final class IntList {
+        int[] values;
+        int size;
+
+        IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
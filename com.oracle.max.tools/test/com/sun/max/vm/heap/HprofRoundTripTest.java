@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap;
+
+import static com.sun.max.vm.heap.HprofWriter.*;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.oracle.max.tools.heap.*;
+
+/**
+ * Writes a small object graph with {@link HprofWriter} and checks what {@link HeapDumpAnalyzer} reports for it
+ * against values computed by hand:
+ * <pre>
+ *   roots:   array, the classes
+ *   array:   Object[2], 16 + 2 * 8 = 32 bytes, refers to a1 and a2
+ *   a1:      Node, 24 bytes, refers to a3 and data
+ *   a2:      Node, 24 bytes, refers to a3
+ *   a3:      Node, 24 bytes
+ *   data:    int[4], 16 + 4 * 4 = 32 bytes
+ *   garbage: Node, 24 bytes, refers to a3 but is unreachable
+ * </pre>
+ * As a3 is reachable through both a1 and a2, it is dominated by the array and only data is retained by a1.
+ */
+public class HprofRoundTripTest extends TestCase {
+
+    private static final long NODE = 0x100;
+    private static final long OBJECT_ARRAY = 0x200;
+    private static final long INT_ARRAY = 0x300;
+
+    private static final long NODE_NAME = 0x10;
+    private static final long OBJECT_ARRAY_NAME = 0x20;
+    private static final long INT_ARRAY_NAME = 0x30;
+    private static final long NEXT_NAME = 0x40;
+    private static final long DATA_NAME = 0x50;
+
+    private static final long ARRAY = 0x1000;
+    private static final long A1 = 0x2000;
+    private static final long A2 = 0x3000;
+    private static final long A3 = 0x4000;
+    private static final long DATA = 0x5000;
+    private static final long GARBAGE = 0x6000;
+
+    public HprofRoundTripTest(String name) {
+        super(name);
+    }
+
+    private static void loadClass(HprofWriter w, int serial, long classId, long nameId) {
+        w.beginRecord(LOAD_CLASS, 4 + ID_SIZE + 4 + ID_SIZE);
+        w.u4(serial);
+        w.u8(classId);
+        w.u4(1);
+        w.u8(nameId);
+    }
+
+    private static void classDump(HprofWriter w, long classId, int instanceSize, long... fieldNames) {
+        w.u1(CLASS_DUMP);
+        w.u8(classId);
+        w.u4(1);
+        w.u8(0L); // superclass
+        w.u8(0L); // class loader
+        w.u8(0L); // signers
+        w.u8(0L); // protection domain
+        w.u8(0L); // reserved
+        w.u8(0L); // reserved
+        w.u4(instanceSize);
+        w.u2(0); // constant pool
+        w.u2(0); // static fields
+        w.u2(fieldNames.length);
+        for (long fieldName : fieldNames) {
+            w.u8(fieldName);
+            w.u1(T_OBJECT);
+        }
+    }
+
+    private static void node(HprofWriter w, long id, long next, long data) {
+        w.u1(INSTANCE_DUMP);
+        w.u8(id);
+        w.u4(1);
+        w.u8(NODE);
+        w.u4(2 * ID_SIZE);
+        w.u8(next);
+        w.u8(data);
+    }
+
+    private static void write(File file) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            // a small buffer, so that segment lengths are patched after their start has been flushed
+            final HprofWriter w = new HprofWriter(out.getChannel(), 64);
+            w.header(0L);
+            w.string(NODE_NAME, "Node", 0, 4);
+            w.string(OBJECT_ARRAY_NAME, "[Ljava/lang/Object;", 0, 19);
+            w.string(INT_ARRAY_NAME, "[I", 0, 2);
+            w.string(NEXT_NAME, "next", 0, 4);
+            w.string(DATA_NAME, "data", 0, 4);
+            loadClass(w, 1, NODE, NODE_NAME);
+            loadClass(w, 2, OBJECT_ARRAY, OBJECT_ARRAY_NAME);
+            loadClass(w, 3, INT_ARRAY, INT_ARRAY_NAME);
+
+            w.beginSegment();
+            classDump(w, NODE, 24, NEXT_NAME, DATA_NAME);
+            classDump(w, OBJECT_ARRAY, 0);
+            classDump(w, INT_ARRAY, 0);
+            for (long classId : new long[] {NODE, OBJECT_ARRAY, INT_ARRAY}) {
+                w.u1(ROOT_STICKY_CLASS);
+                w.u8(classId);
+            }
+            w.u1(ROOT_UNKNOWN);
+            w.u8(ARRAY);
+            w.endSegment();
+
+            w.beginSegment();
+            w.u1(OBJ_ARRAY_DUMP);
+            w.u8(ARRAY);
+            w.u4(1);
+            w.u4(2);
+            w.u8(OBJECT_ARRAY);
+            w.u8(A1);
+            w.u8(A2);
+            node(w, A1, A3, DATA);
+            node(w, A2, A3, 0L);
+            node(w, A3, 0L, 0L);
+            node(w, GARBAGE, A3, 0L);
+            w.u1(PRIM_ARRAY_DUMP);
+            w.u8(DATA);
+            w.u4(1);
+            w.u4(4);
+            w.u1(T_INT);
+            for (int i = 0; i < 4; i++) {
+                w.u4(i);
+            }
+            w.end();
+            if (w.failed()) {
+                throw w.error();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Runs the analyzer on a file and returns its output lines with runs of spaces collapsed.
+     */
+    private static List<String> analyze(File file) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final PrintStream out = System.out;
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            HeapDumpAnalyzer.main(new String[] {file.getPath()});
+        } finally {
+            System.setOut(out);
+        }
+        final List<String> lines = new ArrayList<String>();
+        for (String line : bytes.toString().split("\\r?\\n")) {
+            lines.add(line.trim().replaceAll(" +", " "));
+        }
+        return lines;
+    }
+
+    public void test_roundTrip() throws Exception {
+        final File file = File.createTempFile("HprofRoundTripTest", ".hprof");
+        try {
+            write(file);
+            final List<String> lines = analyze(file);
+            assertTrue(lines.toString(), lines.get(0).endsWith(": 6 objects, 3 classes, 15 references, 4 roots"));
+
+            // histogram: instances, bytes, class
+            assertTrue(lines.contains("4 96 Node"));
+            assertTrue(lines.contains("1 32 [Ljava.lang.Object;"));
+            assertTrue(lines.contains("1 32 [I"));
+
+            // retained sizes: retained, shallow, object
+            assertTrue(lines.contains("136 32 [Ljava.lang.Object;@0x1000"));
+            assertTrue(lines.contains("56 24 Node@0x2000"));
+            assertTrue(lines.contains("24 24 Node@0x3000"));
+            assertTrue(lines.contains("24 24 Node@0x4000"));
+            assertTrue(lines.contains("32 32 [I@0x5000"));
+            for (String line : lines) {
+                assertFalse(line, line.endsWith("@0x6000"));
+            }
+
+            assertEquals("Unreachable: 1 objects, 24 bytes", lines.get(lines.size() - 1));
+        } finally {
+            file.delete();
+        }
+    }
+}
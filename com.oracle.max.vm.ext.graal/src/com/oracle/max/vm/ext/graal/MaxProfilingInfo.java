@@ -76,15 +76,19 @@ public class MaxProfilingInfo implements ProfilingInfo {
         for (int i = 0; i < typesNum; i++) {
             Integer typeId = typeProfile[i * 2];
             Integer typeCount = typeProfile[i * 2  + 1];
-            if (typeId == MethodProfile.UNDEFINED_TYPE_ID) {
-                anonymousRecordedTypeProbability = typeCount / totalCount.doubleValue();
+            ClassActor classActor = typeId == MethodProfile.UNDEFINED_TYPE_ID ? null : ClassIDManager.toClassActor(typeId);
+            if (classActor == null) {
+                // anonymous, or a class that has been unloaded since it was profiled
+                anonymousRecordedTypeProbability += typeCount / totalCount.doubleValue();
             } else {
-                ClassActor classActor = ClassIDManager.toClassActor(typeId);
                 ResolvedJavaType javaType = MaxResolvedJavaType.get(classActor);
                 profiledTypes[j] = new JavaTypeProfile.ProfiledType(javaType, typeCount / totalCount.doubleValue());
                 j++;
             }
         }
+        if (j < profiledTypes.length) {
+            profiledTypes = Arrays.copyOf(profiledTypes, j);
+        }
         Arrays.sort(profiledTypes);
         return new JavaTypeProfile(nullSeen, anonymousRecordedTypeProbability, profiledTypes);
     }
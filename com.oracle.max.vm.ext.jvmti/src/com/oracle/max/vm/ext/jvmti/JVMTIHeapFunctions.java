@@ -155,7 +155,7 @@ public class JVMTIHeapFunctions {
                                     userData);
                     long newTag = tagPtr.getLong();
                     if (newTag != tag) {
-                        env.tags.setTag(object, newTag);
+                        env.tags.setLongTagAtSafepoint(object, newTag);
                     }
                     return flags;
                 }
@@ -218,7 +218,17 @@ public class JVMTIHeapFunctions {
             // TODO revisit this when Maxine addresses VM and application heap separation
             try {
                 Heap.enableImmortalMemoryAllocation();
-                vmConfig().heapScheme().walkHeap(cbcv);
+                // An object that passes the tagged filter is in the tag table, so there is no need to walk the heap.
+                final int tagged = (cbcv.heapFilter & JVMTI_HEAP_FILTER_UNTAGGED) != 0 ? cbcv.env.tags.snapshotTagged() : -1;
+                if (tagged >= 0) {
+                    for (int i = 0; i < tagged; i++) {
+                        if (!cbcv.callback(cbcv.env.tags.snapshotObject(i))) {
+                            break;
+                        }
+                    }
+                } else {
+                    vmConfig().heapScheme().walkHeap(cbcv);
+                }
             } finally {
                 Heap.disableImmortalMemoryAllocation();
             }
@@ -22,251 +22,354 @@
  */
 package com.oracle.max.vm.ext.jvmti;
 
-import java.lang.ref.*;
-import java.util.*;
-
 import static com.oracle.max.vm.ext.jvmti.JVMTIConstants.*;
 
+import com.sun.max.lang.*;
 import com.sun.max.memory.*;
 import com.sun.max.unsafe.*;
+import com.sun.max.vm.heap.*;
 import com.sun.max.vm.jni.*;
+import com.sun.max.vm.reference.*;
+import com.sun.max.vm.runtime.*;
 
 /**
- * JVMTI object tagging support. The tag map is allocated lazily. We cannot use a standard {@link WeakHashMap} because
- * that invokes the class-specific {@link Object#hashCode()} method, which can have all kinds of inappropriate side
- * effects. Plus we only need a handful of the standard {@link Map} methods.
+ * JVMTI object tagging support. The tag table is allocated lazily. We cannot use a standard {@link java.util.WeakHashMap}
+ * because that invokes the class-specific {@link Object#hashCode()} method, which can have all kinds of inappropriate side
+ * effects, and allocates a {@link java.lang.ref.WeakReference} per entry that every GC must then process.
  *
- * We support {@link Object} (for JJVMTI) and {@code long} values, not via {@link Long} to avoid unnecessary allocation.
+ * Instead, tags are kept in an open-addressing table keyed by object address, with the identity hash code to place
+ * the entries, so the table holds no references that the GC traces. The GC updates the keys directly, as
+ * {@linkplain SpecialReferenceManager.WeakRoots weak roots}: entries of unreachable objects are deleted and those of
+ * moved objects are given the new address. As a key is only valid until the next GC, the table is only probed and
+ * modified with safepoints disabled, and anything that may allocate is done beforehand.
  *
+ * We support {@link Object} (for JJVMTI) and {@code long} values, not via {@link Long} to avoid unnecessary allocation.
+ * The value 0 (or {@code null}) is not stored, and means that an object is not tagged.
  */
-class JVMTITags {
+class JVMTITags implements SpecialReferenceManager.WeakRoots {
+
+    private static final long EMPTY = 0;
 
     /**
-     * A cut down and modified version of {@link WeakHashMap}.
-     * The value 0 is not allowed, and used to mean lookup failure.
+     * Marks the slot of a deleted entry, which must not end a probe sequence. Never a valid object address.
      */
-    static class Map {
-        static abstract class Entry extends WeakReference<Object> {
-            final int hash;
-            Entry next;
-
-            Entry(Object object, int hash, Entry next) {
-                super(object);
-                this.hash = hash;
-                this.next = next;
-            }
+    private static final long DELETED = 1;
 
-        }
+    private static final int INITIAL_CAPACITY = 64;
 
-        static class LongEntry extends Entry {
-            long value;
-            LongEntry(Object object, long value, int hash, Entry next) {
-                super(object, hash, next);
-                this.value = value;
-            }
+    private long[] keys;
+    private int[] hashes;
+    private long[] longTags;
+    private Object[] objectTags;
 
-        }
+    /**
+     * Number of live entries.
+     */
+    private int size;
 
-        static class ObjectEntry extends Entry {
-            Object value;
-            ObjectEntry(Object object, Object value, int hash, Entry next) {
-                super(object, hash, next);
-                this.value = value;
-            }
-        }
+    /**
+     * Number of slots that are not {@link #EMPTY}.
+     */
+    private int used;
 
-        private static final int DEFAULT_INITIAL_CAPACITY = 16;
-        private static final int MAXIMUM_CAPACITY = 1 << 30;
-        private static final float DEFAULT_LOAD_FACTOR = 0.75f;
-        private int size;
-        private int threshold;
-        private final float loadFactor;
-        private Entry[] table;
-
-        private Entry[] getTable() {
-            // expungeStaleEntries(); TODO
-            return table;
-        }
+    private static int hash(Object object) {
+        final int h = System.identityHashCode(object) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long address(Object object) {
+        return Reference.fromJava(object).toOrigin().toLong();
+    }
 
-        Map(boolean isNative) {
-            this.loadFactor = DEFAULT_LOAD_FACTOR;
-            threshold = DEFAULT_INITIAL_CAPACITY;
+    private void checkTable(boolean isNative) {
+        if (keys == null) {
+            hashes = new int[INITIAL_CAPACITY];
             if (isNative) {
-                table = new LongEntry[DEFAULT_INITIAL_CAPACITY];
+                longTags = new long[INITIAL_CAPACITY];
             } else {
-                table = new ObjectEntry[DEFAULT_INITIAL_CAPACITY];
+                objectTags = new Object[INITIAL_CAPACITY];
             }
+            keys = new long[INITIAL_CAPACITY];
+            SpecialReferenceManager.registerWeakRoots(this);
         }
+    }
 
-        static int indexFor(int h, int length) {
-            return h & (length - 1);
-        }
-
-        void put(Object key, long value) {
-            LongEntry e = (LongEntry) putCommon(key, true);
-            e.value = value;
-        }
-
-        void put(Object key, Object value) {
-            ObjectEntry e = (ObjectEntry) putCommon(key, false);
-            e.value = value;
-        }
-
-        private Entry putCommon(Object key, boolean isNative) {
-            int h = System.identityHashCode(key);
-            Entry[] tab = getTable();
-            int i = indexFor(h, tab.length);
-
-            for (Entry e = tab[i]; e != null; e = e.next) {
-                if (h == e.hash && key == e.get()) {
-                    return e;
-                }
+    /**
+     * Gets the slot of the entry for a key, or -1. Must be called with safepoints disabled.
+     */
+    private int find(long key, int hash) {
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+        for (int i = hash & mask;; i = (i + 1) & mask) {
+            final long k = keys[i];
+            if (k == key) {
+                return i;
             }
-
-            Entry e = tab[i];
-            Entry ne = isNative ? new LongEntry(key, 0, h, e) : new ObjectEntry(key, null, h, e);
-            tab[i] = ne;
-            if (++size >= threshold) {
-                resize(tab.length * 2);
+            if (k == EMPTY) {
+                return -1;
             }
-            return ne;
         }
+    }
 
-        long getLong(Object key) {
-            LongEntry e = (LongEntry) getCommon(key);
-            return e == null ? 0 : e.value;
+    private int find(Object object) {
+        if (keys == null) {
+            return -1;
         }
+        return find(address(object), hash(object));
+    }
 
-        Object getObject(Object key) {
-            ObjectEntry e = (ObjectEntry) getCommon(key);
-            return e == null ? null : e.value;
+    /**
+     * Ensures there is room for one more entry, growing the table or purging deleted entries if needed.
+     * The new arrays are allocated with safepoints enabled. Tags can be changed at such a safepoint, so the
+     * table is checked again once safepoints are disabled to fill the arrays, and the allocation is retried
+     * if they no longer fit it. Returns with safepoints disabled, and whether they were disabled on entry.
+     */
+    private boolean ensureCapacity() {
+        while (true) {
+            boolean wasDisabled = SafepointPoll.disable();
+            final int length = keys.length;
+            if ((used + 1) * 4 <= length * 3) {
+                return wasDisabled;
+            }
+            int capacity = length;
+            while (size * 2 >= capacity) {
+                capacity *= 2;
+            }
+            if (!wasDisabled) {
+                SafepointPoll.enable();
+            }
+            final long[] newKeys = new long[capacity];
+            final int[] newHashes = new int[capacity];
+            final long[] newLongTags = longTags == null ? null : new long[capacity];
+            final Object[] newObjectTags = objectTags == null ? null : new Object[capacity];
+
+            wasDisabled = SafepointPoll.disable();
+            if (keys.length == length && size * 2 < capacity) {
+                rehash(newKeys, newHashes, newLongTags, newObjectTags);
+                return wasDisabled;
+            }
+            if (!wasDisabled) {
+                SafepointPoll.enable();
+            }
         }
+    }
 
-        private Entry getCommon(Object key) {
-            int h = System.identityHashCode(key);
-            Entry[] tab = getTable();
-            int index = indexFor(h, tab.length);
-            Entry e = tab[index];
-            while (e != null) {
-                if (e.hash == h && e.get() == key) {
-                    return e;
+    /**
+     * Moves the live entries into new arrays. Must be called with safepoints disabled.
+     */
+    private void rehash(long[] newKeys, int[] newHashes, long[] newLongTags, Object[] newObjectTags) {
+        final int mask = newKeys.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            final long key = keys[i];
+            if (key != EMPTY && key != DELETED) {
+                int j = hashes[i] & mask;
+                while (newKeys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                newKeys[j] = key;
+                newHashes[j] = hashes[i];
+                if (newLongTags != null) {
+                    newLongTags[j] = longTags[i];
+                } else {
+                    newObjectTags[j] = objectTags[i];
                 }
-                e = e.next;
             }
-            return null;
         }
+        keys = newKeys;
+        hashes = newHashes;
+        longTags = newLongTags;
+        objectTags = newObjectTags;
+        used = size;
+    }
 
-        public void remove(Object key) {
-            int h = System.identityHashCode(key);
-            Entry[] tab = getTable();
-            int i = indexFor(h, tab.length);
-            Entry prev = tab[i];
-            Entry e = prev;
-
-            while (e != null) {
-                Entry next = e.next;
-                if (h == e.hash && key == e.get()) {
-                    size--;
-                    if (prev == e) {
-                        tab[i] = next;
-                    } else {
-                        prev.next = next;
-                    }
-                    return;
+    private void put(Object object, long longTag, Object objectTag) {
+        final int hash = hash(object);
+        final boolean wasDisabled = ensureCapacity();
+        final long key = address(object);
+        final int mask = keys.length - 1;
+        int free = -1;
+        int slot = hash & mask;
+        while (true) {
+            final long k = keys[slot];
+            if (k == key) {
+                break;
+            }
+            if (k == DELETED && free < 0) {
+                free = slot;
+            } else if (k == EMPTY) {
+                if (free >= 0) {
+                    slot = free;
+                } else {
+                    used++;
                 }
-                prev = e;
-                e = next;
+                keys[slot] = key;
+                hashes[slot] = hash;
+                size++;
+                break;
             }
+            slot = (slot + 1) & mask;
+        }
+        if (longTags != null) {
+            longTags[slot] = longTag;
+        } else {
+            objectTags[slot] = objectTag;
+        }
+        if (!wasDisabled) {
+            SafepointPoll.enable();
         }
+    }
 
-        void resize(int newCapacity) {
-            Entry[] oldTable = getTable();
-            int oldCapacity = oldTable.length;
-            if (oldCapacity == MAXIMUM_CAPACITY) {
-                threshold = Integer.MAX_VALUE;
-                return;
-            }
+    private void remove(Object object) {
+        if (keys == null) {
+            return;
+        }
+        final int hash = hash(object);
+        final boolean wasDisabled = SafepointPoll.disable();
+        final int slot = find(address(object), hash);
+        if (slot >= 0) {
+            delete(slot);
+        }
+        if (!wasDisabled) {
+            SafepointPoll.enable();
+        }
+    }
 
-            Entry[] newTable = new Entry[newCapacity];
-            transfer(oldTable, newTable);
-            table = newTable;
-
-            /*
-             * If ignoring null elements and processing ref queue caused massive
-             * shrinkage, then restore old table.  This should be rare, but avoids
-             * unbounded expansion of garbage-filled tables.
-             */
-            if (size >= threshold / 2) {
-                threshold = (int) (newCapacity * loadFactor);
-            } else {
-                // expungeStaleEntries();
-                transfer(newTable, oldTable);
-                table = oldTable;
-            }
+    private void delete(int slot) {
+        keys[slot] = DELETED;
+        if (longTags != null) {
+            longTags[slot] = 0;
+        } else {
+            objectTags[slot] = null;
         }
+        size--;
+    }
 
-        private void transfer(Entry[] src, Entry[] dest) {
-            for (int j = 0; j < src.length; ++j) {
-                Entry e = src[j];
-                src[j] = null;
-                while (e != null) {
-                    Entry next = e.next;
-                    Object key = e.get();
-                    if (key == null) {
-                        e.next = null;  // Help GC
-                        size--;
-                    } else {
-                        int i = indexFor(e.hash, dest.length);
-                        e.next = dest[i];
-                        dest[i] = e;
-                    }
-                    e = next;
-                }
-            }
+    private long getLong(Object object) {
+        if (keys == null) {
+            return 0;
         }
+        final int hash = hash(object);
+        final boolean wasDisabled = SafepointPoll.disable();
+        final int slot = find(address(object), hash);
+        final long tag = slot < 0 ? 0 : longTags[slot];
+        if (!wasDisabled) {
+            SafepointPoll.enable();
+        }
+        return tag;
+    }
 
-        static abstract class Visitor {
-            abstract void visit(Entry e);
-            Object getResult() {
-                return null;
-            }
+    private Object getObject(Object object) {
+        if (keys == null) {
+            return null;
         }
+        final int hash = hash(object);
+        final boolean wasDisabled = SafepointPoll.disable();
+        final int slot = find(address(object), hash);
+        final Object tag = slot < 0 ? null : objectTags[slot];
+        if (!wasDisabled) {
+            SafepointPoll.enable();
+        }
+        return tag;
+    }
 
-        Visitor apply(Visitor visitor) {
-            for (int t = 0; t < table.length; t++) {
-                Map.Entry e = table[t];
-                while (e != null) {
-                    if (e.get() != null) {
-                        visitor.visit(e);
-                    }
-                    e = e.next;
+    public void processWeakRoots(SpecialReferenceManager.GC gc) {
+        final long[] keys = this.keys;
+        if (keys == null) {
+            return;
+        }
+        final boolean relocate = gc.mayRelocateLiveObjects();
+        for (int i = 0; i < keys.length; i++) {
+            final long key = keys[i];
+            if (key != EMPTY && key != DELETED) {
+                final Reference ref = Reference.fromOrigin(Pointer.fromLong(key));
+                if (!gc.isReachable(ref)) {
+                    delete(i);
+                } else if (relocate) {
+                    keys[i] = gc.preserve(ref).toOrigin().toLong();
                 }
             }
-            return visitor;
         }
-
     }
 
-    private Map tagMap;
-
     /*
-     * Next two functions are for use by JVMTIHeapFunctions, where no synchronization is necessary.
+     * The next functions are for use by JVMTIHeapFunctions, which runs in a VM operation with all mutators
+     * stopped and so needs no synchronization. A mutator is never stopped in the middle of a table update.
      */
 
     boolean isTagged(Object object) {
-        if (tagMap == null) {
-            return false;
-        } else {
-            return tagMap.getCommon(object) != null;
-        }
+        return find(object) >= 0;
     }
 
     long getLongTag(Object object) {
-        return checkMap(true).getLong(object);
+        return getLong(object);
     }
 
     Object getObjectTag(Object object) {
-        return checkMap(false).getObject(object);
+        return getObject(object);
+    }
+
+    void setLongTagAtSafepoint(Object object, long tag) {
+        if (tag == 0) {
+            remove(object);
+        } else {
+            checkTable(true);
+            put(object, tag, null);
+        }
+    }
+
+    /**
+     * Native buffer holding the addresses of the tagged objects for walks that only visit those, reused across walks.
+     */
+    private Pointer taggedAddresses = Pointer.zero();
+    private int taggedAddressesLength;
+
+    /**
+     * Copies the addresses of the tagged objects into {@link #taggedAddresses}, for walks that only visit those.
+     * Callbacks may change tags, and so the table, during such a walk, hence the copy. It is held in native memory
+     * so that the walk neither allocates on the heap nor keeps the objects alive. The addresses remain valid as no
+     * GC can happen during the VM operation, but only until the next walk, which reuses the buffer.
+     *
+     * @return the number of addresses copied, or -1 if the buffer could not be allocated
+     */
+    int snapshotTagged() {
+        if (size > taggedAddressesLength) {
+            final Pointer buffer = Memory.allocate(Size.fromInt(size).times(Longs.SIZE));
+            if (buffer.isZero()) {
+                return -1;
+            }
+            if (!taggedAddresses.isZero()) {
+                Memory.deallocate(taggedAddresses);
+            }
+            taggedAddresses = buffer;
+            taggedAddressesLength = size;
+        }
+        int count = 0;
+        for (int slot = 0; slot < capacity() && count < taggedAddressesLength; slot++) {
+            final long key = keys[slot];
+            if (key != EMPTY && key != DELETED) {
+                taggedAddresses.setLong(count++, key);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets an object recorded by the last {@link #snapshotTagged()}.
+     */
+    Object snapshotObject(int index) {
+        return Reference.fromOrigin(Pointer.fromLong(taggedAddresses.getLong(index))).toJava();
+    }
+
+    private int capacity() {
+        return keys == null ? 0 : keys.length;
+    }
+
+    /**
+     * Gets the tagged object in a given slot of the table, or {@code null}. Must be called with safepoints disabled.
+     */
+    private Object objectAt(int slot) {
+        final long key = keys[slot];
+        return key == EMPTY || key == DELETED ? null : Reference.fromOrigin(Pointer.fromLong(key)).toJava();
     }
 
     /*
@@ -274,102 +377,96 @@ class JVMTITags {
      */
 
     synchronized int getTag(Object object, Pointer tagPtr) {
-        long tag = checkMap(true).getLong(object);
+        long tag = getLong(object);
         tagPtr.writeLong(0, tag);
         return JVMTI_ERROR_NONE;
     }
 
     synchronized int setTag(Object object, long tag) {
-        if (tag == 0) {
-            checkMap(true).remove(object);
-        } else {
-            checkMap(true).put(object, tag);
-        }
+        setLongTagAtSafepoint(object, tag);
         return JVMTI_ERROR_NONE;
     }
 
     public synchronized void setTag(Object object, Object tag) {
-        checkMap(false).put(object, tag);
+        if (tag == null) {
+            remove(object);
+        } else {
+            checkTable(false);
+            put(object, 0, tag);
+        }
     }
 
     public synchronized Object getTag(Object object) {
-        return checkMap(false).getObject(object);
+        return getObject(object);
     }
 
-    private Map checkMap(boolean isNative) {
-        if (tagMap == null) {
-            tagMap  = new Map(isNative);
+    private static boolean matches(long tag, int tagCount, Pointer tags) {
+        for (int i = 0; i < tagCount; i++) {
+            if (tag == tags.getLong(i)) {
+                return true;
+            }
         }
-        return tagMap;
+        return false;
     }
 
-    synchronized int getObjectsWithTags(final int tagCount, final Pointer tags, Pointer countPtr, Pointer objectResultPtrPtr, Pointer tagResultPtrPtr) {
+    synchronized int getObjectsWithTags(int tagCount, Pointer tags, Pointer countPtr, Pointer objectResultPtrPtr, Pointer tagResultPtrPtr) {
         if (tagCount < 0) {
             return JVMTI_ERROR_ILLEGAL_ARGUMENT;
         }
         for (int i = 0; i < tagCount; i++) {
-            long givenTag = tags.getInt(i);
-            if (givenTag == 0) {
+            if (tags.getLong(i) == 0) {
                 return JVMTI_ERROR_ILLEGAL_ARGUMENT;
             }
         }
 
-        Map.Visitor counter = new Map.Visitor() {
-            private int count;
-
-            @Override
-            void visit(Map.Entry e) {
-                for (int i = 0; i < tagCount; i++) {
-                    long givenTag = tags.getInt(i);
-                    if (givenTag == ((Map.LongEntry) e).value) {
-                        count++;
-                    }
+        int count = 0;
+        if (longTags != null) {
+            for (int slot = 0; slot < longTags.length; slot++) {
+                if (longTags[slot] != 0 && matches(longTags[slot], tagCount, tags)) {
+                    count++;
                 }
             }
+        }
 
-            @Override
-            Object getResult() {
-                return new Integer(count);
-            }
-        };
-
-        final int count = (Integer) tagMap.apply(counter).getResult();
         // count is an upper bound, entries may disappear through GC actions
-        final Pointer objectResultPtr = objectResultPtrPtr.isZero() ? Pointer.zero() : Memory.allocate(Size.fromInt(count * Word.size()));
-        if (objectResultPtr.isZero()) {
-            return JVMTI_ERROR_OUT_OF_MEMORY;
+        final Object[] objects = new Object[count];
+        final long[] objectTags = new long[count];
+        final boolean wasDisabled = SafepointPoll.disable();
+        int found = 0;
+        for (int slot = 0; slot < capacity() && found < count; slot++) {
+            final Object object = longTags == null ? null : objectAt(slot);
+            if (object != null && matches(longTags[slot], tagCount, tags)) {
+                objects[found] = object;
+                objectTags[found] = longTags[slot];
+                found++;
+            }
         }
-        final Pointer tagResultPtr = tagResultPtrPtr.isZero() ? Pointer.zero() : Memory.allocate(Size.fromInt(count * Word.size()));
-        if (tagResultPtr.isZero()) {
-            Memory.deallocate(objectResultPtr);
-            return JVMTI_ERROR_OUT_OF_MEMORY;
+        if (!wasDisabled) {
+            SafepointPoll.enable();
         }
 
-        Map.Visitor copier = new Map.Visitor() {
-            @Override
-            void visit(Map.Entry e) {
-                int index = 0;
-                Object key = e.get();
-                if (key != null) {
-                    for (int i = 0; i < tagCount; i++) {
-                        long givenTag = tags.getInt(i);
-                        if (givenTag == ((Map.LongEntry) e).value) {
-                            assert index < count;
-                            if (!objectResultPtr.isZero()) {
-                                objectResultPtr.setWord(index, JniHandles.createLocalHandle(key));
-                            }
-                            if (!tagResultPtr.isZero()) {
-                                tagResultPtr.setLong(index, givenTag);
-                            }
-                            index++;
-                            break;
-                        }
-                    }
-                }
+        final Size length = Size.fromInt(Math.max(found, 1) * Word.size());
+        if (!objectResultPtrPtr.isZero()) {
+            final Pointer objectResultPtr = Memory.allocate(length);
+            if (objectResultPtr.isZero()) {
+                return JVMTI_ERROR_OUT_OF_MEMORY;
             }
-        };
-        tagMap.apply(copier);
-        countPtr.setInt(count);
+            for (int i = 0; i < found; i++) {
+                objectResultPtr.setWord(i, JniHandles.createLocalHandle(objects[i]));
+            }
+            objectResultPtrPtr.setWord(objectResultPtr);
+        }
+        if (!tagResultPtrPtr.isZero()) {
+            final Pointer tagResultPtr = Memory.allocate(length);
+            if (tagResultPtr.isZero()) {
+                return JVMTI_ERROR_OUT_OF_MEMORY;
+            }
+            for (int i = 0; i < found; i++) {
+                tagResultPtr.setLong(i, objectTags[i]);
+            }
+            tagResultPtrPtr.setWord(tagResultPtr);
+        }
+        countPtr.setInt(found);
         return JVMTI_ERROR_NONE;
     }
 }
@@ -59,6 +59,7 @@ import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.bytecode.*;
 import com.sun.max.vm.compiler.*;
 import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.methodhandle.*;
 import com.sun.max.vm.runtime.*;
 import com.sun.max.vm.ti.*;
 import com.sun.max.vm.type.*;
@@ -187,6 +188,29 @@ public class MaxRuntime implements RiRuntime {
         return false;
     }
 
+    public RiResolvedMethod getMethodHandleTarget(RiResolvedMethod method, CiConstant handle) {
+        if (isHosted() || handle.isNull()) {
+            // the boot image holds no linked lambda forms to fold through
+            return null;
+        }
+        final String intrinsic = method.intrinsic();
+        if (intrinsic == null) {
+            return null;
+        }
+        switch (intrinsic) {
+            case IntrinsicIDs.INVOKEBASIC:
+                return MaxMethodHandles.findInvokerForInvokeBasic(handle.asObject());
+            case IntrinsicIDs.LINKTOSTATIC:
+            case IntrinsicIDs.LINKTOSPECIAL:
+            case IntrinsicIDs.LINKTOVIRTUAL:
+            case IntrinsicIDs.LINKTOINTERFACE:
+                VMTarget target = VMTarget.fromMemberName(handle.asObject());
+                return target != null && target.isMethod() ? target.asClassMethodActor() : null;
+            default:
+                return null;
+        }
+    }
+
     public int basicObjectLockOffsetInBytes() {
         // Must not be called if the size of the lock object is 0.
         throw new InternalError("should not reach here");
@@ -25,6 +25,7 @@ package com.oracle.max.vm.ext.vma.handlers.store.vmlog.h;
 import com.oracle.max.vm.ext.vma.handlers.store.vmlog.h.stdid.*;
 import com.oracle.max.vm.ext.vma.handlers.util.objstate.*;
 import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.bin.*;
 import com.oracle.max.vm.ext.vma.store.txt.*;
 import com.oracle.max.vm.ext.vma.store.txt.sbps.*;
 import com.sun.max.vm.*;
@@ -43,6 +44,9 @@ import com.sun.max.vm.thread.*;
  * small integers on first encounter doesn't occur. It would reintroduce much of the the slow path to do the check
  * here so we assume that this has already been handled by {@link VMLogStoreVMAdviceHandler}, which
  * has access to the {@link Actor} forms and can do this efficiently.
+ *
+ * The records are written to a {@link VMABinaryStore} instead of a text store if the
+ * {@value VMLogStoreVMAdviceHandler#BINARY_PROPERTY} system property is set.
  */
 public class VMAVMLoggerMaxIdTextStoreAdapter extends VMAVMLoggerStoreAdapter {
 
@@ -79,10 +83,43 @@ public class VMAVMLoggerMaxIdTextStoreAdapter extends VMAVMLoggerStoreAdapter {
 
     }
 
+    public static class ThisBinaryVMAStore extends VMABinaryStore {
+
+        private VmThread vmThread;
+
+        public ThisBinaryVMAStore() {
+            super();
+        }
+
+        protected ThisBinaryVMAStore(String threadName) {
+            super(threadName);
+        }
+
+        @Override
+        public VMATextStore newThread(String threadName) {
+            // use the id as the short form
+            final String shortThreadName = Integer.toString(vmThread.uuid);
+            ThisBinaryVMAStore threadStore = (ThisBinaryVMAStore) super.newThread(shortThreadName);
+            threadStore.addThreadShortFormDef(threadName, shortThreadName);
+            return threadStore;
+        }
+
+        synchronized VMATextStore newThread(VmThread vmThread) {
+            this.vmThread = vmThread;
+            return newThread(vmThread.getName());
+        }
+
+        @Override
+        protected ThisBinaryVMAStore createThreadStore(String threadName) {
+            return new ThisBinaryVMAStore(threadName);
+        }
+
+    }
+
     /**
      * An appropriately typed copy of {@link super#store}.
      */
-    private ThisSBPSRawVMATextStore txtStore;
+    private VMAIdTextStoreIntf txtStore;
 
     public VMAVMLoggerMaxIdTextStoreAdapter(IdBitSetObjectState state) {
         super(state);
@@ -99,19 +136,27 @@ public class VMAVMLoggerMaxIdTextStoreAdapter extends VMAVMLoggerStoreAdapter {
 
     @Override
     protected VMAStoreAdapter createThreadStoreAdapter(VmThread vmThread) {
-        ThisSBPSRawVMATextStore thisStore = (ThisSBPSRawVMATextStore) store;
-        VMAStore threadStore = thisStore.newThread(vmThread);
+        VMAStore threadStore;
+        if (store instanceof ThisBinaryVMAStore) {
+            threadStore = ((ThisBinaryVMAStore) store).newThread(vmThread);
+        } else {
+            threadStore = ((ThisSBPSRawVMATextStore) store).newThread(vmThread);
+        }
         VMAVMLoggerMaxIdTextStoreAdapter sa = new VMAVMLoggerMaxIdTextStoreAdapter(state, vmThread, threadStore);
-        sa.txtStore = (ThisSBPSRawVMATextStore) threadStore;
+        sa.txtStore = (VMAIdTextStoreIntf) threadStore;
         return sa;
     }
 
     @Override
     public void initialise(MaxineVM.Phase phase) {
-        VMAStoreFactory.setClass(ThisSBPSRawVMATextStore.class);
+        if (System.getProperty(VMLogStoreVMAdviceHandler.BINARY_PROPERTY) != null) {
+            VMAStoreFactory.setClass(ThisBinaryVMAStore.class);
+        } else {
+            VMAStoreFactory.setClass(ThisSBPSRawVMATextStore.class);
+        }
         super.initialise(phase);
         if (phase == MaxineVM.Phase.RUNNING) {
-            txtStore = (ThisSBPSRawVMATextStore) store;
+            txtStore = (VMAIdTextStoreIntf) store;
         }
     }
 
@@ -66,10 +66,15 @@ import com.sun.max.vm.thread.*;
  * threads/classes/fields/methods as short forms in the store. However, setting the {@link #STDID_PROPERTY}
  * causes {@link VMAVMLoggerTextStoreAdapter} to be used instead, which uses the same short form conversion
  * process as {@link SyncStoreVMAdviceHandler}. This is useful as a sanity check.
+ *
+ * Setting {@link #BINARY_PROPERTY} causes the default adapter to write the compressed binary format
+ * defined by {@link com.oracle.max.vm.ext.vma.store.bin.VMABinaryStoreFormat}, which is much smaller and
+ * faster to process offline than the text format.
  */
 public class VMLogStoreVMAdviceHandler extends ObjectStateAdapter {
 
     public static final String STDID_PROPERTY = "max.vma.vmloghandler.stdid";
+    public static final String BINARY_PROPERTY = "max.vma.vmloghandler.binary";
     private static final Class DEFAULT_ADAPTER = VMAVMLoggerMaxIdTextStoreAdapter.class;
     private static final String STDIDS_ADAPTER_CLASSNAME = "com.oracle.max.vm.ext.vma.handlers.store.vmlog.h.stdid.VMAVMLoggerTextStoreAdapter";
 
@@ -0,0 +1,1145 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.store.bin;
+
+import static com.oracle.max.vm.ext.vma.store.bin.VMABinaryStoreFormat.*;
+import static com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.*;
+import static com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.zip.*;
+
+import com.oracle.max.vm.ext.vma.run.java.*;
+import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.txt.*;
+import com.sun.max.annotate.*;
+import com.sun.max.vm.runtime.*;
+
+/**
+ * An implementation of {@link VMATextStore} and {@link VMAIdTextStoreIntf} that writes the {@link VMABinaryStoreFormat binary format}.
+ * The records are the same as those written by {@link com.oracle.max.vm.ext.vma.store.txt.sbps.SBPSVMAIdTextStore}
+ * but avoid the cost of formatting numbers as text and are considerably smaller.
+ *
+ * Each store encodes records into its own buffer without synchronization. When the buffer reaches
+ * {@link #BUFSIZE_PROPERTY} bytes it is compressed and appended to the single store file as a segment.
+ * Only the append is synchronized, so in per-thread mode threads do not contend while recording.
+ *
+ * Batched stores that are not per-thread are not supported, as the segments of such a store are not time ordered.
+ */
+public abstract class VMABinaryStore implements VMAIdTextStoreIntf {
+
+    private static final String BUFSIZE_PROPERTY = "max.vma.store.bufsize";
+    private static final int DEFAULT_BUFSIZE = 1024 * 1024;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @CONSTANT_WHEN_NOT_ZERO
+    private static VMATimeMode timeMode;
+
+    @CONSTANT_WHEN_NOT_ZERO
+    private static File storeFileDir;
+
+    @CONSTANT_WHEN_NOT_ZERO
+    private static int globalBufSize = DEFAULT_BUFSIZE;
+
+    private static FileOutputStream storeFile;
+
+    private static int storeCount;
+
+    private static volatile boolean finalizing;
+
+    /**
+     * The main thread owns this lock after initialization.
+     * It is used to block any daemon threads at store finalization.
+     */
+    private static Lock daemonLock = new ReentrantLock();
+
+    /**
+     * Identifies the segments of this store in the file.
+     */
+    private int storeNumber;
+
+    /**
+     * The encoded records not yet written to the file.
+     */
+    private byte[] buf;
+    private int count;
+
+    /**
+     * Buffer size at which the buffer is written as a segment.
+     */
+    private int flushAt;
+
+    private byte[] compressed;
+    private Deflater deflater;
+
+    /**
+     * The strings already written in the current segment, mapped to their index.
+     */
+    private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+
+    /**
+     * Holds time of last record written for relative time generation.
+     */
+    private long lastTime;
+
+    /**
+     * Set to {@code false} at start of record output, {@code true} at the end.
+     * Used to handle daemon threads that are writing a record when store finalization is called.
+     */
+    private volatile boolean done = true;
+
+    private boolean threadBatched;
+    protected boolean perThread;
+
+    /**
+     * Non-null when per-thread stores, the associated thread.
+     */
+    private String threadName;
+
+    private RepeatIdHandler repeatIdHandler;
+
+    private PerThreadStoreOwner storeOwner;
+
+    protected VMABinaryStore() {
+    }
+
+    protected VMABinaryStore(String threadName) {
+        this.threadName = threadName;
+    }
+
+    private static synchronized boolean initStaticState() {
+        if (storeFileDir == null) {
+            timeMode = VMAOptions.getTimeMode();
+            final String bsp = System.getProperty(BUFSIZE_PROPERTY);
+            if (bsp != null) {
+                globalBufSize = Integer.parseInt(bsp);
+            }
+            storeFileDir = new File(VMAStoreFile.getStoreDir());
+            cleanOutputDir();
+            File file = new File(storeFileDir, BINARY_STORE);
+            try {
+                storeFile = new FileOutputStream(file);
+                byte[] header = new byte[8];
+                putInt(header, 0, MAGIC);
+                putInt(header, 4, VERSION);
+                storeFile.write(header);
+            } catch (IOException ex) {
+                System.err.println("failed to open store file " + file + ": " + ex);
+                return false;
+            }
+            daemonLock.lock();
+        }
+        return true;
+    }
+
+    private static void cleanOutputDir() {
+        if (storeFileDir.exists()) {
+            for (String fn : storeFileDir.list()) {
+                if (!new File(storeFileDir, fn).delete()) {
+                    System.err.println("failed to delete VMA output file: " + fn);
+                }
+            }
+        } else {
+            storeFileDir.mkdir();
+        }
+    }
+
+    private static void putInt(byte[] b, int offset, int value) {
+        b[offset] = (byte) (value >>> 24);
+        b[offset + 1] = (byte) (value >>> 16);
+        b[offset + 2] = (byte) (value >>> 8);
+        b[offset + 3] = (byte) value;
+    }
+
+    private static synchronized void writeSegment(int storeNumber, int length, byte[] data, int dataLength) {
+        byte[] header = new byte[SEGMENT_HEADER_SIZE];
+        putInt(header, 0, storeNumber);
+        putInt(header, 4, length);
+        putInt(header, 8, dataLength);
+        try {
+            storeFile.write(header);
+            storeFile.write(data, 0, dataLength);
+        } catch (IOException ex) {
+            FatalError.unexpected("failed to write VMA store segment", ex);
+        }
+    }
+
+    private static synchronized void closeStoreFile() {
+        try {
+            storeFile.close();
+        } catch (IOException ex) {
+            System.err.println("failed to close VMA store file: " + ex);
+        }
+    }
+
+    @Override
+    public boolean initializeStore(boolean threadBatched, boolean perThread, PerThreadStoreOwner storeOwner) {
+        if (threadBatched && !perThread) {
+            System.err.println("binary VMA store does not support batched records");
+            return false;
+        }
+        this.perThread = perThread;
+        this.threadBatched = threadBatched;
+        if (perThread) {
+            assert storeOwner != null;
+        }
+        this.storeOwner = storeOwner;
+        if (!initStaticState()) {
+            return false;
+        }
+        repeatIdHandler = RepeatIdHandler.create(perThread);
+        lastTime = timeMode.getTime();
+        if (!perThread) {
+            createPersistentStore(this);
+        }
+        // per-thread stores setup in newThread
+        return true;
+    }
+
+    /**
+     * Creates the buffers for a store that writes segments and appends the header record.
+     */
+    private static void createPersistentStore(VMABinaryStore store) {
+        synchronized (VMABinaryStore.class) {
+            store.storeNumber = storeCount++;
+        }
+        store.buf = new byte[globalBufSize + 256];
+        store.compressed = new byte[globalBufSize / 2];
+        store.deflater = new Deflater(Deflater.BEST_SPEED);
+        store.flushAt = globalBufSize;
+        store.appendStoreHeader();
+    }
+
+    @Override
+    public VMATextStore newThread(String threadName) {
+        if (perThread) {
+            VMABinaryStore store = createThreadStore(threadName);
+            if (!store.initializeStore(true, true, storeOwner)) {
+                FatalError.unexpected("failed to create per-thread VMA store");
+            }
+            createPersistentStore(store);
+            return store;
+        } else {
+            return this;
+        }
+    }
+
+    protected abstract VMABinaryStore createThreadStore(String threadName);
+
+    private void appendStoreHeader() {
+        putByte(INITIALIZE_STORE.ordinal());
+        appendLong(lastTime);
+        appendString(Boolean.toString(timeMode.isAbsolute()));
+        appendLong((threadBatched ? BATCHED : 0) | (perThread ? PER_THREAD : 0));
+        end();
+    }
+
+    @Override
+    public void finalizeStore() {
+        // See SBPSVMAIdTextStore.finalizeStore for the treatment of daemon threads
+        finalizing = true;
+        if (perThread) {
+            synchronized (storeOwner) {
+                Iterator<VMAStore> allStores = storeOwner.getThreadStores();
+                while (allStores.hasNext()) {
+                    VMABinaryStore store = (VMABinaryStore) allStores.next();
+                    store.waitForDaemon();
+                    store.finalizeBuffer();
+                }
+            }
+        } else {
+            waitForDaemon();
+            finalizeBuffer();
+        }
+        closeStoreFile();
+    }
+
+    /**
+     * Wait for a daemon thread to finish an inflight record.
+     */
+    void waitForDaemon() {
+        while (!done) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+            }
+        }
+    }
+
+    private void finalizeBuffer() {
+        // Must not call appendCode else will block!
+        putByte(FINALIZE_STORE.ordinal());
+        appendTime(timeMode.getTime());
+        putByte(END);
+        flushSegment();
+    }
+
+    private void flushSegment() {
+        deflater.reset();
+        deflater.setInput(buf, 0, count);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, 2 * compressed.length);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        writeSegment(storeNumber, count, compressed, length);
+        count = 0;
+        strings.clear();
+    }
+
+    /*
+     * Encoding support
+     */
+
+    private void ensureCapacity(int n) {
+        if (count + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(2 * buf.length, count + n));
+        }
+    }
+
+    private void putByte(int b) {
+        ensureCapacity(1);
+        buf[count++] = (byte) b;
+    }
+
+    private void putVarLong(long value) {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            buf[count++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[count++] = (byte) v;
+    }
+
+    private void appendLong(long value) {
+        ensureCapacity(11);
+        buf[count++] = LONG;
+        putVarLong(zigZag(value));
+    }
+
+    private void appendString(String s) {
+        Integer index = strings.get(s);
+        ensureCapacity(11);
+        if (index != null) {
+            buf[count++] = STRING_REF;
+            putVarLong(index);
+        } else {
+            strings.put(s, strings.size());
+            byte[] bytes = s.getBytes(UTF8);
+            buf[count++] = STRING_DEF;
+            putVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, count, bytes.length);
+            count += bytes.length;
+        }
+    }
+
+    private void appendChar(char c) {
+        ensureCapacity(2);
+        buf[count++] = CHAR;
+        buf[count++] = (byte) c;
+    }
+
+    private void appendFloat(float value) {
+        ensureCapacity(5);
+        buf[count++] = FLOAT;
+        int bits = Float.floatToRawIntBits(value);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buf[count++] = (byte) (bits >>> shift);
+        }
+    }
+
+    private void appendDouble(double value) {
+        ensureCapacity(9);
+        buf[count++] = DOUBLE;
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[count++] = (byte) (bits >>> shift);
+        }
+    }
+
+    private void appendCheckRepeatId(long objId) {
+        if (objId == REPEAT_ID_VALUE) {
+            putByte(REPEATED_ID);
+        } else {
+            appendLong(objId);
+        }
+    }
+
+    private void appendTime(long time) {
+        if (timeMode.isAbsolute()) {
+            appendLong(time);
+        } else {
+            appendLong(time - lastTime);
+            lastTime = time;
+        }
+    }
+
+    /**
+     * All records start by calling this method.
+     * @param key
+     */
+    private void appendCode(Key key) {
+        if (finalizing) {
+            // any daemon thread will block here
+            daemonLock.lock();
+        }
+        done = false;
+        putByte(key.ordinal());
+    }
+
+    private void end() {
+        putByte(END);
+        if (count >= flushAt) {
+            flushSegment();
+        }
+        done = true;
+    }
+
+    /**
+     * Append the record key, then the time associated with the record, followed by the thread and bytecode index.
+     * @param threadName (maybe null for per-thread stores)
+     */
+    private void appendTT(long time, Key key, String threadName, int bci) {
+        appendCode(key);
+        appendTime(time);
+        if (threadName != null) {
+            appendString(threadName);
+        } else {
+            assert perThread;
+        }
+        if (bci >= 0) {
+            appendLong(bci);
+        }
+    }
+
+    /**
+     * As {@link #appendTT} followed by the {@code objId}.
+     */
+    private void appendTTId(long time, Key key, long objId, String threadName, int bci) {
+        appendTT(time, key, threadName, bci);
+        appendCheckRepeatId(objId);
+    }
+
+    /**
+     * As {@link #appendTTId} followed by an array index.
+     */
+    private void appendTTIdIndex(long time, Key key, long objId, String threadName, int bci, int index) {
+        appendTTId(time, key, objId, threadName, bci);
+        appendLong(index);
+    }
+
+    public long checkRepeatId(long objId, String threadName) {
+        return repeatIdHandler.checkRepeatId(objId, threadName);
+    }
+
+    /*
+     * Short form support
+     */
+    @Override
+    public void addClassShortFormDef(String name, long clId, String shortName) {
+        putByte(CLASS_DEFINITION.ordinal());
+        appendString(name);
+        appendLong(clId);
+        appendString(shortName);
+        end();
+    }
+
+    @Override
+    public void addThreadShortFormDef(String name, String shortName) {
+        putByte(THREAD_DEFINITION.ordinal());
+        appendString(name);
+        appendString(shortName);
+        end();
+    }
+
+    @Override
+    public void addMemberShortFormDef(Key key, String classShortForm, String name, String shortName) {
+        putByte(key.ordinal());
+        appendString(classShortForm);
+        appendString(name);
+        appendString(shortName);
+        end();
+    }
+
+    @Override
+    public void removal(long id) {
+        appendCode(REMOVAL);
+        appendLong(id);
+        end();
+    }
+
+    @Override
+    public void threadSwitch(long time, String threadName) {
+        // batched stores must be per-thread, see initializeStore
+    }
+
+    @Override
+    public void unseenObject(long time, String threadName, int bci, long objId, String shortClassName) {
+        appendTTId(time, UNSEEN, objId, threadName, bci);
+        appendString(shortClassName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeGC(long time, String threadName) {
+        appendTT(time, ADVISE_BEFORE_GC, threadName, -1);
+        end();
+    }
+
+    @Override
+    public void adviseAfterGC(long time, String threadName) {
+        appendTT(time, ADVISE_AFTER_GC, threadName, -1);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeThreadStarting(long time, String threadName) {
+        appendTT(time, ADVISE_BEFORE_THREAD_STARTING, threadName, -1);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeThreadTerminating(long time, String threadName) {
+        appendTT(time, ADVISE_BEFORE_THREAD_TERMINATING, threadName, -1);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeReturnByThrow(long time, String threadName, int bci, long objId, int poppedFrames) {
+        appendTTId(time, ADVISE_BEFORE_RETURN_BY_THROW, objId, threadName, bci);
+        appendLong(poppedFrames);
+        end();
+    }
+
+    @Override
+    public void adviseAfterNew(long time, String threadName, int bci, long objId, String shortClassName) {
+        appendTTId(time, ADVISE_AFTER_NEW, objId, threadName, bci);
+        appendString(shortClassName);
+        end();
+    }
+
+    @Override
+    public void adviseAfterNewArray(long time, String threadName, int bci, long objId, String shortClassName, int length) {
+        appendTTId(time, ADVISE_AFTER_NEW_ARRAY, objId, threadName, bci);
+        appendString(shortClassName);
+        appendLong(length);
+        end();
+    }
+
+    @Override
+    public void adviseAfterMultiNewArray(long time, String threadName, int bci, long objId, String shortClassName, int length) {
+        // As for the text store, only the top level array is recorded
+        adviseAfterNewArray(time, threadName, bci, objId, shortClassName, length);
+    }
+
+    @Override
+    public void adviseBeforeIfObject(long time, String threadName, int bci, int opcode, long objId1, long objId2, int branchOffset) {
+        appendTT(time, ADVISE_BEFORE_IF, threadName, bci);
+        appendLong(opcode);
+        appendChar(OBJ_VALUE);
+        appendLong(objId1);
+        appendLong(objId2);
+        appendLong(branchOffset);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeIf(long time, String threadName, int bci, int opcode, int op1, int op2, int branchOffset) {
+        appendTT(time, ADVISE_BEFORE_IF, threadName, bci);
+        appendLong(opcode);
+        appendChar(LONG_VALUE);
+        appendLong(op1);
+        appendLong(op2);
+        appendLong(branchOffset);
+        end();
+    }
+
+    @Override
+    public void adviseAfterLoadObject(long time, String threadName, int bci, int dispToLocalSlot, long value) {
+        appendTT(time, ADVISE_AFTER_LOAD, threadName, bci);
+        appendLong(dispToLocalSlot);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeLoad(long time, String threadName, int bci, int dispToLocalSlot) {
+        appendTT(time, ADVISE_BEFORE_LOAD, threadName, bci);
+        appendLong(dispToLocalSlot);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeGoto(long time, String threadName, int bci, int branchOffset) {
+        appendTT(time, ADVISE_BEFORE_GOTO, threadName, bci);
+        appendLong(branchOffset);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeConstLoad(long time, String threadName, int bci, double value) {
+        appendTT(time, ADVISE_BEFORE_CONST_LOAD, threadName, bci);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeConstLoad(long time, String threadName, int bci, float value) {
+        appendTT(time, ADVISE_BEFORE_CONST_LOAD, threadName, bci);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeConstLoad(long time, String threadName, int bci, long value) {
+        appendTT(time, ADVISE_BEFORE_CONST_LOAD, threadName, bci);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeConstLoadObject(long time, String threadName, int bci, long value) {
+        appendTT(time, ADVISE_BEFORE_CONST_LOAD, threadName, bci);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeArrayLoad(long time, String threadName, int bci, long objId, int index) {
+        appendTTIdIndex(time, ADVISE_BEFORE_ARRAY_LOAD, objId, threadName, bci, index);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeStore(long time, String threadName, int bci, int dispToLocalSlot, float value) {
+        appendTT(time, ADVISE_BEFORE_STORE, threadName, bci);
+        appendLong(dispToLocalSlot);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeStore(long time, String threadName, int bci, int dispToLocalSlot, long value) {
+        appendTT(time, ADVISE_BEFORE_STORE, threadName, bci);
+        appendLong(dispToLocalSlot);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeStore(long time, String threadName, int bci, int dispToLocalSlot, double value) {
+        appendTT(time, ADVISE_BEFORE_STORE, threadName, bci);
+        appendLong(dispToLocalSlot);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeStoreObject(long time, String threadName, int bci, int dispToLocalSlot, long value) {
+        appendTT(time, ADVISE_BEFORE_STORE, threadName, bci);
+        appendLong(dispToLocalSlot);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeArrayStore(long time, String threadName, int bci, long objId, int index, float value) {
+        appendTTIdIndex(time, ADVISE_BEFORE_ARRAY_STORE, objId, threadName, bci, index);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeArrayStore(long time, String threadName, int bci, long objId, int index, long value) {
+        appendTTIdIndex(time, ADVISE_BEFORE_ARRAY_STORE, objId, threadName, bci, index);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeArrayStoreObject(long time, String threadName, int bci, long objId, int index, long value) {
+        appendTTIdIndex(time, ADVISE_BEFORE_ARRAY_STORE, objId, threadName, bci, index);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeArrayStore(long time, String threadName, int bci, long objId, int index, double value) {
+        appendTTIdIndex(time, ADVISE_BEFORE_ARRAY_STORE, objId, threadName, bci, index);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeConversion(long time, String threadName, int bci, int opcode, double value) {
+        appendTT(time, ADVISE_BEFORE_CONVERSION, threadName, bci);
+        appendLong(opcode);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeConversion(long time, String threadName, int bci, int opcode, long value) {
+        appendTT(time, ADVISE_BEFORE_CONVERSION, threadName, bci);
+        appendLong(opcode);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeConversion(long time, String threadName, int bci, int opcode, float value) {
+        appendTT(time, ADVISE_BEFORE_CONVERSION, threadName, bci);
+        appendLong(opcode);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeReturn(long time, String threadName, int bci, double value) {
+        appendTT(time, ADVISE_BEFORE_RETURN, threadName, bci);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeReturn(long time, String threadName, int bci, float value) {
+        appendTT(time, ADVISE_BEFORE_RETURN, threadName, bci);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeReturn(long time, String threadName, int bci) {
+        appendTT(time, ADVISE_BEFORE_RETURN, threadName, bci);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeReturnObject(long time, String threadName, int bci, long value) {
+        appendTT(time, ADVISE_BEFORE_RETURN, threadName, bci);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeReturn(long time, String threadName, int bci, long value) {
+        appendTT(time, ADVISE_BEFORE_RETURN, threadName, bci);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeStackAdjust(long time, String threadName, int bci, int opcode) {
+        appendTT(time, ADVISE_BEFORE_STACK_ADJUST, threadName, bci);
+        appendLong(opcode);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeOperation(long time, String threadName, int bci, int opcode, long op1, long op2) {
+        appendTT(time, ADVISE_BEFORE_OPERATION, threadName, bci);
+        appendLong(opcode);
+        appendChar(LONG_VALUE);
+        appendLong(op1);
+        appendLong(op2);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeOperation(long time, String threadName, int bci, int opcode, double op1, double op2) {
+        appendTT(time, ADVISE_BEFORE_OPERATION, threadName, bci);
+        appendLong(opcode);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(op1);
+        appendDouble(op2);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeOperation(long time, String threadName, int bci, int opcode, float op1, float op2) {
+        appendTT(time, ADVISE_BEFORE_OPERATION, threadName, bci);
+        appendLong(opcode);
+        appendChar(FLOAT_VALUE);
+        appendFloat(op1);
+        appendFloat(op2);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeGetStatic(long time, String threadName, int bci, String shortFieldName) {
+        appendTT(time, ADVISE_BEFORE_GET_STATIC, threadName, bci);
+        appendString(shortFieldName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutStatic(long time, String threadName, int bci, String shortFieldName, double value) {
+        appendTT(time, ADVISE_BEFORE_PUT_STATIC, threadName, bci);
+        appendString(shortFieldName);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutStatic(long time, String threadName, int bci, String shortFieldName, long value) {
+        appendTT(time, ADVISE_BEFORE_PUT_STATIC, threadName, bci);
+        appendString(shortFieldName);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutStatic(long time, String threadName, int bci, String shortFieldName, float value) {
+        appendTT(time, ADVISE_BEFORE_PUT_STATIC, threadName, bci);
+        appendString(shortFieldName);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutStaticObject(long time, String threadName, int bci, String shortFieldName, long value) {
+        appendTT(time, ADVISE_BEFORE_PUT_STATIC, threadName, bci);
+        appendString(shortFieldName);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeGetField(long time, String threadName, int bci, long objId, String shortFieldName) {
+        appendTTId(time, ADVISE_BEFORE_GET_FIELD, objId, threadName, bci);
+        appendString(shortFieldName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutFieldObject(long time, String threadName, int bci, long objId, String shortFieldName, long value) {
+        appendTTId(time, ADVISE_BEFORE_PUT_FIELD, objId, threadName, bci);
+        appendString(shortFieldName);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutField(long time, String threadName, int bci, long objId, String shortFieldName, double value) {
+        appendTTId(time, ADVISE_BEFORE_PUT_FIELD, objId, threadName, bci);
+        appendString(shortFieldName);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutField(long time, String threadName, int bci, long objId, String shortFieldName, float value) {
+        appendTTId(time, ADVISE_BEFORE_PUT_FIELD, objId, threadName, bci);
+        appendString(shortFieldName);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutField(long time, String threadName, int bci, long objId, String shortFieldName, long value) {
+        appendTTId(time, ADVISE_BEFORE_PUT_FIELD, objId, threadName, bci);
+        appendString(shortFieldName);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInvokeVirtual(long time, String threadName, int bci, long objId, String shortMethodName) {
+        appendTTId(time, ADVISE_BEFORE_INVOKE_VIRTUAL, objId, threadName, bci);
+        appendString(shortMethodName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInvokeSpecial(long time, String threadName, int bci, long objId, String shortMethodName) {
+        appendTTId(time, ADVISE_BEFORE_INVOKE_SPECIAL, objId, threadName, bci);
+        appendString(shortMethodName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInvokeStatic(long time, String threadName, int bci, long objId, String shortMethodName) {
+        appendTTId(time, ADVISE_BEFORE_INVOKE_STATIC, objId, threadName, bci);
+        appendString(shortMethodName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInvokeInterface(long time, String threadName, int bci, long objId, String shortMethodName) {
+        appendTTId(time, ADVISE_BEFORE_INVOKE_INTERFACE, objId, threadName, bci);
+        appendString(shortMethodName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeThrow(long time, String threadName, int bci, long objId) {
+        appendTTId(time, ADVISE_BEFORE_THROW, objId, threadName, bci);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeCheckCast(long time, String threadName, int bci, long objId, String shortClassName) {
+        appendTTId(time, ADVISE_BEFORE_CHECK_CAST, objId, threadName, bci);
+        appendString(shortClassName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInstanceOf(long time, String threadName, int bci, long objId, String shortClassName) {
+        appendTTId(time, ADVISE_BEFORE_INSTANCE_OF, objId, threadName, bci);
+        appendString(shortClassName);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeMonitorEnter(long time, String threadName, int bci, long objId) {
+        appendTTId(time, ADVISE_BEFORE_MONITOR_ENTER, objId, threadName, bci);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeMonitorExit(long time, String threadName, int bci, long objId) {
+        appendTTId(time, ADVISE_BEFORE_MONITOR_EXIT, objId, threadName, bci);
+        end();
+    }
+
+    @Override
+    public void adviseAfterArrayLoadObject(long time, String threadName, int bci, long objId, int index, long value) {
+        appendTTIdIndex(time, ADVISE_AFTER_ARRAY_LOAD, objId, threadName, bci, index);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseAfterArrayLength(long time, String threadName, int bci, long objId, int length) {
+        appendTTId(time, ADVISE_AFTER_ARRAY_LENGTH, objId, threadName, bci);
+        appendLong(length);
+        end();
+    }
+
+    @Override
+    public void adviseAfterMethodEntry(long time, String threadName, int bci, long objId, String shortMethodName) {
+        appendTTId(time, ADVISE_AFTER_METHOD_ENTRY, objId, threadName, bci);
+        appendString(shortMethodName);
+        end();
+    }
+
+    /*
+     * VMAIdTextStoreIntf methods, the ids are stored directly as numbers
+     */
+
+    @Override
+    public void unseenObject(long time, int bci, long objId, int classId) {
+        appendTTId(time, UNSEEN, objId, null, bci);
+        appendLong(classId);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeGetStatic(long time, int bci, int fieldId) {
+        appendTT(time, ADVISE_BEFORE_GET_STATIC, null, bci);
+        appendLong(fieldId);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutStaticObject(long time, int bci, int fieldId, long value) {
+        appendTT(time, ADVISE_BEFORE_PUT_STATIC, null, bci);
+        appendLong(fieldId);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutStatic(long time, int bci, int fieldId, double value) {
+        appendTT(time, ADVISE_BEFORE_PUT_STATIC, null, bci);
+        appendLong(fieldId);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutStatic(long time, int bci, int fieldId, long value) {
+        appendTT(time, ADVISE_BEFORE_PUT_STATIC, null, bci);
+        appendLong(fieldId);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutStatic(long time, int bci, int fieldId, float value) {
+        appendTT(time, ADVISE_BEFORE_PUT_STATIC, null, bci);
+        appendLong(fieldId);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeGetField(long time, int bci, long objId, int fieldId) {
+        appendTTId(time, ADVISE_BEFORE_GET_FIELD, objId, null, bci);
+        appendLong(fieldId);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutFieldObject(long time, int bci, long objId, int fieldId, long value) {
+        appendTTId(time, ADVISE_BEFORE_PUT_FIELD, objId, null, bci);
+        appendLong(fieldId);
+        appendChar(OBJ_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutField(long time, int bci, long objId, int fieldId, double value) {
+        appendTTId(time, ADVISE_BEFORE_PUT_FIELD, objId, null, bci);
+        appendLong(fieldId);
+        appendChar(DOUBLE_VALUE);
+        appendDouble(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutField(long time, int bci, long objId, int fieldId, long value) {
+        appendTTId(time, ADVISE_BEFORE_PUT_FIELD, objId, null, bci);
+        appendLong(fieldId);
+        appendChar(LONG_VALUE);
+        appendLong(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforePutField(long time, int bci, long objId, int fieldId, float value) {
+        appendTTId(time, ADVISE_BEFORE_PUT_FIELD, objId, null, bci);
+        appendLong(fieldId);
+        appendChar(FLOAT_VALUE);
+        appendFloat(value);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInvokeVirtual(long time, int bci, long objId, int methodId) {
+        appendTTId(time, ADVISE_BEFORE_INVOKE_VIRTUAL, objId, null, bci);
+        appendLong(methodId);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInvokeSpecial(long time, int bci, long objId, int methodId) {
+        appendTTId(time, ADVISE_BEFORE_INVOKE_SPECIAL, objId, null, bci);
+        appendLong(methodId);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInvokeStatic(long time, int bci, long objId, int methodId) {
+        appendTTId(time, ADVISE_BEFORE_INVOKE_STATIC, objId, null, bci);
+        appendLong(methodId);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInvokeInterface(long time, int bci, long objId, int methodId) {
+        appendTTId(time, ADVISE_BEFORE_INVOKE_INTERFACE, objId, null, bci);
+        appendLong(methodId);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeCheckCast(long time, int bci, long objId, int classId) {
+        appendTTId(time, ADVISE_BEFORE_CHECK_CAST, objId, null, bci);
+        appendLong(classId);
+        end();
+    }
+
+    @Override
+    public void adviseBeforeInstanceOf(long time, int bci, long objId, int classId) {
+        appendTTId(time, ADVISE_BEFORE_INSTANCE_OF, objId, null, bci);
+        appendLong(classId);
+        end();
+    }
+
+    @Override
+    public void adviseAfterNew(long time, int bci, long objId, int classId) {
+        appendTTId(time, ADVISE_AFTER_NEW, objId, null, bci);
+        appendLong(classId);
+        end();
+    }
+
+    @Override
+    public void adviseAfterNewArray(long time, int bci, long objId, int classId, int length) {
+        appendTTId(time, ADVISE_AFTER_NEW_ARRAY, objId, null, bci);
+        appendLong(classId);
+        appendLong(length);
+        end();
+    }
+
+    @Override
+    public void adviseAfterMultiNewArray(long time, int bci, long objId, int classId, int length) {
+        adviseAfterNewArray(time, bci, objId, classId, length);
+    }
+
+    @Override
+    public void adviseAfterMethodEntry(long time, int bci, long objId, int methodId) {
+        appendTTId(time, ADVISE_AFTER_METHOD_ENTRY, objId, null, bci);
+        appendLong(methodId);
+        end();
+    }
+}
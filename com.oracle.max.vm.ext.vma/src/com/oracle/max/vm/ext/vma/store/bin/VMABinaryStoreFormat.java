@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.store.bin;
+
+import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.txt.*;
+
+/**
+ * Defines the binary format written by {@link VMABinaryStore}.
+ *
+ * The file starts with {@link #MAGIC} and {@link #VERSION} and is followed by a sequence of segments.
+ * Each segment holds records for exactly one store (i.e., one thread in per-thread mode) and
+ * is compressed independently, so segments can be decoded in parallel. A segment starts with a
+ * fixed size header:
+ * <ul>
+ * <li>the store number, which is the same for all segments of a store
+ * <li>the length of the segment data once uncompressed
+ * <li>the length of the compressed segment data that follows
+ * </ul>
+ * All header values are big-endian {@code int}s.
+ *
+ * Once uncompressed, a segment is a sequence of records. A record is a {@link VMATextStoreFormat.Key}
+ * ordinal byte followed by the same components, in the same order, as the corresponding line
+ * in the text format, each introduced by a tag byte, and terminated by {@link #END}.
+ * Integral values are zig-zag encoded variable length integers, so small ids, bytecode indices
+ * and relative times occupy one or two bytes. Strings are written once per segment and
+ * subsequently referred to by their index in the segment, which also starts from zero.
+ */
+public class VMABinaryStoreFormat {
+
+    public static final int MAGIC = 0x564D4142;
+    public static final int VERSION = 1;
+
+    public static final String BINARY_STORE = VMAStoreFile.GLOBAL_STORE + ".bin";
+
+    public static final int SEGMENT_HEADER_SIZE = 12;
+
+    // Component tags
+    public static final byte END = 0;
+    public static final byte LONG = 1;
+    public static final byte STRING_DEF = 2;
+    public static final byte STRING_REF = 3;
+    public static final byte FLOAT = 4;
+    public static final byte DOUBLE = 5;
+    public static final byte CHAR = 6;
+    public static final byte REPEATED_ID = 7;
+
+    public static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -30,6 +30,12 @@ package com.oracle.max.vm.ext.vma.store.txt;
  */
 public interface VMAIdTextStoreIntf extends VMATextStore {
 
+    /**
+     * Check if {@code objId} is the same as the previous one recorded for the thread.
+     * @return {@link VMATextStoreFormat#REPEAT_ID_VALUE} for a match, {@code objId} otherwise
+     */
+    long checkRepeatId(long objId, String threadName);
+
 // START GENERATED CODE
 // EDIT AND RUN VMAIdStoreGenerator.main() TO MODIFY
 
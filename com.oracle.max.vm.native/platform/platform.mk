@@ -286,7 +286,7 @@ ifeq ($(OS),linux)
         LINK_MAIN_POSTFIX += -lstdc++
     endif
     LINK_LIB = $(CC) -g -shared
-    LINK_LIB_POSTFIX = -lc -lm -lpthread
+    LINK_LIB_POSTFIX = -lc -lm -lpthread -lrt
     ifeq ($(ISA),arm)
         LINK_LIB_POSTFIX += -lstdc++ -ldl
     endif
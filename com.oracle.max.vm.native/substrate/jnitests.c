@@ -51,6 +51,17 @@ Java_test_bench_threads_JNI_1invocations_nativework(JNIEnv *env, jclass cls, jlo
     return sum;
 }
 
+JNIEXPORT void JNICALL
+Java_test_bench_threads_JNI_1invocations_globalrefchurn(JNIEnv *env, jclass cls, jobject object, jint count) {
+    int i = 0;
+    for (i=0; i<count; i++) {
+        jobject global = (*env)->NewGlobalRef(env, object);
+        jweak weak = (*env)->NewWeakGlobalRef(env, object);
+        (*env)->DeleteWeakGlobalRef(env, weak);
+        (*env)->DeleteGlobalRef(env, global);
+    }
+}
+
 JNIEXPORT void JNICALL
 Java_jtt_jni_JNI_1Nop_nop(JNIEnv *env, jclass c) {
 }
@@ -92,6 +103,35 @@ Java_jtt_jni_JNI_1IdentityLong_id_1long(JNIEnv *env, jclass c, jlong l) {
     return l;
 }
 
+JNIEXPORT jint JNICALL
+Java_jtt_jni_JNI_1Critical_sum(JNIEnv *env, jclass c, jintArray array, jint extra) {
+    jint sum = extra;
+    if (array != NULL) {
+        jint length = (*env)->GetArrayLength(env, array);
+        jint *elements = (*env)->GetPrimitiveArrayCritical(env, array, NULL);
+        jint i;
+        for (i = 0; i < length; i++) {
+            sum += elements[i];
+        }
+        (*env)->ReleasePrimitiveArrayCritical(env, array, elements, JNI_ABORT);
+    }
+    return sum;
+}
+
+/*
+ * The critical variant of the above, used with -XX:+CriticalJNINatives. It gets no JNIEnv or class
+ * and a null array is passed as a zero length and a NULL pointer.
+ */
+JNIEXPORT jint JNICALL
+JavaCritical_jtt_jni_JNI_1Critical_sum(jint length, jint *elements, jint extra) {
+    jint sum = extra;
+    jint i;
+    for (i = 0; i < length; i++) {
+        sum += elements[i];
+    }
+    return sum;
+}
+
 JNIEXPORT jboolean JNICALL
 Java_jtt_jni_JNI_1FieldBoolean_get_1boolean(JNIEnv *env, jobject obj) {
     jclass klass = (*env)->GetObjectClass(env, obj);
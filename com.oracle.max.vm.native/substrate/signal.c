@@ -35,6 +35,7 @@
 #include "c.h"
 #include "threads.h"
 #include "log.h"
+#include "jni.h"
 
 #if os_WINDOWS
 static HANDLE signal_sem;
@@ -56,6 +57,13 @@ static sem_t signal_sem;
 
 #endif
 
+#if os_LINUX
+#include <signal.h>
+#include <time.h>
+#include <unistd.h>
+#include <sys/syscall.h>
+#endif
+
 boolean traceSignals = false;
 
 /**
@@ -206,3 +214,54 @@ Java_com_sun_max_vm_runtime_SignalDispatcher_nativeSignalFinalize(JNIEnv *env, j
 void nativeSetSignalTracing(boolean flag) {
     traceSignals = flag;
 }
+
+/**
+ * Implementation of com.sun.max.vm.profilers.sampling.AsyncSamplingProfiler.nativeProfileStartThreadTimer().
+ * Creates a timer measuring the CPU time of the current thread that sends SIGPROF to that thread every
+ * {@code periodNanos} nanoseconds of CPU time.
+ *
+ * @return the timer, or 0 if it could not be created or per-thread CPU time timers are not supported
+ */
+Address nativeProfileStartThreadTimer(jlong periodNanos) {
+#if os_LINUX
+    struct sigevent event;
+    struct itimerspec spec;
+    timer_t timer;
+
+    memset(&event, 0, sizeof(event));
+    event.sigev_notify = SIGEV_THREAD_ID;
+    event.sigev_signo = SIGPROF;
+    event._sigev_un._tid = (pid_t) syscall(SYS_gettid);
+    if (timer_create(CLOCK_THREAD_CPUTIME_ID, &event, &timer) != 0) {
+        if (traceSignals) {
+            log_println("timer_create failed: %s", strerror(errno));
+        }
+        return 0;
+    }
+    spec.it_interval.tv_sec = periodNanos / 1000000000L;
+    spec.it_interval.tv_nsec = periodNanos % 1000000000L;
+    spec.it_value = spec.it_interval;
+    if (timer_settime(timer, 0, &spec, NULL) != 0) {
+        if (traceSignals) {
+            log_println("timer_settime failed: %s", strerror(errno));
+        }
+        timer_delete(timer);
+        return 0;
+    }
+    /* 0 is a valid timer id, so the returned value is biased by one */
+    return ((Address) timer) + 1;
+#else
+    return 0;
+#endif
+}
+
+/**
+ * Implementation of com.sun.max.vm.profilers.sampling.AsyncSamplingProfiler.nativeProfileStopThreadTimer().
+ */
+void nativeProfileStopThreadTimer(Address timer) {
+#if os_LINUX
+    if (timer != 0) {
+        timer_delete((timer_t) (timer - 1));
+    }
+#endif
+}
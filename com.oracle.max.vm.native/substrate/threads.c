@@ -52,6 +52,10 @@
 #if (os_DARWIN || os_LINUX)
 #   include <pthread.h>
 #   include <errno.h>
+#   include <time.h>
+#if os_DARWIN
+#   include <mach/mach.h>
+#endif
     typedef pthread_t Thread;
 #define thread_current() ((Thread) pthread_self())
 #elif os_SOLARIS
@@ -627,3 +631,41 @@ Java_com_sun_max_vm_thread_VmThread_nativeSetPriority(JNIEnv *env, jclass c, Add
     //    log_println("nativeSetPriority %d ignored!", priority);
 #endif
 }
+
+#if os_LINUX
+/* See MAKE_THREAD_CPUCLOCK in the kernel's posix-timers.h */
+#define CPUCLOCK_CLOCK_MASK 3
+#define CPUCLOCK_VIRT 1
+#endif
+
+JNIEXPORT jlong JNICALL
+Java_com_sun_max_vm_thread_VmThread_nativeCpuTime(JNIEnv *env, jclass c, Address nativeThread, jboolean userOnly) {
+#if os_LINUX
+    clockid_t clock;
+    struct timespec tp;
+    if (pthread_getcpuclockid((pthread_t) nativeThread, &clock) != 0) {
+        return -1;
+    }
+    if (userOnly) {
+        /* The virtual flavour of a thread CPU clock counts user time only */
+        clock = (clock & ~CPUCLOCK_CLOCK_MASK) | CPUCLOCK_VIRT;
+    }
+    if (clock_gettime(clock, &tp) != 0) {
+        return -1;
+    }
+    return ((jlong) tp.tv_sec) * 1000000000LL + tp.tv_nsec;
+#elif os_DARWIN
+    thread_basic_info_data_t info;
+    mach_msg_type_number_t count = THREAD_BASIC_INFO_COUNT;
+    if (thread_info(pthread_mach_thread_np((pthread_t) nativeThread), THREAD_BASIC_INFO, (thread_info_t) &info, &count) != KERN_SUCCESS) {
+        return -1;
+    }
+    jlong micros = ((jlong) info.user_time.seconds) * 1000000LL + info.user_time.microseconds;
+    if (!userOnly) {
+        micros += ((jlong) info.system_time.seconds) * 1000000LL + info.system_time.microseconds;
+    }
+    return micros * 1000LL;
+#else
+    return -1;
+#endif
+}
@@ -23,6 +23,8 @@
 #if os_WINDOWS
 #include <windows.h>
 #endif
+#include <errno.h>
+
 #include "c.h"
 #include "threads.h"
 #include "virtualMemory.h"
@@ -224,6 +226,29 @@ static void setInstructionPointer(UContext *ucontext, Address stub) {
 #endif
 }
 
+/*
+ * The platforms on which the stack of a thread interrupted by a profiling signal can be walked.
+ */
+#define PROFILE_SIGNAL_SUPPORTED ((os_LINUX && (isa_AMD64 || isa_AARCH64)) || (os_DARWIN && isa_AMD64))
+
+#if PROFILE_SIGNAL_SUPPORTED
+/**
+ * Gets the stack and frame pointers of the context interrupted by a signal.
+ */
+static void getStackAndFramePointers(UContext *ucontext, Address *sp, Address *fp) {
+#if os_LINUX && isa_AMD64
+    *sp = ucontext->uc_mcontext.gregs[REG_RSP];
+    *fp = ucontext->uc_mcontext.gregs[REG_RBP];
+#elif os_LINUX && isa_AARCH64
+    *sp = ucontext->uc_mcontext.sp;
+    *fp = ucontext->uc_mcontext.regs[29];
+#elif os_DARWIN && isa_AMD64
+    *sp = ucontext->uc_mcontext->__ss.__rsp;
+    *fp = ucontext->uc_mcontext->__ss.__rbp;
+#endif
+}
+#endif
+
 static Address getFaultAddress(SigInfo * sigInfo, UContext *ucontext) { //there is no siginfo_t struct in Windows
 #if (os_DARWIN || os_SOLARIS || os_LINUX )
     return (Address) sigInfo->si_addr;
@@ -507,6 +532,52 @@ static void userSignalHandlerDef(int signal, SigInfo *signalInfo, UContext *ucon
 /* Defined global declared in trap.h */
 SignalHandlerFunction userSignalHandler = (SignalHandlerFunction) userSignalHandlerDef;
 
+#if PROFILE_SIGNAL_SUPPORTED
+/**
+ *  ATTENTION: this signature must match the signature of
+ *  'com.sun.max.vm.profilers.sampling.AsyncSamplingProfiler.sample(Pointer, Pointer, Pointer, Pointer)'.
+ */
+typedef void (*ProfileSampleFunction)(TLA tla, Address ip, Address sp, Address fp);
+
+static ProfileSampleFunction profileSample = NULL;
+
+/**
+ * The handler for the SIGPROF signals sent by the per-thread CPU time timers of the asynchronous
+ * sampling profiler. The interrupted context is passed to the VM which walks the stack and records
+ * it in a per-thread buffer. Signals that arrive on threads not attached to the VM are ignored.
+ */
+static void profileSignalHandler(int signal, SigInfo *signalInfo, UContext *ucontext) {
+    if (profileSample == NULL) {
+        return;
+    }
+    TLA tla = tla_current();
+    if (tla == 0) {
+        return;
+    }
+    int savedErrno = errno;
+    Address sp;
+    Address fp;
+    getStackAndFramePointers(ucontext, &sp, &fp);
+    profileSample(tla, getInstructionPointer(ucontext), sp, fp);
+    errno = savedErrno;
+}
+#endif
+
+/**
+ * Implementation of com.sun.max.vm.profilers.sampling.AsyncSamplingProfiler.nativeProfileInitialize().
+ *
+ * @return false if asynchronous sampling is not supported on this platform
+ */
+boolean nativeProfileInitialize(Address sampleFunction) {
+#if PROFILE_SIGNAL_SUPPORTED
+    profileSample = (ProfileSampleFunction) sampleFunction;
+    setSignalHandler(SIGPROF, (SignalHandlerFunction) profileSignalHandler);
+    return true;
+#else
+    return false;
+#endif
+}
+
 /**
  * Implementation of com.sun.max.vm.runtime.Trap.nativeInitialize().
  */
@@ -535,6 +606,7 @@ void nativeTrapInitialize(Address javaTrapStub) {
     sigaddset(&vmSignals, SIGILL);
     sigaddset(&vmSignals, SIGFPE);
     sigaddset(&vmSignals, SIGUSR1);
+    sigaddset(&vmSignals, SIGPROF);
 
     /* Let all threads be stopped by a debugger. */
     sigaddset(&vmSignals, SIGTRAP);
@@ -542,6 +614,7 @@ void nativeTrapInitialize(Address javaTrapStub) {
     /* Define the signals to be blocked on thread exit. */
     sigemptyset(&blockedOnThreadExitSignals);
     sigaddset(&blockedOnThreadExitSignals, SIGUSR1);
+    sigaddset(&blockedOnThreadExitSignals, SIGPROF);
 
     /* Apply the normal thread mask to the primordial thread. */
     thread_setSignalMask(SIG_BLOCK, &allSignals, NULL);
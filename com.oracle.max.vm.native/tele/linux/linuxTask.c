@@ -33,6 +33,7 @@
 #include <sys/wait.h>
 #include <sys/time.h>
 #include <sys/prctl.h>
+#include <sys/uio.h>
 
 #include "log.h"
 #include "ptrace.h"
@@ -924,6 +925,81 @@ Java_com_sun_max_tele_debug_linux_LinuxTask_nativeReadBytes(JNIEnv *env, jclass
     return teleProcess_read(&ph, env, c, src, dst, isDirectByteBuffer, dstOffset, length);
 }
 
+/* Value returned by task_read_vectored when process_vm_readv is not usable. */
+#define READ_VECTORED_UNSUPPORTED -2
+
+/* The maximum number of remote iovecs passed to a single process_vm_readv call. */
+#define READ_VECTORED_MAX_IOVECS 1024
+
+/**
+ * Copies 'size' bytes from 'src' in the address space of 'tgid' to 'dst' in the caller's address space with
+ * process_vm_readv(2). The remote range is described by one iovec per page: as the system call stops at the
+ * first iovec it cannot transfer, a read running into an unmapped page still copies all the pages before it.
+ * process_vm_readv also fails with EFAULT on pages that are mapped but not readable by the process, such as
+ * stack guard zones, which /proc/pid/mem can still read. The caller therefore retries any read that copies
+ * fewer than 'size' bytes through /proc/pid/mem, and only stops using this function on ENOSYS or EPERM.
+ *
+ * @return the number of bytes copied, -1 if no byte could be copied or READ_VECTORED_UNSUPPORTED if
+ *         process_vm_readv is not available or not permitted
+ */
+static ssize_t task_read_vectored(pid_t tgid, Address src, void *dst, size_t size) {
+    struct iovec remote[READ_VECTORED_MAX_IOVECS];
+    const Address pageSize = (Address) sysconf(_SC_PAGESIZE);
+    size_t bytesRead = 0;
+    while (bytesRead < size) {
+        Address address = src + bytesRead;
+        size_t chunk = 0;
+        int n = 0;
+        while (n < READ_VECTORED_MAX_IOVECS && bytesRead + chunk < size) {
+            Address pageEnd = (address & ~(pageSize - 1)) + pageSize;
+            size_t length = pageEnd - address;
+            if (length > size - bytesRead - chunk) {
+                length = size - bytesRead - chunk;
+            }
+            remote[n].iov_base = (void *) address;
+            remote[n].iov_len = length;
+            address += length;
+            chunk += length;
+            n++;
+        }
+        struct iovec local = {(char *) dst + bytesRead, chunk};
+        ssize_t result = process_vm_readv(tgid, &local, 1, remote, n, 0);
+        if (result < 0) {
+            if (errno == ENOSYS || errno == EPERM) {
+                return READ_VECTORED_UNSUPPORTED;
+            }
+            break;
+        }
+        bytesRead += result;
+        if ((size_t) result < chunk) {
+            break;
+        }
+    }
+    return bytesRead == 0 && size != 0 ? -1 : (ssize_t) bytesRead;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_sun_max_tele_debug_linux_LinuxTask_nativeReadVectored(JNIEnv *env, jclass c, jint tgid, jlong src, jobject dst, jboolean isDirectByteBuffer, jint dstOffset, jint length) {
+    ssize_t result;
+    if (isDirectByteBuffer) {
+        jbyte *dstBuffer = (*env)->GetDirectBufferAddress(env, dst);
+        if (dstBuffer == 0) {
+            log_println("Failed to get address from NIO direct buffer");
+            return -1;
+        }
+        result = task_read_vectored(tgid, (Address) src, dstBuffer + dstOffset, (size_t) length);
+    } else {
+        // no JNI calls are made while the array is pinned
+        jbyte *dstBuffer = (*env)->GetPrimitiveArrayCritical(env, dst, NULL);
+        if (dstBuffer == 0) {
+            return -1;
+        }
+        result = task_read_vectored(tgid, (Address) src, dstBuffer + dstOffset, (size_t) length);
+        (*env)->ReleasePrimitiveArrayCritical(env, dst, dstBuffer, 0);
+    }
+    return (jint) result;
+}
+
 JNIEXPORT jboolean JNICALL
 Java_com_sun_max_tele_debug_linux_LinuxTask_nativeSetInstructionPointer(JNIEnv *env, jclass c, jint tid, jlong instructionPointer) {
     user_regs_structure registers;
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.tests.vm.output;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.heap.*;
+
+/**
+ * Writes heap dumps while holding instances of a marker class and parses them back. The records must be well formed,
+ * the marker class must be named and all its instances dumped, and a dump must not use up immortal memory.
+ */
+public class HeapDumpRoundTrip implements MaxineOnly {
+
+    static class Marker {
+        final int index;
+
+        Marker(int index) {
+            this.index = index;
+        }
+    }
+
+    private static final int MARKERS = 1000;
+
+    private static final int STRING = 0x01;
+    private static final int LOAD_CLASS = 0x02;
+    private static final int HEAP_DUMP_SEGMENT = 0x1C;
+    private static final int HEAP_DUMP_END = 0x2C;
+    private static final int T_OBJECT = 2;
+
+    private static int idSize;
+
+    public static void main(String[] args) throws Exception {
+        final Marker[] markers = new Marker[MARKERS];
+        for (int i = 0; i < MARKERS; i++) {
+            markers[i] = new Marker(i);
+        }
+        final File file = File.createTempFile("HeapDumpRoundTrip", ".hprof");
+        try {
+            HeapDump.dump(file.getPath(), true);
+            check(file, "live");
+            final Pointer mark = ImmortalHeap.getImmortalHeap().mark();
+            HeapDump.dump(file.getPath(), false);
+            check(file, "all");
+            System.out.println("immortal memory released: " + ImmortalHeap.getImmortalHeap().mark().equals(mark));
+        } finally {
+            file.delete();
+        }
+        System.out.println("markers: " + markers.length);
+    }
+
+    private static void check(File file, String kind) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        final Map<Long, String> strings = new HashMap<Long, String>();
+        final String markerName = Marker.class.getName().replace('.', '/');
+        final List<byte[]> segments = new ArrayList<byte[]>();
+        long markerClass = 0;
+        boolean endLast = false;
+        final StringBuilder format = new StringBuilder();
+        try {
+            for (int b = in.read(); b > 0; b = in.read()) {
+                format.append((char) b);
+            }
+            idSize = in.readInt();
+            in.readLong();
+            while (true) {
+                final int tag = in.read();
+                if (tag < 0) {
+                    break;
+                }
+                endLast = tag == HEAP_DUMP_END;
+                in.readInt();
+                final byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                final ByteBuffer b = ByteBuffer.wrap(body);
+                if (tag == STRING) {
+                    final long id = id(b);
+                    strings.put(id, new String(body, idSize, body.length - idSize, "UTF-8"));
+                } else if (tag == LOAD_CLASS) {
+                    b.getInt();
+                    final long classId = id(b);
+                    b.getInt();
+                    if (markerName.equals(strings.get(id(b)))) {
+                        markerClass = classId;
+                    }
+                } else if (tag == HEAP_DUMP_SEGMENT) {
+                    segments.add(body);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        int markerInstances = 0;
+        boolean wellFormed = true;
+        for (byte[] segment : segments) {
+            try {
+                markerInstances += countInstances(ByteBuffer.wrap(segment), markerClass);
+            } catch (RuntimeException e) {
+                wellFormed = false;
+            }
+        }
+        System.out.println(kind + ": " + format + ", segments well formed: " + wellFormed + ", ends with end record: " + endLast +
+                        ", marker class named: " + (markerClass != 0) + ", marker instances: " + markerInstances);
+    }
+
+    private static long id(ByteBuffer b) {
+        return idSize == 8 ? b.getLong() : b.getInt() & 0xFFFFFFFFL;
+    }
+
+    private static void skip(ByteBuffer b, int n) {
+        b.position(b.position() + n);
+    }
+
+    private static int typeSize(int type) {
+        switch (type) {
+            case T_OBJECT: return idSize;
+            case 4:
+            case 8: return 1;
+            case 5:
+            case 9: return 2;
+            case 6:
+            case 10: return 4;
+            case 7:
+            case 11: return 8;
+            default:
+                throw new IllegalArgumentException("invalid basic type " + type);
+        }
+    }
+
+    /**
+     * Parses the sub-records of a heap dump segment, which must end exactly at the end of the segment.
+     *
+     * @return the number of instances of {@code classId} dumped in the segment
+     */
+    private static int countInstances(ByteBuffer b, long classId) {
+        int count = 0;
+        while (b.hasRemaining()) {
+            final int tag = b.get() & 0xFF;
+            switch (tag) {
+                case 0xFF: // ROOT_UNKNOWN
+                case 0x05: // ROOT_STICKY_CLASS
+                case 0x07: // ROOT_MONITOR_USED
+                    skip(b, idSize);
+                    break;
+                case 0x03: // ROOT_JAVA_FRAME
+                case 0x08: // ROOT_THREAD_OBJECT
+                    skip(b, idSize + 8);
+                    break;
+                case 0x20: { // CLASS_DUMP
+                    skip(b, idSize + 4 + 6 * idSize);
+                    b.getInt();
+                    final int constants = b.getShort() & 0xFFFF;
+                    for (int i = 0; i < constants; i++) {
+                        b.getShort();
+                        skip(b, typeSize(b.get()));
+                    }
+                    final int statics = b.getShort() & 0xFFFF;
+                    for (int i = 0; i < statics; i++) {
+                        skip(b, idSize);
+                        skip(b, typeSize(b.get()));
+                    }
+                    final int fields = b.getShort() & 0xFFFF;
+                    skip(b, fields * (idSize + 1));
+                    break;
+                }
+                case 0x21: // INSTANCE_DUMP
+                    skip(b, idSize + 4);
+                    if (id(b) == classId) {
+                        count++;
+                    }
+                    skip(b, b.getInt());
+                    break;
+                case 0x22: { // OBJ_ARRAY_DUMP
+                    skip(b, idSize + 4);
+                    final int length = b.getInt();
+                    skip(b, idSize + length * idSize);
+                    break;
+                }
+                case 0x23: { // PRIM_ARRAY_DUMP
+                    skip(b, idSize + 4);
+                    final int length = b.getInt();
+                    skip(b, length * typeSize(b.get()));
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("unknown heap dump sub-record 0x" + Integer.toHexString(tag));
+            }
+        }
+        return count;
+    }
+}
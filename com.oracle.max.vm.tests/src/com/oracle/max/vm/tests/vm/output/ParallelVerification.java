@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.tests.vm.output;
+
+import com.sun.max.vm.actor.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.verifier.*;
+
+/**
+ * Verifies several boot classes and a class of the system class loader from concurrent threads with
+ * {@linkplain ParallelVerifier parallel verification} enabled, so that the worker threads serve more than one class
+ * at a time, and checks that every method of these classes ends up verified.
+ */
+public class ParallelVerification implements MaxineOnly {
+
+    private static final String[] CLASSES = {
+        "javax.swing.JTable",
+        "javax.swing.text.html.HTMLDocument",
+        "javax.swing.plaf.basic.BasicTreeUI",
+        "java.util.logging.LogManager",
+        "java.util.concurrent.ConcurrentSkipListMap",
+        "com.oracle.max.vm.tests.vm.output.ParallelVerification$Subject"
+    };
+
+    /**
+     * A class of the system class loader, with methods that load further classes while being verified.
+     */
+    static class Subject {
+        Object list(int n) {
+            final java.util.List<Object> list = n > 0 ? new java.util.ArrayList<Object>() : new java.util.LinkedList<Object>();
+            list.add(Thread.currentThread());
+            return list;
+        }
+
+        Object map(boolean sorted) {
+            final java.util.Map<String, Object> map = sorted ? new java.util.TreeMap<String, Object>() : new java.util.HashMap<String, Object>();
+            return map;
+        }
+
+        static Runnable task() {
+            return new Thread();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ParallelVerifier.ParallelVerificationThreads = 2;
+        ParallelVerifier.ParallelVerificationMinMethods = 1;
+        final ClassActor[] classActors = new ClassActor[CLASSES.length];
+        for (int i = 0; i < CLASSES.length; i++) {
+            classActors[i] = ClassActor.fromJava(Class.forName(CLASSES[i], false, ParallelVerification.class.getClassLoader()));
+        }
+        final Throwable[] errors = new Throwable[CLASSES.length];
+        final Thread[] threads = new Thread[CLASSES.length];
+        for (int i = 0; i < CLASSES.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Verifier.verifierFor(classActors[index]).verify();
+                    } catch (Throwable t) {
+                        errors[index] = t;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (int i = 0; i < CLASSES.length; i++) {
+            threads[i].join();
+            System.out.println(CLASSES[i] + ": error: " + errors[i] + ", unverified methods: " +
+                            (unverified(classActors[i].localVirtualMethodActors()) + unverified(classActors[i].localStaticMethodActors())));
+        }
+    }
+
+    private static int unverified(MethodActor[] methodActors) {
+        int count = 0;
+        for (MethodActor methodActor : methodActors) {
+            if (methodActor instanceof ClassMethodActor && !methodActor.isProxyToDefault()) {
+                final ClassMethodActor classMethodActor = (ClassMethodActor) methodActor;
+                if (classMethodActor.compilee() == classMethodActor && classMethodActor.codeAttribute() != null &&
+                                !Actor.isVerified(classMethodActor.flags())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
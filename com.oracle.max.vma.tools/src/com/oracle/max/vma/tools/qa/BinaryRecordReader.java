@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vma.tools.qa;
+
+import static com.oracle.max.vm.ext.vma.store.bin.VMABinaryStoreFormat.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+import com.oracle.max.vm.ext.vma.store.bin.*;
+import com.oracle.max.vm.ext.vma.store.txt.*;
+import com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key;
+
+/**
+ * Reads a store in the {@link VMABinaryStoreFormat binary format} and delivers the records in the same form, and
+ * the same time order, as {@link com.oracle.max.vma.tools.log.ConvertLog.MergeCommand} does for a set of text
+ * stores, so that {@link ProcessLog} handles the two formats identically.
+ *
+ * The file is memory mapped and the segments are decompressed and decoded in parallel by a pool of threads,
+ * a bounded number of segments ahead of the merge. The merge itself, which interleaves the per-thread stores
+ * by time, is sequential.
+ */
+public class BinaryRecordReader extends ProcessLog.RecordReader {
+
+    private static final long REGION_SIZE = 1024L * 1024 * 1024;
+    /**
+     * Number of decoded segments held for each store, including the one being merged.
+     */
+    private static final int SEGMENTS_AHEAD = 2;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final Key[] keys = Key.values();
+
+    private static class Segment {
+        final int length;
+        final ByteBuffer data;
+
+        Segment(int length, ByteBuffer data) {
+            this.length = length;
+            this.data = data;
+        }
+    }
+
+    /**
+     * The decoded records of one segment. The time slot of a timed record is left empty
+     * and the raw time value is held in {@link #times}.
+     */
+    private static class Batch {
+        final ArrayList<String[]> records = new ArrayList<String[]>();
+        long[] times = new long[1024];
+
+        void add(String[] record, long time) {
+            if (records.size() == times.length) {
+                times = Arrays.copyOf(times, 2 * times.length);
+            }
+            times[records.size()] = time;
+            records.add(record);
+        }
+    }
+
+    /**
+     * The merge state for one store.
+     */
+    private class StoreCursor implements Comparable<StoreCursor> {
+        final int storeNumber;
+        final ArrayList<Segment> segments = new ArrayList<Segment>();
+        final LinkedList<Future<Batch>> pending = new LinkedList<Future<Batch>>();
+        boolean perThread;
+        int nextSegment;
+        Batch batch;
+        int index;
+        boolean absTime;
+        long lastAbsTime;
+        String threadShortForm;
+
+        /**
+         * The current record, {@code null} when the store is exhausted.
+         */
+        String[] record;
+        Key key;
+
+        StoreCursor(int storeNumber) {
+            this.storeNumber = storeNumber;
+        }
+
+        void submit() {
+            while (pending.size() < SEGMENTS_AHEAD && nextSegment < segments.size()) {
+                final Segment segment = segments.get(nextSegment++);
+                final boolean insertThread = perThread;
+                pending.add(executor.submit(new Callable<Batch>() {
+                    public Batch call() throws Exception {
+                        return decode(segment, insertThread);
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Moves to the next record of the store, completing its time and thread components.
+         */
+        void advance() throws IOException {
+            while (batch == null || index >= batch.records.size()) {
+                if (pending.isEmpty()) {
+                    record = null;
+                    return;
+                }
+                try {
+                    batch = pending.removeFirst().get();
+                } catch (InterruptedException ex) {
+                    throw new IOException(ex);
+                } catch (ExecutionException ex) {
+                    throw new IOException(ex.getCause());
+                }
+                index = 0;
+                submit();
+            }
+            long time = batch.times[index];
+            record = batch.records.get(index);
+            batch.records.set(index, null);
+            index++;
+            key = VMATextStoreFormat.getCommand(false, record[0]);
+            if (time != NO_TIME) {
+                lastAbsTime = absTime ? time : lastAbsTime + time;
+                record[1] = Long.toString(lastAbsTime);
+                if (perThread && VMATextStoreFormat.hasTimeAndThread(key)) {
+                    record[2] = threadShortForm;
+                }
+            } else if (key == Key.INITIALIZE_STORE) {
+                absTime = record[2].equals("true");
+                lastAbsTime = Long.parseLong(record[1]);
+            } else if (key == Key.FINALIZE_STORE) {
+                long t = Long.parseLong(record[1]);
+                lastAbsTime = absTime ? t : lastAbsTime + t;
+                record[1] = Long.toString(lastAbsTime);
+            } else if (key == Key.THREAD_DEFINITION) {
+                threadShortForm = record[2];
+            }
+        }
+
+        public int compareTo(StoreCursor other) {
+            if (lastAbsTime != other.lastAbsTime) {
+                return lastAbsTime < other.lastAbsTime ? -1 : 1;
+            }
+            return storeNumber - other.storeNumber;
+        }
+    }
+
+    private final RandomAccessFile file;
+    private final ExecutorService executor;
+    private final PriorityQueue<StoreCursor> cursors = new PriorityQueue<StoreCursor>();
+    private long uncompressedSize;
+    private long startTime = Long.MAX_VALUE;
+    private long endTime;
+    private boolean started;
+    private boolean finished;
+
+    public BinaryRecordReader(File storeFile) throws IOException {
+        file = new RandomAccessFile(storeFile, "r");
+        if (file.readInt() != MAGIC) {
+            file.close();
+            throw new IOException(storeFile + " is not a binary VMA store");
+        }
+        if (file.readInt() != VERSION) {
+            file.close();
+            throw new IOException(storeFile + " has an unsupported binary VMA store version");
+        }
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "BinaryRecordReader");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        Map<Integer, StoreCursor> stores = mapSegments();
+        for (StoreCursor cursor : stores.values()) {
+            cursor.perThread = (readStoreMode(cursor.segments.get(0)) & VMATextStoreFormat.PER_THREAD) != 0;
+            cursor.submit();
+            cursor.advance();
+            if (cursor.key != Key.INITIALIZE_STORE) {
+                throw new IOException("store " + cursor.storeNumber + " does not start with " + Key.INITIALIZE_STORE);
+            }
+            startTime = Math.min(startTime, cursor.lastAbsTime);
+            cursor.advance();
+            if (cursor.record != null) {
+                cursors.add(cursor);
+            }
+        }
+    }
+
+    /**
+     * Checks whether {@code file} starts with the binary store {@link VMABinaryStoreFormat#MAGIC}.
+     */
+    public static boolean isBinaryStore(File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(file));
+            try {
+                return in.readInt() == MAGIC;
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * An estimate of the number of records in the store, for sizing the record list.
+     */
+    public int estimateRecordCount() {
+        return (int) Math.min(Integer.MAX_VALUE, uncompressedSize / 8);
+    }
+
+    /**
+     * Maps the file and locates the segments of each store, without decompressing them.
+     */
+    private Map<Integer, StoreCursor> mapSegments() throws IOException {
+        Map<Integer, StoreCursor> stores = new TreeMap<Integer, StoreCursor>();
+        FileChannel channel = file.getChannel();
+        long size = channel.size();
+        long position = 8;
+        long regionStart = position;
+        MappedByteBuffer region = null;
+        while (position < size) {
+            if (region == null || position + SEGMENT_HEADER_SIZE > regionStart + region.capacity()) {
+                if (position + SEGMENT_HEADER_SIZE > size) {
+                    break;
+                }
+                regionStart = position;
+                region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+            }
+            int at = (int) (position - regionStart);
+            int storeNumber = region.getInt(at);
+            int length = region.getInt(at + 4);
+            int dataLength = region.getInt(at + 8);
+            if (at + SEGMENT_HEADER_SIZE + dataLength > region.capacity()) {
+                if (regionStart == position) {
+                    break;
+                }
+                region = null;
+                continue;
+            }
+            ByteBuffer data = region.duplicate();
+            data.position(at + SEGMENT_HEADER_SIZE);
+            data.limit(at + SEGMENT_HEADER_SIZE + dataLength);
+            StoreCursor cursor = stores.get(storeNumber);
+            if (cursor == null) {
+                cursor = new StoreCursor(storeNumber);
+                stores.put(storeNumber, cursor);
+            }
+            cursor.segments.add(new Segment(length, data.slice()));
+            uncompressedSize += length;
+            position += SEGMENT_HEADER_SIZE + dataLength;
+        }
+        if (position < size) {
+            System.err.println("binary VMA store is truncated at offset " + position);
+        }
+        return stores;
+    }
+
+    private static byte[] inflate(Segment segment, int length) throws IOException {
+        byte[] input = new byte[segment.data.remaining()];
+        segment.data.duplicate().get(input);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            byte[] result = new byte[length];
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int count = inflater.inflate(result, n, length - n);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("corrupt binary VMA store segment");
+                }
+                n += count;
+            }
+            return result;
+        } catch (DataFormatException ex) {
+            throw new IOException(ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads the mode argument of the {@link Key#INITIALIZE_STORE} record that starts the first segment of a store.
+     */
+    private static int readStoreMode(Segment segment) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(inflate(segment, Math.min(64, segment.length)));
+        b.get(); // key
+        b.get(); // LONG
+        readVarLong(b); // time
+        b.get(); // STRING_DEF
+        b.position(b.position() + (int) readVarLong(b));
+        b.get(); // LONG
+        return (int) unZigZag(readVarLong(b));
+    }
+
+    private static long readVarLong(ByteBuffer b) {
+        long result = 0;
+        int shift = 0;
+        byte x;
+        do {
+            x = b.get();
+            result |= (long) (x & 0x7F) << shift;
+            shift += 7;
+        } while ((x & 0x80) != 0);
+        return result;
+    }
+
+    private static Batch decode(Segment segment, boolean insertThread) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(inflate(segment, segment.length));
+        ArrayList<String> strings = new ArrayList<String>();
+        ArrayList<String> parts = new ArrayList<String>();
+        Batch batch = new Batch();
+        while (b.hasRemaining()) {
+            Key key = keys[b.get()];
+            parts.clear();
+            parts.add(key.code);
+            long time = NO_TIME;
+            if (VMATextStoreFormat.hasTime(key)) {
+                b.get(); // LONG
+                time = unZigZag(readVarLong(b));
+                parts.add(null);
+                if (insertThread && VMATextStoreFormat.hasTimeAndThread(key)) {
+                    parts.add(null);
+                }
+            }
+            while (true) {
+                byte tag = b.get();
+                if (tag == END) {
+                    break;
+                }
+                switch (tag) {
+                    case LONG:
+                        parts.add(Long.toString(unZigZag(readVarLong(b))));
+                        break;
+                    case STRING_DEF: {
+                        byte[] bytes = new byte[(int) readVarLong(b)];
+                        b.get(bytes);
+                        String s = new String(bytes, UTF8);
+                        strings.add(s);
+                        parts.add(s);
+                        break;
+                    }
+                    case STRING_REF:
+                        parts.add(strings.get((int) readVarLong(b)));
+                        break;
+                    case FLOAT:
+                        parts.add(Float.toString(b.getFloat()));
+                        break;
+                    case DOUBLE:
+                        parts.add(Double.toString(b.getDouble()));
+                        break;
+                    case CHAR:
+                        parts.add(String.valueOf((char) b.get()));
+                        break;
+                    case REPEATED_ID:
+                        parts.add(String.valueOf(VMATextStoreFormat.REPEAT_ID));
+                        break;
+                    default:
+                        throw new IOException("corrupt binary VMA store segment, unknown tag " + tag);
+                }
+            }
+            batch.add(parts.toArray(new String[parts.size()]), time);
+        }
+        return batch;
+    }
+
+    @Override
+    public String[] readLine() throws IOException {
+        if (!started) {
+            started = true;
+            // The merged store is neither per-thread nor batched and uses absolute time
+            return new String[] {Key.INITIALIZE_STORE.code, Long.toString(startTime == Long.MAX_VALUE ? 0 : startTime), "true", "0"};
+        }
+        while (!cursors.isEmpty()) {
+            StoreCursor cursor = cursors.poll();
+            String[] result = cursor.record;
+            Key key = cursor.key;
+            cursor.advance();
+            if (cursor.record != null) {
+                cursors.add(cursor);
+            }
+            if (key == Key.FINALIZE_STORE) {
+                endTime = Math.max(endTime, Long.parseLong(result[1]));
+                continue;
+            }
+            return result;
+        }
+        if (!finished) {
+            finished = true;
+            return new String[] {Key.FINALIZE_STORE.code, Long.toString(endTime)};
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        file.close();
+    }
+}
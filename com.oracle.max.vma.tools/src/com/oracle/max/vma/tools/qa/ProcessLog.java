@@ -32,13 +32,15 @@ import java.util.*;
 
 import com.oracle.max.vm.ext.vma.*;
 import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.bin.*;
 import com.oracle.max.vm.ext.vma.store.txt.*;
 import com.oracle.max.vma.tools.log.*;
 import com.oracle.max.vma.tools.log.ConvertLog.MergeCommand.PushRecord;
 import com.sun.max.program.*;
 
 /**
- * Reads a log file in the format generated by {@link CSFVMATextStore}.
+ * Reads a log file in the format generated by {@link CSFVMATextStore}, or a binary store generated by
+ * {@link VMABinaryStore}, which is read by {@link BinaryRecordReader}.
  *
  * Object identifiers in the log may be reused owing to garbage collection. Object identifiers in the {@link #objects}
  * map are unique and always qualified by the allocation (gc) epoch, {@link #allocationEpoch). I.e., an id X in the log is
@@ -407,16 +409,23 @@ public class ProcessLog {
 
         File dataDir = new File(dataDirName);
         File dataFile =  null;
+        File binaryFile = null;
         if (dataDir.isDirectory()) {
             dataFile = new File(dataDir, VMAStoreFile.GLOBAL_STORE);
+            binaryFile = new File(dataDir, VMABinaryStoreFormat.BINARY_STORE);
         } else {
             dataFile = dataDir;
+            binaryFile = dataDir;
         }
 
         int adviceRecordListCountEstimate = 0;
         RecordReader reader = null;
 
-        if (dataFile.exists()) {
+        if (BinaryRecordReader.isBinaryStore(binaryFile)) {
+            BinaryRecordReader binaryReader = new BinaryRecordReader(binaryFile);
+            adviceRecordListCountEstimate = binaryReader.estimateRecordCount();
+            reader = binaryReader;
+        } else if (dataFile.exists()) {
             adviceRecordListCountEstimate = estimateRecordCount(new File[] {dataFile});
             reader = checkTimeOrdered(dataFile);
         } else {
@@ -36,6 +36,7 @@ public final class C1XOptions {
     public static boolean OptInline                          = ____;
     public static boolean OptInlineExcept                    = ____;
     public static boolean OptInlineSynchronized              = ____;
+    public static boolean OptBindMethodHandles               = ____;
 
     public static int     MaximumInstructionCount            = 37000;
     public static float   MaximumInlineRatio                 = 0.90f;
@@ -214,6 +215,7 @@ public final class C1XOptions {
 
         // Level 2 optimizations
         OptInline                       = ll;
+        OptBindMethodHandles            = ll;
         OptBlockMerging                 = ll;
 
         // Level 3 optimizations
@@ -912,7 +912,7 @@ public final class GraphBuilder {
         }
 
         Value[] args = curState.popArguments(target.signature().argumentSlots(false));
-        if (!tryRemoveCall(target, args, true)) {
+        if (!tryBindMethodHandle(target, args, cpi, constantPool) && !tryRemoveCall(target, args, true)) {
             if (!(target instanceof RiResolvedMethod) || !tryInline((RiResolvedMethod) target, args)) {
                 appendInvoke(INVOKESTATIC, target, args, true, cpi, constantPool);
             }
@@ -940,7 +940,11 @@ public final class GraphBuilder {
         ConstantPool cp = (ConstantPool) constantPool;
         InvokeDynamicConstant invokeDynamicConstant = cp.invokeDynamicAt(cpi);
         args = appendObjectToArguments(args, invokeDynamicConstant.getAppendix());
-        appendInvoke(INVOKESTATIC, target, args, true, cpi, constantPool);
+        // the appendix is the call site's target when the call site is constant, so inlining
+        // the linker method exposes the invokeBasic of a constant method handle
+        if (!C1XOptions.OptBindMethodHandles || !tryInline(resolved, args)) {
+            appendInvoke(INVOKESTATIC, target, args, true, cpi, constantPool);
+        }
     }
 
     void genInvokeVirtual(RiMethod target, int cpi, RiConstantPool constantPool) {
@@ -965,7 +969,7 @@ public final class GraphBuilder {
         }
 
         Value[] args = curState.popArguments(target.signature().argumentSlots(true));
-        if (!tryRemoveCall(target, args, false)) {
+        if (!tryBindMethodHandle(target, args, cpi, constantPool) && !tryRemoveCall(target, args, false)) {
             genInvokeIndirect(INVOKEVIRTUAL, target, args, cpi, constantPool);
         }
     }
@@ -976,10 +980,68 @@ public final class GraphBuilder {
         for (Value arg: arguments) {
             args[i++] = arg;
         }
-        args[i] = new Constant(CiConstant.forObject(object));
+        args[i] = appendConstant(CiConstant.forObject(object));
         return args;
     }
 
+    /**
+     * Binds a call to a method handle intrinsic whose method handle or member name operand is a
+     * compile-time constant, as it is for a lambda linked through a constant call site, to the
+     * method it reaches. The bound method is inlined if possible and called directly otherwise.
+     *
+     * @return {@code true} if the call was bound
+     */
+    private boolean tryBindMethodHandle(RiMethod target, Value[] args, int cpi, RiConstantPool constantPool) {
+        if (!C1XOptions.OptBindMethodHandles || !(target instanceof RiResolvedMethod)) {
+            return false;
+        }
+        RiResolvedMethod resolved = (RiResolvedMethod) target;
+        String intrinsic = resolved.intrinsic();
+        if (intrinsic == null) {
+            return false;
+        }
+        int opcode;
+        Value handle;
+        Value[] boundArgs;
+        if (intrinsic.equals(IntrinsicIDs.INVOKEBASIC)) {
+            // the lambda form invoker takes the method handle as its first argument
+            opcode = INVOKESTATIC;
+            handle = args[0];
+            boundArgs = args;
+        } else {
+            if (intrinsic.equals(IntrinsicIDs.LINKTOSTATIC)) {
+                opcode = INVOKESTATIC;
+            } else if (intrinsic.equals(IntrinsicIDs.LINKTOSPECIAL)) {
+                opcode = INVOKESPECIAL;
+            } else if (intrinsic.equals(IntrinsicIDs.LINKTOVIRTUAL)) {
+                opcode = INVOKEVIRTUAL;
+            } else if (intrinsic.equals(IntrinsicIDs.LINKTOINTERFACE)) {
+                opcode = INVOKEINTERFACE;
+            } else {
+                return false;
+            }
+            // the trailing member name is consumed by the linker
+            handle = args[args.length - 1];
+            boundArgs = Arrays.copyOf(args, args.length - 1);
+        }
+        if (!handle.isConstant() || handle.asConstant().isNull()) {
+            return false;
+        }
+        RiResolvedMethod bound = compilation.runtime.getMethodHandleTarget(resolved, handle.asConstant());
+        if (bound == null || isStatic(bound.accessFlags()) != (opcode == INVOKESTATIC)) {
+            return false;
+        }
+        C1XMetrics.BoundMethodHandles++;
+        if (opcode == INVOKEVIRTUAL || opcode == INVOKEINTERFACE) {
+            genInvokeIndirect(opcode, bound, boundArgs, cpi, constantPool);
+        } else if (opcode == INVOKESPECIAL) {
+            invokeDirect(bound, boundArgs, null, cpi, constantPool);
+        } else if (!tryInline(bound, boundArgs)) {
+            appendInvoke(INVOKESTATIC, bound, boundArgs, true, cpi, constantPool);
+        }
+        return true;
+    }
+
     void genInvokeSpecial(RiMethod target, RiType knownHolder, int cpi, RiConstantPool constantPool) {
         target = bindAccessorMethod(target);
         if (target == null) {
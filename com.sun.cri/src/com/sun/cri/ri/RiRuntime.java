@@ -53,6 +53,19 @@ public interface RiRuntime {
      */
     boolean mustNotInline(RiResolvedMethod method);
 
+    /**
+     * Gets the method reached by a call to a signature polymorphic method handle intrinsic
+     * whose dispatch operand is a compile-time constant. For {@code MethodHandle.invokeBasic}
+     * the operand is the receiver method handle; for the {@code linkTo*} methods it is the
+     * trailing {@code MemberName} argument.
+     *
+     * @param method a method handle intrinsic
+     * @param handle the constant dispatch operand of the call
+     * @return the method that will be invoked or {@code null} if {@code method} is not a method
+     * handle intrinsic or the target cannot be determined at compile time
+     */
+    RiResolvedMethod getMethodHandleTarget(RiResolvedMethod method, CiConstant handle);
+
     /**
      * Checks whether the specified method cannot be compiled.
      * @param method the method being called
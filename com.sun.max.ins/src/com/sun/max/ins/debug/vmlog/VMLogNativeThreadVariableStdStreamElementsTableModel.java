@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.ins.debug.vmlog;
+
+import com.sun.max.ins.*;
+import com.sun.max.tele.object.*;
+
+/**
+ * The streaming log keeps its in-memory buffers in the same format as the standard log.
+ */
+class VMLogNativeThreadVariableStdStreamElementsTableModel extends VMLogNativeThreadVariableStdElementsTableModel {
+    private static final long serialVersionUID = 4163280939815736625L;
+
+    VMLogNativeThreadVariableStdStreamElementsTableModel(Inspection inspection, TeleVMLog teleVMLog) {
+        super(inspection, teleVMLog);
+    }
+}
@@ -59,6 +59,7 @@ import com.sun.max.tele.method.CodeLocation.BytecodeLocation;
 import com.sun.max.tele.method.CodeLocation.MachineCodeLocation;
 import com.sun.max.tele.method.CodeLocation.VmCodeLocationManager;
 import com.sun.max.tele.object.*;
+import com.sun.max.tele.page.*;
 import com.sun.max.tele.reference.*;
 import com.sun.max.tele.reference.direct.*;
 import com.sun.max.tele.type.*;
@@ -805,6 +806,12 @@ public abstract class TeleVM implements MaxVM {
             this.teleProcess = createTeleProcess(commandLineArguments);
         }
         this.bootImageStart = loadBootImage();
+        if (System.getProperty("max.tele.page.stableBootCode") != null && teleProcess.dataAccess() instanceof PageDataAccess) {
+            // The VM patches direct calls and deoptimized entry points in the boot code region, so retaining its
+            // pages across steps is only an opt-in trade of exact machine code for inspection speed.
+            final BootImage.Header header = bootImage.header;
+            ((PageDataAccess) teleProcess.dataAccess()).addStableRegion(bootImageStart.plus(header.heapSize), header.codeSize);
+        }
         this.vmConfiguration = VMConfiguration.vmConfig();
         this.addressSpace = VmAddressSpace.make(this);
         this.memoryIO = VmMemoryIO.make(this, this.teleProcess);
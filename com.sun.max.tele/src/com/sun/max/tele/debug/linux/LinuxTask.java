@@ -40,7 +40,8 @@ import com.sun.max.util.*;
  * accessed via the Linux {@code ptrace} facility. The methods that interact with the traced task always execute on a
  * {@linkplain SingleThread single dedicated thread} fulfilling a requirement of ptrace. Because all operations
  * on the single dedicated thread are synchronized, there's no need to synchronize the methods in this class that
- * delegate to it.
+ * delegate to it. The exception is {@linkplain #readBytes(long, Object, boolean, int, int) reading memory}, which uses
+ * {@code process_vm_readv} from the calling thread where the kernel supports it.
  */
 public final class LinuxTask {
 
@@ -327,11 +328,51 @@ public final class LinuxTask {
      */
     private static native int nativeReadBytes(int tgid, int tid, long src, Object dst, boolean isDirectByteBuffer, int dstOffset, int length);
 
+    /**
+     * Copies bytes from the tele process with {@code process_vm_readv(2)}. This requires neither the task to be
+     * accessed from the ptrace thread nor a file descriptor, and a read running into an unmapped page still
+     * transfers the pages before it. Unlike {@code /proc/pid/mem}, it cannot read pages the process itself
+     * cannot read, such as mprotected stack guard zones, so a short read is retried through the latter.
+     *
+     * @return the number of bytes copied, -1 if there was an error or {@link #READ_VECTORED_UNSUPPORTED}
+     */
+    private static native int nativeReadVectored(int tgid, long src, Object dst, boolean isDirectByteBuffer, int dstOffset, int length);
+
+    /**
+     * Value returned by {@link #nativeReadVectored} if {@code process_vm_readv} is not available or not permitted.
+     */
+    private static final int READ_VECTORED_UNSUPPORTED = -2;
+
+    private static volatile boolean useReadVectored = true;
+
     public int readBytes(final long src, final Object dst, final boolean isDirectByteBuffer, final int offset, final int length) {
         if (!isLeader()) {
             return leader().readBytes(src, dst, isDirectByteBuffer, offset, length);
         }
         assert src != 0;
+        int vectored = -1;
+        if (useReadVectored) {
+            vectored = nativeReadVectored(tgid, src, dst, isDirectByteBuffer, offset, length);
+            if (vectored == length) {
+                return vectored;
+            }
+            if (vectored == READ_VECTORED_UNSUPPORTED) {
+                useReadVectored = false;
+                vectored = -1;
+            }
+        }
+        try {
+            final int result = readProcessMemory(src, dst, isDirectByteBuffer, offset, length);
+            return Math.max(result, vectored);
+        } catch (DataIOError error) {
+            if (vectored > 0) {
+                return vectored;
+            }
+            throw error;
+        }
+    }
+
+    private int readProcessMemory(final long src, final Object dst, final boolean isDirectByteBuffer, final int offset, final int length) {
         return execute(new Function<Integer>() {
             public Integer call() throws Exception {
                 final long addr = src;
@@ -54,7 +54,13 @@ public class Page extends AbstractVmHolder {
      */
     private long epoch = -1;
 
-    private final long index;
+    private long index;
+
+    /**
+     * Whether the contents of this page are known not to be changed by the VM, in which case they stay
+     * valid across process epochs until explicitly {@linkplain #invalidate() invalidated}.
+     */
+    private boolean stable;
 
 
     /**
@@ -110,7 +116,7 @@ public class Page extends AbstractVmHolder {
      * Decide whether to use direct buffers.
      * It is counter-productive to use them if the target VM is remote.
      */
-    private static boolean useDirectBuffers() {
+    static boolean useDirectBuffers() {
         return TeleVM.targetLocation().kind != Kind.REMOTE;
     }
 
@@ -121,6 +127,44 @@ public class Page extends AbstractVmHolder {
         this.buffer = allocate(teleIO, byteOrder, index);
     }
 
+    /**
+     * Recycles this page to cache the contents of another remote page.
+     *
+     * @param index the index of the remote page now cached by this page
+     * @param stable whether the contents of the remote page are known not to change while the VM runs
+     */
+    public void reassign(long index, boolean stable) {
+        this.index = index;
+        this.stable = stable;
+        epoch = -1;
+    }
+
+    public void setStable(boolean stable) {
+        this.stable = stable;
+    }
+
+    /**
+     * Determines if the cached contents reflect the remote memory, without refreshing them.
+     */
+    public boolean isCurrent() {
+        return epoch >= teleIO.epoch() || (stable && epoch >= 0);
+    }
+
+    /**
+     * Sets the contents of this page from bytes that were read from the remote memory in the current epoch.
+     *
+     * @param src the buffer containing the contents of the page
+     * @param srcOffset the offset in {@code src} of the first byte of this page
+     */
+    public void fill(ByteBuffer src, int srcOffset) {
+        final ByteBuffer srcSlice = src.duplicate();
+        srcSlice.position(srcOffset).limit(srcOffset + size());
+        final ByteBuffer dstSlice = buffer.duplicate();
+        dstSlice.position(0);
+        dstSlice.put(srcSlice);
+        epoch = teleIO.epoch();
+    }
+
     /**
      * @return size of the page in bytes.
      */
@@ -148,7 +192,7 @@ public class Page extends AbstractVmHolder {
      * @throws DataIOError
      */
     private void refreshRead() throws DataIOError {
-        if (epoch < teleIO.epoch()) {
+        if (!isCurrent()) {
             try {
                 DataIO.Static.readFully(teleIO, address(), buffer);
                 epoch = teleIO.epoch();
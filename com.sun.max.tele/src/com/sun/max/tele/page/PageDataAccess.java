@@ -34,6 +34,12 @@ import com.sun.max.tele.util.*;
 import com.sun.max.unsafe.*;
 
 /**
+ * Access to the memory of the VM through a cache of {@linkplain Page pages}.
+ * <p>
+ * The cache is a bounded LRU. Pages are versioned by the {@linkplain TeleIO#epoch() epoch} in which they were read,
+ * so a change of process state makes them stale without discarding them, except for pages in
+ * {@linkplain #addStableRegion(Address, long) stable regions} which stay valid across epochs. A miss reads several
+ * adjacent pages at once when accesses are sequential, as when walking objects.
  */
 public class PageDataAccess extends DataAccessAdapter {
 
@@ -49,6 +55,16 @@ public class PageDataAccess extends DataAccessAdapter {
     private final int offsetMask;
     private final ByteBuffer writeBuffer;
 
+    /**
+     * The maximum number of pages read from the remote memory by a single {@linkplain TeleIO#read read}.
+     */
+    private static final int MAX_PREFETCH_PAGES = 64;
+
+    /**
+     * The maximum number of pages in the cache.
+     */
+    private final int maxPages;
+
     public PageDataAccess(TeleVM vm, TeleIO teleProcess, DataModel dataModel) {
         super(dataModel.wordWidth, dataModel.endianness.asByteOrder());
         this.vm = vm;
@@ -57,6 +73,23 @@ public class PageDataAccess extends DataAccessAdapter {
         indexShift = Integer.numberOfTrailingZeros(teleProcess.pageSize());
         offsetMask = teleProcess.pageSize() - 1;
         writeBuffer = ByteBuffer.wrap(new byte[Longs.SIZE]).order(byteOrder);
+        maxPages = maxPages(teleIO.pageSize());
+    }
+
+    /**
+     * Gets the capacity of the page cache: the value of the {@code max.tele.page.cacheSize} property if set, or
+     * else the number of pages fitting in the {@linkplain Page#globalDirectBufferPoolSize direct buffer pool}.
+     */
+    private static int maxPages(int pageSize) {
+        final String value = System.getProperty("max.tele.page.cacheSize");
+        if (value != null) {
+            try {
+                return Math.max(MAX_PREFETCH_PAGES, Integer.parseInt(value));
+            } catch (NumberFormatException numberFormatException) {
+                TeleWarning.message("Malformed value for the \"max.tele.page.cacheSize\" property", numberFormatException);
+            }
+        }
+        return (int) Math.max(MAX_PREFETCH_PAGES, Page.globalDirectBufferPoolSize / pageSize);
     }
 
     public int pageSize() {
@@ -71,7 +104,33 @@ public class PageDataAccess extends DataAccessAdapter {
         return address.toInt() & offsetMask;
     }
 
-    private final HashMap<Long, Page> indexToPage = new HashMap<Long, Page>();
+    /**
+     * The cached pages, least recently used first. The cache is bounded by {@link #maxPages}; the page evicted
+     * when it is full is recycled for the new index, so that its buffer (possibly a slice of the global
+     * direct buffer) is not lost.
+     */
+    private final LinkedHashMap<Long, Page> indexToPage = new LinkedHashMap<Long, Page>(1024, 0.75f, true);
+
+    /**
+     * Ranges of page indexes, as {@code [first, last]} pairs, whose contents are not changed by the VM.
+     */
+    private final ArrayList<long[]> stableRanges = new ArrayList<long[]>();
+
+    /**
+     * Buffer for reading several adjacent pages with a single {@linkplain TeleIO#read read}.
+     */
+    private ByteBuffer prefetchBuffer;
+
+    /**
+     * The number of pages read on the next miss. It grows while misses are sequential, as when walking
+     * the objects of a heap region, and falls back to a single page on a random miss.
+     */
+    private int prefetchWindow = 1;
+
+    /**
+     * The index following the last page read on a miss.
+     */
+    private long nextMissIndex = -1;
 
     private static void checkNullPointer(Address address) {
         if (address.isZero()) {
@@ -102,20 +161,109 @@ public class PageDataAccess extends DataAccessAdapter {
         invalidate(address, Size.fromInt(size));
     }
 
-    private Page getPage(long index) {
+    /**
+     * Declares a range of memory whose contents are to be treated as not changed by the VM. Cached pages in
+     * the range remain valid when the process runs and are only refreshed when written through this object or
+     * explicitly {@linkplain #invalidate(Address, Size) invalidated}.
+     */
+    public synchronized void addStableRegion(Address start, long nBytes) {
+        final long first = getIndex(start);
+        final long last = getIndex(start.plus(nBytes - 1));
+        stableRanges.add(new long[] {first, last});
+        for (long index = first; index <= last; index++) {
+            final Page page = indexToPage.get(index);
+            if (page != null) {
+                page.setStable(true);
+            }
+        }
+    }
+
+    private boolean isStable(long index) {
+        for (long[] range : stableRanges) {
+            if (index >= range[0] && index <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Page getCachedPage(long index) {
         Page page = indexToPage.get(index);
         if (page == null) {
-            page = new Page(vm, teleIO, index, byteOrder);
-            indexToPage.put(index, page);
-            if ((indexToPage.size() % 1000) == 0) {
-                Trace.line(TRACE_VALUE, tracePrefix() + "Memory cache: " + indexToPage.size() + " pages");
+            if (indexToPage.size() >= maxPages) {
+                final Iterator<Page> eldest = indexToPage.values().iterator();
+                page = eldest.next();
+                eldest.remove();
+                page.reassign(index, isStable(index));
+            } else {
+                page = new Page(vm, teleIO, index, byteOrder);
+                page.setStable(isStable(index));
+                if ((indexToPage.size() % 1000) == 0) {
+                    Trace.line(TRACE_VALUE, tracePrefix() + "Memory cache: " + indexToPage.size() + " pages");
+                }
             }
+            indexToPage.put(index, page);
+        }
+        return page;
+    }
+
+    /**
+     * Gets the cached page for a given index, reading it and possibly some of the pages following it from
+     * the remote memory if it is not current.
+     *
+     * @param index the index of the page
+     * @param minPages the number of pages following the page that are known to be needed, including the page
+     */
+    private Page getPage(long index, int minPages) {
+        final Page page = getCachedPage(index);
+        if (!page.isCurrent()) {
+            prefetchWindow = index == nextMissIndex ? Math.min(prefetchWindow * 2, MAX_PREFETCH_PAGES) : 1;
+            final int window = Math.max(prefetchWindow, Math.min(minPages, MAX_PREFETCH_PAGES));
+            nextMissIndex = index + prefetch(index, window);
         }
         return page;
     }
 
     private Page getPage(Address address) {
-        return getPage(getIndex(address));
+        return getPage(getIndex(address), 1);
+    }
+
+    /**
+     * Refreshes the page at a given index and up to {@code window - 1} following pages that are not current, with a
+     * single read. If that read fails, only the page at {@code index} is refreshed, so that an unmapped page in the
+     * window does not affect the pages before it.
+     *
+     * @return the number of pages refreshed
+     */
+    private int prefetch(long index, int window) {
+        int n = 1;
+        while (n < window) {
+            final Page next = indexToPage.get(index + n);
+            if (next != null && next.isCurrent()) {
+                break;
+            }
+            n++;
+        }
+        if (n > 1) {
+            if (prefetchBuffer == null) {
+                final int size = MAX_PREFETCH_PAGES * pageSize();
+                prefetchBuffer = (Page.useDirectBuffers() ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size)).order(byteOrder);
+            }
+            final ByteBuffer buffer = prefetchBuffer.duplicate();
+            buffer.position(0).limit(n * pageSize());
+            try {
+                DataIO.Static.readFully(teleIO, Address.fromLong(index << indexShift), buffer);
+                for (int i = 0; i < n; i++) {
+                    getCachedPage(index + i).fill(buffer, i * pageSize());
+                }
+                return n;
+            } catch (DataIOError dataIOError) {
+                // fall back to the requested page only
+            } catch (TerminatedProcessIOException terminatedProcessIOException) {
+                // reported by the page itself
+            }
+        }
+        return 1;
     }
 
     public synchronized int read(Address address, ByteBuffer buffer, int offset, int length) {
@@ -124,7 +272,8 @@ public class PageDataAccess extends DataAccessAdapter {
         int pageOffset = getOffset(address);
         int i = 0;
         while (i < toRead) {
-            i += getPage(pageIndex).readBytes(pageOffset, buffer, i + offset);
+            final int pagesLeft = (pageOffset + toRead - i + pageSize() - 1) >>> indexShift;
+            i += getPage(pageIndex, pagesLeft).readBytes(pageOffset, buffer, i + offset);
             pageIndex++;
             pageOffset = 0;
         }
@@ -146,7 +295,7 @@ public class PageDataAccess extends DataAccessAdapter {
         return getPage(address).readInt(getOffset(address));
     }
 
-    public long readLong(Address address) {
+    public synchronized long readLong(Address address) {
         checkNullPointer(address);
         return getPage(address).readLong(getOffset(address));
     }
@@ -148,11 +148,6 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
      */
     public int firstSubclassActorId;
 
-    /**
-     * Class id of the next sibling of this actor in its superclass' list of sub-classes.
-     */
-    private int nextSiblingId;
-
     public static final int HAS_MULTIPLE_CONCRETE_SUBTYPE_MARK = 0;
     public static final int NO_CONCRETE_SUBTYPE_MARK = NULL_CLASS_ID;
 
@@ -204,6 +199,11 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
 
     public Object[] signers;
 
+    /**
+     * The hash of this class's class file, kept by the {@link VerificationCache} until the class is verified.
+     */
+    public String classfileHash;
+
     private ProtectionDomain protectionDomain;
 
     /**
@@ -256,17 +256,18 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
         } else {
             this.id = elementClassActor().makeID(numberOfDimensions());
         }
-        ClassIDManager.register(this);
         this.typeDescriptor = typeDescriptor;
         this.superClassActor = superClassActor;
         this.sourceFileName = sourceFileName;
         assert classLoader != null;
         this.classLoader = classLoader;
+        // Registration depends on the class loader, which decides whether the class can be unloaded.
+        ClassIDManager.register(this);
 
         FatalError.check(classLoader != null, "Class loader cannot be null for class actor " + name);
-        // Initialize all three to the null class id. These will be set up by the ClassHierarchyManager.
+        // Initialize both to the null class id. These will be set up by the ClassHierarchyManager.
+        // The next sibling id is kept by the ClassIDManager and is initialized when the id is allocated.
         this.firstSubclassActorId = NULL_CLASS_ID;
-        this.nextSiblingId = NULL_CLASS_ID;
         this.uniqueConcreteType = NULL_CLASS_ID;
 
         final ClassRegistry classRegistry = classRegistry();
@@ -437,7 +438,7 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
      * Gets the id of the next sibling of this actor in its superclass' list of sub-classes.
      */
     public int nextSibling() {
-        return nextSiblingId;
+        return ClassIDManager.nextSibling(id);
     }
 
     /**
@@ -454,10 +455,33 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
             // special case: class "Object"
             return;
         }
-        nextSiblingId = superClassActor.firstSubclassActorId;
+        ClassIDManager.setNextSibling(id, superClassActor.firstSubclassActorId);
         superClassActor.firstSubclassActorId = id;
     }
 
+    /**
+     * Removes the subclasses that have been collected from the list of subclasses of this class. This is used when
+     * their class loader is {@linkplain ClassUnloader unloaded}.
+     */
+    public final void removeCollectedSubclasses() {
+        assert DependenciesManager.classHierarchyLock.isWriteLockedByCurrentThread();
+        int previousId = NULL_CLASS_ID;
+        int classId = firstSubclassActorId;
+        while (classId != NULL_CLASS_ID) {
+            final int nextId = ClassIDManager.nextSibling(classId);
+            if (ClassIDManager.toClassActor(classId) == null) {
+                if (previousId == NULL_CLASS_ID) {
+                    firstSubclassActorId = nextId;
+                } else {
+                    ClassIDManager.setNextSibling(previousId, nextId);
+                }
+            } else {
+                previousId = classId;
+            }
+            classId = nextId;
+        }
+    }
+
     /**
      * Traverses all subclasses of this class, depth-first.
      *
@@ -473,11 +497,14 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
             int classId = firstSubclassActorId;
             do {
                 ClassActor sub = ClassIDManager.toClassActor(classId);
-                cont = c.doClass(sub);
-                if (cont) {
-                    cont = sub.allSubclassesDo(c);
+                // skip a subclass that has been collected but not unloaded yet
+                if (sub != null) {
+                    cont = c.doClass(sub);
+                    if (cont) {
+                        cont = sub.allSubclassesDo(c);
+                    }
                 }
-                classId = sub.nextSiblingId;
+                classId = ClassIDManager.nextSibling(classId);
             } while (classId != NULL_CLASS_ID && cont);
         }
         return cont;
@@ -1600,7 +1627,7 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
         if (isReflectionStub() || !ClassVerifier.shouldBeVerified(classLoader, isRemote())) {
             // generated stubs do not necessarily pass the verifier, even if they work as intended
         } else {
-            Verifier.verifierFor(this).verify();
+            VerificationCache.verify(this);
         }
     }
 
@@ -22,6 +22,7 @@
  */
 package com.sun.max.vm.actor.holder;
 
+import java.lang.ref.*;
 import java.util.*;
 
 import com.sun.max.annotate.*;
@@ -37,6 +38,12 @@ import com.sun.max.vm.type.*;
  * identifier is used in the implementation of interface dispatch, type
  * tests and also serves as the opaque {@code jclass} handle to a
  * class in JNI code.
+ * <p>
+ * Classes whose class loader can be {@linkplain ClassUnloader unloaded} are referenced {@linkplain ClassActorReference
+ * weakly}, so that this map does not keep them alive. Their identifiers stay allocated until the unloading of their
+ * class loader is complete, so {@link #toClassActor(int)} returns {@code null} for the identifier of a class that
+ * has been collected but not unloaded yet. The links of the lists of subclasses are stored here as well, so that
+ * such a list can still be traversed past a collected class.
  */
 public final class ClassIDManager {
 
@@ -50,7 +57,27 @@ public final class ClassIDManager {
 
     static final int MINIMAL_CLASSES_POPULATIONS = 4000;
 
-    private static final LinearIDMap<ClassActor> idToClassActor = new LinearIDMap<ClassActor>(MINIMAL_CLASSES_POPULATIONS);
+    /**
+     * Maps a class identifier to the {@link ClassActor} or, for a class that can be unloaded, to its
+     * {@link ClassActorReference}.
+     */
+    private static final LinearIDMap<Object> idToClassActor = new LinearIDMap<Object>(MINIMAL_CLASSES_POPULATIONS);
+
+    /**
+     * A weak reference to a class whose class loader can be {@linkplain ClassUnloader unloaded}.
+     */
+    static final class ClassActorReference extends WeakReference<ClassActor> {
+        ClassActorReference(ClassActor classActor) {
+            super(classActor);
+        }
+    }
+
+    /**
+     * Maps a class identifier to the identifier of the next sibling of the class in its superclass' list of
+     * subclasses. Grown when identifiers are allocated and updated with the class hierarchy lock held in write mode.
+     * Both happen with the lock of this class held, so that an update cannot be lost by a concurrent growth.
+     */
+    private static volatile int[] nextSiblingIds = newSiblingIds(MINIMAL_CLASSES_POPULATIONS, null);
 
     /**
      * A bit set keeping track of the assigned class identifiers. A bit set to 1 doesn't necessarily mean a
@@ -75,7 +102,44 @@ public final class ClassIDManager {
                 }
             }
         }
-        return idToClassActor.get(id);
+        return get(id);
+    }
+
+    private static ClassActor get(int id) {
+        final Object entry = idToClassActor.get(id);
+        if (entry instanceof ClassActorReference) {
+            return ((ClassActorReference) entry).get();
+        }
+        return (ClassActor) entry;
+    }
+
+    private static int[] newSiblingIds(int length, int[] siblingIds) {
+        final int[] a = new int[length];
+        int start = 0;
+        if (siblingIds != null) {
+            System.arraycopy(siblingIds, 0, a, 0, siblingIds.length);
+            start = siblingIds.length;
+        }
+        Arrays.fill(a, start, length, NULL_CLASS_ID);
+        return a;
+    }
+
+    /**
+     * Gets the identifier of the next sibling of a class in its superclass' list of subclasses.
+     * The caller must hold the class hierarchy lock or be at a safepoint.
+     *
+     * @param id a class identifier
+     * @return the identifier of the next sibling or {@link #NULL_CLASS_ID} if there is none
+     */
+    public static int nextSibling(int id) {
+        return nextSiblingIds[id];
+    }
+
+    /**
+     * Sets the identifier of the next sibling of a class. The caller must hold the class hierarchy lock in write mode.
+     */
+    public static synchronized void setNextSibling(int id, int nextSiblingId) {
+        nextSiblingIds[id] = nextSiblingId;
     }
 
     /**
@@ -86,6 +150,10 @@ public final class ClassIDManager {
         final int id = usedIDs.nextClearBit(0);
         idToClassActor.set(id, null);
         usedIDs.set(id);
+        if (id >= nextSiblingIds.length) {
+            nextSiblingIds = newSiblingIds(Math.max(id + 1, nextSiblingIds.length * 2), nextSiblingIds);
+        }
+        nextSiblingIds[id] = NULL_CLASS_ID;
         if (TraceClassIDs) {
             Log.println("Allocated class identifier " + id);
         }
@@ -98,7 +166,7 @@ public final class ClassIDManager {
     static synchronized void register(ClassActor classActor) {
         int id = classActor.id;
         FatalError.check(usedIDs.get(id), "Class ID must be allocated: id=" + id + ", class=" + classActor);
-        idToClassActor.set(id, classActor);
+        idToClassActor.set(id, ClassUnloader.isUnloadable(classActor.classLoader) ? new ClassActorReference(classActor) : classActor);
         if (TraceClassIDs) {
             Log.println("Bound class identifier " + id + " to " + classActor);
         }
@@ -118,9 +186,29 @@ public final class ClassIDManager {
         clear(id);
     }
 
+    /**
+     * Releases the identifiers of classes that have been {@linkplain ClassUnloader unloaded}. An identifier is only
+     * released if it is still allocated and its class has been collected, so an identifier may be passed more than once.
+     *
+     * @param ids the identifiers of the unloaded classes and of the array classes reserved for them
+     * @param count the number of identifiers in {@code ids}
+     */
+    public static synchronized void release(int[] ids, int count) {
+        for (int i = 0; i < count; i++) {
+            final int id = ids[i];
+            if (usedIDs.get(id) && get(id) == null) {
+                clear(id);
+            }
+        }
+    }
+
     private static void clear(int id) {
-        ClassActor c = idToClassActor.set(id, null);
+        Object c = idToClassActor.set(id, null);
+        if (c instanceof ClassActorReference) {
+            c = ((ClassActorReference) c).get();
+        }
         usedIDs.clear(id);
+        nextSiblingIds[id] = NULL_CLASS_ID;
         if (TraceClassIDs) {
             Log.print("Released class identifier " + id);
             if (c != null) {
@@ -169,7 +257,7 @@ public final class ClassIDManager {
         int id = 0;
         id = createdArrayClassIDs.nextSetBit(0);
         while (id >= 0) {
-            ClassActor classActor = idToClassActor.get(id);
+            ClassActor classActor = get(id);
             if (classActor == null) {
                 System.out.print("Class ID " + id + " created for array isn't assigned");
                 if (usedIDs.get(id)) {
@@ -184,11 +272,11 @@ public final class ClassIDManager {
 
         id = 0;
         while (id >= 0) {
-            ClassActor classActor = idToClassActor.get(id);
+            ClassActor classActor = get(id);
             if (classActor != null && classActor.arrayClassIDs != null) {
                 final int [] arrayClassIDs = classActor.arrayClassIDs;
                 for (int i = 0; i < arrayClassIDs.length; i++) {
-                    ClassActor arrayClassActor = idToClassActor.get(arrayClassIDs[i]);
+                    ClassActor arrayClassActor = get(arrayClassIDs[i]);
                     if (arrayClassActor == null) {
                         System.out.print("Class ID " + arrayClassIDs[i] + " created for array isn't assigned");
                         if (usedIDs.get(arrayClassIDs[i])) {
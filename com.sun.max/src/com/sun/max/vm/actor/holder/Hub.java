@@ -88,31 +88,33 @@ public abstract class Hub extends Hybrid {
      * using a hash function of {@code id % divisor}.
      *
      * @param ids set of class ids with interface ids encoded as their negative value
+     * @param table scratch table of at least {@code divisor} entries, used when {@code divisor >= 64}
      * @see ClassIDManager
      */
-    private static boolean colliding(int[] ids, int divisor) {
+    private static boolean colliding(int[] ids, int divisor, int[] table) {
         if (divisor < 64) {
-            // Common case avoids allocating boolean[]
-            long table = 0;
+            // Common case avoids touching the table
+            long bits = 0;
             for (int id : ids) {
                 int posId = id >= 0 ? id : -id;
                 final int index = posId % divisor;
                 long entry = 1L << index;
-                if ((table & entry) != 0) {
+                if ((bits & entry) != 0) {
                     return true;
                 }
-                table |= entry;
+                bits |= entry;
             }
             return false;
         }
-        final boolean[] table = new boolean[divisor];
+        // Each attempt stamps the slots it uses with its own divisor, so the
+        // table is shared by all attempts of a search without being cleared.
         for (int id : ids) {
             int posId = id >= 0 ? id : -id;
             final int index = posId % divisor;
-            if (table[index]) {
+            if (table[index] == divisor) {
                 return true;
             }
-            table[index] = true;
+            table[index] = divisor;
         }
         return false;
     }
@@ -121,13 +123,44 @@ public abstract class Hub extends Hybrid {
      * Gets the smallest table size for which we have perfect (collision free) hashing for the given class ids.
      *
      * @param ids set of class ids with interface ids encoded as their negative value
+     * @param lowerBound a size known not to exceed the result
      */
-    private static int minCollisionFreeDivisor(int[] ids) {
-        int divisor = ids.length;
-        while (colliding(ids, divisor)) {
+    private static int minCollisionFreeDivisor(int[] ids, int lowerBound) {
+        int divisor = Math.max(ids.length, lowerBound);
+        int[] table = null;
+        while (true) {
+            if (divisor >= 64 && (table == null || table.length < divisor)) {
+                table = new int[Math.max(divisor * 2, 128)];
+            }
+            if (!colliding(ids, divisor, table)) {
+                return divisor;
+            }
             divisor++;
         }
-        return divisor;
+    }
+
+    /**
+     * Gets a lower bound for the mTable length of a class from the hubs of its direct supertypes.
+     * The ids of a supertype are a subset of the ids of the class and any table size that is
+     * collision free for a set is also collision free for its subsets, so the search for the
+     * class can start where the largest of its supertypes' searches ended.
+     */
+    private static int mTableLowerBound(ClassActor classActor) {
+        int bound = 1;
+        if (classActor.kind.isWord) {
+            // word types drop the id of Object, so their ids need not include those of their supertypes
+            return bound;
+        }
+        final ClassActor superClassActor = classActor.superClassActor;
+        if (superClassActor != null && superClassActor.dynamicHub() != null) {
+            bound = superClassActor.dynamicHub().mTableLength;
+        }
+        for (InterfaceActor interfaceActor : classActor.localInterfaceActors()) {
+            if (interfaceActor.dynamicHub() != null) {
+                bound = Math.max(bound, interfaceActor.dynamicHub().mTableLength);
+            }
+        }
+        return bound;
     }
 
     static {
@@ -198,8 +231,19 @@ public abstract class Hub extends Hybrid {
         return biasedLockRevocationHeuristics;
     }
 
-    public void setBiasedLockRevocationHeuristics(BiasedLockRevocationHeuristics biasedLockRevocationHeuristics) {
-        this.biasedLockRevocationHeuristics = biasedLockRevocationHeuristics;
+    /**
+     * Installs the biased lock revocation heuristics of this hub unless another thread installed them first.
+     * Doesn't allocate or lock, so it can be called while revoking biases.
+     *
+     * @param revocationHeuristics the heuristics to install
+     * @return the heuristics of this hub after the call
+     */
+    public BiasedLockRevocationHeuristics installBiasedLockRevocationHeuristics(BiasedLockRevocationHeuristics revocationHeuristics) {
+        final Reference oldValue = Reference.fromJava(this).compareAndSwapReference(Hub_biasedLockRevocationHeuristics.offset(), null, Reference.fromJava(revocationHeuristics));
+        if (oldValue == null) {
+            return revocationHeuristics;
+        }
+        return (BiasedLockRevocationHeuristics) oldValue.toJava();
     }
 
     private int getITableLength(int[] superClassActorIds, Iterable<InterfaceActor> allInterfaceActors) {
@@ -255,7 +299,7 @@ public abstract class Hub extends Hybrid {
         this.iTableStartIndex = firstWordIndex() + vTableLength;
         this.iTableLength = getITableLength(superClassActorIds, allInterfaceActors);
         this.mTableStartIndex = firstIntIndex();
-        this.mTableLength = minCollisionFreeDivisor(superClassActorIds);
+        this.mTableLength = minCollisionFreeDivisor(superClassActorIds, mTableLowerBound(classActor));
         this.referenceMapStartIndex = mTableStartIndex + mTableLength;
         this.referenceMapLength = referenceMap.numberOfEntries();
         this.isJLRReference = isSupertypeOf(JLR_REFERENCE, classActor);
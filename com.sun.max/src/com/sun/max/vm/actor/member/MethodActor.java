@@ -446,6 +446,27 @@ public abstract class MethodActor extends MemberActor implements RiResolvedMetho
         return invocationStub;
     }
 
+    /**
+     * Gets the stub implementing {@link Method#invoke(Object, Object...)} or {@link Constructor#newInstance(Object...)}
+     * for this method actor, creating it first if necessary. The stub is shared by all the {@link Method} or
+     * {@link Constructor} objects denoting this method actor so that reflecting on the same member again does not
+     * generate another stub class, and so that a compiler sees a single stub for a constant member.
+     */
+    public final InvocationStub makeJavaInvocationStub() {
+        ClassRegistry classRegistry = holder().classRegistry();
+        InvocationStub invocationStub = classRegistry.get(JAVA_INVOCATION_STUB, this);
+
+        if (invocationStub == null) {
+            if (isInstanceInitializer()) {
+                invocationStub = InvocationStub.newConstructorStub(toJavaConstructor(), null, Boxing.JAVA);
+            } else {
+                invocationStub = InvocationStub.newMethodStub(toJava(), Boxing.JAVA);
+            }
+            classRegistry.set(JAVA_INVOCATION_STUB, this, invocationStub);
+        }
+        return invocationStub;
+    }
+
     public static boolean containWord(Value[] values) {
         for (Value value : values) {
             if (value.kind().isWord) {
@@ -28,17 +28,39 @@ import com.sun.max.annotate.*;
 import com.sun.max.unsafe.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.heap.*;
 import com.sun.max.vm.jni.*;
 import com.sun.max.vm.jni.JniFunctions.LogOperations;
+import com.sun.max.vm.type.*;
 
 /**
  * A native function represents a {@linkplain #makeSymbol() symbol} associated with a {@linkplain #classMethodActor()
  * method} that can be {@linkplain #link() linked} at runtime to produce a native machine code pointer.
  */
 public final class NativeFunction {
+
+    /**
+     * Prefix of the symbol of a critical native, replacing the {@code "Java_"} prefix of its JNI symbol.
+     */
+    public static final String CRITICAL_PREFIX = "JavaCritical_";
+
+    private static boolean CriticalJNINatives;
+    static {
+        VMOptions.addFieldOption("-XX:", "CriticalJNINatives", NativeFunction.class,
+            "Call the JavaCritical_ entry point of static natives taking only primitives and primitive arrays, if present. " +
+            "A function registered for such a method before its first call is used instead.");
+    }
+
     private final ClassMethodActor classMethodActor;
     private String symbol;
 
+    /**
+     * Denotes if this native function is linked to a critical native. A critical native is called without a
+     * {@code JNIEnv} or class argument and with each array argument passed as a length and a pointer to its
+     * elements, and it cannot call back into the VM.
+     */
+    private boolean isCritical;
+
     private Address address = Address.zero();
 
     /**
@@ -127,6 +149,71 @@ public final class NativeFunction {
         return address;
     }
 
+    /**
+     * Determines if this native function is linked to a critical native.
+     */
+    public boolean isCritical() {
+        return isCritical;
+    }
+
+    /**
+     * Links this native function to its critical native, if {@code -XX:+CriticalJNINatives} is specified,
+     * the method qualifies and a library defines the {@linkplain #CRITICAL_PREFIX critical} symbol. This must
+     * be called before the stub for the method is generated, as it determines the calling convention.
+     *
+     * @return {@code true} if this native function is now linked to a critical native
+     */
+    public boolean linkCritical() {
+        if (!CriticalJNINatives || MaxineVM.isHosted() || !address.isZero() || !isCriticalCandidate(classMethodActor)) {
+            return false;
+        }
+        final String criticalSymbol = CRITICAL_PREFIX + makeSymbol().substring("Java_".length());
+        try {
+            address = DynamicLinker.lookup(classMethodActor, criticalSymbol).asAddress();
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+        symbol = criticalSymbol;
+        isCritical = true;
+        if (NativeInterfaces.verbose()) {
+            Log.println("[Dynamic-linking critical native method " + classMethodActor.holder().name + "." + classMethodActor.name + " = " + address.toHexString() + "]");
+        }
+        return true;
+    }
+
+    /**
+     * Determines if a method can be implemented by a critical native: it must be a static JNI method whose
+     * parameters are primitives or one-dimensional primitive arrays and whose result is a primitive or void.
+     */
+    private static boolean isCriticalCandidate(ClassMethodActor m) {
+        if (!m.isStatic() || m.isCFunction() || !Heap.supportsCriticalArrays()) {
+            return false;
+        }
+        final SignatureDescriptor sig = m.descriptor();
+        if (sig.resultKind().isReference || sig.resultKind().isWord) {
+            return false;
+        }
+        for (int i = 0; i < sig.numberOfParameters(); i++) {
+            final TypeDescriptor parameter = sig.parameterDescriptorAt(i);
+            final Kind kind = parameter.toKind();
+            if (kind.isWord) {
+                return false;
+            }
+            if (kind.isReference && !isPrimitiveArray(parameter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines if a given type is a one-dimensional array of a primitive type.
+     */
+    public static boolean isPrimitiveArray(TypeDescriptor type) {
+        final String string = type.toString();
+        return string.length() == 2 && string.charAt(0) == '[' && "ZBCSIJFD".indexOf(string.charAt(1)) >= 0;
+    }
+
     /**
      * Determines if the native function pointer has been linked.
      */
@@ -136,8 +223,19 @@ public final class NativeFunction {
 
     /**
      * Sets (or clears) the machine code address for this native function.
+     *
+     * @throws UnsatisfiedLinkError if a function is registered for a method linked to a critical native, whose stub
+     *             uses the critical calling convention which the registered JNI function does not follow
      */
     public void setAddress(Address address) {
+        if (isCritical) {
+            if (!address.isZero()) {
+                throw new UnsatisfiedLinkError("Cannot register JNI native method " + classMethodActor.holder().name + "." + classMethodActor.name +
+                                " as it is already linked to " + symbol);
+            }
+            // Unregistering keeps the critical native, which was linked by lookup rather than registration
+            return;
+        }
         this.address = address;
         if (JniFunctions.logger.enabled()) {
             JniFunctions.logger.log(LogOperations.RegisterNativeMethod.ordinal(), REGISTER_ENTRY, MethodID.fromMethodActor(classMethodActor), address);
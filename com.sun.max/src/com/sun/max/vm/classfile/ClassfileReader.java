@@ -60,6 +60,7 @@ import com.sun.max.vm.ti.*;
 import com.sun.max.vm.type.*;
 import com.sun.max.vm.type.ClassRegistry.*;
 import com.sun.max.vm.value.*;
+import com.sun.max.vm.verifier.*;
 
 import sun.reflect.CallerSensitive;
 
@@ -456,6 +457,10 @@ public final class ClassfileReader {
 
                     }
                 }
+                if (MaxineVM.isHosted() && JDKInterceptor.isConstantWhenNotZero(classDescriptor.toJavaString(), name.toString())) {
+                    // lets a compiler fold e.g. the accessor of a constant Method once it has been created
+                    flags |= CONSTANT_WHEN_NOT_ZERO;
+                }
 
 
                 final Kind kind = descriptor.toKind();
@@ -1758,6 +1763,12 @@ public final class ClassfileReader {
             // Maxine is unable to usefully distinguish CLASS_LOAD and CLASS_PREPARE events which, for example, JVMTI distinguishes,
             // as we need a ClassActor in order to create a Class object, so we just have the one event.
             VMTI.handler().classLoad(definedClassActor);
+            if (definedClassActor == classActor) {
+                SharedClassList.recordDefinition(definedClassActor);
+                if (ClassVerifier.shouldBeVerified(classLoader, isRemote)) {
+                    VerificationCache.recordClassfile(definedClassActor, bytes, offset, length);
+                }
+            }
         }
         return definedClassActor;
     }
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.classfile;
+
+import static com.sun.max.vm.VMOptions.*;
+
+import java.io.*;
+import java.util.*;
+
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+
+/**
+ * A list of the application classes loaded during a training run, used to load them ahead of time on later runs.
+ * <p>
+ * With {@code -XX:DumpSharedClassList=<file>}, the names of the classes defined by the system class loader are
+ * recorded in definition order and written to the file when the VM exits, together with a fingerprint of every
+ * class path entry: its modification time and length for a file, and the relative path, modification time and
+ * length of every file below it for a directory. With {@code -XX:SharedClassList=<file>}, a daemon thread loads
+ * (but does not initialize) the listed classes through the system class loader while the application starts up,
+ * provided the class path still matches. Loading goes through {@link ClassLoader#loadClass(String)}, so delegation,
+ * agent transformations and initialization order are the same as without the list.
+ * <p>
+ * This is not a shared archive: preloading only parses the listed classes and lays them out, earlier and on another
+ * thread. Verification is unchanged; it still happens when a class is initialized, on the initializing thread.
+ */
+public final class SharedClassList {
+
+    private static String DumpSharedClassList;
+    private static String SharedClassList;
+
+    static {
+        addFieldOption("-XX:", "DumpSharedClassList", SharedClassList.class,
+            "Record the application classes loaded by this run in the given file.");
+        addFieldOption("-XX:", "SharedClassList", SharedClassList.class,
+            "Load the application classes recorded in the given file ahead of time.");
+    }
+
+    private static final String CLASSPATH_ENTRY_PREFIX = "# ";
+
+    private static ArrayList<String> definedClasses;
+
+    private SharedClassList() {
+    }
+
+    /**
+     * Starts recording or preloading classes, as requested by the options. Called once the system class loader and
+     * the agents have been initialized.
+     */
+    public static void initialize() {
+        if (DumpSharedClassList != null) {
+            definedClasses = new ArrayList<String>();
+            Runtime.getRuntime().addShutdownHook(new Thread("SharedClassListWriter") {
+                @Override
+                public void run() {
+                    write(new File(DumpSharedClassList));
+                }
+            });
+        }
+        if (SharedClassList != null) {
+            final List<String> classes = read(new File(SharedClassList));
+            if (classes != null) {
+                final Thread preloader = new Thread("SharedClassListPreloader") {
+                    @Override
+                    public void run() {
+                        preload(classes);
+                    }
+                };
+                preloader.setDaemon(true);
+                preloader.start();
+            }
+        }
+    }
+
+    /**
+     * Notifies that a class has been defined.
+     */
+    static void recordDefinition(ClassActor classActor) {
+        if (definedClasses != null && classActor.classLoader == ClassLoader.getSystemClassLoader()) {
+            synchronized (SharedClassList.class) {
+                definedClasses.add(classActor.name.toString());
+            }
+        }
+    }
+
+    private static List<String> classpathSignature() {
+        final ArrayList<String> signature = new ArrayList<String>();
+        for (String path : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            final File entry = new File(path);
+            if (entry.isDirectory()) {
+                final long[] fingerprint = {0, 0};
+                fingerprint(entry, "", fingerprint);
+                signature.add(CLASSPATH_ENTRY_PREFIX + entry.getAbsolutePath() + " " + fingerprint[0] + " " + Long.toHexString(fingerprint[1]));
+            } else {
+                signature.add(CLASSPATH_ENTRY_PREFIX + entry.getAbsolutePath() + " " + entry.lastModified() + " " + entry.length());
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Adds the files below a directory to a fingerprint, in name order so that the fingerprint does not depend on
+     * the order in which the file system lists them.
+     *
+     * @param fingerprint the number of files and a hash of their relative paths, modification times and lengths
+     */
+    private static void fingerprint(File directory, String relativePath, long[] fingerprint) {
+        final String[] names = directory.list();
+        if (names == null) {
+            return;
+        }
+        Arrays.sort(names);
+        for (String name : names) {
+            final File file = new File(directory, name);
+            final String path = relativePath + "/" + name;
+            if (file.isDirectory()) {
+                fingerprint(file, path, fingerprint);
+            } else {
+                long hash = fingerprint[1];
+                hash = hash * 31 + path.hashCode();
+                hash = hash * 31 + file.lastModified();
+                hash = hash * 31 + file.length();
+                fingerprint[0]++;
+                fingerprint[1] = hash;
+            }
+        }
+    }
+
+    private static synchronized void write(File file) {
+        try {
+            final PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+            try {
+                for (String line : classpathSignature()) {
+                    out.println(line);
+                }
+                for (String name : definedClasses) {
+                    out.println(name);
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            Log.println("Could not write shared class list " + file + ": " + e);
+        }
+    }
+
+    /**
+     * Reads a class list, returning {@code null} if it cannot be read or the class path has changed since it was
+     * written.
+     */
+    private static List<String> read(File file) {
+        final List<String> signature = classpathSignature();
+        final ArrayList<String> classes = new ArrayList<String>();
+        int entries = 0;
+        try {
+            final BufferedReader in = new BufferedReader(new FileReader(file));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith(CLASSPATH_ENTRY_PREFIX)) {
+                        if (entries >= signature.size() || !line.equals(signature.get(entries))) {
+                            return stale(file);
+                        }
+                        entries++;
+                    } else if (line.length() != 0) {
+                        classes.add(line);
+                    }
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            Log.println("Could not read shared class list " + file + ": " + e);
+            return null;
+        }
+        return entries == signature.size() ? classes : stale(file);
+    }
+
+    private static List<String> stale(File file) {
+        if (VMOptions.verboseOption.verboseClass) {
+            Log.println("[Ignoring shared class list " + file + ": class path has changed]");
+        }
+        return null;
+    }
+
+    private static void preload(List<String> classes) {
+        final ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+        for (String name : classes) {
+            try {
+                Class.forName(name, false, systemClassLoader);
+            } catch (Throwable t) {
+                // the error is reported when the application itself loads the class
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.classfile.constant;
+
+import java.lang.ref.*;
+
+import com.sun.max.vm.*;
+
+/**
+ * The table implementing {@link String#intern()}.
+ * <p>
+ * Interned strings are held {@linkplain WeakReference weakly}, so a string that is no longer referenced anywhere else
+ * is cleared by the GC (see {@link com.sun.max.vm.heap.SpecialReferenceManager}) and its entry is expunged the next
+ * time a string is added. The table is split into a fixed number of segments, each of which is locked independently
+ * when a string is added and grows independently, so there is no global rehashing. Lookups take no lock: the
+ * chains of a segment are immutable once published, and a miss is confirmed under the segment lock.
+ * <p>
+ * The strings of {@linkplain SymbolTable symbols} are the ones referenced by string constants in class files.
+ * Every symbol created at runtime obtains its string from this table, and symbols from the boot image are
+ * entered here when interned for the first time. A literal and an interned string with the same contents are thus
+ * always identical.
+ */
+public final class StringInternTable {
+
+    private StringInternTable() {
+    }
+
+    /**
+     * A weakly referenced interned string. The {@link #next} link is final so that lock-free lookups always see a
+     * consistent chain; removing an entry copies the part of the chain that precedes it.
+     */
+    static final class InternedString extends WeakReference<String> {
+        final int hash;
+        final InternedString next;
+
+        InternedString(String value, int hash, InternedString next) {
+            super(value, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    static final class Segment {
+
+        /**
+         * The buckets of this segment. A new array is published whenever the segment grows.
+         */
+        volatile InternedString[] table;
+
+        /**
+         * Number of entries in this segment, including entries whose string has been cleared but that have not been
+         * expunged yet.
+         */
+        private int count;
+
+        Segment(int capacity) {
+            table = new InternedString[capacity];
+        }
+
+        String get(String value, int hash) {
+            final InternedString[] tab = table;
+            for (InternedString e = tab[hash & (tab.length - 1)]; e != null; e = e.next) {
+                if (e.hash == hash) {
+                    final String s = e.get();
+                    if (s != null && s.equals(value)) {
+                        return s;
+                    }
+                }
+            }
+            return null;
+        }
+
+        synchronized String putIfAbsent(String value, int hash) {
+            String s = get(value, hash);
+            if (s != null) {
+                return s;
+            }
+            InternedString[] tab = table;
+            if (count >= tab.length - (tab.length >> 2)) {
+                tab = grow(tab);
+            }
+            final int index = hash & (tab.length - 1);
+            tab[index] = new InternedString(value, hash, tab[index]);
+            count++;
+            table = tab;
+            return value;
+        }
+
+        /**
+         * Creates a table twice the size of {@code tab} holding the live entries of {@code tab}. The old table stays
+         * intact for concurrent readers.
+         */
+        private InternedString[] grow(InternedString[] tab) {
+            final InternedString[] newTab = new InternedString[tab.length << 1];
+            int live = 0;
+            for (InternedString first : tab) {
+                for (InternedString e = first; e != null; e = e.next) {
+                    final String s = e.get();
+                    if (s != null) {
+                        final int index = e.hash & (newTab.length - 1);
+                        newTab[index] = new InternedString(s, e.hash, newTab[index]);
+                        live++;
+                    }
+                }
+            }
+            count = live;
+            return newTab;
+        }
+
+        synchronized void remove(InternedString entry) {
+            final InternedString[] tab = table;
+            final int index = entry.hash & (tab.length - 1);
+            final InternedString first = tab[index];
+            for (InternedString e = first; e != null; e = e.next) {
+                if (e == entry) {
+                    InternedString newFirst = e.next;
+                    for (InternedString p = first; p != e; p = p.next) {
+                        final String s = p.get();
+                        if (s != null) {
+                            newFirst = new InternedString(s, p.hash, newFirst);
+                        } else {
+                            count--;
+                        }
+                    }
+                    tab[index] = newFirst;
+                    count--;
+                    table = tab;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final int SEGMENT_SHIFT = 5;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_SHIFT;
+    private static final int INITIAL_SEGMENT_CAPACITY = 256;
+
+    private static final ReferenceQueue<String> queue = new ReferenceQueue<String>();
+
+    private static final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    static {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(INITIAL_SEGMENT_CAPACITY);
+        }
+    }
+
+    private static int hash(String value) {
+        int h = value.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+    /**
+     * Selects the segment by the high bits of the hash, the bucket within a segment is selected by the low bits.
+     */
+    private static Segment segmentFor(int hash) {
+        return segments[hash >>> (32 - SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Gets the canonical representation of a string.
+     *
+     * @see String#intern()
+     */
+    public static String intern(String value) {
+        if (MaxineVM.isHosted()) {
+            return value.intern();
+        }
+        final int hash = hash(value);
+        final Segment segment = segmentFor(hash);
+        final String s = segment.get(value, hash);
+        if (s != null) {
+            return s;
+        }
+        expungeStaleEntries();
+        // not entered yet: a symbol from the boot image provides the canonical string
+        final Utf8Constant symbol = SymbolTable.lookupSymbol(value);
+        return segment.putIfAbsent(symbol == null ? value : symbol.toString(), hash);
+    }
+
+    /**
+     * Removes the entries whose strings have been cleared by the GC.
+     */
+    private static void expungeStaleEntries() {
+        for (Reference<? extends String> ref = queue.poll(); ref != null; ref = queue.poll()) {
+            final InternedString entry = (InternedString) ref;
+            segmentFor(entry.hash).remove(entry);
+        }
+    }
+}
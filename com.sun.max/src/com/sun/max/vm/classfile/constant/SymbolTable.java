@@ -29,7 +29,8 @@ import com.sun.max.collect.ChainedHashMapping.Entry;
 import com.sun.max.vm.*;
 
 /**
- * Implementation of symbol and String interning, the latter of which is a Java language requirement.
+ * Implementation of symbol interning. String interning, which is a Java language requirement, is implemented by
+ * {@link StringInternTable}, which also provides the strings of symbols.
  *
  */
 public final class SymbolTable {
@@ -77,8 +78,11 @@ public final class SymbolTable {
     }
 
     /**
-     * Searching and adding entries to this map is only performed by {@linkplain #makeSymbol(String) one method} which
-     * is synchronized.
+     * Adding entries to this map is only performed by {@linkplain #makeSymbol0(String) one method} which is
+     * synchronized. Entries are never removed, so a hit found without the lock is always valid. A miss is not:
+     * {@link ChainedHashMapping} relinks the entries in place when it resizes, so a concurrent reader can fall off
+     * the chain holding its entry. Every miss is therefore confirmed by {@link #lookup(String)} under the lock
+     * before it is acted upon.
      */
     private static final ChainingValueChainedHashMapping<String, Utf8ConstantEntry> symbolTable = new ChainingValueChainedHashMapping<String, Utf8ConstantEntry>(40000);
 
@@ -90,25 +94,44 @@ public final class SymbolTable {
         return symbolTable.length();
     }
 
-    public static synchronized Utf8Constant lookupSymbol(String value) {
-        return symbolTable.get(value);
+    /**
+     * Looks up a symbol, repeating the lookup under the lock if the lock-free lookup misses.
+     */
+    private static Utf8Constant lookup(String value) {
+        final Utf8Constant utf8 = symbolTable.get(value);
+        if (utf8 != null) {
+            return utf8;
+        }
+        synchronized (SymbolTable.class) {
+            return symbolTable.get(value);
+        }
+    }
+
+    public static Utf8Constant lookupSymbol(String value) {
+        return lookup(value);
+    }
+
+    public static Utf8Constant makeSymbol(String value) {
+        final Utf8Constant utf8 = lookup(value);
+        if (utf8 != null) {
+            return utf8;
+        }
+        // String interning is implemented with another data structure when running hosted.
+        // Must not be called with the lock held, as the intern table looks up symbols itself.
+        final String string = MaxineVM.isHosted() ? value.intern() : StringInternTable.intern(value);
+        return makeSymbol0(string);
     }
 
-    public static synchronized Utf8Constant makeSymbol(String value) {
+    private static synchronized Utf8Constant makeSymbol0(String value) {
         Utf8ConstantEntry utf8 = symbolTable.get(value);
         if (utf8 == null) {
-            if (MaxineVM.isHosted()) {
-                // String interning is implemented with another data structure when running hosted
-                utf8 = new Utf8ConstantEntry(value.intern());
-            } else {
-                utf8 = new Utf8ConstantEntry(value);
-            }
+            utf8 = new Utf8ConstantEntry(value);
             symbolTable.put(value, utf8);
         }
         return utf8;
     }
 
     public static String intern(String value) {
-        return makeSymbol(value).toString();
+        return StringInternTable.intern(value);
     }
 }
@@ -62,10 +62,18 @@ public final class CodeEviction extends VmOperation {
      */
     private static int CodeEvictionProtectCalleeDepth = 1;
 
+    /**
+     * Protect baseline methods that were entered (or looped) at least this many times since the previous eviction.
+     */
+    private static int CodeEvictionHotnessThreshold = 100;
+
     static {
         VMOptions.addFieldOption("-XX:", "CodeEvictionProtectCalleeDepth", CodeEviction.class,
             "During code eviction, protect callees of on-stack methods up until the given depth (default: 1).",
             MaxineVM.Phase.STARTING);
+        VMOptions.addFieldOption("-XX:", "CodeEvictionHotnessThreshold", CodeEviction.class,
+            "During code eviction, protect methods invoked at least N times since the previous eviction; 0 disables (default: 100).",
+            MaxineVM.Phase.STARTING);
     }
 
     /**
@@ -123,12 +131,16 @@ public final class CodeEviction extends VmOperation {
      * <li>having type profiles (as they will soon be recompiled by the optimising compiler),</li>
      * <li>that have just been compiled but are not yet fully installed in the system (e.g., by being referenced
      * from a stack),</li>
-     * <li>whose invocation count is within the threshold denoted by {@link MethodInstrumentation#PROTECTION_PERCENTAGE}.</li>
+     * <li>whose invocation count is within the threshold denoted by {@link MethodInstrumentation#PROTECTION_PERCENTAGE},</li>
+     * <li>that were invoked at least {@link #CodeEvictionHotnessThreshold} times since the previous eviction. Cold
+     * methods are thus evicted first, while the working set survives.</li>
      * </ul>
      */
     final class ProtectedMethodsMarker implements TargetMethod.Closure {
         @Override
         public boolean doTargetMethod(TargetMethod targetMethod) {
+            // sample every method so that the hotness of the next cycle only covers invocations since this one
+            final boolean hot = CodeEvictionHotnessThreshold > 0 && targetMethod.recentlyInvoked(CodeEvictionHotnessThreshold);
             // avoid further tests if already marked
             if (!targetMethod.isMarked()) {
                 if (targetMethod.isProtected()) {
@@ -140,6 +152,9 @@ public final class CodeEviction extends VmOperation {
                 } else if (targetMethod.hasTypeProfile()) {
                     logMark("PROTECTED (type profile)", targetMethod);
                     targetMethod.mark();
+                } else if (hot) {
+                    logMark("PROTECTED (recently invoked)", targetMethod);
+                    targetMethod.mark();
                 }
             }
             return true;
@@ -577,9 +592,7 @@ public final class CodeEviction extends VmOperation {
         invalidateDispatchTableEntries();
         tInvalidateTables = timerEnd();
 
-        if (CodeManager.CodeCacheContentionFrequency > 0) {
-            Code.getCodeManager().recordSurvivorSize(nSurvivingBytes);
-        }
+        Code.getCodeManager().recordSurvivorSize(nSurvivingBytes);
 
         logStatistics();
 
@@ -94,9 +94,41 @@ public abstract class CodeManager {
      */
     public static int CodeCacheContentionFrequency;
 
+    /**
+     * This option triggers {@linkplain CodeEviction code eviction} as soon as an allocation would fill the baseline
+     * code cache beyond the given percentage, instead of waiting until an allocation fails. It is off by default.
+     */
+    public static int CodeEvictionOccupancyThreshold;
+
+    /**
+     * The low watermark, in percent of the baseline code cache, for {@link #CodeEvictionOccupancyThreshold}.
+     * An early eviction is only triggered if the survivors of the previous eviction stayed below this watermark,
+     * so every early eviction frees at least the gap between the two percentages and a code cache hovering near
+     * the threshold is not evicted again on every allocation.
+     */
+    public static int CodeEvictionOccupancyLowWatermark = 70;
+
     static {
         VMOptions.addFieldOption("-XX:", "CodeCacheContentionFrequency", CodeManager.class,
             "Enforce baseline code cache contention every N method allocations.", MaxineVM.Phase.STARTING);
+        VMOptions.addFieldOption("-XX:", "CodeEvictionOccupancyThreshold", CodeManager.class,
+            "Evict baseline code once the baseline code cache is N percent full; 0 evicts only when full (default: 0).",
+            MaxineVM.Phase.STARTING);
+        VMOptions.addFieldOption("-XX:", "CodeEvictionOccupancyLowWatermark", CodeManager.class,
+            "Only evict early if the previous eviction left the baseline code cache below N percent full (default: 70).",
+            MaxineVM.Phase.STARTING);
+    }
+
+    /**
+     * Determines whether an allocation of {@code size} bytes in the baseline code region should be preceded by a
+     * code eviction because the {@linkplain #CodeEvictionOccupancyThreshold occupancy threshold} is reached.
+     */
+    private boolean exceedsOccupancyThreshold(Size size) {
+        final int threshold = CodeEvictionOccupancyThreshold;
+        final int lowWatermark = Math.min(CodeEvictionOccupancyLowWatermark, threshold);
+        return threshold > 0 && threshold < 100 && lowWatermark > 0 &&
+            runtimeBaselineCodeRegion.isBelowOccupancy(Size.fromInt(lastSurvivorSize), lowWatermark) &&
+            runtimeBaselineCodeRegion.wouldExceedOccupancy(size, threshold);
     }
 
     /**
@@ -235,6 +267,8 @@ public abstract class CodeManager {
 
             if (currentCodeRegion == runtimeBaselineCodeRegion && CodeCacheContentionFrequency > 0 && ++nAllocations % CodeCacheContentionFrequency == 0) {
                 start = Pointer.zero();
+            } else if (currentCodeRegion == runtimeBaselineCodeRegion && exceedsOccupancyThreshold(allocationSize)) {
+                start = Pointer.zero();
             } else {
                 start = currentCodeRegion.allocate(allocationSize, false);
             }
@@ -24,6 +24,7 @@ package com.sun.max.vm.code;
 
 import java.util.*;
 
+import com.oracle.max.cri.intrinsics.*;
 import com.sun.max.annotate.*;
 import com.sun.max.unsafe.*;
 import com.sun.max.vm.compiler.target.*;
@@ -114,7 +115,7 @@ public class CodeRegion extends LinearAllocatorRegion {
      * A sorted list of the target methods allocated within this code region.
      */
     @INSPECTED
-    protected TargetMethod[] targetMethods;
+    protected volatile TargetMethod[] targetMethods;
 
     /**
      * The number of target methods allocated within this code region.
@@ -143,12 +144,17 @@ public class CodeRegion extends LinearAllocatorRegion {
 
     /**
      * Index into {@link #targetMethods} that allows a constant-time implementation of {@link #find(Address)}.
-     * The code region is divided in pages of size {@link #FIND_INDEX_ALIGN}, and this array stores the index
-     * of the method in the {@link #targetMethods} that covers the beginning of the page.
-     * Since {@link #targetMethods} is sorted, a linear search with this starting point quickly finds the method
-     * for an arbitrary address.
+     * The code region is divided in pages of size {@link #FIND_INDEX_ALIGN}, and this array stores, for each page,
+     * one plus the index of the first method in {@link #targetMethods} that overlaps the page. A value of {@code 0}
+     * denotes a page that is not covered by any method. Since {@link #targetMethods} is sorted, a linear search
+     * with this starting point visits at most the methods overlapping a single page.
+     * <p>
+     * The index is read without locking, before {@link #targetMethods}. Both fields are volatile, and the index is
+     * only ever updated after the {@link #targetMethods} entries it refers to have been published. An index entry
+     * that is stale after an out-of-order insertion refers to a method preceding the one sought, from which the
+     * linear search still finds it.
      */
-    protected int[] findIndex;
+    protected volatile int[] findIndex;
 
     /**
      * Number of target methods in the code regions.
@@ -172,34 +178,96 @@ public class CodeRegion extends LinearAllocatorRegion {
      */
     public void add(TargetMethod targetMethod) {
         additionStartedCount++;         // The array becomes not inspectable
-        if (length == targetMethods.length) {
-            int newCapacity = (targetMethods.length * 3) / 2 + 1;
-            targetMethods = Arrays.copyOf(targetMethods, newCapacity);
-        }
-        int insertionPoint;
         if (length == 0 || COMPARATOR.compare(targetMethods[length - 1], targetMethod) < 0) {
             // follows any existing entries in the array so it can simply be appended.
-            insertionPoint = length;
+            if (length == targetMethods.length) {
+                int newCapacity = (targetMethods.length * 3) / 2 + 1;
+                targetMethods = Arrays.copyOf(targetMethods, newCapacity);
+            }
+            targetMethods[length] = targetMethod;
+            length++;
+            additionCompletedCount++;       // The array becomes once again inspectable
+            addToFindIndex(targetMethod, length - 1);
         } else {
-            // Out-of-order addition: create an open array entry for the insertion
+            // Out-of-order addition: shift the following entries up by one, from the last one down, so that
+            // a concurrent lookup always sees a sorted array in which every method is at its old position or
+            // the next one. Stale index entries then refer to a method at or before the one sought.
             int index = Arrays.binarySearch(targetMethods, 0, length, targetMethod, COMPARATOR);
             assert index < 0 : targetMethod + " overlaps " + targetMethods[index];
-            insertionPoint = -(index + 1);
-            System.arraycopy(targetMethods, insertionPoint, targetMethods, insertionPoint + 1, length - insertionPoint);
+            int insertionPoint = -(index + 1);
+            TargetMethod[] tms = targetMethods;
+            if (length == tms.length) {
+                tms = Arrays.copyOf(tms, (tms.length * 3) / 2 + 1);
+            }
+            for (int i = length; i > insertionPoint; i--) {
+                tms[i] = tms[i - 1];
+            }
+            tms[insertionPoint] = targetMethod;
+            targetMethods = tms;
+            length++;
+            additionCompletedCount++;       // The array becomes once again inspectable
+            insertInFindIndex(targetMethod, insertionPoint);
         }
-        targetMethods[insertionPoint] = targetMethod;
-        length++;
-        additionCompletedCount++;       // The array becomes once again inspectable
+    }
 
+    /**
+     * Gets the {@linkplain #findIndex index} page of an address in this region.
+     */
+    @INLINE
+    private int findIndexPage(Address address, Address start) {
+        return address.minus(start).unsignedShiftedRight(FIND_INDEX_ALIGN_SHIFT).toInt();
+    }
+
+    /**
+     * Records a target method, appended at a given position of {@link #targetMethods}, in the {@linkplain #findIndex index}.
+     */
+    private void addToFindIndex(TargetMethod targetMethod, int methodIdx) {
         assert start().alignUp(FIND_INDEX_ALIGN).equals(start());
-        int startIdx = targetMethod.start().plus(FIND_INDEX_ALIGN - 1).minus(start()).unsignedShiftedRight(FIND_INDEX_ALIGN_SHIFT).toInt();
-        int endIdx = targetMethod.end().minus(1).minus(start()).unsignedShiftedRight(FIND_INDEX_ALIGN_SHIFT).toInt();
-        if (endIdx >= findIndex.length) {
-            findIndex = Arrays.copyOf(findIndex, (endIdx * 3) / 2 + 1);
+        final int startPage = findIndexPage(targetMethod.start(), start());
+        final int endPage = findIndexPage(targetMethod.end().minus(1), start());
+        int[] index = findIndex;
+        if (endPage >= index.length) {
+            index = Arrays.copyOf(index, (endPage * 3) / 2 + 1);
         }
-        for (int i = startIdx; i <= endIdx; i++) {
-            assert findIndex[i] == 0;
-            findIndex[i] = insertionPoint;
+        if (index[startPage] == 0) {
+            // no preceding method overlaps the page this method starts in
+            index[startPage] = methodIdx + 1;
+        }
+        for (int i = startPage + 1; i <= endPage; i++) {
+            assert index[i] == 0;
+            index[i] = methodIdx + 1;
+        }
+        findIndex = index;
+    }
+
+    /**
+     * Updates the {@linkplain #findIndex index} after a target method was inserted at a given position of
+     * {@link #targetMethods}, shifting the methods that follow it by one. Only the pages from the one the
+     * inserted method starts in up to the end of the last method are visited.
+     */
+    private void insertInFindIndex(TargetMethod targetMethod, int methodIdx) {
+        final Address start = start();
+        final int startPage = findIndexPage(targetMethod.start(), start);
+        final int endPage = findIndexPage(targetMethod.end().minus(1), start);
+        final int lastPage = findIndexPage(targetMethods[length - 1].end().minus(1), start);
+        final int[] index = findIndex;
+        // The shifted entries must be visible before the index entries referring to their new positions.
+        MemoryBarriers.barrier(MemoryBarriers.STORE_STORE);
+        // The start page keeps a preceding method overlapping it. Otherwise its first method used to be the
+        // one now following the inserted method, and its entry (methodIdx + 1) now denotes the inserted method.
+        if (index[startPage] == 0) {
+            index[startPage] = methodIdx + 1;
+        }
+        for (int i = startPage + 1; i <= endPage; i++) {
+            // the method now following the inserted one may start in its last page, whose entry then already
+            // denotes the inserted method's position
+            assert i == endPage || index[i] == 0;
+            index[i] = methodIdx + 1;
+        }
+        for (int i = endPage + 1; i <= lastPage; i++) {
+            if (index[i] > methodIdx) {
+                index[i]++;
+            }
         }
     }
 
@@ -214,23 +282,28 @@ public class CodeRegion extends LinearAllocatorRegion {
     }
 
     protected final TargetMethod find0(Address cp, Address start, int[] index, TargetMethod[] tms) {
-        int pageIndex = cp.minus(start).unsignedShiftedRight(FIND_INDEX_ALIGN_SHIFT).toInt();
+        int pageIndex = findIndexPage(cp, start);
         if (pageIndex < 0 || pageIndex >= index.length) {
             return null;
         }
 
-        int methodIdx = index[pageIndex];
-        while (true) {
+        int methodIdx = index[pageIndex] - 1;
+        if (methodIdx < 0) {
+            // no method overlaps the page
+            return null;
+        }
+        while (methodIdx < tms.length) {
             TargetMethod method = tms[methodIdx];
-            if (method == null) {
+            if (method == null || !validMethodStart(method, cp)) {
+                // past the last method or {@code cp} is in a gap between methods
                 return null;
             }
-            assert validMethodStart(method, cp);
             if (methodFound(method, cp)) {
                 return method;
             }
             methodIdx++;
         }
+        return null;
     }
 
     protected boolean validMethodStart(TargetMethod tm, Address address) {
@@ -142,6 +142,21 @@ public final class SemiSpaceCodeRegion extends CodeRegion {
         return cell;
     }
 
+    /**
+     * Determines whether {@code used} bytes occupy less than {@code percent} percent of a semi-space.
+     */
+    public boolean isBelowOccupancy(Size used, int percent) {
+        return used.toLong() * 100 < spaceSize.toLong() * percent;
+    }
+
+    /**
+     * Determines whether allocating another {@code size} bytes would fill to-space beyond {@code percent} percent.
+     */
+    public boolean wouldExceedOccupancy(Size size, int percent) {
+        final long used = mark().minus(toSpace).toLong() + size.toLong();
+        return used * 100 > spaceSize.toLong() * percent;
+    }
+
     /**
      * Looks up the target method containing a particular address <i>in from-space</i>.
      */
@@ -149,7 +164,8 @@ public final class SemiSpaceCodeRegion extends CodeRegion {
         if (!isInFromSpace(cp)) {
             return null;
         }
-        return find0(cp, fromSpace, fromFindIndex, fromTargetMethods);
+        // the index was built while from-space was to-space, with pages relative to the region start
+        return find0(cp, start(), fromFindIndex, fromTargetMethods);
     }
 
     @Override
@@ -358,6 +358,7 @@ public class CompilationBroker {
                 MethodInstrumentation.enable(RCT);
             }
         } else if (phase == Phase.RUNNING) {
+            CompilationEvents.initialize();
             if (BackgroundCompilation) {
                 backgroundCompilationInitialized = true;
                 compilationThreadPool = new CompilationThreadPool();
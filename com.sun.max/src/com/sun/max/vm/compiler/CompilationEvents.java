@@ -0,0 +1,598 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.compiler;
+
+import static com.sun.max.vm.VMOptions.*;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import javax.management.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.log.VMLog.Record;
+import com.sun.max.vm.log.hosted.*;
+import com.sun.max.vm.profile.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * A stream of events describing every compilation and deoptimization, used to find methods that are
+ * recompiled repeatedly or bounce between the baseline and the optimizing compiler.
+ * <p>
+ * Each event is available in three forms, enabled independently:
+ * <ul>
+ * <li>a {@link VMLogger} record ({@code -XX:+LogCompilationEvent}, {@code -XX:+TraceCompilationEvent}),</li>
+ * <li>a JMX notification emitted by the {@value #OBJECT_NAME} MBean ({@code -XX:+CompilationEventNotifications}),</li>
+ * <li>a per-method summary printed at exit ({@code -XX:+PrintCompilationEventSummary}).</li>
+ * </ul>
+ * The events are recorded where they happen, which may be inside a VM operation, and are only appended to a
+ * lock-free queue there. The notifications and the summary are produced from that queue by a daemon thread.
+ */
+public final class CompilationEvents {
+
+    /**
+     * The name under which the notification emitter is registered with the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "com.sun.max:type=CompilationEvents";
+
+    /**
+     * Notification type of a completed compilation.
+     */
+    public static final String COMPILED = "com.sun.max.compilation.compiled";
+
+    /**
+     * Notification type of a target method invalidated for deoptimization.
+     */
+    public static final String INVALIDATED = "com.sun.max.compilation.invalidated";
+
+    /**
+     * Notification type of an activation of an invalidated target method being deoptimized.
+     */
+    public static final String DEOPTIMIZED = "com.sun.max.compilation.deoptimized";
+
+    /**
+     * Tier of methods compiled by the baseline compiler.
+     */
+    public static final int BASELINE_TIER = 1;
+
+    /**
+     * Tier of methods compiled by the optimizing compiler.
+     */
+    public static final int OPTIMIZED_TIER = 2;
+
+    private static boolean CompilationEventNotifications;
+    private static int CompilationEventSummaryLength = 50;
+    static {
+        addFieldOption("-XX:", "CompilationEventNotifications", CompilationEvents.class,
+            "Emit a JMX notification from " + OBJECT_NAME + " for each compilation and deoptimization.");
+        addFieldOption("-XX:", "CompilationEventSummaryLength", CompilationEvents.class,
+            "Number of methods listed by -XX:+PrintCompilationEventSummary.");
+    }
+
+    public static final VMBooleanOption PrintCompilationEventSummaryOption = register(new VMBooleanOption("-XX:-PrintCompilationEventSummary",
+            "Report the compilation and deoptimization history of the most frequently recompiled methods at exit.") {
+        @Override
+        protected void beforeExit() {
+            if (getValue() && summary != null) {
+                summary.print();
+            }
+        }
+    }, MaxineVM.Phase.STARTING);
+
+    /**
+     * Events not yet processed by the {@link #dispatcher}. Non-null iff notifications or the summary are enabled.
+     */
+    private static ConcurrentLinkedQueue<Event> queue;
+    private static Summary summary;
+    private static Emitter emitter;
+    private static Thread dispatcher;
+
+    private CompilationEvents() {
+    }
+
+    /**
+     * Starts producing events. Called when the VM is {@linkplain MaxineVM.Phase#RUNNING running}.
+     */
+    static void initialize() {
+        if (PrintCompilationEventSummaryOption.getValue()) {
+            summary = new Summary();
+        }
+        if (CompilationEventNotifications) {
+            emitter = new Emitter();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(emitter, new ObjectName(OBJECT_NAME));
+            } catch (JMException ex) {
+                Log.println("Could not register " + OBJECT_NAME + ": " + ex);
+                emitter = null;
+            }
+        }
+        if (summary != null || emitter != null) {
+            queue = new ConcurrentLinkedQueue<Event>();
+            dispatcher = new Thread(VmThread.systemThreadGroup, "Compilation Events") {
+                @Override
+                public void run() {
+                    while (true) {
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException ex) {
+                        }
+                        dispatch();
+                    }
+                }
+            };
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * Determines if events are to be recorded. Checked before measuring anything that is only needed for an event.
+     */
+    @INLINE
+    public static boolean enabled() {
+        return MaxineVM.isRunning() && (queue != null || compilationEventLogger.enabled());
+    }
+
+    /**
+     * Gets the tier of a target method.
+     */
+    public static int tierOf(TargetMethod tm) {
+        return tm.isBaseline() ? BASELINE_TIER : OPTIMIZED_TIER;
+    }
+
+    /**
+     * Records a completed compilation.
+     *
+     * @param compilation the compilation
+     * @param compileNanos the time spent compiling, including any nested compilation
+     * @param queueNanos the time {@code compilation} spent waiting for a background compilation thread
+     */
+    public static void compiled(Compilation compilation, long compileNanos, long queueNanos) {
+        final TargetMethod tm = compilation.result;
+        final ClassMethodActor method = compilation.classMethodActor;
+        final String compiler = compilation.compiler.getClass().getSimpleName();
+        final byte[] code = method.codeAttribute() == null ? null : method.codeAttribute().code();
+        final int bytecodeSize = code == null ? 0 : code.length;
+        final Set<MethodActor> inlined = new HashSet<MethodActor>();
+        final Set<MethodActor> calls = new HashSet<MethodActor>();
+        tm.gatherCalls(calls, calls, calls, inlined);
+        if (compilationEventLogger.enabled()) {
+            compilationEventLogger.logCompiled(method, compiler, tierOf(tm), bytecodeSize, tm.codeLength(), compileNanos, queueNanos, inlined.size());
+        }
+        if (queue != null) {
+            final Event event = new Event(COMPILED, method);
+            event.compiler = compiler;
+            event.tier = tierOf(tm);
+            event.isDeopt = compilation.isDeopt;
+            event.bytecodeSize = bytecodeSize;
+            event.codeSize = tm.codeLength();
+            event.compileNanos = compileNanos;
+            event.queueNanos = queueNanos;
+            event.inlined = new String[inlined.size()];
+            int i = 0;
+            for (MethodActor m : inlined) {
+                event.inlined[i++] = m.format("%H.%n(%p)");
+            }
+            queue.add(event);
+        }
+    }
+
+    /**
+     * Records the invalidation of a target method by a {@link com.sun.max.vm.compiler.deopt.Deoptimization}.
+     * This is called from within a VM operation and so only records the event.
+     *
+     * @param tm the invalidated method
+     * @param reasonId the deoptimization reason or {@link MethodProfile#UNDEFINED_DEOPTIMIZATION_REASON_ID}
+     */
+    public static void invalidated(TargetMethod tm, int reasonId) {
+        if (compilationEventLogger.enabled()) {
+            compilationEventLogger.logInvalidated(tm.classMethodActor, tierOf(tm), reasonId);
+        }
+        if (queue != null) {
+            final Event event = new Event(INVALIDATED, tm.classMethodActor);
+            event.tier = tierOf(tm);
+            event.reason = reasonId;
+            queue.add(event);
+        }
+    }
+
+    /**
+     * Records the deoptimization of an activation of an invalidated target method.
+     *
+     * @param tm the invalidated method
+     * @param reasonId the reason the method was invalidated
+     * @param bci the bytecode index at which the top (innermost inlined) frame is resumed
+     * @param frames the number of baseline frames that replace the activation
+     */
+    public static void deoptimized(TargetMethod tm, int reasonId, int bci, int frames) {
+        if (compilationEventLogger.enabled()) {
+            compilationEventLogger.logDeoptimized(tm.classMethodActor, reasonId, bci, frames);
+        }
+        if (queue != null) {
+            final Event event = new Event(DEOPTIMIZED, tm.classMethodActor);
+            event.tier = tierOf(tm);
+            event.reason = reasonId;
+            event.bci = bci;
+            event.frames = frames;
+            queue.add(event);
+        }
+    }
+
+    /**
+     * Feeds the queued events to the summary and the notification emitter.
+     */
+    private static void dispatch() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            if (summary != null) {
+                summary.add(event);
+            }
+            if (emitter != null) {
+                emitter.emit(event);
+            }
+        }
+    }
+
+    static String reasonName(int reasonId) {
+        return reasonId == MethodProfile.UNDEFINED_DEOPTIMIZATION_REASON_ID ? "undefined" : String.valueOf(reasonId);
+    }
+
+    private static final class Event {
+        final String type;
+        final ClassMethodActor method;
+        final long timeStamp = System.currentTimeMillis();
+        String compiler;
+        int tier;
+        boolean isDeopt;
+        int bytecodeSize;
+        int codeSize;
+        long compileNanos;
+        long queueNanos;
+        String[] inlined;
+        int reason = MethodProfile.UNDEFINED_DEOPTIMIZATION_REASON_ID;
+        int bci = -1;
+        int frames;
+
+        Event(String type, ClassMethodActor method) {
+            this.type = type;
+            this.method = method;
+        }
+    }
+
+    /**
+     * The compilation history of a single method.
+     */
+    private static final class MethodHistory {
+        final ClassMethodActor method;
+        int baselineCompilations;
+        int optimizedCompilations;
+        int invalidations;
+        int deoptimizations;
+        long compileNanos;
+
+        /**
+         * The tiers of the successive compilations, e.g. {@code "1 2 1 2"} for a method bouncing between tiers.
+         */
+        final StringBuilder tiers = new StringBuilder();
+
+        MethodHistory(ClassMethodActor method) {
+            this.method = method;
+        }
+
+        int churn() {
+            return baselineCompilations + optimizedCompilations + invalidations;
+        }
+    }
+
+    private static final class Summary {
+        final HashMap<ClassMethodActor, MethodHistory> methods = new HashMap<ClassMethodActor, MethodHistory>();
+        final long[] compilations = new long[OPTIMIZED_TIER + 1];
+        final long[] compileNanos = new long[OPTIMIZED_TIER + 1];
+        long queueNanos;
+        long deoptimizations;
+        final int[] deoptimizationsByReason = new int[MethodProfile.DEOPTIMIZATION_REASONS_NUM + 1];
+
+        synchronized void add(Event event) {
+            MethodHistory history = methods.get(event.method);
+            if (history == null) {
+                history = new MethodHistory(event.method);
+                methods.put(event.method, history);
+            }
+            if (event.type == COMPILED) {
+                if (event.tier == BASELINE_TIER) {
+                    history.baselineCompilations++;
+                } else {
+                    history.optimizedCompilations++;
+                }
+                if (history.tiers.length() < 64) {
+                    history.tiers.append(history.tiers.length() == 0 ? "" : " ").append(event.tier);
+                }
+                history.compileNanos += event.compileNanos;
+                compilations[event.tier]++;
+                compileNanos[event.tier] += event.compileNanos;
+                queueNanos += event.queueNanos;
+            } else if (event.type == INVALIDATED) {
+                history.invalidations++;
+                deoptimizationsByReason[event.reason + 1]++;
+            } else {
+                history.deoptimizations++;
+                deoptimizations++;
+            }
+        }
+
+        synchronized void print() {
+            if (queue != null) {
+                Event event;
+                while ((event = queue.poll()) != null) {
+                    add(event);
+                }
+            }
+            final ArrayList<MethodHistory> sorted = new ArrayList<MethodHistory>(methods.values());
+            Collections.sort(sorted, new Comparator<MethodHistory>() {
+                public int compare(MethodHistory a, MethodHistory b) {
+                    return b.churn() - a.churn();
+                }
+            });
+            final boolean lockDisabledSafepoints = Log.lock();
+            Log.println("Compilation events:");
+            Log.print("  baseline compilations: ");
+            Log.print(compilations[BASELINE_TIER]);
+            Log.print(" (");
+            Log.print(compileNanos[BASELINE_TIER] / 1000000);
+            Log.println("ms)");
+            Log.print("  optimized compilations: ");
+            Log.print(compilations[OPTIMIZED_TIER]);
+            Log.print(" (");
+            Log.print(compileNanos[OPTIMIZED_TIER] / 1000000);
+            Log.print("ms, queued ");
+            Log.print(queueNanos / 1000000);
+            Log.println("ms)");
+            Log.print("  deoptimized activations: ");
+            Log.println(deoptimizations);
+            for (int i = 0; i < deoptimizationsByReason.length; i++) {
+                if (deoptimizationsByReason[i] != 0) {
+                    Log.print("  invalidations for reason ");
+                    Log.print(reasonName(i - 1));
+                    Log.print(": ");
+                    Log.println(deoptimizationsByReason[i]);
+                }
+            }
+            Log.println("  baseline  optimized  invalidated  deoptimized  time(us)  tiers  method");
+            for (int i = 0; i < sorted.size() && i < CompilationEventSummaryLength; i++) {
+                final MethodHistory h = sorted.get(i);
+                if (h.churn() <= 1) {
+                    break;
+                }
+                Log.print("  ");
+                Log.print(h.baselineCompilations);
+                Log.print("  ");
+                Log.print(h.optimizedCompilations);
+                Log.print("  ");
+                Log.print(h.invalidations);
+                Log.print("  ");
+                Log.print(h.deoptimizations);
+                Log.print("  ");
+                Log.print(h.compileNanos / 1000);
+                Log.print("  [");
+                Log.print(h.tiers.toString());
+                Log.print("]  ");
+                Log.printMethod(h.method, true);
+            }
+            Log.unlock(lockDisabledSafepoints);
+        }
+    }
+
+    /**
+     * Management interface of the notification emitter.
+     */
+    public interface EmitterMBean {
+        long getNotificationCount();
+    }
+
+    /**
+     * Emits the compilation events as JMX notifications. The user data of a notification is a map from
+     * attribute names to boxed values or strings.
+     */
+    public static final class Emitter extends NotificationBroadcasterSupport implements EmitterMBean {
+        private final AtomicLong sequenceNumber = new AtomicLong();
+
+        Emitter() {
+            super(new MBeanNotificationInfo(new String[] {COMPILED, INVALIDATED, DEOPTIMIZED}, Notification.class.getName(),
+                "compilation and deoptimization events"));
+        }
+
+        public long getNotificationCount() {
+            return sequenceNumber.get();
+        }
+
+        void emit(Event event) {
+            final Notification notification = new Notification(event.type, OBJECT_NAME, sequenceNumber.incrementAndGet(), event.timeStamp,
+                event.method.format("%H.%n(%p)"));
+            final HashMap<String, Object> data = new HashMap<String, Object>();
+            data.put("tier", event.tier);
+            if (event.type == COMPILED) {
+                data.put("compiler", event.compiler);
+                data.put("deopt", event.isDeopt);
+                data.put("bytecodeSize", event.bytecodeSize);
+                data.put("codeSize", event.codeSize);
+                data.put("compileTimeNanos", event.compileNanos);
+                data.put("queueTimeNanos", event.queueNanos);
+                data.put("inlined", event.inlined);
+            } else {
+                data.put("reason", reasonName(event.reason));
+                if (event.type == DEOPTIMIZED) {
+                    data.put("bci", event.bci);
+                    data.put("frames", event.frames);
+                }
+            }
+            notification.setUserData(data);
+            sendNotification(notification);
+        }
+    }
+
+    @HOSTED_ONLY
+    @VMLoggerInterface
+    private interface CompilationEventLoggerInterface {
+        void compiled(
+                @VMLogParam(name = "method") ClassMethodActor method,
+                @VMLogParam(name = "compiler") String compiler,
+                @VMLogParam(name = "tier") int tier,
+                @VMLogParam(name = "bytecodeSize") int bytecodeSize,
+                @VMLogParam(name = "codeSize") int codeSize,
+                @VMLogParam(name = "compileNanos") long compileNanos,
+                @VMLogParam(name = "queueNanos") long queueNanos,
+                @VMLogParam(name = "inlined") int inlined);
+
+        void invalidated(
+                @VMLogParam(name = "method") ClassMethodActor method,
+                @VMLogParam(name = "tier") int tier,
+                @VMLogParam(name = "reason") int reason);
+
+        void deoptimized(
+                @VMLogParam(name = "method") ClassMethodActor method,
+                @VMLogParam(name = "reason") int reason,
+                @VMLogParam(name = "bci") int bci,
+                @VMLogParam(name = "frames") int frames);
+    }
+
+    public static final CompilationEventLogger compilationEventLogger = new CompilationEventLogger();
+
+    public static final class CompilationEventLogger extends CompilationEventLoggerAuto {
+        CompilationEventLogger() {
+            super("CompilationEvent", "compilation and deoptimization events.");
+        }
+
+        private static void prefix() {
+            Log.print("COMPILATION: ");
+        }
+
+        @Override
+        protected void traceCompiled(ClassMethodActor method, String compiler, int tier, int bytecodeSize, int codeSize, long compileNanos, long queueNanos, int inlined) {
+            prefix();
+            Log.print("compiled ");
+            Log.printMethod(method, false);
+            Log.print(" by ");
+            Log.print(compiler);
+            Log.print(", tier=");
+            Log.print(tier);
+            Log.print(", bytecodes=");
+            Log.print(bytecodeSize);
+            Log.print(", code=");
+            Log.print(codeSize);
+            Log.print(", time=");
+            Log.print(compileNanos / 1000);
+            Log.print("us, queued=");
+            Log.print(queueNanos / 1000);
+            Log.print("us, inlined=");
+            Log.println(inlined);
+        }
+
+        @Override
+        protected void traceInvalidated(ClassMethodActor method, int tier, int reason) {
+            prefix();
+            Log.print("invalidated ");
+            Log.printMethod(method, false);
+            Log.print(", tier=");
+            Log.print(tier);
+            Log.print(", reason=");
+            Log.println(reasonName(reason));
+        }
+
+        @Override
+        protected void traceDeoptimized(ClassMethodActor method, int reason, int bci, int frames) {
+            prefix();
+            Log.print("deoptimized ");
+            Log.printMethod(method, false);
+            Log.print(", reason=");
+            Log.print(reasonName(reason));
+            Log.print(", bci=");
+            Log.print(bci);
+            Log.print(", frames=");
+            Log.println(frames);
+        }
+    }
+
+// START GENERATED CODE
+    private static abstract class CompilationEventLoggerAuto extends com.sun.max.vm.log.VMLogger {
+        public enum Operation {
+            Compiled, Deoptimized, Invalidated;
+
+            @SuppressWarnings("hiding")
+            public static final Operation[] VALUES = values();
+        }
+
+        private static final int[] REFMAPS = new int[] {0x2, 0x0, 0x0};
+
+        protected CompilationEventLoggerAuto(String name, String optionDescription) {
+            super(name, Operation.VALUES.length, optionDescription, REFMAPS);
+        }
+
+        @Override
+        public String operationName(int opCode) {
+            return Operation.VALUES[opCode].name();
+        }
+
+        @INLINE
+        public final void logCompiled(ClassMethodActor method, String compiler, int tier, int bytecodeSize, int codeSize,
+                long compileNanos, long queueNanos, int inlined) {
+            log(Operation.Compiled.ordinal(), methodActorArg(method), objectArg(compiler), intArg(tier), intArg(bytecodeSize), intArg(codeSize),
+                longArg(compileNanos), longArg(queueNanos), intArg(inlined));
+        }
+        protected abstract void traceCompiled(ClassMethodActor method, String compiler, int tier, int bytecodeSize, int codeSize,
+                long compileNanos, long queueNanos, int inlined);
+
+        @INLINE
+        public final void logDeoptimized(ClassMethodActor method, int reason, int bci, int frames) {
+            log(Operation.Deoptimized.ordinal(), methodActorArg(method), intArg(reason), intArg(bci), intArg(frames));
+        }
+        protected abstract void traceDeoptimized(ClassMethodActor method, int reason, int bci, int frames);
+
+        @INLINE
+        public final void logInvalidated(ClassMethodActor method, int tier, int reason) {
+            log(Operation.Invalidated.ordinal(), methodActorArg(method), intArg(tier), intArg(reason));
+        }
+        protected abstract void traceInvalidated(ClassMethodActor method, int tier, int reason);
+
+        @Override
+        protected void trace(Record r) {
+            switch (r.getOperation()) {
+                case 0: { //Compiled
+                    traceCompiled(toClassMethodActor(r, 1), toString(r, 2), toInt(r, 3), toInt(r, 4), toInt(r, 5), toLong(r, 6), toLong(r, 7), toInt(r, 8));
+                    break;
+                }
+                case 1: { //Deoptimized
+                    traceDeoptimized(toClassMethodActor(r, 1), toInt(r, 2), toInt(r, 3), toInt(r, 4));
+                    break;
+                }
+                case 2: { //Invalidated
+                    traceInvalidated(toClassMethodActor(r, 1), toInt(r, 2), toInt(r, 3));
+                    break;
+                }
+            }
+        }
+    }
+
+// END GENERATED CODE
+}
@@ -75,6 +75,7 @@ public class CompilationThreadPool {
     }
 
     public void addCompilationToQueue(Compilation compilation) {
+        compilation.queuedAt = System.nanoTime();
         synchronized (pending) {
             pending.add(compilation);
             pending.notify();
@@ -30,6 +30,7 @@ import com.sun.max.vm.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.code.*;
+import com.sun.max.vm.compiler.CompilationEvents;
 import com.sun.max.vm.compiler.WordUtil;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.compiler.target.TargetMethod.FrameAccess;
@@ -172,7 +173,7 @@ public class Deoptimization extends VmOperation {
                 deoptLogger.logDoIt("processing ", tm, true);
             }
             // marks method as invalidated
-            if (!tm.invalidate(new InvalidationMarker(tm))) {
+            if (!tm.invalidate(new InvalidationMarker(tm, deoptReasonId))) {
                 methods.remove(i);
                 if (deoptLogger.enabled()) {
                     deoptLogger.logDoIt("ignoring previously invalidated method ", tm, true);
@@ -181,6 +182,9 @@ public class Deoptimization extends VmOperation {
                 // Perform deoptimization-related actions in the compilation broker.
                 ClassMethodActor cma = tm.classMethodActor();
                 vm().compilationBroker.deoptimize(cma, deoptReasonId);
+                if (CompilationEvents.enabled()) {
+                    CompilationEvents.invalidated(tm, deoptReasonId);
+                }
 
                 // Find all references to invalidated target method(s) in dispatch tables (e.g. vtables, itables etc) and revert to trampoline references.
                 // Concurrent patching ok here as it is atomic.
@@ -805,6 +809,15 @@ public class Deoptimization extends VmOperation {
             deoptLogger.logFrames(topFrame, "values");
         }
 
+        if (CompilationEvents.enabled()) {
+            int frames = 0;
+            for (CiFrame frame = topFrame; frame != null; frame = frame.caller()) {
+                frames++;
+            }
+            InvalidationMarker marker = tm.invalidated();
+            CompilationEvents.deoptimized(tm, marker == null ? MethodProfile.UNDEFINED_DEOPTIMIZATION_REASON_ID : marker.deoptReasonId, topFrame.bci, frames);
+        }
+
         // Construct the deoptimized frames for each frame in the debug info
         final TopFrameContinuation topCont = new TopFrameContinuation();
         Continuation cont = topCont;
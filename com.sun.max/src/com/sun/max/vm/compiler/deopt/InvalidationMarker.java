@@ -23,6 +23,7 @@
 package com.sun.max.vm.compiler.deopt;
 
 import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.profile.*;
 
 /**
  * Objects of this type are used to invalidate target methods.
@@ -39,8 +40,18 @@ public class InvalidationMarker {
      */
     public final TargetMethod targetMethod;
 
+    /**
+     * The deoptimization reason for which the method was invalidated.
+     */
+    public final int deoptReasonId;
+
     public InvalidationMarker(TargetMethod targetMethod) {
+        this(targetMethod, MethodProfile.UNDEFINED_DEOPTIMIZATION_REASON_ID);
+    }
+
+    public InvalidationMarker(TargetMethod targetMethod, int deoptReasonId) {
         this.targetMethod = targetMethod;
+        this.deoptReasonId = deoptReasonId;
     }
 
     @Override
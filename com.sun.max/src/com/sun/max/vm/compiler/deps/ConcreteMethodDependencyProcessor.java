@@ -87,7 +87,7 @@ public class ConcreteMethodDependencyProcessor extends DependencyProcessor {
     static class ToStringConcreteMethodDependencyProcessorVisitor extends ToStringDependencyProcessorVisitor implements ConcreteMethodDependencyProcessorVisitor {
         public boolean doConcreteMethod(TargetMethod targetMethod, MethodActor method, MethodActor impl, ClassActor context) {
             sb.append(" UCM[").append(method);
-            if (method != impl && impl.holder() != context) {
+            if (method != impl && impl != null && impl.holder() != context) {
                 sb.append(",").append(context);
                 sb.append(",").append(impl);
             }
@@ -149,6 +149,10 @@ public class ConcreteMethodDependencyProcessor extends DependencyProcessor {
             }
             if (uct != HAS_MULTIPLE_CONCRETE_SUBTYPE_MARK) {
                 ClassActor concreteType = ClassIDManager.toClassActor(uct);
+                if (concreteType == null) {
+                    // The concrete type has been collected and is about to be unloaded.
+                    return false;
+                }
                 // This is the only concrete sub-type for the current context. The concrete method
                 // is whatever concrete method is used by this concrete type.
                 setConcreteMethod((MethodActor) concreteType.resolveMethodImpl(method));
@@ -179,14 +183,15 @@ public class ConcreteMethodDependencyProcessor extends DependencyProcessor {
             int classId = root.firstSubclassActorId;
             do {
                 ClassActor subType = ClassIDManager.toClassActor(classId);
-                if (shouldSearchSubTypes(subType, method)) {
+                // skip a sub-type that has been collected but not unloaded yet
+                if (subType != null && shouldSearchSubTypes(subType, method)) {
                     searchInstanceClassTree(subType, method);
                 }
                 if (hasMoreThanOne) {
                     // no need to search further.
                     return;
                 }
-                classId = subType.nextSibling();
+                classId = ClassIDManager.nextSibling(classId);
             } while (classId != NULL_CLASS_ID);
         }
 
@@ -250,9 +255,12 @@ public class ConcreteMethodDependencyProcessor extends DependencyProcessor {
             int implHolder = dependencies.packed[i++];
             int methodHolderID = dependencies.packed[i++];
             if (ucmVisitor != null) {
-                impl = MethodID.toMethodActor(MethodID.fromWord(MemberID.create(implHolder, -mindex - 1)));
+                // A collected implementation holder is reported as a null implementation and method
                 ClassActor methodHolder = ClassIDManager.toClassActor(methodHolderID);
-                method = methodHolder.findLocalMethodActor(impl.name, impl.descriptor());
+                if (ClassIDManager.toClassActor(implHolder) != null && methodHolder != null) {
+                    impl = MethodID.toMethodActor(MethodID.fromWord(MemberID.create(implHolder, -mindex - 1)));
+                    method = methodHolder.findLocalMethodActor(impl.name, impl.descriptor());
+                }
             }
         }
         if (ucmVisitor != null) {
@@ -35,7 +35,6 @@ import com.sun.cri.ri.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
-import com.sun.max.vm.compiler.deopt.*;
 import com.sun.max.vm.compiler.deps.ContextDependents.*;
 import com.sun.max.vm.compiler.deps.Dependencies.*;
 import com.sun.max.vm.compiler.target.*;
@@ -262,7 +261,7 @@ public class ConcreteTypeDependencyProcessor extends DependencyProcessor {
     }
 
     /**
-     * Processes a list of invalidated dependencies, triggering deopt as necessary.
+     * Processes a list of invalidated dependencies, scheduling deopt as necessary (see {@link DependenciesManager#deoptimizePending()}).
      *
      * @param invalidated the head of a {@link Dependencies} list (which may contain duplicates)
      * @param classActor the class to be added to the global class hierarchy
@@ -290,7 +289,7 @@ public class ConcreteTypeDependencyProcessor extends DependencyProcessor {
         if (MaxineVM.isHosted()) {
             return;
         } else if (!methods.isEmpty()) {
-            new Deoptimization(methods).go();
+            DependenciesManager.scheduleDeoptimization(methods);
         }
     }
 
@@ -346,6 +345,11 @@ public class ConcreteTypeDependencyProcessor extends DependencyProcessor {
 
         @Override
         public boolean doConcreteMethod(TargetMethod targetMethod, MethodActor method, MethodActor impl, ClassActor context) {
+            if (impl == null) {
+                // The implementation belongs to a class that has been collected.
+                valid = false;
+                return false;
+            }
             RiMethod newImpl = concreteSubtype.resolveMethodImpl(method);
             if (newImpl != impl) {
                 valid = false;
@@ -366,6 +370,86 @@ public class ConcreteTypeDependencyProcessor extends DependencyProcessor {
         }
     }
 
+    /**
+     * Finds the dependencies referring to a class that has been collected and is being unloaded.
+     */
+    static final class CollectedClassChecker extends Dependencies.DependencyVisitor
+            implements ConcreteMethodDependencyProcessor.ConcreteMethodDependencyProcessorVisitor, ConcreteTypeDependencyProcessor.ConcreteTypeDependencyProcessorVisitor {
+        private boolean valid;
+
+        void reset() {
+            valid = true;
+        }
+
+        @Override
+        public boolean doConcreteSubtype(TargetMethod targetMethod, ClassActor context, ClassActor subtype) {
+            // The subtype is derived from the unique concrete type of the context, which is
+            // only reset after the dependencies have been checked.
+            if (subtype == null) {
+                valid = false;
+            }
+            return valid;
+        }
+
+        @Override
+        public boolean doConcreteMethod(TargetMethod targetMethod, MethodActor method, MethodActor impl, ClassActor context) {
+            if (impl == null) {
+                valid = false;
+            }
+            return valid;
+        }
+
+        @Override
+        public void doInvalidated() {
+            valid = false;
+        }
+
+        boolean valid() {
+            return valid;
+        }
+    }
+
+    private static final CollectedClassChecker collectedClassChecker = new CollectedClassChecker();
+
+    /**
+     * Updates the class hierarchy information of a live ancestor of a class that has been collected.
+     * The dependencies of {@code ancestor} that refer to the collected class are invalidated and their target
+     * methods are {@linkplain DependenciesManager#scheduleDeoptimization(ArrayList) scheduled for deoptimization}.
+     * If the collected class was the unique concrete sub-type of {@code ancestor}, the ancestor is left without
+     * a concrete sub-type, so that the identifier of the collected class can be reused by another class.
+     * An ancestor recorded with multiple concrete sub-types keeps that (conservative) mark.
+     *
+     * @param subtypeID the identifier of the collected class
+     * @param ancestor a live super class or interface of the collected class
+     */
+    static void removeCollectedSubtype(int subtypeID, ClassActor ancestor) {
+        assert classHierarchyLock.isWriteLockedByCurrentThread() : "must hold the class hierarchy lock in write mode";
+        DSet dset = map.get(ancestor);
+        if (dset != null) {
+            ArrayList<Dependencies> invalidated = null;
+            collectedClassChecker.classID = ancestor.id;
+            int i = 0;
+            while (i < dset.size()) {
+                Dependencies deps = dset.getDeps(i);
+                collectedClassChecker.reset();
+                deps.visit(collectedClassChecker);
+                if (!collectedClassChecker.valid()) {
+                    if (invalidated == null) {
+                        invalidated = new ArrayList<Dependencies>();
+                    }
+                    invalidated.add(deps);
+                    dset.removeAt(i);
+                } else {
+                    i++;
+                }
+            }
+            invalidateDependencies(invalidated, ancestor);
+        }
+        if (ancestor.uniqueConcreteType == subtypeID) {
+            ancestor.uniqueConcreteType = NO_CONCRETE_SUBTYPE_MARK;
+        }
+    }
+
     private static final DependencyChecker checker = new DependencyChecker();
 
     /**
@@ -30,6 +30,7 @@ import com.sun.max.program.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.compiler.deopt.*;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.hosted.*;
 import com.sun.max.vm.log.VMLog.*;
@@ -149,12 +150,96 @@ public final class DependenciesManager {
             classHierarchyLock.writeLock().unlock();
             if (!MaxineVM.isHosted() && refreshTables) {
                 // Don't need to be under the class hierarchy lock to do this.
+                deoptimizePending();
                 classActor.dynamicHub().refreshVTable();
                 classActor.dynamicHub().refreshITable();
             }
         }
     }
 
+    /**
+     * Removes classes that have been collected from the class hierarchy, before their identifiers are
+     * {@linkplain ClassIDManager#release(int[], int) released}. The collected classes are unlinked from the
+     * sub-class lists of their superclasses, the dependencies of their live super-types that refer to them are
+     * invalidated and the unique concrete sub-type of these super-types is updated. The target methods of the
+     * invalidated dependencies are deoptimized before this method returns.
+     *
+     * @param classIDs the identifiers of the collected classes
+     * @param superTypeIDs for each collected class, the identifier of the superclass whose sub-class list holds
+     *            the class (or {@link ClassIDManager#NULL_CLASS_ID}) followed by the identifiers of all its
+     *            super-types, or {@code null} if the class is not part of the class hierarchy
+     * @param count the number of collected classes
+     */
+    public static void removeFromHierarchy(int[] classIDs, int[][] superTypeIDs, int count) {
+        classHierarchyLock.writeLock().lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                final int[] superIDs = superTypeIDs[i];
+                if (superIDs == null || ClassIDManager.toClassActor(classIDs[i]) != null) {
+                    continue;
+                }
+                final ClassActor superClassActor = ClassIDManager.toClassActor(superIDs[0]);
+                if (superClassActor != null) {
+                    superClassActor.removeCollectedSubclasses();
+                }
+                for (int j = 1; j < superIDs.length; j++) {
+                    final ClassActor ancestor = ClassIDManager.toClassActor(superIDs[j]);
+                    if (ancestor != null) {
+                        ConcreteTypeDependencyProcessor.removeCollectedSubtype(classIDs[i], ancestor);
+                    }
+                }
+            }
+        } finally {
+            classHierarchyLock.writeLock().unlock();
+            deoptimizePending();
+        }
+    }
+
+    /**
+     * Target methods whose dependencies have been invalidated by a class hierarchy change but that have not been
+     * deoptimized yet. Guarded by {@link #pendingLock}.
+     */
+    private static ArrayList<TargetMethod> pendingDeoptimizations = new ArrayList<TargetMethod>();
+
+    private static final Object pendingLock = new Object();
+
+    /**
+     * Serializes the {@link Deoptimization} operations submitted by {@link #deoptimizePending()}.
+     */
+    private static final Object deoptimizationLock = new Object();
+
+    /**
+     * Schedules target methods whose dependencies were invalidated for deoptimization.
+     * This is called with the class hierarchy lock held in write mode, which must not be held while
+     * all threads are brought to a safepoint. The deoptimization itself is therefore deferred to
+     * {@link #deoptimizePending()}.
+     */
+    static void scheduleDeoptimization(ArrayList<TargetMethod> methods) {
+        synchronized (pendingLock) {
+            pendingDeoptimizations.addAll(methods);
+        }
+    }
+
+    /**
+     * Deoptimizes all target methods {@linkplain #scheduleDeoptimization(ArrayList) scheduled} so far in a single
+     * {@link Deoptimization} operation. The methods invalidated by concurrent class definitions are batched: a thread
+     * whose methods were taken over by another thread waits until that thread's operation has completed, so that
+     * upon return all methods scheduled by the caller have been deoptimized.
+     */
+    public static void deoptimizePending() {
+        synchronized (deoptimizationLock) {
+            final ArrayList<TargetMethod> methods;
+            synchronized (pendingLock) {
+                if (pendingDeoptimizations.isEmpty()) {
+                    return;
+                }
+                methods = pendingDeoptimizations;
+                pendingDeoptimizations = new ArrayList<TargetMethod>();
+            }
+            new Deoptimization(methods).go();
+        }
+    }
+
     // Logging
 
     @HOSTED_ONLY
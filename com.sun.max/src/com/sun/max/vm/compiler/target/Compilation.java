@@ -118,6 +118,11 @@ public class Compilation {
 
     public final RuntimeCompiler.Nature nature;
 
+    /**
+     * The {@link System#nanoTime()} at which this compilation was queued for a background compilation thread, or 0.
+     */
+    public long queuedAt;
+
     public Compilation(RuntimeCompiler compiler,
                        ClassMethodActor classMethodActor,
                        Compilations prevCompilations,
@@ -292,6 +297,7 @@ public class Compilation {
 
             startCompilationMetricsCollection();
 
+            final long startNanos = CompilationEvents.enabled() ? System.nanoTime() : 0L;
             result = compiler.compile(classMethodActor, isDeopt, true, null);
             if (result == null) {
                 throw new InternalError(classMethodActor.format("Result of compiling of %H.%n(%p) is null"));
@@ -301,6 +307,10 @@ public class Compilation {
 
             stopCompilationMetricsCollection();
 
+            if (startNanos != 0L) {
+                CompilationEvents.compiled(this, System.nanoTime() - startNanos, queuedAt == 0L ? 0L : startNanos - queuedAt);
+            }
+
             logAfterCompilation();
         } catch (RuntimeException t) {
             error = t;
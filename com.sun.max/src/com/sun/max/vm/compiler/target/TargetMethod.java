@@ -1397,6 +1397,15 @@ public abstract class TargetMethod extends MemoryRegion {
         return profile() != null && profile().protectedEntryCount();
     }
 
+    /**
+     * Determines whether this method was entered (or looped) at least {@code threshold} times since the previous
+     * {@linkplain CodeEviction eviction cycle}. This samples the profile's counter, so it must be called only once
+     * per cycle.
+     */
+    public boolean recentlyInvoked(int threshold) {
+        return profile() != null && profile().sampleEntryBackedgeDelta() >= threshold;
+    }
+
     /**
      * Gets the stub type of this target method.
      *
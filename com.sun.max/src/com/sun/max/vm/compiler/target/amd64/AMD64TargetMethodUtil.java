@@ -233,7 +233,6 @@ public final class AMD64TargetMethodUtil {
     private AMD64TargetMethodUtil() {
     }
 
-    @HOSTED_ONLY
     public static boolean atFirstOrLastInstruction(StackFrameCursor current) {
         // check whether the current ip is at the first instruction or a return
         // which means the stack pointer has not been adjusted yet (or has already been adjusted back)
@@ -273,9 +272,11 @@ public final class AMD64TargetMethodUtil {
         TargetMethod tm = current.targetMethod();
         Pointer sp = current.sp();
         Pointer ripPointer = sp.plus(tm.frameSize());
-        if (MaxineVM.isHosted()) {
-            // Only during a stack walk in the context of the Inspector can execution
-            // be anywhere other than at a safepoint.
+        StackFrameWalker sfw = current.stackFrameWalker();
+        if (MaxineVM.isHosted() || (current.isTopFrame() && sfw.isAsynchronous())) {
+            // Only during a stack walk in the context of the Inspector, or from a
+            // thread interrupted by a profiling signal, can execution be anywhere
+            // other than at a safepoint.
             AdapterGenerator generator = AdapterGenerator.forCallee(current.targetMethod());
             if (generator != null && generator.advanceIfInPrologue(current)) {
                 return;
@@ -285,7 +286,6 @@ public final class AMD64TargetMethodUtil {
             }
         }
 
-        StackFrameWalker sfw = current.stackFrameWalker();
         Pointer callerIP = sfw.readWord(ripPointer, 0).asPointer();
         Pointer callerSP = ripPointer.plus(Word.size()); // Skip return instruction pointer on stack
         Pointer callerFP;
@@ -603,6 +603,48 @@ public final class Heap {
         return false;
     }
 
+    /**
+     * Determines if the arrays passed to a critical native can be accessed in place,
+     * by pinning them or, if {@link #OptimizeJNICritical} is enabled, by disabling GC.
+     */
+    public static boolean supportsCriticalArrays() {
+        return OptimizeJNICritical || heapScheme().supportsPinning(PIN_SUPPORT_FLAG.CAN_NEST);
+    }
+
+    /**
+     * Gets the length of an array passed to a critical native, or 0 if {@code array} is null.
+     */
+    @INLINE
+    public static int criticalArrayLength(Object array) {
+        return array == null ? 0 : Layout.readArrayLength(Reference.fromJava(array));
+    }
+
+    /**
+     * Gets the address of the first element of an array passed to a critical native,
+     * preventing the array from moving until {@link #releaseCriticalArray(Object)} is called.
+     *
+     * @return the address of the first element or zero if {@code array} is null
+     */
+    @INLINE
+    public static Pointer acquireCriticalArray(Object array) {
+        if (array == null) {
+            return Pointer.zero();
+        }
+        final boolean direct = useDirectPointer(array);
+        assert direct : "critical natives require pinning or OptimizeJNICritical";
+        return Reference.fromJava(array).toOrigin().plus(Layout.byteArrayLayout().getElementOffsetFromOrigin(0));
+    }
+
+    /**
+     * Releases an array acquired by {@link #acquireCriticalArray(Object)}.
+     */
+    @INLINE
+    public static void releaseCriticalArray(Object array) {
+        if (array != null) {
+            releasedDirectPointer(array);
+        }
+    }
+
     /**
      * Determines if a given object is in the boot image.
      *
@@ -0,0 +1,563 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap;
+
+import static com.sun.max.vm.VMConfiguration.*;
+import static com.sun.max.vm.VMOptions.*;
+import static com.sun.max.vm.heap.HprofWriter.*;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+
+import sun.misc.Signal;
+import sun.misc.SignalHandler;
+
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.code.*;
+import com.sun.max.vm.layout.*;
+import com.sun.max.vm.object.*;
+import com.sun.max.vm.reference.*;
+import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.thread.*;
+import com.sun.max.vm.type.*;
+
+/**
+ * Writes a snapshot of the heap to a file in the HPROF binary format understood by heap analysis tools.
+ * A dump is requested with {@link #dump(String, boolean)}, with the {@code GC.heap_dump} diagnostic command
+ * or, given {@code -XX:HeapDumpOnSignal}, by sending the VM a signal.
+ * <p>
+ * The dump runs as a {@link GCOperation} so that all mutator threads are stopped with their stack reference
+ * maps prepared, but no collection takes place. Objects are enumerated with
+ * {@link HeapScheme#walkHeap(CallbackCellVisitor)} followed by the code regions, so only heap schemes
+ * implementing {@code walkHeap} produce instance records. Objects in the boot heap, immortal heap and code
+ * regions are reported as roots of unknown kind, as the collectors treat them as roots.
+ * <p>
+ * Maxine has no class objects distinct from its hubs: a class is identified by the address of its
+ * {@link DynamicHub}, which is what every object header refers to. Hubs and static tuples are therefore not
+ * dumped as instances, and static field values are reported with their class.
+ */
+public final class HeapDump {
+
+    private static String HeapDumpPath = "maxine.hprof";
+    private static String HeapDumpOnSignal;
+    private static int HeapDumpBufferSize = 1 << 20;
+    static {
+        addFieldOption("-XX:", "HeapDumpPath", HeapDump.class,
+            "File to which heap dumps are written when no file is given; later dumps append a sequence number.");
+        addFieldOption("-XX:", "HeapDumpOnSignal", HeapDump.class,
+            "Write a live-object heap dump when the named signal (e.g. USR2) is received.");
+        addFieldOption("-XX:", "HeapDumpBufferSize", HeapDump.class,
+            "Size in bytes of the buffer through which heap dumps are written.");
+    }
+
+    /**
+     * Serial number of the empty stack trace attributed to objects and classes.
+     */
+    private static final int UNKNOWN_TRACE = 1;
+
+    private static int defaultPathDumps;
+
+    private HeapDump() {
+    }
+
+    /**
+     * Installs the signal handler requested by {@code -XX:HeapDumpOnSignal}, if any.
+     */
+    public static void initialize() {
+        if (HeapDumpOnSignal != null) {
+            Signal.handle(new Signal(HeapDumpOnSignal), new SignalHandler() {
+                public void handle(Signal signal) {
+                    Log.println(dumpAndReport(nextDefaultPath(), true));
+                }
+            });
+        }
+    }
+
+    private static synchronized String nextDefaultPath() {
+        final int n = defaultPathDumps++;
+        return n == 0 ? HeapDumpPath : HeapDumpPath + "." + n;
+    }
+
+    /**
+     * Executes the {@code GC.heap_dump [-all] [filename]} diagnostic command.
+     *
+     * @return the message to be shown to the requester
+     */
+    public static String executeDiagnosticCommand(String[] arguments) {
+        boolean live = true;
+        String path = null;
+        for (String argument : arguments) {
+            if (argument.equals("-all")) {
+                live = false;
+            } else if (path == null && !argument.startsWith("-")) {
+                path = argument;
+            } else {
+                return "Unexpected argument: " + argument;
+            }
+        }
+        return dumpAndReport(path == null ? nextDefaultPath() : path, live);
+    }
+
+    private static String dumpAndReport(String path, boolean live) {
+        Log.println("Dumping heap to " + path + " ...");
+        final long start = System.nanoTime();
+        try {
+            final long bytes = dump(path, live);
+            return "Heap dump file created [" + bytes + " bytes in " + (System.nanoTime() - start) / 1000000 + " ms]";
+        } catch (IOException e) {
+            return "Heap dump failed: " + e;
+        }
+    }
+
+    /**
+     * Writes a heap dump.
+     *
+     * @param path the file to write
+     * @param live if {@code true}, a full collection precedes the dump so that it only contains live objects
+     * @return the size of the dump in bytes
+     */
+    public static synchronized long dump(String path, boolean live) throws IOException {
+        if (live) {
+            System.gc();
+        }
+        final int largestClassId = ClassIDManager.largestClassId();
+        final ClassActor[] classes = new ClassActor[largestClassId + 1];
+        for (int id = 0; id <= largestClassId; id++) {
+            classes[id] = ClassIDManager.toClassActor(id);
+        }
+        final FileOutputStream out = new FileOutputStream(path);
+        try {
+            final DumpOperation operation = new DumpOperation(out.getChannel(), classes);
+            // the first write allocates the state the channel keeps, which must not be in the immortal heap
+            operation.writer.header(System.currentTimeMillis());
+            operation.writer.flush();
+            operation.submit();
+            if (operation.writer.failed()) {
+                throw operation.writer.error();
+            }
+            return operation.writer.position();
+        } finally {
+            out.close();
+        }
+    }
+
+    static int basicType(Kind kind) {
+        switch (kind.asEnum) {
+            case BOOLEAN: return T_BOOLEAN;
+            case BYTE:    return T_BYTE;
+            case CHAR:    return T_CHAR;
+            case SHORT:   return T_SHORT;
+            case INT:     return T_INT;
+            case FLOAT:   return T_FLOAT;
+            case LONG:    return T_LONG;
+            case DOUBLE:  return T_DOUBLE;
+            case WORD:    return T_LONG;
+            case REFERENCE: return T_OBJECT;
+            default:
+                throw FatalError.unexpected("unexpected field kind");
+        }
+    }
+
+    static int valueSize(Kind kind) {
+        switch (kind.asEnum) {
+            case BOOLEAN:
+            case BYTE:
+                return 1;
+            case CHAR:
+            case SHORT:
+                return 2;
+            case INT:
+            case FLOAT:
+                return 4;
+            default:
+                return 8;
+        }
+    }
+
+    /**
+     * The VM operation writing the dump. Everything it needs is allocated before it is submitted, and the header
+     * is written before too, so that the file channel has allocated the state it keeps. The few objects the channel
+     * allocates while the operation writes go to the immortal heap and are released once the dump is written,
+     * unless an I/O error allocated there has to be reported.
+     */
+    static final class DumpOperation extends GCOperation {
+
+        final HprofWriter writer;
+        private final ClassActor[] classes;
+        private final BitSet defined;
+        private int threadSerial;
+        private boolean permanentObjects;
+
+        DumpOperation(FileChannel channel, ClassActor[] classes) {
+            super("HeapDump");
+            this.writer = new HprofWriter(channel, HeapDumpBufferSize);
+            this.classes = classes;
+            this.defined = new BitSet(classes.length * 2);
+        }
+
+        @Override
+        protected boolean disablesHeapAllocation() {
+            return false;
+        }
+
+        @Override
+        public void doIt() {
+            // As in GCOperation.doIt(), the reference map of this frame must be the same at both calls.
+            VmThreadLocal.prepareCurrentStackReferenceMap();
+            collect(0);
+        }
+
+        @Override
+        protected void collect(int invocationCount) {
+            final Pointer immortalMark = ImmortalHeap.getImmortalHeap().mark();
+            try {
+                Heap.enableImmortalMemoryAllocation();
+                writeDump();
+            } finally {
+                Heap.disableImmortalMemoryAllocation();
+            }
+            if (!writer.failed()) {
+                ImmortalHeap.release(immortalMark);
+            }
+        }
+
+        private void writeDump() {
+            final HprofWriter w = writer;
+            w.beginRecord(STACK_TRACE, 12);
+            w.u4(UNKNOWN_TRACE);
+            w.u4(0);
+            w.u4(0);
+            VmThreadMap.ACTIVE.forAllThreadLocals(null, threadTraces);
+            for (ClassActor classActor : classes) {
+                if (isDumpable(classActor)) {
+                    define(classActor);
+                }
+            }
+
+            w.beginSegment();
+            for (ClassActor classActor : classes) {
+                if (isDumpable(classActor)) {
+                    classDump(classActor);
+                    w.u1(ROOT_STICKY_CLASS);
+                    w.id(classActor.dynamicHub());
+                }
+            }
+            VmThreadMap.ACTIVE.forAllThreadLocals(null, threadRoots);
+            vmConfig().monitorScheme().scanReferences(monitorRoots);
+
+            permanentObjects = false;
+            vmConfig().heapScheme().walkHeap(objectDumper);
+            permanentObjects = true;
+            Code.visitCells(objectDumper, true);
+            w.end();
+        }
+
+        private static boolean isDumpable(ClassActor classActor) {
+            return classActor != null && classActor.dynamicHub() != null;
+        }
+
+        private static int threadSerial(VmThread vmThread) {
+            return vmThread.id() + 2;
+        }
+
+        /**
+         * Writes the top-level records naming a class and its fields.
+         */
+        private void define(ClassActor classActor) {
+            final HprofWriter w = writer;
+            defined.set(classActor.id);
+            final String descriptor = classActor.typeDescriptor.string;
+            final boolean isObjectType = descriptor.charAt(0) == 'L';
+            final long nameId = Reference.fromJava(classActor).toOrigin().toLong();
+            w.string(nameId, descriptor, isObjectType ? 1 : 0, isObjectType ? descriptor.length() - 1 : descriptor.length());
+            defineNames(classActor.localStaticFieldActors());
+            defineNames(classActor.localInstanceFieldActors());
+            w.beginRecord(LOAD_CLASS, 4 + ID_SIZE + 4 + ID_SIZE);
+            w.u4(classActor.id + 1);
+            w.id(classActor.dynamicHub());
+            w.u4(UNKNOWN_TRACE);
+            w.u8(nameId);
+        }
+
+        private void defineNames(FieldActor[] fieldActors) {
+            for (FieldActor fieldActor : fieldActors) {
+                final String name = fieldActor.name.string;
+                writer.string(Reference.fromJava(fieldActor.name).toOrigin().toLong(), name, 0, name.length());
+            }
+        }
+
+        /**
+         * Defines a class, and any of its superclasses, not seen before the operation started.
+         * The top-level records must be written between two heap dump segments.
+         */
+        private void defineLate(ClassActor classActor) {
+            writer.endSegment();
+            ClassActor stop = classActor;
+            while (stop != null && !defined.get(stop.id)) {
+                define(stop);
+                stop = stop.superClassActor;
+            }
+            writer.beginSegment();
+            for (ClassActor c = classActor; c != stop; c = c.superClassActor) {
+                classDump(c);
+                writer.u1(ROOT_STICKY_CLASS);
+                writer.id(c.dynamicHub());
+            }
+        }
+
+        private void classDump(ClassActor classActor) {
+            final HprofWriter w = writer;
+            final DynamicHub hub = classActor.dynamicHub();
+            w.u1(CLASS_DUMP);
+            w.id(hub);
+            w.u4(UNKNOWN_TRACE);
+            w.id(classActor.superClassActor == null ? null : classActor.superClassActor.dynamicHub());
+            w.id(classActor.classLoader);
+            w.u8(0L); // signers
+            w.u8(0L); // protection domain
+            w.u8(0L); // reserved
+            w.u8(0L); // reserved
+            w.u4(classActor.isTupleClass() ? hub.tupleSize.toInt() : 0);
+            w.u2(0); // constant pool
+            final Object staticTuple = classActor.staticTuple();
+            final FieldActor[] staticFields = staticTuple == null ? NO_FIELDS : classActor.localStaticFieldActors();
+            w.u2(staticFields.length);
+            for (FieldActor fieldActor : staticFields) {
+                w.id(fieldActor.name);
+                w.u1(basicType(fieldActor.kind));
+                value(Reference.fromJava(staticTuple), fieldActor);
+            }
+            final FieldActor[] instanceFields = classActor.localInstanceFieldActors();
+            w.u2(instanceFields.length);
+            for (FieldActor fieldActor : instanceFields) {
+                w.id(fieldActor.name);
+                w.u1(basicType(fieldActor.kind));
+            }
+        }
+
+        private static final FieldActor[] NO_FIELDS = {};
+
+        private void value(Reference ref, FieldActor fieldActor) {
+            final HprofWriter w = writer;
+            final int offset = fieldActor.offset();
+            switch (fieldActor.kind.asEnum) {
+                case BOOLEAN:
+                    w.u1(ref.readBoolean(offset) ? 1 : 0);
+                    break;
+                case BYTE:
+                    w.u1(ref.readByte(offset));
+                    break;
+                case CHAR:
+                    w.u2(ref.readChar(offset));
+                    break;
+                case SHORT:
+                    w.u2(ref.readShort(offset));
+                    break;
+                case INT:
+                case FLOAT:
+                    w.u4(ref.readInt(offset));
+                    break;
+                case LONG:
+                case DOUBLE:
+                    w.u8(ref.readLong(offset));
+                    break;
+                case WORD:
+                    w.u8(ref.readWord(offset).asAddress().toLong());
+                    break;
+                case REFERENCE:
+                    w.id(ref.readReference(offset));
+                    break;
+                default:
+                    throw FatalError.unexpected("unexpected field kind");
+            }
+        }
+
+        private void instanceDump(Reference ref, Hub hub) {
+            final HprofWriter w = writer;
+            int length = 0;
+            for (ClassActor c = hub.classActor; c != null; c = c.superClassActor) {
+                for (FieldActor fieldActor : c.localInstanceFieldActors()) {
+                    length += valueSize(fieldActor.kind);
+                }
+            }
+            w.u1(INSTANCE_DUMP);
+            w.id(ref);
+            w.u4(UNKNOWN_TRACE);
+            w.id(hub);
+            w.u4(length);
+            for (ClassActor c = hub.classActor; c != null; c = c.superClassActor) {
+                for (FieldActor fieldActor : c.localInstanceFieldActors()) {
+                    value(ref, fieldActor);
+                }
+            }
+        }
+
+        private void arrayDump(Reference ref, Hub hub) {
+            final HprofWriter w = writer;
+            final int length = Layout.readArrayLength(ref);
+            final Kind kind = hub.classActor.componentClassActor().kind;
+            if (kind.isReference) {
+                w.u1(OBJ_ARRAY_DUMP);
+                w.id(ref);
+                w.u4(UNKNOWN_TRACE);
+                w.u4(length);
+                w.id(hub);
+                for (int i = 0; i < length; i++) {
+                    w.id(Layout.getReference(ref, i));
+                }
+                return;
+            }
+            w.u1(PRIM_ARRAY_DUMP);
+            w.id(ref);
+            w.u4(UNKNOWN_TRACE);
+            w.u4(length);
+            w.u1(basicType(kind));
+            switch (kind.asEnum) {
+                case BOOLEAN:
+                    for (int i = 0; i < length; i++) {
+                        w.u1(Layout.getBoolean(ref, i) ? 1 : 0);
+                    }
+                    break;
+                case BYTE:
+                    for (int i = 0; i < length; i++) {
+                        w.u1(Layout.getByte(ref, i));
+                    }
+                    break;
+                case CHAR:
+                    for (int i = 0; i < length; i++) {
+                        w.u2(Layout.getChar(ref, i));
+                    }
+                    break;
+                case SHORT:
+                    for (int i = 0; i < length; i++) {
+                        w.u2(Layout.getShort(ref, i));
+                    }
+                    break;
+                case INT:
+                    for (int i = 0; i < length; i++) {
+                        w.u4(Layout.getInt(ref, i));
+                    }
+                    break;
+                case FLOAT:
+                    for (int i = 0; i < length; i++) {
+                        w.u4(Float.floatToRawIntBits(Layout.getFloat(ref, i)));
+                    }
+                    break;
+                case LONG:
+                    for (int i = 0; i < length; i++) {
+                        w.u8(Layout.getLong(ref, i));
+                    }
+                    break;
+                case DOUBLE:
+                    for (int i = 0; i < length; i++) {
+                        w.u8(Double.doubleToRawLongBits(Layout.getDouble(ref, i)));
+                    }
+                    break;
+                case WORD:
+                    for (int i = 0; i < length; i++) {
+                        w.u8(Layout.getWord(ref, i).asAddress().toLong());
+                    }
+                    break;
+                default:
+                    throw FatalError.unexpected("unexpected array component kind");
+            }
+        }
+
+        private final CallbackCellVisitor objectDumper = new CallbackCellVisitor() {
+            @Override
+            protected boolean callback(Object object) {
+                final Hub hub = ObjectAccess.readHub(object);
+                if (hub.layoutCategory == Layout.Category.HYBRID || hub instanceof StaticHub) {
+                    // hubs stand for their classes, static tuples are part of the class records
+                    return !writer.failed();
+                }
+                final ClassActor classActor = hub.classActor;
+                if (!defined.get(classActor.id)) {
+                    defineLate(classActor);
+                }
+                final Reference ref = Reference.fromJava(object);
+                if (permanentObjects || Heap.bootHeapRegion.contains(ref.toOrigin()) || ImmortalHeap.contains(ref.toOrigin())) {
+                    writer.u1(ROOT_UNKNOWN);
+                    writer.id(ref);
+                }
+                if (hub.layoutCategory == Layout.Category.TUPLE) {
+                    instanceDump(ref, hub);
+                } else {
+                    arrayDump(ref, hub);
+                }
+                writer.checkSegmentLength();
+                return !writer.failed();
+            }
+        };
+
+        private final Pointer.Procedure threadTraces = new Pointer.Procedure() {
+            public void run(Pointer tla) {
+                final int serial = threadSerial(VmThread.fromTLA(tla));
+                writer.beginRecord(STACK_TRACE, 12);
+                writer.u4(serial);
+                writer.u4(serial);
+                writer.u4(0);
+            }
+        };
+
+        private final Pointer.Procedure threadRoots = new Pointer.Procedure() {
+            public void run(Pointer tla) {
+                final VmThread vmThread = VmThread.fromTLA(tla);
+                threadSerial = threadSerial(vmThread);
+                final Thread javaThread = vmThread.javaThread();
+                if (javaThread != null) {
+                    writer.u1(ROOT_THREAD_OBJECT);
+                    writer.id(javaThread);
+                    writer.u4(threadSerial);
+                    writer.u4(threadSerial);
+                }
+                VmThreadLocal.scanReferences(tla, stackRoots);
+            }
+        };
+
+        private final PointerIndexVisitor stackRoots = new PointerIndexVisitor() {
+            @Override
+            public void visit(Pointer pointer, int wordIndex) {
+                final Reference ref = pointer.getReference(wordIndex);
+                if (!ref.isZero() && !CodePointer.isCodePointer(ref)) {
+                    writer.u1(ROOT_JAVA_FRAME);
+                    writer.id(ref);
+                    writer.u4(threadSerial);
+                    writer.u4(-1);
+                }
+            }
+        };
+
+        private final PointerIndexVisitor monitorRoots = new PointerIndexVisitor() {
+            @Override
+            public void visit(Pointer pointer, int wordIndex) {
+                final Reference ref = pointer.getReference(wordIndex);
+                if (!ref.isZero()) {
+                    writer.u1(ROOT_MONITOR_USED);
+                    writer.id(ref);
+                }
+            }
+        };
+    }
+}
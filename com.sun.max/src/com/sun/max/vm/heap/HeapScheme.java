@@ -318,6 +318,15 @@ public interface HeapScheme extends VMScheme {
      */
     long getAllocationCounterForCurrentThread();
 
+    /**
+     * Gets the number of bytes a thread has allocated on the heap so far. For a thread other than the current one,
+     * the caller must hold {@link VmThreadMap#THREAD_LOCK} and the result is a snapshot that may be slightly stale.
+     *
+     * @param tla the thread locals of the thread
+     * @return the number of bytes, or -1 if this heap scheme does not track it
+     */
+    long allocatedBytes(Pointer tla);
+
     boolean needsBarrier(IntBitSet<WriteBarrierSpecification.WriteBarrierSpec> writeBarrierSpec);
 
     void preWriteBarrier(Reference ref, Offset offset, Reference value);
@@ -24,6 +24,9 @@ package com.sun.max.vm.heap;
 import static com.sun.max.vm.thread.VmThread.*;
 import static com.sun.max.vm.thread.VmThreadLocal.*;
 
+import java.lang.management.MemoryPoolMXBean;
+import java.util.*;
+
 import javax.management.*;
 
 import com.sun.management.*;
@@ -57,13 +60,68 @@ public abstract class HeapSchemeAdaptor extends AbstractVMScheme implements Heap
         VMOptions.addFieldOption("-XX:", "DisableExplicitGC", HeapSchemeAdaptor.class, "Tells whether System.gc() forces a full GC", MaxineVM.Phase.PRISTINE);
     }
 
-    public class GarbageCollectorMXBeanAdaptor extends MemoryManagerMXBeanAdaptor implements GarbageCollectorMXBean  {
+    /**
+     * Adaptor for the garbage collector MXBean of a heap scheme. Emits {@link GarbageCollectionNotificationInfo} notifications
+     * once {@linkplain #enableNotifications(List) enabled}. Subclasses may add implementation-specific attributes to the
+     * {@link GcInfo} of each collection by overriding {@link #gcInfoExtensionNames()} and {@link #recordGcInfoExtensions(long[])}.
+     */
+    public class GarbageCollectorMXBeanAdaptor extends MemoryManagerMXBeanAdaptor implements GarbageCollectorMXBean, NotificationEmitter  {
+        private final NotificationBroadcasterSupport broadcaster = new NotificationBroadcasterSupport();
+        private GarbageCollectionNotifier notifier;
+
         public GarbageCollectorMXBeanAdaptor(String name) {
             super(name);
         }
 
+        /**
+         * Starts recording the usage of this collector's pools, and of the specified other pools, around each collection.
+         *
+         * @param otherPools pools not managed by this collector to also report in each {@link GcInfo}
+         */
+        public void enableNotifications(List<MemoryPoolMXBean> otherPools) {
+            notifier = GarbageCollectionNotifier.install(this, otherPools);
+        }
+
+        /**
+         * Names of the implementation-specific {@link GcInfo} attributes of this collector.
+         */
+        public String[] gcInfoExtensionNames() {
+            return new String[0];
+        }
+
+        /**
+         * Fills in the values of the attributes named by {@link #gcInfoExtensionNames()} at the end of a collection.
+         * Called by the GC thread; must not allocate.
+         */
+        public void recordGcInfoExtensions(long[] values) {
+        }
+
         public GcInfo getLastGcInfo() {
-            return null;
+            return notifier == null ? null : notifier.lastGcInfo();
+        }
+
+        public void addNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+            broadcaster.addNotificationListener(listener, filter, handback);
+            if (notifier != null) {
+                notifier.startPublisher();
+            }
+        }
+
+        public void removeNotificationListener(NotificationListener listener) throws ListenerNotFoundException {
+            broadcaster.removeNotificationListener(listener);
+        }
+
+        public void removeNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) throws ListenerNotFoundException {
+            broadcaster.removeNotificationListener(listener, filter, handback);
+        }
+
+        public MBeanNotificationInfo[] getNotificationInfo() {
+            return new MBeanNotificationInfo[] {new MBeanNotificationInfo(new String[] {GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION},
+                            Notification.class.getName(), "GC notification")};
+        }
+
+        public void sendNotification(Notification notification) {
+            broadcaster.sendNotification(notification);
         }
 
         public long getCollectionCount() {
@@ -263,6 +321,10 @@ public abstract class HeapSchemeAdaptor extends AbstractVMScheme implements Heap
         throw FatalError.unimplemented();
     }
 
+    public long allocatedBytes(Pointer tla) {
+        return -1L;
+    }
+
     public void notifyCurrentThreadDetach() {
         // nothing by default
     }
@@ -26,6 +26,7 @@ import static com.sun.max.vm.thread.VmThread.*;
 import static com.sun.max.vm.thread.VmThreadLocal.*;
 import static com.sun.max.vm.MaxineVM.numaProfiler;
 
+import com.oracle.max.cri.intrinsics.*;
 import com.sun.max.annotate.*;
 import com.sun.max.lang.*;
 import com.sun.max.platform.*;
@@ -41,6 +42,7 @@ import com.sun.max.vm.log.VMLog.Record;
 import com.sun.max.vm.log.hosted.*;
 import com.sun.max.vm.object.*;
 import com.sun.max.vm.profilers.tracing.numa.NUMAProfiler;
+import com.sun.max.vm.profilers.sampling.AllocationSampler;
 import com.sun.max.vm.reference.*;
 import com.sun.max.vm.run.java.JavaRunScheme;
 import com.sun.max.vm.runtime.*;
@@ -142,6 +144,25 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
     private static final VmThreadLocal ALLOCATION_COUNTER
         = new VmThreadLocal("ALLOCATION_COUNTER", false, "Amount of memory allocated by thread", Nature.Single);
 
+    /**
+     * Thread-local holding the number of bytes allocated by a thread, less its current {@link #TLAB_MARK}.
+     * Whenever the allocation mark changes other than by allocation, the difference is moved to this base,
+     * so that allocating in a TLAB need not update it.
+     *
+     * @see #allocatedBytes(Pointer)
+     */
+    private static final VmThreadLocal ALLOCATED_BYTES_BASE
+        = new VmThreadLocal("ALLOCATED_BYTES_BASE", false, "HeapSchemeWithTLAB: bytes allocated by thread, less the current TLAB allocation mark", Nature.Single);
+
+    /**
+     * Thread-local sequence number that is odd while {@link #ALLOCATED_BYTES_BASE} and {@link #TLAB_MARK} are
+     * being changed together, so that another thread can read a consistent pair.
+     *
+     * @see #allocatedBytes(Pointer)
+     */
+    private static final VmThreadLocal ALLOCATED_BYTES_SEQUENCE
+        = new VmThreadLocal("ALLOCATED_BYTES_SEQUENCE", false, "HeapSchemeWithTLAB: odd while the allocated bytes base and TLAB allocation mark are updated", Nature.Single);
+
     /**
      * Thread-local used to disable allocation per thread.
      */
@@ -183,7 +204,7 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
             }
             doBeforeReset(etla, tlabMark, tlabTop);
             TLAB_TOP.store(etla, Address.zero());
-            TLAB_MARK.store(etla, Address.zero());
+            moveAllocationMark(etla, tlabMark, Pointer.zero());
         }
     }
 
@@ -347,6 +368,39 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         return apt.asSize().toLong();
     }
 
+    /**
+     * Changes a thread's TLAB allocation mark other than by allocation, accounting for the change in
+     * {@link #ALLOCATED_BYTES_BASE}. The two are updated under {@link #ALLOCATED_BYTES_SEQUENCE}.
+     */
+    @INLINE
+    private static void moveAllocationMark(Pointer etla, Pointer oldMark, Pointer newMark) {
+        final Address sequence = ALLOCATED_BYTES_SEQUENCE.load(etla).asAddress();
+        ALLOCATED_BYTES_SEQUENCE.store(etla, sequence.plus(1));
+        MemoryBarriers.barrier(MemoryBarriers.STORE_STORE);
+        ALLOCATED_BYTES_BASE.store(etla, ALLOCATED_BYTES_BASE.load(etla).plus(oldMark.minus(newMark)));
+        TLAB_MARK.store(etla, newMark);
+        MemoryBarriers.barrier(MemoryBarriers.STORE_STORE);
+        ALLOCATED_BYTES_SEQUENCE.store(etla, sequence.plus(2));
+    }
+
+    @Override
+    public long allocatedBytes(Pointer tla) {
+        final Pointer etla = ETLA.load(tla);
+        Address sequence;
+        Pointer mark;
+        Pointer base;
+        // Allocation only advances the mark, which any base read with it accounts for. A base is only consistent
+        // with a mark if no moveAllocationMark ran between the two reads, which the sequence number detects.
+        do {
+            sequence = ALLOCATED_BYTES_SEQUENCE.load(etla).asAddress();
+            MemoryBarriers.barrier(MemoryBarriers.LOAD_LOAD);
+            mark = TLAB_MARK.load(etla);
+            base = ALLOCATED_BYTES_BASE.load(etla);
+            MemoryBarriers.barrier(MemoryBarriers.LOAD_LOAD);
+        } while (sequence.isBitSet(0) || !sequence.equals(ALLOCATED_BYTES_SEQUENCE.load(etla)));
+        return base.plus(mark).toLong();
+    }
+
     @INLINE
     @Override
     public final boolean usesTLAB() {
@@ -390,7 +444,7 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         }
 
         TLAB_TOP.store(etla, tlabTop);
-        TLAB_MARK.store(etla, tlab);
+        moveAllocationMark(etla, allocationMark, tlab);
         if (logTLAB()) {
             VmThread vmThread = UnsafeCast.asVmThread(VM_THREAD.loadRef(etla).toJava());
             logger.logRefill(vmThread, tlabTop, tlabTop, tlab.plus(initialTlabSize), initialTlabSize.toInt());
@@ -400,7 +454,7 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
     @INLINE
     protected final void fastRefillTLAB(Pointer etla, Pointer tlab, Size size) {
         TLAB_TOP.store(etla, tlab.plus(size));
-        TLAB_MARK.store(etla, tlab);
+        moveAllocationMark(etla, TLAB_MARK.load(etla), tlab);
     }
 
     /**
@@ -554,7 +608,15 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         }
         globalTlabStats.tlabOverflowCount++;
         // This path will always be taken if TLAB allocation is not enabled.
-        return handleTLABOverflow(size, etla, oldAllocationMark, tlabEnd);
+        final Pointer cell = handleTLABOverflow(size, etla, oldAllocationMark, tlabEnd);
+        if (!TLAB_MARK.load(etla).equals(cell.plus(size))) {
+            // Allocated outside the TLAB
+            ALLOCATED_BYTES_BASE.store(etla, ALLOCATED_BYTES_BASE.load(etla).plus(size));
+        }
+        if (AllocationSampler.isEnabled()) {
+            AllocationSampler.sampleAllocation(etla, oldAllocationMark, TLAB_MARK.load(etla), cell, size);
+        }
+        return cell;
     }
 
     @NEVER_INLINE
@@ -654,7 +716,7 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
 
             TLAB_MARK_TMP.store(etla, allocationMark);
             TLAB_TOP_TMP.store(etla, tlabTop);
-            TLAB_MARK.store(etla, Word.zero());
+            moveAllocationMark(etla, allocationMark, Pointer.zero());
             TLAB_TOP.store(etla, Word.zero());
         }
     }
@@ -667,7 +729,7 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
             final Pointer allocationMarkTmp = TLAB_MARK_TMP.load(etla);
             final Pointer tlabTopTmp = TLAB_TOP_TMP.load(etla);
 
-            TLAB_MARK.store(etla, allocationMarkTmp);
+            moveAllocationMark(etla, Pointer.zero(), allocationMarkTmp);
             TLAB_TOP.store(etla, tlabTopTmp);
             TLAB_MARK_TMP.store(etla, Word.zero());
             TLAB_TOP_TMP.store(etla, Word.zero());
@@ -676,6 +738,9 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
 
     @Override
     public void notifyCurrentThreadDetach() {
+        if (AllocationSampler.isEnabled()) {
+            AllocationSampler.threadDetached(ETLA.load(currentTLA()));
+        }
         tlabReset(currentTLA());
     }
 
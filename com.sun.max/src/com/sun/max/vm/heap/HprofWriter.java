@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.reference.*;
+
+/**
+ * Encodes records of the HPROF binary format ({@code JAVA PROFILE 1.0.2}, 8 byte identifiers) into a
+ * pre-allocated direct buffer that is drained into a file channel. Apart from the occasional channel
+ * bookkeeping object, writing a record does not allocate, so a writer can be used from a VM operation.
+ * <p>
+ * Heap sub-records are grouped in {@code HEAP DUMP SEGMENT} records whose length is patched in place
+ * once the segment is {@linkplain #endSegment() closed}. An I/O error is latched: all further output
+ * is discarded and the error is reported by {@link #error()}.
+ */
+final class HprofWriter {
+
+    // top-level records
+    static final int STRING = 0x01;
+    static final int LOAD_CLASS = 0x02;
+    static final int STACK_TRACE = 0x05;
+    static final int HEAP_DUMP_SEGMENT = 0x1C;
+    static final int HEAP_DUMP_END = 0x2C;
+
+    // heap dump sub-records
+    static final int ROOT_UNKNOWN = 0xFF;
+    static final int ROOT_JAVA_FRAME = 0x03;
+    static final int ROOT_STICKY_CLASS = 0x05;
+    static final int ROOT_MONITOR_USED = 0x07;
+    static final int ROOT_THREAD_OBJECT = 0x08;
+    static final int CLASS_DUMP = 0x20;
+    static final int INSTANCE_DUMP = 0x21;
+    static final int OBJ_ARRAY_DUMP = 0x22;
+    static final int PRIM_ARRAY_DUMP = 0x23;
+
+    // basic types
+    static final int T_OBJECT = 2;
+    static final int T_BOOLEAN = 4;
+    static final int T_CHAR = 5;
+    static final int T_FLOAT = 6;
+    static final int T_DOUBLE = 7;
+    static final int T_BYTE = 8;
+    static final int T_SHORT = 9;
+    static final int T_INT = 10;
+    static final int T_LONG = 11;
+
+    static final int ID_SIZE = 8;
+
+    /**
+     * Segments are closed once they exceed this length. Sub-records do not span segments, so an analyzer
+     * can parse the segments of a dump in parallel, and even a small heap gives it several segments.
+     */
+    private static final long MAX_SEGMENT_LENGTH = 8L << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final ByteBuffer patch = ByteBuffer.allocateDirect(4);
+
+    /**
+     * Number of bytes already drained to the channel.
+     */
+    private long flushed;
+
+    /**
+     * File position of the length field of the open segment, or -1 if no segment is open.
+     */
+    private long segmentLengthPosition = -1;
+
+    private IOException error;
+
+    HprofWriter(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    IOException error() {
+        return error;
+    }
+
+    boolean failed() {
+        return error != null;
+    }
+
+    long position() {
+        return flushed + buffer.position();
+    }
+
+    /**
+     * Drains the buffer into the channel.
+     */
+    void flush() {
+        buffer.flip();
+        if (error == null) {
+            try {
+                while (buffer.hasRemaining()) {
+                    flushed += channel.write(buffer);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int n) {
+        if (buffer.remaining() < n) {
+            flush();
+        }
+    }
+
+    void u1(int value) {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    void u2(int value) {
+        ensure(2);
+        buffer.putShort((short) value);
+    }
+
+    void u4(int value) {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    void u8(long value) {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes the identifier of the object denoted by a reference. Null references and tagged code pointers
+     * are written as the null identifier.
+     */
+    void id(Reference ref) {
+        u8(ref.isZero() || CodePointer.isCodePointer(ref) ? 0L : ref.toOrigin().toLong());
+    }
+
+    void id(Object object) {
+        u8(object == null ? 0L : Reference.fromJava(object).toOrigin().toLong());
+    }
+
+    static int utf8Length(String s, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            final char c = s.charAt(i);
+            length += c != 0 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        return length;
+    }
+
+    /**
+     * Writes the characters {@code s[start .. end)} in modified UTF-8, without a length prefix.
+     */
+    void utf8(String s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            final char c = s.charAt(i);
+            if (c != 0 && c < 0x80) {
+                u1(c);
+            } else if (c < 0x800) {
+                u1(0xC0 | (c >> 6));
+                u1(0x80 | (c & 0x3F));
+            } else {
+                u1(0xE0 | (c >> 12));
+                u1(0x80 | ((c >> 6) & 0x3F));
+                u1(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    void header(long timeMillis) {
+        utf8("JAVA PROFILE 1.0.2", 0, 18);
+        u1(0);
+        u4(ID_SIZE);
+        u8(timeMillis);
+    }
+
+    void beginRecord(int tag, int length) {
+        u1(tag);
+        u4(0);
+        u4(length);
+    }
+
+    void string(long id, String s, int start, int end) {
+        beginRecord(STRING, ID_SIZE + utf8Length(s, start, end));
+        u8(id);
+        utf8(s, start, end);
+    }
+
+    boolean inSegment() {
+        return segmentLengthPosition >= 0;
+    }
+
+    void beginSegment() {
+        u1(HEAP_DUMP_SEGMENT);
+        u4(0);
+        segmentLengthPosition = position();
+        u4(0);
+    }
+
+    /**
+     * Closes the open segment by patching its length field.
+     */
+    void endSegment() {
+        final long length = position() - segmentLengthPosition - 4;
+        flush();
+        if (error == null) {
+            patch.clear();
+            patch.putInt((int) length);
+            patch.flip();
+            try {
+                long at = segmentLengthPosition;
+                while (patch.hasRemaining()) {
+                    at += channel.write(patch, at);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        segmentLengthPosition = -1;
+    }
+
+    /**
+     * Starts a new segment if the open one has grown past the segment length limit. Must only be called
+     * between two heap sub-records.
+     */
+    void checkSegmentLength() {
+        if (position() - segmentLengthPosition > MAX_SEGMENT_LENGTH) {
+            endSegment();
+            beginSegment();
+        }
+    }
+
+    void end() {
+        if (inSegment()) {
+            endSegment();
+        }
+        beginRecord(HEAP_DUMP_END, 0);
+        flush();
+    }
+}
@@ -128,6 +128,17 @@ public final class ImmortalHeap {
         return cell;
     }
 
+    /**
+     * Releases everything allocated in the immortal heap since its allocation mark was {@code mark}. Must only be
+     * called while no other thread can allocate immortal memory, and when nothing allocated since is referenced.
+     *
+     * @param mark an allocation mark previously obtained from {@link #getImmortalHeap()}
+     */
+    public static void release(Pointer mark) {
+        FatalError.check(mark.greaterEqual(immortalHeap.start()) && mark.lessEqual(immortalHeap.mark()), "invalid immortal heap mark");
+        immortalHeap.mark.set(mark);
+    }
+
     /**
      * Initialize the immortal heap memory.
      */
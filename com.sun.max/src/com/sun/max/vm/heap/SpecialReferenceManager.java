@@ -24,6 +24,8 @@ package com.sun.max.vm.heap;
 import static com.sun.max.vm.intrinsics.MaxineIntrinsicIDs.*;
 import static com.sun.max.vm.jdk.JDK_java_lang_ref_ReferenceQueue.*;
 
+import java.util.*;
+
 import com.sun.max.annotate.*;
 import com.sun.max.unsafe.*;
 import com.sun.max.vm.*;
@@ -83,6 +85,33 @@ public class SpecialReferenceManager {
         boolean mayRelocateLiveObjects();
     }
 
+    /**
+     * A table of weak references to objects kept outside the heap, for example as raw addresses, so that
+     * the GC does not trace it. Such tables are updated by the GC directly, by {@link #processWeakRoots(GC)},
+     * instead of holding a {@link java.lang.ref.WeakReference} per entry.
+     */
+    public interface WeakRoots {
+        /**
+         * Clears the entries for objects that are not {@linkplain GC#isReachable(Reference) reachable} and, if the
+         * GC {@linkplain GC#mayRelocateLiveObjects() relocates} objects, updates the others to their new location.
+         * Called by the GC thread with all mutators stopped; it must not allocate.
+         *
+         * @param gc interface to the GC implementation
+         */
+        void processWeakRoots(GC gc);
+    }
+
+    private static WeakRoots[] weakRoots = {};
+
+    /**
+     * Registers a table of weak roots to be processed by every GC.
+     */
+    public static synchronized void registerWeakRoots(WeakRoots roots) {
+        final WeakRoots[] newWeakRoots = Arrays.copyOf(weakRoots, weakRoots.length + 1);
+        newWeakRoots[weakRoots.length] = roots;
+        weakRoots = newWeakRoots;
+    }
+
     /**
      * The lock object associated with managing special references. This lock must
      * be held by the GC when it is updating the list of pending special references.
@@ -339,6 +368,20 @@ public class SpecialReferenceManager {
         } while (true);
     }
 
+    /**
+     * Processes the {@linkplain #registerWeakRoots(WeakRoots) registered} weak roots. A GC must call this once
+     * everything reachable from the referents {@linkplain GC#preserve(Reference) preserved} by
+     * {@link #processDiscoveredSpecialReferences(GC)} has been marked or relocated, as objects reachable only
+     * from finalizable or phantom referents survive the collection and must keep their weak root entries.
+     *
+     * @param gc interface to the GC implementation
+     */
+    public static void processWeakRoots(GC gc) {
+        for (WeakRoots roots : weakRoots) {
+            roots.processWeakRoots(gc);
+        }
+    }
+
     @ALIAS(declaringClassName = "java.lang.ref.Finalizer")
     private static native void register(Object finalizee);
 
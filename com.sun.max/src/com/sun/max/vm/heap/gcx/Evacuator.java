@@ -589,6 +589,7 @@ public abstract class Evacuator extends PointerIndexVisitor implements CellVisit
         disableSpecialRefDiscovery();
         SpecialReferenceManager.processDiscoveredSpecialReferences(this);
         evacuateReachables();
+        SpecialReferenceManager.processWeakRoots(this);
         enableSpecialRefDiscovery();
         timers.stop(WEAK_REF);
         doAfterOperation(WEAK_REF);
@@ -464,6 +464,19 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
         return totalSpace().minus(freeSpace());
     }
 
+    /**
+     * Adds the regions of the space's region lists to the specified statistics.
+     * Regions currently assigned to an allocator aren't on any list and are therefore not accounted for.
+     * Meant to be called after a sweep, when all the regions of the space have been redistributed to the lists.
+     *
+     * @param stats the statistics to update
+     */
+    public void addRegionStatistics(HeapRegionStatistics stats) {
+        stats.doStats(allocationRegions);
+        stats.doStats(tlabAllocationRegions);
+        stats.doStats(unavailableRegions);
+    }
+
     public void doBeforeGC() {
         overflowAllocator.doBeforeGC();
         tlabAllocator.doBeforeGC();
@@ -54,6 +54,16 @@ public final class HeapRegionStatistics {
      */
     final int [] regionsFragmentation;
 
+    /**
+     * Total amount of free space in the free chunks of the regions added since the last {@link #clear()}.
+     */
+    private long freeBytesInChunks;
+
+    /**
+     * Names of the summary counters filled by {@link #summarize(long[], int)}, in order.
+     */
+    private static final String [] SUMMARY_NAMES = {"EmptyRegions", "FullRegions", "FragmentedRegions", "FreeChunks", "FreeBytesInChunks"};
+
     /**
      * Private region info iterator.
      */
@@ -81,13 +91,79 @@ public final class HeapRegionStatistics {
     }
 
     public void clear() {
-        for (int i = log2MinFragmentSize; i <= log2MinFragmentSize; i++) {
+        for (int i = 0; i <= log2LargestChunkSize; i++) {
             fragmentSizes[i] = 0;
             freeSpaceSizes[i] = 0;
         }
         for (int i = 0; i < regionsFragmentation.length; i++) {
             regionsFragmentation[i] = 0;
         }
+        freeBytesInChunks = 0L;
+    }
+
+    /**
+     * Number of regions with no live data.
+     */
+    public int emptyRegions() {
+        return freeSpaceSizes[log2LargestChunkSize];
+    }
+
+    /**
+     * Number of regions without any free space.
+     */
+    public int fullRegions() {
+        return freeSpaceSizes[0];
+    }
+
+    /**
+     * Number of regions whose free space is split into one or more free chunks.
+     */
+    public int fragmentedRegions() {
+        int count = 0;
+        for (int i = 1; i < regionsFragmentation.length; i++) {
+            count += regionsFragmentation[i];
+        }
+        return count;
+    }
+
+    /**
+     * Total number of free chunks in the regions.
+     */
+    public int freeChunks() {
+        int count = 0;
+        for (int i = 1; i < regionsFragmentation.length; i++) {
+            count += i * regionsFragmentation[i];
+        }
+        return count;
+    }
+
+    /**
+     * Total number of free bytes held in free chunks, i.e., free space outside of empty regions.
+     */
+    public long freeBytesInChunks() {
+        return freeBytesInChunks;
+    }
+
+    /**
+     * Names of the counters reported by {@link #summarize(long[], int)}.
+     */
+    public static String [] summaryNames() {
+        return SUMMARY_NAMES.clone();
+    }
+
+    /**
+     * Copies the summary counters into an array, in the order given by {@link #summaryNames()}.
+     * Doesn't allocate, so it can be used by the GC thread.
+     *
+     * @param values array receiving the counters
+     * @param offset index of the first counter in {@code values}
+     */
+    public void summarize(long [] values, int offset) {
+        values[offset] = emptyRegions();
+        values[offset + 1] = fullRegions();
+        values[offset + 2] = fragmentedRegions();
+        values[offset + 3] = freeChunks();
+        values[offset + 4] = freeBytesInChunks;
     }
 
     /**
@@ -101,6 +177,7 @@ public final class HeapRegionStatistics {
         regionsFragmentation[rinfo.numFreeChunks()]++;
         if (rinfo.hasFreeChunks()) {
             freeSpaceSizes[sizeBin(rinfo.freeBytesInChunks())]++;
+            freeBytesInChunks += rinfo.freeBytesInChunks();
         } else if (rinfo.isEmpty()) {
             freeSpaceSizes[log2LargestChunkSize]++;
         } else {
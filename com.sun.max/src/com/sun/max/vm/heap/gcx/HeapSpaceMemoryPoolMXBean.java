@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap.gcx;
+
+import java.lang.management.*;
+
+import com.sun.max.vm.management.*;
+
+/**
+ * Memory pool MXBean reporting the usage of a {@link HeapSpace}.
+ * Used is the space's {@linkplain HeapSpace#usedSpace() used space}, committed its {@linkplain ResizableSpace#totalSpace() total space}
+ * and max its {@linkplain ResizableSpace#capacity() capacity}.
+ */
+public class HeapSpaceMemoryPoolMXBean extends MemoryPoolMXBeanAdaptor {
+    private final HeapSpace space;
+    private final long initialSize;
+
+    public HeapSpaceMemoryPoolMXBean(String name, HeapSpace space, MemoryManagerMXBean manager) {
+        super(MemoryType.HEAP, name, manager);
+        this.space = space;
+        this.initialSize = space.totalSpace().toLong();
+    }
+
+    @Override
+    public long used() {
+        return space.usedSpace().toLong();
+    }
+
+    @Override
+    public long committed() {
+        return space.totalSpace().toLong();
+    }
+
+    @Override
+    public long max() {
+        return space.capacity().toLong();
+    }
+
+    @Override
+    public long init() {
+        return initialSize;
+    }
+}
@@ -33,6 +33,7 @@ import static com.sun.max.vm.intrinsics.MaxineIntrinsicIDs.*;
 
 import com.sun.cri.xir.*;
 import com.sun.cri.xir.CiXirAssembler.XirOperand;
+import com.sun.management.*;
 import com.sun.max.annotate.*;
 import com.sun.max.memory.*;
 import com.sun.max.platform.*;
@@ -285,6 +286,7 @@ final public class GenMSEHeapScheme extends HeapSchemeWithTLABAdaptor  implement
     final class GenCollection extends GCOperation {
         HeapRegionRangeIterable regionsRangeIterable;
         int fullCollectionCount = 0;
+        int lastFullCollectionInvocationCount = 0;
         GenCollection() {
             super("GenCollection");
             regionsRangeIterable = new HeapRegionRangeIterable();
@@ -313,9 +315,15 @@ final public class GenMSEHeapScheme extends HeapSchemeWithTLABAdaptor  implement
             oldSpace.doAfterGC();
             youngSpaceEvacuator.doAfterGC();
             fullCollectionCount++;
+            lastFullCollectionInvocationCount = invocationCount();
             HeapScheme.Inspect.notifyHeapPhaseChange(HeapPhase.MUTATING);
         }
 
+        @Override
+        protected boolean lastCollectionWasFull() {
+            return lastFullCollectionInvocationCount == invocationCount();
+        }
+
         @Override
         protected void collect(int invocationCount) {
             // Collector proceeds as follows:
@@ -489,6 +497,42 @@ final public class GenMSEHeapScheme extends HeapSchemeWithTLABAdaptor  implement
         return heapAccount;
     }
 
+    @Override
+    public GarbageCollectorMXBean getGarbageCollectorMXBean() {
+        return new GenMSEGarbageCollectorMXBean();
+    }
+
+    /**
+     * Collector MXBean reporting both generations and, in each {@link GcInfo}, the fragmentation of the old generation's regions.
+     */
+    private final class GenMSEGarbageCollectorMXBean extends GarbageCollectorMXBeanAdaptor {
+        private final HeapRegionStatistics regionStats;
+
+        private GenMSEGarbageCollectorMXBean() {
+            super("GenMSE");
+            add(new HeapSpaceMemoryPoolMXBean("GenMSE Old", oldSpace, this));
+            add(new HeapSpaceMemoryPoolMXBean("GenMSE Young", youngSpace, this));
+            regionStats = new HeapRegionStatistics(oldSpace.minReclaimableSpace());
+        }
+
+        @Override
+        public long getCollectionCount() {
+            return genCollection.invocationCount();
+        }
+
+        @Override
+        public String[] gcInfoExtensionNames() {
+            return HeapRegionStatistics.summaryNames();
+        }
+
+        @Override
+        public void recordGcInfoExtensions(long[] values) {
+            regionStats.clear();
+            oldSpace.addRegionStatistics(regionStats);
+            regionStats.summarize(values, 0);
+        }
+    }
+
     @HOSTED_ONLY
     public XirWriteBarrierGenerator barrierGenerator(IntBitSet<WriteBarrierSpecification.WriteBarrierSpec> writeBarrierSpec) {
         if (writeBarrierSpec.equals(TUPLE_POST_BARRIER)) {
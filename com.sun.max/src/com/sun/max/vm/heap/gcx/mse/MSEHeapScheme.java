@@ -26,6 +26,7 @@ import static com.sun.max.vm.VMConfiguration.*;
 import static com.sun.max.vm.heap.gcx.HeapRegionManager.*;
 import static com.sun.max.vm.intrinsics.MaxineIntrinsicIDs.*;
 
+import com.sun.management.*;
 import com.sun.max.annotate.*;
 import com.sun.max.memory.*;
 import com.sun.max.platform.*;
@@ -511,6 +512,36 @@ public final class MSEHeapScheme extends HeapSchemeWithTLABAdaptor implements He
         return markSweepSpace.heapAccount();
     }
 
+    @Override
+    public GarbageCollectorMXBean getGarbageCollectorMXBean() {
+        return new MSEGarbageCollectorMXBean();
+    }
+
+    /**
+     * Collector MXBean reporting the mark-sweep space and, in each {@link GcInfo}, the fragmentation of its regions.
+     */
+    private final class MSEGarbageCollectorMXBean extends GarbageCollectorMXBeanAdaptor {
+        private final HeapRegionStatistics regionStats;
+
+        private MSEGarbageCollectorMXBean() {
+            super("MSE");
+            add(new HeapSpaceMemoryPoolMXBean("MSE Heap", markSweepSpace, this));
+            regionStats = new HeapRegionStatistics(markSweepSpace.minReclaimableSpace());
+        }
+
+        @Override
+        public String[] gcInfoExtensionNames() {
+            return HeapRegionStatistics.summaryNames();
+        }
+
+        @Override
+        public void recordGcInfoExtensions(long[] values) {
+            regionStats.clear();
+            markSweepSpace.addRegionStatistics(regionStats);
+            regionStats.summarize(values, 0);
+        }
+    }
+
     @Override
     public PhaseLogger phaseLogger() {
         return HeapSchemeLoggerAdaptor.phaseLogger;
@@ -26,8 +26,6 @@ import static com.sun.max.vm.MaxineVM.Phase.*;
 import static com.sun.max.vm.heap.gcx.EvacuationTimers.TIMED_OPERATION.*;
 import static com.sun.max.vm.intrinsics.MaxineIntrinsicIDs.*;
 
-import java.lang.management.*;
-
 import com.sun.cri.xir.*;
 import com.sun.cri.xir.CiXirAssembler.XirOperand;
 import com.sun.management.GarbageCollectorMXBean;
@@ -49,7 +47,6 @@ import com.sun.max.vm.heap.gcx.rset.*;
 import com.sun.max.vm.heap.gcx.rset.ctbl.*;
 import com.sun.max.vm.log.VMLog.Record;
 import com.sun.max.vm.log.hosted.*;
-import com.sun.max.vm.management.*;
 import com.sun.max.vm.reference.*;
 import com.sun.max.vm.runtime.*;
 import com.sun.max.vm.thread.*;
@@ -276,6 +273,11 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
             doCollect(invocationCount);
         }
 
+        @Override
+        protected boolean lastCollectionWasFull() {
+            return lastFullCollectionInvocationCount == invocationCount();
+        }
+
         GenSSGCRequest gcRequest() {
             return asGenSSGCRequest(callingThread().gcRequest);
         }
@@ -842,7 +844,7 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
             // clearing this flag must be done before moving to the MUTATING phase to avoid the inspector's confusion.
             requiresFullGC = false;
         }
-        accumulatedGCTime = endGCTime - startGCTime;
+        accumulatedGCTime += endGCTime - startGCTime;
         Heap.invokeGCCallbacks(GCCallbackPhase.AFTER);
         HeapScheme.Inspect.notifyHeapPhaseChange(HeapPhase.MUTATING);
     }
@@ -1113,15 +1115,10 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
     private final class GenSSGarbageCollectorMXBean extends HeapSchemeAdaptor.GarbageCollectorMXBeanAdaptor {
         private GenSSGarbageCollectorMXBean() {
             super("GenSS");
-            add(new GenSSMemoryPoolMXBean(oldSpace.space, this));
-            add(new GenSSMemoryPoolMXBean(oldSpace.fromSpace, this));
-            add(new GenSSMemoryPoolMXBean(youngSpace.space, this));
-        }
-    }
-
-    private final class GenSSMemoryPoolMXBean extends MemoryPoolMXBeanAdaptor {
-        GenSSMemoryPoolMXBean(MemoryRegion region, MemoryManagerMXBean manager) {
-            super(MemoryType.HEAP, region, manager);
+            // The old generation's semi-spaces swap their regions at every full collection, so the pools
+            // report the generations rather than the regions.
+            add(new HeapSpaceMemoryPoolMXBean("GenSS Old", oldSpace, this));
+            add(new HeapSpaceMemoryPoolMXBean("GenSS Young", youngSpace, this));
         }
     }
 
@@ -449,6 +449,8 @@ public class MultiSemiSpaceHeapScheme extends HeapSchemeWithTLAB implements Cell
                 }
                 startTimer(weakRefTimer);
                 SpecialReferenceManager.processDiscoveredSpecialReferences(refForwarder);
+                // preserving a referent moves everything reachable from it
+                SpecialReferenceManager.processWeakRoots(refForwarder);
                 stopTimer(weakRefTimer);
                 stopTimer(gcTimer);
                 if (Heap.logGCPhases()) {
@@ -409,6 +409,8 @@ public class SemiSpaceHeapScheme extends HeapSchemeWithTLAB implements CellVisit
                 }
                 startTimer(weakRefTimer);
                 SpecialReferenceManager.processDiscoveredSpecialReferences(refForwarder);
+                // preserving a referent moves everything reachable from it
+                SpecialReferenceManager.processWeakRoots(refForwarder);
                 stopTimer(weakRefTimer);
                 stopTimer(gcTimer);
                 if (Heap.logGCPhases()) {
@@ -175,13 +175,18 @@ public final class JDKInterceptor {
             new FieldOffsetRecomputation("TARGET_OFFSET", "target"),
         JDK.java_lang_invoke_MethodHandle,
             new FieldOffsetRecomputation("FORM_OFFSET", "form"),
+            new KeptField("form").makeConstantWhenNotZero(),
+        JDK.java_lang_invoke_DirectMethodHandle,
+            new KeptField("member").makeConstantWhenNotZero(),
+        JDK.java_lang_invoke_BoundMethodHandle$Species_L,
+            new KeptField("argL0").makeConstantWhenNotZero(),
         JDK.java_lang_invoke_MethodType,
             new FieldOffsetRecomputation("ptypesOffset", "ptypes"),
             new FieldOffsetRecomputation("rtypeOffset", "rtype"),
             new ValueField("internTable", ReferenceValue.from(internTable)).makeNonFinal(),
             new ValueField("objectOnlyTypes", ReferenceValue.from(Array.newInstance(MethodType.class, 20))).makeNonFinal(),
         JDK.java_lang_invoke_LambdaForm,
-            "vmentry",
+            new ZeroField("vmentry").makeConstantWhenNotZero(),
         JDK.java_lang_reflect_Field,
             "genericInfo",
             "declaredAnnotations",
@@ -189,10 +194,10 @@ public final class JDKInterceptor {
             "overrideFieldAccessor",
         JDK.java_lang_reflect_Constructor,
             "genericInfo",
-            "constructorAccessor",
+            new ZeroField("constructorAccessor").makeConstantWhenNotZero(),
         JDK.java_lang_reflect_Method,
             "genericInfo",
-            "methodAccessor",
+            new ZeroField("methodAccessor").makeConstantWhenNotZero(),
         JDK.java_lang_Package,
             "loader",
             "packageInfo",
@@ -595,6 +600,19 @@ public final class JDKInterceptor {
         return null;
     }
 
+    /**
+     * Determines if a given JDK field never changes once it holds a non-zero value and so can be
+     * treated as {@link com.sun.max.annotate.CONSTANT_WHEN_NOT_ZERO}.
+     */
+    public static boolean isConstantWhenNotZero(String className, String fieldName) {
+        final Map<String, InterceptedField> map = interceptedFieldMap.get(className);
+        if (map != null) {
+            final InterceptedField f = map.get(fieldName);
+            return f != null && f.constantWhenNotZero;
+        }
+        return false;
+    }
+
     public static boolean hasMutabilityOverride(FieldActor fieldActor) {
         InterceptedField f = getInterceptedField(fieldActor);
         return f != null && f.mutabilityOverride;
@@ -699,6 +717,7 @@ public final class JDKInterceptor {
 
         public FieldActor fieldActor;
         private boolean mutabilityOverride = false;
+        private boolean constantWhenNotZero = false;
 
         InterceptedField(String name) {
             this.name = name;
@@ -709,6 +728,14 @@ public final class JDKInterceptor {
             return this;
         }
 
+        /**
+         * Marks this field as never changing in the VM once it has been assigned a non-zero value.
+         */
+        public InterceptedField makeConstantWhenNotZero() {
+            constantWhenNotZero = true;
+            return this;
+        }
+
         public InterceptedField makeOptional() {
             verifyFieldExists = false;
             return this;
@@ -782,6 +809,31 @@ public final class JDKInterceptor {
         }
     }
 
+    /**
+     * An intercepted field whose boot image value is its current value, as for a field that is not intercepted.
+     * Used to give an otherwise unchanged field a property such as {@linkplain #makeConstantWhenNotZero()
+     * constant when not zero}.
+     */
+    private static class KeptField extends InterceptedField {
+        KeptField(String name) {
+            super(name);
+        }
+        @Override
+        public Value getValue(Object object, FieldActor fieldActor) {
+            try {
+                final Field field = fieldActor.toJava();
+                field.setAccessible(true);
+                Object boxedJavaValue = field.get(object);
+                if (fieldActor.kind.isReference) {
+                    boxedJavaValue = JavaPrototype.hostToTarget(boxedJavaValue);
+                }
+                return fieldActor.kind.asValue(boxedJavaValue);
+            } catch (IllegalAccessException e) {
+                throw ProgramError.unexpected(e);
+            }
+        }
+    }
+
     private static class AtomicFieldUpdaterOffsetRecomputation extends InterceptedField {
         AtomicFieldUpdaterOffsetRecomputation(String name) {
             super(name);
@@ -92,6 +92,7 @@ public class JDK {
     public static final ClassRef java_lang_Throwable                 = new ClassRef(Throwable.class);
     public static final ClassRef java_lang_Terminator                = new ClassRef("java.lang.Terminator");
 
+    public static final ClassRef java_lang_invoke_BoundMethodHandle$Species_L = new LazyClassRef("java.lang.invoke.BoundMethodHandle$Species_L");
     public static final ClassRef java_lang_invoke_CallSite           = new LazyClassRef("java.lang.invoke.CallSite");
     public static final ClassRef java_lang_invoke_DirectMethodHandle = new LazyClassRef("java.lang.invoke.DirectMethodHandle");
     public static final ClassRef java_lang_invoke_InvokerBytecodeGenerator = new LazyClassRef("java.lang.invoke.InvokerBytecodeGenerator");
@@ -48,7 +48,7 @@ public final class JDK_java_lang_String {
      */
     @SUBSTITUTE
     public String intern() {
-        return SymbolTable.intern(thisString());
+        return StringInternTable.intern(thisString());
     }
 
     /**
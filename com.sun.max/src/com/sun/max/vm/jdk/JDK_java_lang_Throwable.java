@@ -22,6 +22,7 @@
  */
 package com.sun.max.vm.jdk;
 
+import static com.sun.max.vm.compiler.target.Stub.Type.*;
 import static com.sun.max.vm.intrinsics.Infopoints.*;
 import static com.sun.max.vm.intrinsics.MaxineIntrinsicIDs.*;
 
@@ -32,9 +33,11 @@ import com.sun.max.unsafe.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.runtime.*;
 import com.sun.max.vm.stack.*;
 import com.sun.max.vm.thread.*;
+import com.sun.max.vm.type.*;
 
 /**
  * Substitutions for {@link Throwable} that collect the stack trace.
@@ -44,8 +47,11 @@ import com.sun.max.vm.thread.*;
 public final class JDK_java_lang_Throwable {
 
     public static boolean StackTraceInThrowable = true;
+    public static int MaxJavaStackTraceDepth = 0;
     static {
         VMOptions.addFieldOption("-XX:", "StackTraceInThrowable", JDK_java_lang_Throwable.class, "Collect backtrace in throwable when exception happens.");
+        VMOptions.addFieldOption("-XX:", "MaxJavaStackTraceDepth", JDK_java_lang_Throwable.class,
+            "The maximum number of stack trace elements recorded in a throwable (0 means all).");
     }
 
     private static final ObjectThreadLocal<Throwable> TRACE_UNDER_CONSTRUCTION = new ObjectThreadLocal<Throwable>("TRACE_UNDER_CONSTRUCTION",
@@ -73,8 +79,9 @@ public final class JDK_java_lang_Throwable {
     private static StackTraceElement[] UNASSIGNED_STACK;
 
     /**
-     * Fills in the stack trace for this exception. This implementation eagerly creates a
-     * stack trace and fills in all the {@link java.lang.StackTraceElement stack trace elements}.
+     * Fills in the stack trace for this exception. This implementation only records a {@link RawBacktrace}
+     * of the compiled frames on the stack. It is decoded into {@link java.lang.StackTraceElement stack trace elements}
+     * when the stack trace is first requested.
      *
      * @see java.lang.Throwable#fillInStackTrace()
      * @return the throwable with a filled-in stack trace (typically this object)
@@ -100,8 +107,9 @@ public final class JDK_java_lang_Throwable {
         final Pointer sp = VMRegister.getCpuStackPointer();
         final Pointer fp = VMRegister.getCpuFramePointer();
         try {
-            Backtrace backtrace = getBacktrace(sfw, ip, sp, fp, throwableActor, Integer.MAX_VALUE);
-            this.backtrace = backtrace;
+            final RawBacktrace rawBacktrace = new RawBacktrace(throwableActor, MaxJavaStackTraceDepth > 0 ? MaxJavaStackTraceDepth : Integer.MAX_VALUE);
+            sfw.inspect(ip, sp, fp, rawBacktrace);
+            this.backtrace = rawBacktrace;
         } catch (OutOfMemoryError e) {
             // Could not build backtrace due to memory shortage
             stackTrace = new StackTraceElement[0];
@@ -110,6 +118,108 @@ public final class JDK_java_lang_Throwable {
         return throwable;
     }
 
+    /**
+     * A raw back trace records the compiled frames of a stack as (target method, code position) pairs.
+     * Recording one is much cheaper than building a {@link Backtrace} as it requires no decoding of
+     * inlining or line number information. Code positions are relative to the start of the target
+     * method, so they remain valid if the code is moved by {@linkplain com.sun.max.vm.code.CodeEviction code eviction}.
+     */
+    public static class RawBacktrace extends RawStackFrameVisitor {
+
+        static final int INITIAL_LENGTH = 32;
+
+        /**
+         * The class of the exception, used to elide the constructor frames when decoding.
+         * This is {@code null} if the trace was recorded across a trap.
+         */
+        private ClassActor exceptionClass;
+        private final int maxDepth;
+
+        int count;
+        TargetMethod[] targetMethods;
+        int[] positions;
+
+        /**
+         * The number of recorded frames counted against {@link #maxDepth}.
+         */
+        private int depth;
+
+        /**
+         * Specifies if the frames being walked may still be part of the construction of the exception.
+         * Such frames are elided when decoding and so are not counted against {@link #maxDepth}.
+         */
+        private boolean inConstructorChain;
+
+        public RawBacktrace(ClassActor exceptionClass, int maxDepth) {
+            this.exceptionClass = exceptionClass;
+            this.maxDepth = maxDepth;
+            this.inConstructorChain = exceptionClass != null;
+            targetMethods = new TargetMethod[INITIAL_LENGTH];
+            positions = new int[INITIAL_LENGTH];
+        }
+
+        @Override
+        public boolean visitFrame(StackFrameCursor current, StackFrameCursor callee) {
+            final TargetMethod targetMethod = current.targetMethod();
+            if (targetMethod == null || targetMethod.classMethodActor == null) {
+                // ignore native frames, stubs, trampolines, adapters etc
+                return true;
+            }
+            if (callee.targetMethod() != null && callee.targetMethod().is(TrapStub)) {
+                // The frames above a trap are those of the trap handling, not of the exception
+                count = 0;
+                depth = 0;
+                exceptionClass = null;
+                inConstructorChain = false;
+            }
+            if (inConstructorChain && !ClassRegistry.THROWABLE.isAssignableFrom(targetMethod.classMethodActor.original().holder())) {
+                inConstructorChain = false;
+            }
+            if (!inConstructorChain) {
+                if (depth == maxDepth) {
+                    return false;
+                }
+                depth++;
+            }
+            if (count == positions.length) {
+                expand();
+            }
+            targetMethods[count] = targetMethod;
+            positions[count] = targetMethod.posFor(current.vmIP());
+            count++;
+            return true;
+        }
+
+        private void expand() {
+            int newLength = positions.length * 2;
+            positions = Arrays.copyOf(positions, newLength);
+            targetMethods = Arrays.copyOf(targetMethods, newLength);
+        }
+
+        /**
+         * Decodes this raw back trace into a back trace of source methods and line numbers.
+         */
+        public Backtrace decode() {
+            final Backtrace backtrace = new Backtrace(exceptionClass, maxDepth);
+            // Frame identifiers are only meaningful for frames still on the stack and are ignored by Backtrace.
+            for (int i = 0; i < count; i++) {
+                final TargetMethod targetMethod = targetMethods[i];
+                final int pos = positions[i];
+                final boolean more;
+                if (pos < 0 || targetMethod.isWiped()) {
+                    // The code of the method is gone, so only the method itself is known
+                    more = backtrace.visitSourceFrame(targetMethod.classMethodActor, -1, false, 0L);
+                } else {
+                    more = backtrace.visitTargetFrame(targetMethod, targetMethod.codeStart().plus(pos), false, 0L);
+                }
+                if (!more) {
+                    break;
+                }
+            }
+            return backtrace;
+        }
+    }
+
     /**
      * A back trace is a lighter weight representation of a stack trace than
      * an array of {@link StackTraceElement}s.
@@ -121,9 +231,11 @@ public final class JDK_java_lang_Throwable {
         public int count;
         public int[] lineNos;
         public ClassMethodActor[] methods;
+        private final int maxDepth;
 
         public Backtrace(ClassActor exceptionClass, int maxDepth) {
             super(exceptionClass);
+            this.maxDepth = maxDepth;
 
             int len = Math.min(maxDepth, INITIAL_LENGTH);
             lineNos = new int[len];
@@ -146,7 +258,7 @@ public final class JDK_java_lang_Throwable {
             lineNos[count] = sourceLineNumber;
             methods[count] = methodActor;
             count++;
-            return true;
+            return count < maxDepth;
         }
 
         private void expand() {
@@ -211,14 +323,15 @@ public final class JDK_java_lang_Throwable {
     public static native JDK_java_lang_Throwable asJLT(Throwable t);
 
     /**
-     * Gets the backtrace from an exception object. This is only non-null between the call to
+     * Gets the decoded backtrace from an exception object. This is only non-null between the call to
      * {@link #fillInStackTrace()} and the first call to {@link #getOurStackTrace()}.
      *
-     * @return the {@link Backtrace} object fro {@code t} if available, {@code null} otherwise
+     * @return the {@link Backtrace} object for {@code t} if available, {@code null} otherwise
      */
     public static Backtrace getBacktrace(Throwable t) {
         final JDK_java_lang_Throwable jlt = asJLT(t);
-        return (Backtrace) jlt.backtrace;
+        final RawBacktrace rawBacktrace = (RawBacktrace) jlt.backtrace;
+        return rawBacktrace == null ? null : rawBacktrace.decode();
     }
 
     @SUBSTITUTE
@@ -236,7 +349,7 @@ public final class JDK_java_lang_Throwable {
                 TRACE_UNDER_CONSTRUCTION.set(throwable);
 
                 try {
-                    stackTrace = ((Backtrace) backtrace).getTrace();
+                    stackTrace = ((RawBacktrace) backtrace).decode().getTrace();
                 } catch (OutOfMemoryError e) {
                     // Could not build backtrace due to memory shortage
                     stackTrace = new StackTraceElement[0];
@@ -21,6 +21,7 @@ package com.sun.max.vm.jdk;
 
 import com.sun.max.annotate.*;
 import com.sun.max.program.*;
+import com.sun.max.vm.heap.*;
 
 /**
  * Method substitutions for sun.management.DiagnosticCommandImpl.
@@ -48,7 +49,13 @@ final class JDK_sun_management_DiagnosticCommandImpl {
 
     @SUBSTITUTE(optional = true) // Not available in JDK 7
     private String executeDiagnosticCommand(String command) {
-        ProgramWarning.message("executeDiagnosticCommand not implemented");
+        final String[] words = command.trim().split("\\s+");
+        if (words[0].equals("GC.heap_dump")) {
+            final String[] arguments = new String[words.length - 1];
+            System.arraycopy(words, 1, arguments, 0, arguments.length);
+            return HeapDump.executeDiagnosticCommand(arguments);
+        }
+        ProgramWarning.message("executeDiagnosticCommand not implemented: " + words[0]);
         return "";
     }
 
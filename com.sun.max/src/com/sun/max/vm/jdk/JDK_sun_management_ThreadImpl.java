@@ -24,15 +24,63 @@
 package com.sun.max.vm.jdk;
 
 import com.sun.max.annotate.*;
+import com.sun.max.vm.management.*;
 
 /**
- * Method substitutions for sun.management.ThreadImpl.
+ * Method substitutions for sun.management.ThreadImpl, which backs the thread CPU time, allocated memory
+ * and contention methods of {@link java.lang.management.ThreadMXBean} and its {@code com.sun.management} extension.
+ * Whether these are supported and enabled is reported through the JMM interface.
  */
 @METHOD_SUBSTITUTIONS(className = "sun.management.ThreadImpl")
 final class JDK_sun_management_ThreadImpl {
 
     @SUBSTITUTE
-    public boolean isCurrentThreadCpuTimeSupported() {
-        return false; //TODO
+    private static long getThreadTotalCpuTime0(long id) {
+        return ThreadManagement.getThreadCpuTime(id, false);
+    }
+
+    @SUBSTITUTE
+    private static void getThreadTotalCpuTime1(long[] ids, long[] result) {
+        ThreadManagement.getThreadCpuTime(ids, result, false);
+    }
+
+    @SUBSTITUTE
+    private static long getThreadUserCpuTime0(long id) {
+        return ThreadManagement.getThreadCpuTime(id, true);
+    }
+
+    @SUBSTITUTE
+    private static void getThreadUserCpuTime1(long[] ids, long[] result) {
+        ThreadManagement.getThreadCpuTime(ids, result, true);
+    }
+
+    @SUBSTITUTE(optional = true) // Not available in JDK 7
+    private static long getThreadAllocatedMemory0(long id) {
+        return ThreadManagement.getThreadAllocatedBytes(id);
+    }
+
+    @SUBSTITUTE
+    private static void getThreadAllocatedMemory1(long[] ids, long[] result) {
+        ThreadManagement.getThreadAllocatedBytes(ids, result);
+    }
+
+    @SUBSTITUTE
+    private static void setThreadCpuTimeEnabled0(boolean enable) {
+        ThreadManagement.setThreadCpuTimeEnabled(enable);
+    }
+
+    @SUBSTITUTE
+    private static void setThreadAllocatedMemoryEnabled0(boolean enable) {
+        ThreadManagement.setThreadAllocatedMemoryEnabled(enable);
+    }
+
+    @SUBSTITUTE
+    private static void setThreadContentionMonitoringEnabled0(boolean enable) {
+        ThreadManagement.setThreadContentionMonitoringEnabled(enable);
+    }
+
+    @SUBSTITUTE
+    private static void resetContentionTimes0(long id) {
+        ThreadManagement.resetContentionTimes(id);
     }
 }
@@ -107,7 +107,7 @@ public final class JDK_sun_reflect_ReflectionFactory {
     public MethodAccessor newMethodAccessor(Method method) {
         MethodAccessor result = prePopulatedMethodStubs.get(MethodActor.fromJava(method));
         if (result == null) {
-            result = newMethodStub(method, Boxing.JAVA);
+            result = (MethodAccessor) MethodActor.fromJava(method).makeJavaInvocationStub();
         }
         return result;
     }
@@ -137,7 +137,7 @@ public final class JDK_sun_reflect_ReflectionFactory {
                     }
                 };
             }
-            result = newConstructorStub(constructor, null, Boxing.JAVA);
+            result = (ConstructorAccessor) MethodActor.fromJavaConstructor(constructor).makeJavaInvocationStub();
         }
         return result;
     }
@@ -118,7 +118,16 @@ public final class JmmFunctionsSource {
 
     @VM_ENTRY_POINT
     private static boolean GetBoolAttribute(Pointer env, int att) {
-        return false;
+        switch (att) {
+            case JMM_THREAD_CONTENTION_MONITORING:
+                return ThreadManagement.isThreadContentionMonitoringEnabled();
+            case JMM_THREAD_CPU_TIME:
+                return ThreadManagement.isThreadCpuTimeEnabled();
+            case JMM_THREAD_ALLOCATED_MEMORY:
+                return ThreadManagement.isThreadAllocatedMemoryEnabled();
+            default:
+                return false;
+        }
     }
 
     @VM_ENTRY_POINT
@@ -129,9 +138,11 @@ public final class JmmFunctionsSource {
             case JMM_VERBOSE_CLASS:
                 return ClassLoadingManagement.setVerboseClass(flag);
             case JMM_THREAD_CONTENTION_MONITORING:
-                return ThreadManagement.setThreadCpuTimeEnabled(flag);
+                return ThreadManagement.setThreadContentionMonitoringEnabled(flag);
             case JMM_THREAD_CPU_TIME:
                 return ThreadManagement.setThreadCpuTimeEnabled(flag);
+            case JMM_THREAD_ALLOCATED_MEMORY:
+                return ThreadManagement.setThreadAllocatedMemoryEnabled(flag);
             default:
                     FatalError.unexpected("unknown attribute value " + att +  "to JmmFunctions.SetBoolAttribute");
         }
@@ -150,7 +161,7 @@ public final class JmmFunctionsSource {
 
     @VM_ENTRY_POINT
     private static long GetThreadCpuTime(Pointer env, long thread_id) {
-        return 0;
+        return ThreadManagement.getThreadCpuTime(thread_id, false);
     }
 
     @VM_ENTRY_POINT
@@ -198,7 +209,7 @@ public final class JmmFunctionsSource {
 
     @VM_ENTRY_POINT
     private static long GetThreadCpuTimeWithKind(Pointer env, long thread_id, boolean user_sys_cpu_time) {
-        return 0;
+        return ThreadManagement.getThreadCpuTime(thread_id, !user_sys_cpu_time);
     }
 
     @VM_ENTRY_POINT
@@ -23,6 +23,7 @@
 package com.sun.max.vm.jni;
 
 import java.lang.ref.*;
+import java.util.*;
 
 import com.sun.cri.ci.*;
 import com.sun.max.annotate.*;
@@ -41,8 +42,8 @@ import com.sun.max.vm.type.*;
  * The first type of handle is implemented as the address of an object on the thread's stack.
  * The second type of handle is allocated from a pool of JNI handles. There is one pool of
  * JNI handles per thread that is used to allocate local JNI references, a
- * global pool per VM (or isolate?) for global references and
- * another global pool for weak global references.
+ * global set of {@linkplain #GLOBAL_STRIPES striped} pools per VM for global references and
+ * another such set for weak global references.
  *
  * This class implements a pool of JNI handles.
  *
@@ -89,19 +90,26 @@ public final class JniHandles {
         public static final int BITS = 2;
     }
 
-    static final class Frame {
-        final int start;
-        final Frame previous;
-        Frame(int start, Frame previous) {
-            this.start = start;
-            this.previous = previous;
-        }
-    }
-
     public static final int INITIAL_NUMBER_OF_HANDLES = 32;
 
-    private static final JniHandles globalHandles = new JniHandles();
-    private static final JniHandles weakGlobalHandles = new JniHandles();
+    /**
+     * The number of independently locked pools for global (and weak global) handles. A thread allocates from the
+     * pool selected by its {@linkplain VmThread#id() id} so that threads creating and deleting global references
+     * at a high rate rarely contend for the same lock. A handle is freed back to the pool it was allocated from,
+     * which is encoded in the low bits of its index. Must be a power of 2.
+     */
+    public static final int GLOBAL_STRIPES = 16;
+
+    private static final JniHandles[] globalHandles = newStripes();
+    private static final JniHandles[] weakGlobalHandles = newStripes();
+
+    private static JniHandles[] newStripes() {
+        final JniHandles[] stripes = new JniHandles[GLOBAL_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new JniHandles();
+        }
+        return stripes;
+    }
 
     /**
      * The objects exposed to native code via handles.
@@ -114,9 +122,15 @@ public final class JniHandles {
     private Object[] handles = new Object[INITIAL_NUMBER_OF_HANDLES];
 
     /**
-     * The frames pushed by {@link JniFunctions#PushLocalFrame}.
+     * The {@link #top} values at which the frames pushed by {@link JniFunctions#PushLocalFrame} start, innermost
+     * last. The array is kept across frames, so pushing a frame does not allocate once it is large enough.
      */
-    private Frame frames;
+    private int[] frameStarts;
+
+    /**
+     * The number of frames in {@link #frameStarts}.
+     */
+    private int frameCount;
 
     /**
      * Denotes the indexes of handles that have been {@linkplain #freeHandle(int) freed}.
@@ -209,13 +223,22 @@ public final class JniHandles {
     }
 
     private JniHandle allocateHandle(Object object, int tag) {
+        return indexToJniHandle(allocate(object), tag);
+    }
+
+    /**
+     * Allocates a handle for an object from this pool.
+     *
+     * @return the index of the allocated handle
+     */
+    private int allocate(Object object) {
         assert object != null;
 
         // Try to get a handle from the logical end of the array
         if (top < handles.length) {
             assert handles[top] == null;
             handles[top] = object;
-            return indexToJniHandle(top++, tag);
+            return top++;
         }
 
         // Now look for a handle in the free set
@@ -228,7 +251,7 @@ public final class JniHandles {
             assert handles[index] == null;
             handles[index] = object;
             freedHandles.clear(index);
-            return indexToJniHandle(index, tag);
+            return index;
         }
 
         // No space available, the handle array is expanded
@@ -236,7 +259,39 @@ public final class JniHandles {
         handles = expandHandles(handles, handles.length * 2);
 
         // Retry - guaranteed to succeed
-        return allocateHandle(object, tag);
+        return allocate(object);
+    }
+
+    /**
+     * Allocates a global or weak global handle from the stripe of {@code stripes} selected by the current thread.
+     */
+    private static JniHandle allocateStripedHandle(JniHandles[] stripes, Object object, int tag) {
+        final int stripe = VmThread.current().id() & (GLOBAL_STRIPES - 1);
+        final JniHandles pool = stripes[stripe];
+        final int index;
+        synchronized (pool) {
+            index = pool.allocate(object);
+        }
+        return indexToJniHandle(index * GLOBAL_STRIPES + stripe, tag);
+    }
+
+    /**
+     * Frees a global or weak global handle back to the stripe of {@code stripes} it was allocated from.
+     */
+    private static void freeStripedHandle(JniHandles[] stripes, JniHandle jniHandle) {
+        final int index = jniHandleToIndex(jniHandle);
+        final JniHandles pool = stripes[index & (GLOBAL_STRIPES - 1)];
+        synchronized (pool) {
+            pool.freeHandle(index / GLOBAL_STRIPES);
+        }
+    }
+
+    /**
+     * Gets the object denoted by a global or weak global handle.
+     */
+    private static Object getStriped(JniHandles[] stripes, JniHandle jniHandle) {
+        final int index = jniHandleToIndex(jniHandle);
+        return stripes[index & (GLOBAL_STRIPES - 1)].get(index / GLOBAL_STRIPES);
     }
 
     private static JniHandle indexToJniHandle(int index, int tag) {
@@ -253,7 +308,12 @@ public final class JniHandles {
 
     private void pushFrame(int capacity) {
         ensureCapacity(capacity);
-        frames = new Frame(top, frames);
+        if (frameStarts == null) {
+            frameStarts = new int[8];
+        } else if (frameCount == frameStarts.length) {
+            frameStarts = Arrays.copyOf(frameStarts, frameCount * 2);
+        }
+        frameStarts[frameCount++] = top;
     }
 
     private JniHandle popFrame(JniHandle result) {
@@ -261,9 +321,8 @@ public final class JniHandles {
 
         // This test means PopLocalFrame will work even if there was
         // not a corresponding call to PushLocalFrame
-        if (frames != null) {
-            resetTop(frames.start);
-            frames = frames.previous;
+        if (frameCount != 0) {
+            resetTop(frameStarts[--frameCount]);
         }
         return (object != null) ? allocateHandle(object, Tag.LOCAL) : result;
     }
@@ -272,6 +331,10 @@ public final class JniHandles {
      * Ensures that <i>at least</i> a given number of local references can be created in this pool of handles.
      */
     private void ensureCapacity(int capacity) {
+        if (handles.length - top >= capacity) {
+            // enough handles above the top, no need to count the freed ones
+            return;
+        }
         final int available = (handles.length - top) + freedHandles.cardinality();
         final int extraNeeded = capacity - available;
         if (extraNeeded > 0) {
@@ -296,11 +359,11 @@ public final class JniHandles {
             return jniHandles.get(jniHandleToIndex(jniHandle));
         }
         if (tag == Tag.GLOBAL) {
-            return globalHandles.get(jniHandleToIndex(jniHandle));
+            return getStriped(globalHandles, jniHandle);
         }
         assert tag == Tag.WEAK_GLOBAL;
 
-        final WeakReference weakReference = (WeakReference) weakGlobalHandles.get(jniHandleToIndex(jniHandle));
+        final WeakReference weakReference = (WeakReference) getStriped(weakGlobalHandles, jniHandle);
         return weakReference == null ? null : weakReference.get();
     }
 
@@ -341,18 +404,14 @@ public final class JniHandles {
         if (object == null) {
             return JniHandle.zero();
         }
-        synchronized (globalHandles) {
-            return globalHandles.allocateHandle(object, Tag.GLOBAL);
-        }
+        return allocateStripedHandle(globalHandles, object, Tag.GLOBAL);
     }
 
     public static JniHandle createWeakGlobalHandle(Object object) {
         if (object == null) {
             return JniHandle.zero();
         }
-        synchronized (weakGlobalHandles) {
-            return weakGlobalHandles.allocateHandle(new WeakReference<Object>(object), Tag.WEAK_GLOBAL);
-        }
+        return allocateStripedHandle(weakGlobalHandles, new WeakReference<Object>(object), Tag.WEAK_GLOBAL);
     }
 
     public static void destroyLocalHandle(JniHandle jniHandle) {
@@ -375,18 +434,14 @@ public final class JniHandles {
     public static void destroyGlobalHandle(JniHandle jniHandle) {
         if (!jniHandle.isZero()) {
             assert tag(jniHandle) == Tag.GLOBAL;
-            synchronized (globalHandles) {
-                globalHandles.freeHandle(jniHandleToIndex(jniHandle));
-            }
+            freeStripedHandle(globalHandles, jniHandle);
         }
     }
 
     public static void destroyWeakGlobalHandle(JniHandle jniHandle) {
         if (!jniHandle.isZero()) {
             assert tag(jniHandle) == Tag.WEAK_GLOBAL;
-            synchronized (weakGlobalHandles) {
-                weakGlobalHandles.freeHandle(jniHandleToIndex(jniHandle));
-            }
+            freeStripedHandle(weakGlobalHandles, jniHandle);
         }
     }
 
@@ -32,6 +32,7 @@ import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.bytecode.graft.*;
 import com.sun.max.vm.classfile.*;
 import com.sun.max.vm.classfile.constant.*;
+import com.sun.max.vm.heap.*;
 import com.sun.max.vm.jni.JniFunctions.*;
 import com.sun.max.vm.log.*;
 import com.sun.max.vm.runtime.*;
@@ -61,6 +62,11 @@ import com.sun.max.vm.type.*;
  *   <li>Return the result to the caller.</li>
  * </ol>
  * <p>
+ * A method linked to a {@linkplain NativeFunction#isCritical() critical native} gets a shorter stub: no JNI
+ * environment, class or handles are passed and there is no JNI frame to restore or exception to check.
+ * Each primitive array argument is passed as its length followed by the address of its first element,
+ * the array being {@linkplain Heap#acquireCriticalArray(Object) pinned} for the duration of the call. The arrays
+ * pinned so far are released if an exception is thrown before the call returns.
  */
 public final class NativeStubGenerator extends BytecodeAssembler {
 
@@ -68,11 +74,13 @@ public final class NativeStubGenerator extends BytecodeAssembler {
         super(constantPoolEditor);
         this.classMethodActor = classMethodActor;
         allocateParameters(classMethodActor.isStatic(), classMethodActor.descriptor());
-        generateCode(classMethodActor.isCFunction(), classMethodActor.isStatic(), classMethodActor.holder(), classMethodActor.descriptor());
+        final boolean isCritical = !classMethodActor.isCFunction() && classMethodActor.nativeFunction.linkCritical();
+        generateCode(classMethodActor.isCFunction(), isCritical, classMethodActor.isStatic(), classMethodActor.holder(), classMethodActor.descriptor());
     }
 
     private final SeekableByteArrayOutputStream codeStream = new SeekableByteArrayOutputStream();
     private final ClassMethodActor classMethodActor;
+    private ExceptionHandlerEntry[] exceptionHandlers = CodeAttribute.NO_EXCEPTION_HANDLER_TABLE;
 
     @Override
     public void writeByte(byte b) {
@@ -95,7 +103,7 @@ public final class NativeStubGenerator extends BytecodeAssembler {
                                  code(),
                                  (char) maxStack(),
                                  (char) maxLocals(),
-                                 CodeAttribute.NO_EXCEPTION_HANDLER_TABLE,
+                                 exceptionHandlers,
                                  LineNumberTable.EMPTY,
                                  LocalVariableTable.EMPTY,
                                  null);
@@ -126,6 +134,9 @@ public final class NativeStubGenerator extends BytecodeAssembler {
     private static final ClassMethodRefConstant nativeCallEpilogueForC = createClassMethodConstant(Snippets.class, makeSymbol("nativeCallEpilogueForC"));
 
     private static final ClassMethodRefConstant writeObject = createClassMethodConstant(Pointer.class, makeSymbol("writeObject"), int.class, Object.class);
+    private static final ClassMethodRefConstant criticalArrayLength = createClassMethodConstant(Heap.class, makeSymbol("criticalArrayLength"), Object.class);
+    private static final ClassMethodRefConstant acquireCriticalArray = createClassMethodConstant(Heap.class, makeSymbol("acquireCriticalArray"), Object.class);
+    private static final ClassMethodRefConstant releaseCriticalArray = createClassMethodConstant(Heap.class, makeSymbol("releaseCriticalArray"), Object.class);
 
     private int methodIDAsInt;
     /**
@@ -183,7 +194,7 @@ public final class NativeStubGenerator extends BytecodeAssembler {
     }
 
 
-    private void generateCode(boolean isCFunction, boolean isStatic, ClassActor holder, SignatureDescriptor sig) {
+    private void generateCode(boolean isCFunction, boolean isCritical, boolean isStatic, ClassActor holder, SignatureDescriptor sig) {
         final TypeDescriptor resultDescriptor = sig.resultDescriptor();
         final Kind resultKind = resultDescriptor.toKind();
         final StringBuilder nativeFunctionDescriptor = new StringBuilder("(");
@@ -197,7 +208,7 @@ public final class NativeStubGenerator extends BytecodeAssembler {
         int handles = -1;
         int handleOffset = 0;
 
-        if (!isCFunction) {
+        if (!isCFunction && !isCritical) {
             handles = initializeHandles(sig, isStatic);
 
             // Cache current thread in a local variable
@@ -233,6 +244,17 @@ public final class NativeStubGenerator extends BytecodeAssembler {
             assert isStatic;
         }
 
+        // Count the arrays acquired for a critical native, so that an exception releases exactly those.
+        // GC stays disabled while an array is acquired if the heap scheme cannot pin it.
+        int acquired = -1;
+        int acquiredStart = -1;
+        if (isCritical && JniHandles.handlesCount(sig) != 0) {
+            iconst(0);
+            acquired = allocateLocal(Kind.INT);
+            istore(acquired);
+            acquiredStart = currentAddress();
+        }
+
         // Push the remaining parameters, wrapping reference parameters in JNI handles
         int parameterLocalIndex = isStatic ? 0 : 1;
         for (int i = 0; i < sig.numberOfParameters(); i++) {
@@ -268,6 +290,20 @@ public final class NativeStubGenerator extends BytecodeAssembler {
                 case REFERENCE: {
                     assert !isCFunction;
 
+                    if (isCritical) {
+                        // Pass a primitive array as its length and the address of its elements
+                        aload(parameterLocalIndex);
+                        invokestatic(criticalArrayLength, 1, 1);
+                        nativeFunctionDescriptor.append(JavaTypeDescriptor.INT);
+                        nativeFunctionArgSlots += Kind.INT.stackSlots;
+
+                        aload(parameterLocalIndex);
+                        invokestatic(acquireCriticalArray, 1, 1);
+                        iinc(acquired, 1);
+                        nativeParameterDescriptor = JavaTypeDescriptor.WORD;
+                        break;
+                    }
+
                     aload(handles);
                     iconst(handleOffset);
                     aload(parameterLocalIndex);
@@ -304,7 +340,12 @@ public final class NativeStubGenerator extends BytecodeAssembler {
             invokestatic(!isCFunction ? nativeCallEpilogue : nativeCallEpilogueForC, 0, 0);
         }
 
-        if (!isCFunction) {
+        int acquiredEnd = -1;
+        if (isCritical) {
+            // Unpin the array arguments
+            acquiredEnd = currentAddress();
+            releaseCriticalArrays(sig, -1);
+        } else if (!isCFunction) {
             // Unwrap a reference result from its enclosing JNI handle. This must be done
             // *before* the JNI frame is restored.
             if (resultKind.isReference) {
@@ -334,6 +375,38 @@ public final class NativeStubGenerator extends BytecodeAssembler {
         }
 
         return_(resultKind);
+
+        if (acquired != -1) {
+            // Release the arrays acquired so far before propagating an exception
+            exceptionHandlers = new ExceptionHandlerEntry[] {new ExceptionHandlerEntry(acquiredStart, acquiredEnd, currentAddress(), 0)};
+            setStack(1);
+            releaseCriticalArrays(sig, acquired);
+            athrow();
+        }
+    }
+
+    /**
+     * Releases the array arguments of a critical native.
+     *
+     * @param acquired the local holding the number of arrays acquired, or -1 to release all of them
+     */
+    private void releaseCriticalArrays(SignatureDescriptor sig, int acquired) {
+        final Label done = newLabel();
+        int parameterLocalIndex = 0;
+        for (int i = 0; i < sig.numberOfParameters(); i++) {
+            final Kind kind = sig.parameterDescriptorAt(i).toKind();
+            if (kind.isReference) {
+                if (acquired != -1) {
+                    iload(acquired);
+                    ifeq(done);
+                    iinc(acquired, -1);
+                }
+                aload(parameterLocalIndex);
+                invokestatic(releaseCriticalArray, 1, 0);
+            }
+            parameterLocalIndex += kind.stackSlots;
+        }
+        done.bind();
     }
 
     private void logJni(FieldRefConstant callType) {
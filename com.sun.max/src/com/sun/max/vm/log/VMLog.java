@@ -419,12 +419,27 @@ public abstract class VMLog implements Heap.GCCallback {
         return loggers[id - 1];
     }
 
+    /**
+     * Gets the loggers registered with this log, where the logger with id {@code n} is at index {@code n - 1}.
+     * Elements may be {@code null}.
+     */
+    public final VMLogger[] loggers() {
+        return loggers;
+    }
+
     /**
      * Called when a new thread is started so any thread-specific log state can be setup.
      */
     public void threadStart() {
     }
 
+    /**
+     * Called once the VM has reached {@link MaxineVM.Phase#RUNNING}, so that a log can
+     * start any threads it needs.
+     */
+    public void vmRunning() {
+    }
+
     /**
      * Returns the singleton default instance uses for general logging.
      */
@@ -701,6 +716,15 @@ public abstract class VMLog implements Heap.GCCallback {
      */
     protected Flusher flusher;
 
+    /**
+     * Sets the {@link #flusher} for this log and the {@code FLUSHMODE_*} situations in which it is called,
+     * overriding any setting made with {@code -XX:VMLogFlush}.
+     */
+    protected void setFlusher(Flusher flusher, int flushMode) {
+        this.flusher = flusher;
+        this.flushMode = flushMode;
+    }
+
     /**
      * Support for log flushing to an external agent.
      * If a log has an associated {@linkplain Flusher}, it will be called in two situations:
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.log.hosted;
+
+import static com.sun.max.vm.log.nat.thread.var.std.VMLogNativeThreadVariableStdStream.*;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.vm.log.VMLog.*;
+import com.sun.max.vm.log.nat.thread.var.std.*;
+
+/**
+ * Offline decoder for the files written by {@link VMLogNativeThreadVariableStdStream}.
+ * By default the records of all threads are merged in {@code uuid} order and printed with the
+ * logger and operation names recorded in the file header. With {@code -raw} the output is
+ * in the {@link RawDumpFlusher} format, which the Inspector can load as an offline log.
+ *
+ * Usage: {@code VMLogStreamDecoder [-raw] file}
+ */
+@HOSTED_ONLY
+public class VMLogStreamDecoder {
+
+    private static class LoggerInfo {
+        final String name;
+        final String[] opNames;
+
+        LoggerInfo(String name, String[] opNames) {
+            this.name = name;
+            this.opNames = opNames;
+        }
+    }
+
+    private static class DecodedRecord {
+        final String thread;
+        final int header;
+        final int uuid;
+        final long[] args;
+
+        DecodedRecord(String thread, int header, int uuid, long[] args) {
+            this.thread = thread;
+            this.header = header;
+            this.uuid = uuid;
+            this.args = args;
+        }
+    }
+
+    private ByteOrder byteOrder;
+    private int wordSize;
+    private int argsOffset;
+    private String logClassName;
+    private final Map<Integer, LoggerInfo> loggers = new HashMap<Integer, LoggerInfo>();
+    /**
+     * The current name of each thread id. An id is named again when it is reused by a new thread.
+     */
+    private final Map<Integer, String> threadNames = new HashMap<Integer, String>();
+
+    /**
+     * The threads that logged records, in the order they were first seen.
+     */
+    private final Set<String> threads = new LinkedHashSet<String>();
+    private final ArrayList<DecodedRecord> records = new ArrayList<DecodedRecord>();
+    private int dropped;
+
+    void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a VMLog stream file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported VMLog stream version " + version);
+        }
+        byteOrder = in.readByte() == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        wordSize = in.readByte();
+        argsOffset = in.readByte();
+        logClassName = in.readUTF();
+        int loggerCount = in.readInt();
+        for (int i = 0; i < loggerCount; i++) {
+            int id = in.readInt();
+            String name = in.readUTF();
+            String[] opNames = new String[in.readInt()];
+            for (int op = 0; op < opNames.length; op++) {
+                opNames[op] = in.readUTF();
+            }
+            loggers.put(id, new LoggerInfo(name, opNames));
+        }
+        while (true) {
+            byte tag;
+            try {
+                tag = in.readByte();
+            } catch (EOFException ex) {
+                // the stream was not closed, decode what was written
+                return;
+            }
+            switch (tag) {
+                case TAG_THREAD:
+                    int id = in.readInt();
+                    threadNames.put(id, in.readUTF());
+                    break;
+                case TAG_BLOCK:
+                    int threadId = in.readInt();
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    decodeBlock(threadId, ByteBuffer.wrap(bytes).order(byteOrder));
+                    break;
+                case TAG_DROPPED:
+                    dropped += in.readInt();
+                    break;
+                case TAG_END:
+                    return;
+                case 0:
+                    // the VM was killed before the stream was truncated to its length, the rest is unused
+                    return;
+                default:
+                    throw new IOException("corrupt VMLog stream file, unknown tag " + tag);
+            }
+        }
+    }
+
+    private void decodeBlock(int threadId, ByteBuffer block) {
+        String thread = threadName(threadId);
+        threads.add(thread);
+        int offset = 0;
+        while (offset + argsOffset <= block.limit()) {
+            int header = block.getInt(offset);
+            int argCount = Record.getArgCount(header);
+            int size = argsOffset + argCount * wordSize;
+            if (!Record.isFree(header)) {
+                long[] args = new long[argCount];
+                for (int i = 0; i < argCount; i++) {
+                    int argOffset = offset + argsOffset + i * wordSize;
+                    args[i] = wordSize == 8 ? block.getLong(argOffset) : block.getInt(argOffset) & 0xFFFFFFFFL;
+                }
+                records.add(new DecodedRecord(thread, header, block.getInt(offset + 4), args));
+            }
+            offset += size;
+        }
+    }
+
+    private String threadName(int threadId) {
+        String name = threadNames.get(threadId);
+        return (name == null ? "?" : name) + "[id=" + threadId + "]";
+    }
+
+    void print(PrintStream out, boolean raw) {
+        if (raw) {
+            out.println(RawDumpFlusher.LOGCLASS_MARKER + logClassName);
+            for (String thread : threads) {
+                out.println(RawDumpFlusher.THREAD_MARKER + thread);
+                for (DecodedRecord r : records) {
+                    if (r.thread.equals(thread)) {
+                        out.print(r.header + " " + r.uuid + " " + r.args.length);
+                        for (long arg : r.args) {
+                            out.print(" 0x" + Long.toHexString(arg));
+                        }
+                        out.println();
+                    }
+                }
+            }
+            return;
+        }
+        ArrayList<DecodedRecord> sorted = new ArrayList<DecodedRecord>(records);
+        Collections.sort(sorted, new Comparator<DecodedRecord>() {
+            public int compare(DecodedRecord a, DecodedRecord b) {
+                return a.uuid < b.uuid ? -1 : (a.uuid == b.uuid ? 0 : 1);
+            }
+        });
+        for (DecodedRecord r : sorted) {
+            LoggerInfo logger = loggers.get(Record.getLoggerId(r.header));
+            int op = Record.getOperation(r.header);
+            StringBuilder sb = new StringBuilder();
+            sb.append(r.uuid).append(' ').append(r.thread).append(' ');
+            if (logger == null) {
+                sb.append('?').append(Record.getLoggerId(r.header)).append('.').append(op);
+            } else {
+                sb.append(logger.name).append('.').append(op < logger.opNames.length ? logger.opNames[op] : Integer.toString(op));
+            }
+            for (long arg : r.args) {
+                sb.append(" 0x").append(Long.toHexString(arg));
+            }
+            out.println(sb);
+        }
+        if (dropped > 0) {
+            out.println(dropped + " blocks of records were dropped");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean raw = false;
+        String fileName = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-raw")) {
+                raw = true;
+            } else {
+                fileName = args[i];
+            }
+        }
+        if (fileName == null) {
+            System.err.println("usage: VMLogStreamDecoder [-raw] file");
+            System.exit(1);
+        }
+        VMLogStreamDecoder decoder = new VMLogStreamDecoder();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)));
+        try {
+            decoder.read(in);
+        } finally {
+            in.close();
+        }
+        decoder.print(System.out, raw);
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.log.nat.thread.var.std;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.lang.*;
+import com.sun.max.memory.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.log.*;
+import com.sun.max.vm.log.nat.thread.*;
+import com.sun.max.vm.reference.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * A {@link VMLogNativeThreadVariableStd} that, when {@code -XX:VMLogStream=<file>} is given, streams every
+ * record to a file instead of overwriting old ones.
+ *
+ * When a thread's buffer fills, its records are copied as one block onto a lock-free queue and the buffer
+ * is reset, so the logging thread never performs I/O or takes a lock. A daemon writer thread drains the
+ * queue into a memory-mapped file. If the writer falls more than {@code -XX:VMLogStreamMaxPending}
+ * megabytes behind, blocks are dropped and counted rather than exhausting native memory.
+ *
+ * The file is decoded offline by {@link com.sun.max.vm.log.hosted.VMLogStreamDecoder}. Its layout is:
+ * <pre>
+ *   header:  MAGIC VERSION byteOrder wordSize argsOffset logClassName
+ *            loggerCount { loggerId name numOps { operationName } }
+ *   entries: { TAG_THREAD threadId name | TAG_BLOCK threadId length bytes | TAG_DROPPED count } TAG_END
+ * </pre>
+ * Everything except the block bytes is big-endian and strings are in modified UTF-8. The block bytes are
+ * records in the native buffer format, in the byte order given in the header, and may contain
+ * {@linkplain VMLog.Record#FREE free} records. A {@code TAG_THREAD} entry names the thread of all
+ * following blocks with that id, up to the next {@code TAG_THREAD} entry for the id, since thread ids
+ * are reused once a thread exits.
+ *
+ * The file is mapped in chunks of {@value #MAP_CHUNK} bytes and only truncated to its real length when
+ * the stream is closed at VM exit. On a {@link com.sun.max.vm.runtime.FatalError} the writer may be holding
+ * its lock or the heap may be unusable, so what has been written so far is only forced to disk; the records
+ * still queued or in thread buffers are lost. If the VM crashes or is killed the file ends in zeros, which
+ * the decoder treats as the end of the stream.
+ *
+ * Reference valued arguments are written as the address they had when their block was queued, since
+ * queued blocks are not visited by the GC.
+ */
+public class VMLogNativeThreadVariableStdStream extends VMLogNativeThreadVariableStd {
+
+    public static final int MAGIC = 0x4D58564C;
+    public static final int VERSION = 1;
+    public static final byte TAG_THREAD = 'T';
+    public static final byte TAG_BLOCK = 'B';
+    public static final byte TAG_DROPPED = 'D';
+    public static final byte TAG_END = 'E';
+
+    private static String VMLogStream;
+    private static int VMLogStreamMaxPending = 64;
+
+    /**
+     * Layout of a queued block: link to the next block, owning thread id, length of the records,
+     * whether it is the last block of the thread, records.
+     */
+    private static final int BLOCK_NEXT = 0;
+    private static final int BLOCK_THREAD_ID = Word.size();
+    private static final int BLOCK_LENGTH = BLOCK_THREAD_ID + Ints.SIZE;
+    private static final int BLOCK_LAST = BLOCK_LENGTH + Ints.SIZE;
+    private static final int BLOCK_DATA = BLOCK_LAST + Ints.SIZE;
+
+    private static final int MAP_CHUNK = 16 * 1024 * 1024;
+    private static final int WRITER_PERIOD_MS = 10;
+
+    @CONSTANT_WHEN_NOT_ZERO
+    private static int pendingOffset;
+    @CONSTANT_WHEN_NOT_ZERO
+    private static int pendingBytesOffset;
+    @CONSTANT_WHEN_NOT_ZERO
+    private static int droppedOffset;
+
+    /**
+     * Head of the stack of blocks waiting for the writer, updated with compare and swap.
+     */
+    private Address pending;
+
+    /**
+     * Number of bytes in {@link #pending} blocks.
+     */
+    private volatile int pendingBytes;
+
+    /**
+     * Number of blocks dropped since the writer last recorded the count.
+     */
+    private volatile int dropped;
+
+    private int maxPendingBytes;
+    private Writer writer;
+
+    /**
+     * Flusher installed while streaming. Its only role is to make the log call {@link #flushRecords}
+     * when a buffer is full and {@link #flush(int, VmThread)} when a thread or the VM exits.
+     */
+    private static final class StreamFlusher extends Flusher {
+        @Override
+        public void flushRecord(VmThread vmThread, Record r, int uuid) {
+        }
+    }
+
+    private final StreamFlusher streamFlusher = new StreamFlusher();
+
+    @Override
+    public void initialize(MaxineVM.Phase phase) {
+        super.initialize(phase);
+        if (MaxineVM.isHosted() && phase == MaxineVM.Phase.BOOTSTRAPPING) {
+            ClassActor classActor = ClassActor.fromJava(VMLogNativeThreadVariableStdStream.class);
+            pendingOffset = classActor.findLocalInstanceFieldActor("pending").offset();
+            pendingBytesOffset = classActor.findLocalInstanceFieldActor("pendingBytes").offset();
+            droppedOffset = classActor.findLocalInstanceFieldActor("dropped").offset();
+            // registered here rather than statically, so that the options only exist in an image using this log
+            VMOptions.addFieldOption("-XX:", "VMLogStream", VMLogNativeThreadVariableStdStream.class,
+                "Stream all VMLog records to the given file.");
+            VMOptions.addFieldOption("-XX:", "VMLogStreamMaxPending", VMLogNativeThreadVariableStdStream.class,
+                "Megabytes of VMLog records that may wait for the stream writer before records are dropped.");
+        } else if (phase == MaxineVM.Phase.TERMINATING && writer != null) {
+            // the records of all threads have just been queued by the exit flush
+            writer.close();
+        }
+    }
+
+    @Override
+    public void vmRunning() {
+        if (VMLogStream == null || vmLog() != this) {
+            return;
+        }
+        try {
+            writer = new Writer(VMLogStream);
+        } catch (IOException ex) {
+            Log.println("Could not open VMLog stream " + VMLogStream + ": " + ex);
+            return;
+        }
+        maxPendingBytes = VMLogStreamMaxPending * 1024 * 1024;
+        setFlusher(streamFlusher, FLUSHMODE_FULL | FLUSHMODE_EXIT);
+        writer.start();
+    }
+
+    @Override
+    public void flush(int mode) {
+        if (mode == FLUSHMODE_CRASH && flusher == streamFlusher) {
+            // the crash may be in a GC or on a thread holding the writer's lock: neither lock nor allocate
+            writer.force();
+            return;
+        }
+        super.flush(mode);
+    }
+
+    @Override
+    public void flush(int mode, VmThread vmThread) {
+        if (flusher != streamFlusher || mode == FLUSHMODE_FULL) {
+            super.flush(mode, vmThread);
+            return;
+        }
+        // the thread, or the whole VM, is exiting and the thread's id may be reused
+        queueRecords(vmThread, true);
+    }
+
+    @Override
+    protected void flushRecords(VmThread vmThread) {
+        if (flusher != streamFlusher) {
+            super.flushRecords(vmThread);
+            return;
+        }
+        queueRecords(vmThread, false);
+    }
+
+    /**
+     * Copies the records in the buffer of a thread onto the queue and resets the buffer.
+     *
+     * @param last specifies that the thread will log no more records, so that the writer names the
+     *            next thread with the same id afresh. A block is queued even if there are no records.
+     */
+    private void queueRecords(VmThread vmThread, boolean last) {
+        Pointer tla = vmThread.tla();
+        if (writer.closed) {
+            vmLogBufferOffsetsTL.store3(tla, Address.zero());
+            return;
+        }
+        long offsets = vmLogBufferOffsetsTL.load(tla).toLong();
+        int nextOffset = nextOffset(offsets);
+        int firstOffset = firstOffset(offsets);
+        int tailLength = 0;
+        int headStart = 0;
+        int length = 0;
+        if (nextOffset != 0 || isWrapped(offsets)) {
+            // records written before streaming started may have wrapped around the buffer
+            tailLength = firstOffset < nextOffset ? 0 : logSize - firstOffset;
+            headStart = firstOffset < nextOffset ? firstOffset : 0;
+            length = tailLength + nextOffset - headStart;
+            if (addInt(pendingBytesOffset, length) > maxPendingBytes) {
+                addInt(pendingBytesOffset, -length);
+                addInt(droppedOffset, 1);
+                length = 0;
+            }
+        }
+        if (length != 0 || last) {
+            Pointer block = Memory.allocate(Size.fromInt(BLOCK_DATA + length));
+            if (block.isZero()) {
+                if (length != 0) {
+                    addInt(pendingBytesOffset, -length);
+                    addInt(droppedOffset, 1);
+                }
+            } else {
+                if (length != 0) {
+                    Pointer buffer = getBuffer(tla);
+                    Pointer data = block.plus(BLOCK_DATA);
+                    if (tailLength != 0) {
+                        Memory.copyBytes(buffer.plus(firstOffset), data, Size.fromInt(tailLength));
+                    }
+                    Memory.copyBytes(buffer.plus(headStart), data.plus(tailLength), Size.fromInt(nextOffset - headStart));
+                }
+                block.writeInt(BLOCK_THREAD_ID, vmThread.id());
+                block.writeInt(BLOCK_LENGTH, length);
+                block.writeInt(BLOCK_LAST, last ? 1 : 0);
+                push(block);
+            }
+        }
+        // reset the log
+        vmLogBufferOffsetsTL.store3(tla, Address.zero());
+    }
+
+    private void push(Pointer block) {
+        final Reference self = Reference.fromJava(this);
+        Address head;
+        do {
+            head = pending;
+            block.writeWord(BLOCK_NEXT, head);
+        } while (!self.compareAndSwapWord(pendingOffset, head, block).equals(head));
+    }
+
+    /**
+     * Removes all queued blocks and returns them in the order they were queued.
+     */
+    private Pointer takeAll() {
+        final Reference self = Reference.fromJava(this);
+        Address head;
+        do {
+            head = pending;
+        } while (!self.compareAndSwapWord(pendingOffset, head, Address.zero()).equals(head));
+        // reverse the stack
+        Pointer ordered = Pointer.zero();
+        Pointer block = head.asPointer();
+        while (!block.isZero()) {
+            Pointer next = block.readWord(BLOCK_NEXT).asPointer();
+            block.writeWord(BLOCK_NEXT, ordered);
+            ordered = block;
+            block = next;
+        }
+        return ordered;
+    }
+
+    /**
+     * Atomically adds {@code delta} to the int field at {@code offset} and returns the new value.
+     */
+    private int addInt(int offset, int delta) {
+        final Reference self = Reference.fromJava(this);
+        int value;
+        do {
+            value = self.readInt(offset);
+        } while (self.compareAndSwapInt(offset, value, value + delta) != value);
+        return value + delta;
+    }
+
+    /**
+     * Drains the queue into a memory-mapped file.
+     */
+    private final class Writer extends Thread {
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private volatile MappedByteBuffer mapped;
+        private long position;
+        private volatile boolean closed;
+        private byte[] bytes = new byte[1024];
+
+        /**
+         * Ids of the threads that have been named in the file and whose last block has not been written yet.
+         */
+        private final Set<Integer> namedThreadIds = new HashSet<Integer>();
+
+        Writer(String path) throws IOException {
+            super("VMLogStreamWriter");
+            setDaemon(true);
+            file = new RandomAccessFile(path, "rw");
+            channel = file.getChannel();
+            channel.truncate(0);
+            writeHeader();
+        }
+
+        @Override
+        public void run() {
+            while (drain()) {
+                try {
+                    Thread.sleep(WRITER_PERIOD_MS);
+                } catch (InterruptedException ex) {
+                }
+            }
+        }
+
+        /**
+         * Writes all queued blocks.
+         * @return {@code false} once the writer has been closed
+         */
+        synchronized boolean drain() {
+            if (closed) {
+                return false;
+            }
+            try {
+                Pointer block = takeAll();
+                while (!block.isZero()) {
+                    Pointer next = block.readWord(BLOCK_NEXT).asPointer();
+                    int threadId = block.readInt(BLOCK_THREAD_ID);
+                    int length = block.readInt(BLOCK_LENGTH);
+                    if (length != 0) {
+                        if (!namedThreadIds.contains(threadId)) {
+                            namedThreadIds.add(threadId);
+                            VmThread vmThread = VmThreadMap.ACTIVE.getVmThreadForID(threadId);
+                            DataOutputStream out = newEntry(TAG_THREAD);
+                            out.writeInt(threadId);
+                            out.writeUTF(vmThread == null ? "?" : vmThread.getName());
+                            writeEntry();
+                        }
+                        writeBlock(threadId, block.plus(BLOCK_DATA), length);
+                    }
+                    if (block.readInt(BLOCK_LAST) != 0) {
+                        // the id may be given to a new thread, which must be named when it first logs
+                        namedThreadIds.remove(threadId);
+                    }
+                    Memory.deallocate(block);
+                    addInt(pendingBytesOffset, -length);
+                    block = next;
+                }
+                int droppedBlocks = dropped;
+                if (droppedBlocks != 0) {
+                    addInt(droppedOffset, -droppedBlocks);
+                    newEntry(TAG_DROPPED).writeInt(droppedBlocks);
+                    writeEntry();
+                }
+            } catch (IOException ex) {
+                Log.println("Error writing VMLog stream: " + ex);
+                closed = true;
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void close() {
+            if (drain()) {
+                try {
+                    newEntry(TAG_END);
+                    writeEntry();
+                    mapped.force();
+                    mapped = null;
+                    channel.truncate(position);
+                    file.close();
+                } catch (IOException ex) {
+                    Log.println("Error closing VMLog stream: " + ex);
+                }
+                closed = true;
+            }
+        }
+
+        /**
+         * Forces the chunk of the file currently mapped to disk, without taking the lock or allocating.
+         * Like the earlier chunks, its pages are shared with the file and so survive the VM in any case.
+         */
+        void force() {
+            final MappedByteBuffer buffer = mapped;
+            if (buffer != null) {
+                buffer.force();
+            }
+        }
+
+        private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+        private final DataOutputStream entry = new DataOutputStream(entryBytes);
+
+        private DataOutputStream newEntry(byte tag) throws IOException {
+            entryBytes.reset();
+            entry.writeByte(tag);
+            return entry;
+        }
+
+        private void writeEntry() throws IOException {
+            entry.flush();
+            write(entryBytes.toByteArray(), entryBytes.size());
+        }
+
+        private void writeHeader() throws IOException {
+            entryBytes.reset();
+            entry.writeInt(MAGIC);
+            entry.writeInt(VERSION);
+            entry.writeByte(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? 0 : 1);
+            entry.writeByte(Word.size());
+            entry.writeByte(ARGS_OFFSET);
+            entry.writeUTF(VMLogNativeThreadVariableStdStream.this.getClass().getSimpleName());
+            VMLogger[] loggers = loggers();
+            int count = 0;
+            for (VMLogger logger : loggers) {
+                if (logger != null) {
+                    count++;
+                }
+            }
+            entry.writeInt(count);
+            for (VMLogger logger : loggers) {
+                if (logger != null) {
+                    entry.writeInt(logger.loggerId);
+                    entry.writeUTF(logger.name);
+                    entry.writeInt(logger.numOps());
+                    for (int op = 0; op < logger.numOps(); op++) {
+                        entry.writeUTF(logger.operationName(op));
+                    }
+                }
+            }
+            writeEntry();
+        }
+
+        private void writeBlock(int threadId, Pointer data, int length) throws IOException {
+            DataOutputStream out = newEntry(TAG_BLOCK);
+            out.writeInt(threadId);
+            out.writeInt(length);
+            writeEntry();
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            Memory.readBytes(data, length, bytes, 0);
+            write(bytes, length);
+        }
+
+        private void write(byte[] data, int length) throws IOException {
+            int offset = 0;
+            while (offset < length) {
+                if (mapped == null || !mapped.hasRemaining()) {
+                    mapped = channel.map(FileChannel.MapMode.READ_WRITE, position, MAP_CHUNK);
+                }
+                int n = Math.min(length - offset, mapped.remaining());
+                mapped.put(data, offset, n);
+                offset += n;
+                position += n;
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.management;
+
+import static com.sun.max.vm.heap.SpecialReferenceManager.*;
+
+import java.lang.management.*;
+import java.util.*;
+
+import javax.management.*;
+import javax.management.openmbean.*;
+
+import com.sun.management.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.heap.*;
+import com.sun.max.vm.heap.HeapScheme.GCRequest;
+import com.sun.max.vm.heap.HeapSchemeAdaptor.GarbageCollectorMXBeanAdaptor;
+import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * Records the usage of memory pools before and after each garbage collection and publishes it as
+ * {@linkplain GarbageCollectionNotificationInfo garbage collection notifications} and as the
+ * {@linkplain com.sun.management.GarbageCollectorMXBean#getLastGcInfo() last GC info} of the heap's garbage collector MXBean.
+ * <p>
+ * The notifier is installed when the heap's collector MXBean is first handed out (see {@link MemoryManagement}).
+ * From then on, {@link GCOperation} calls {@link #collectionStarted(GCRequest)} and {@link #collectionEnded(boolean)}
+ * around every collection. These run on the GC thread with allocation disabled: they only copy numbers into a ring of
+ * preallocated {@linkplain Record records}. Converting records to open data and sending notifications is left to a
+ * daemon thread started when the first listener registers, so no open data is built until then. That thread wakes up when a GC operation notifies
+ * {@link SpecialReferenceManager#REFERENCE_LOCK} and copies records out while holding that lock, which a GC
+ * operation holds for its whole duration. If the thread falls behind by more than the ring's length, the oldest
+ * records are dropped.
+ */
+public final class GarbageCollectionNotifier {
+
+    /**
+     * Number of records in the ring.
+     */
+    private static final int RING_LENGTH = 16;
+
+    private static final String MAJOR_GC = "end of major GC";
+    private static final String MINOR_GC = "end of minor GC";
+    private static final String SYSTEM_GC = "System.gc()";
+    private static final String ALLOCATION_FAILURE = "Allocation Failure";
+    private static final String UNKNOWN_CAUSE = "Unknown GCCause";
+
+    private static final String[] MEMORY_USAGE_ITEMS = {"committed", "init", "max", "used"};
+    private static final String[] MAP_ROW_ITEMS = {"key", "value"};
+    private static final String[] GC_INFO_ITEMS = {"id", "startTime", "endTime", "duration", "memoryUsageBeforeGc", "memoryUsageAfterGc"};
+    private static final String[] NOTIFICATION_ITEMS = {"gcName", "gcAction", "gcCause", "gcInfo"};
+
+    /**
+     * The installed notifier, {@code null} until the heap's collector MXBean is handed out.
+     * Always re-read after a collection rather than held in a local, as the GC may move the notifier.
+     */
+    private static volatile GarbageCollectionNotifier notifier;
+
+    /**
+     * Usage and cause of a single collection. Arrays are indexed like {@link GarbageCollectionNotifier#pools}.
+     */
+    static final class Record {
+        long id;
+        long startTime;
+        long endTime;
+        boolean full;
+        String cause;
+        final long[] usedBefore;
+        final long[] committedBefore;
+        final long[] usedAfter;
+        final long[] committedAfter;
+        final long[] extensions;
+
+        Record(int poolCount, int extensionCount) {
+            usedBefore = new long[poolCount];
+            committedBefore = new long[poolCount];
+            usedAfter = new long[poolCount];
+            committedAfter = new long[poolCount];
+            extensions = new long[extensionCount];
+        }
+
+        void copyTo(Record r) {
+            r.id = id;
+            r.startTime = startTime;
+            r.endTime = endTime;
+            r.full = full;
+            r.cause = cause;
+            System.arraycopy(usedBefore, 0, r.usedBefore, 0, usedBefore.length);
+            System.arraycopy(committedBefore, 0, r.committedBefore, 0, committedBefore.length);
+            System.arraycopy(usedAfter, 0, r.usedAfter, 0, usedAfter.length);
+            System.arraycopy(committedAfter, 0, r.committedAfter, 0, committedAfter.length);
+            System.arraycopy(extensions, 0, r.extensions, 0, extensions.length);
+        }
+    }
+
+    private final GarbageCollectorMXBeanAdaptor collector;
+
+    /**
+     * Pools reported in each record: the pools of the collector first, followed by the other pools of interest.
+     */
+    private final MemoryPoolMXBeanAdaptor[] pools;
+
+    /**
+     * Number of leading entries of {@link #pools} that are managed by the collector.
+     * Only these have their {@linkplain MemoryPoolMXBean#getCollectionUsage() collection usage} updated.
+     */
+    private final int collectorPoolCount;
+
+    private final Record[] ring;
+
+    /**
+     * Number of records completed so far. The next record is filled in {@code ring[recorded % RING_LENGTH]}.
+     */
+    private volatile long recorded;
+
+    /**
+     * Whether a record was started by {@link #collectionStarted(GCRequest)} and not yet completed.
+     */
+    private boolean recording;
+
+    /**
+     * Number of records taken by the publisher thread so far.
+     */
+    private long published;
+
+    private final CompositeType memoryUsageType;
+    private final CompositeType mapRowType;
+    private final TabularType mapType;
+    private final CompositeType gcInfoType;
+    private final CompositeType notificationType;
+    private final String[] gcInfoItems;
+
+    private Thread publisher;
+    private long sequenceNumber;
+
+    private GarbageCollectionNotifier(GarbageCollectorMXBeanAdaptor collector, List<MemoryPoolMXBean> otherPools) {
+        this.collector = collector;
+        final List<MemoryPoolMXBean> collectorPools = collector.getAll();
+        collectorPoolCount = collectorPools.size();
+        pools = new MemoryPoolMXBeanAdaptor[collectorPoolCount + otherPools.size()];
+        int i = 0;
+        for (MemoryPoolMXBean pool : collectorPools) {
+            pools[i++] = (MemoryPoolMXBeanAdaptor) pool;
+        }
+        for (MemoryPoolMXBean pool : otherPools) {
+            pools[i++] = (MemoryPoolMXBeanAdaptor) pool;
+        }
+        final String[] extensionNames = collector.gcInfoExtensionNames();
+        ring = new Record[RING_LENGTH];
+        for (int r = 0; r < RING_LENGTH; r++) {
+            ring[r] = new Record(pools.length, extensionNames.length);
+        }
+
+        gcInfoItems = Arrays.copyOf(GC_INFO_ITEMS, GC_INFO_ITEMS.length + extensionNames.length);
+        System.arraycopy(extensionNames, 0, gcInfoItems, GC_INFO_ITEMS.length, extensionNames.length);
+        try {
+            memoryUsageType = new CompositeType(MemoryUsage.class.getName(), "Memory usage", MEMORY_USAGE_ITEMS, MEMORY_USAGE_ITEMS,
+                            new OpenType<?>[] {SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG});
+            final String mapTypeName = "Map<java.lang.String,java.lang.management.MemoryUsage>";
+            mapRowType = new CompositeType(mapTypeName, "Memory usage of a pool", MAP_ROW_ITEMS, MAP_ROW_ITEMS,
+                            new OpenType<?>[] {SimpleType.STRING, memoryUsageType});
+            mapType = new TabularType(mapTypeName, "Memory usage per pool", mapRowType, new String[] {"key"});
+            final OpenType<?>[] gcInfoItemTypes = new OpenType<?>[gcInfoItems.length];
+            Arrays.fill(gcInfoItemTypes, SimpleType.LONG);
+            gcInfoItemTypes[4] = mapType;
+            gcInfoItemTypes[5] = mapType;
+            gcInfoType = new CompositeType(GcInfo.class.getName(), "GC info", gcInfoItems, gcInfoItems, gcInfoItemTypes);
+            notificationType = new CompositeType(GarbageCollectionNotificationInfo.class.getName(), "GC notification", NOTIFICATION_ITEMS, NOTIFICATION_ITEMS,
+                            new OpenType<?>[] {SimpleType.STRING, SimpleType.STRING, SimpleType.STRING, gcInfoType});
+        } catch (OpenDataException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Installs the notifier for the heap's garbage collector MXBean.
+     *
+     * @param collector the collector MXBean handed out to management clients
+     * @param otherPools pools not managed by the collector whose usage is also recorded (e.g., code)
+     * @return the installed notifier
+     */
+    public static synchronized GarbageCollectionNotifier install(GarbageCollectorMXBeanAdaptor collector, List<MemoryPoolMXBean> otherPools) {
+        if (notifier == null) {
+            notifier = new GarbageCollectionNotifier(collector, otherPools);
+        }
+        return notifier;
+    }
+
+    /**
+     * Records the start time, cause and pool usage of a collection about to start. Called by the GC thread.
+     *
+     * @param request the request of the thread that triggered the collection
+     */
+    public static void collectionStarted(GCRequest request) {
+        final GarbageCollectionNotifier n = notifier;
+        if (n == null) {
+            return;
+        }
+        final long recorded = n.recorded;
+        final Record r = n.ring[(int) (recorded % RING_LENGTH)];
+        r.id = recorded + 1;
+        r.startTime = System.currentTimeMillis() - MaxineVM.getStartupTime();
+        if (request == null) {
+            r.cause = UNKNOWN_CAUSE;
+        } else if (request.explicit) {
+            r.cause = SYSTEM_GC;
+        } else if (!request.requestedBytes.isZero()) {
+            r.cause = ALLOCATION_FAILURE;
+        } else {
+            r.cause = UNKNOWN_CAUSE;
+        }
+        final MemoryPoolMXBeanAdaptor[] pools = n.pools;
+        for (int i = 0; i < pools.length; i++) {
+            final MemoryPoolMXBeanAdaptor pool = pools[i];
+            final long used = pool.used();
+            final long committed = pool.committed();
+            r.usedBefore[i] = used;
+            r.committedBefore[i] = committed;
+            pool.recordUsageBeforeCollection(used, committed);
+        }
+        n.recording = true;
+    }
+
+    /**
+     * Completes the record of the collection that just ended. Called by the GC thread.
+     *
+     * @param full specifies if the collection covered the whole heap
+     */
+    public static void collectionEnded(boolean full) {
+        final GarbageCollectionNotifier n = notifier;
+        if (n == null || !n.recording) {
+            return;
+        }
+        final long recorded = n.recorded;
+        final Record r = n.ring[(int) (recorded % RING_LENGTH)];
+        r.endTime = System.currentTimeMillis() - MaxineVM.getStartupTime();
+        r.full = full;
+        final MemoryPoolMXBeanAdaptor[] pools = n.pools;
+        for (int i = 0; i < pools.length; i++) {
+            final MemoryPoolMXBeanAdaptor pool = pools[i];
+            final long used = pool.used();
+            final long committed = pool.committed();
+            r.usedAfter[i] = used;
+            r.committedAfter[i] = committed;
+            if (i < n.collectorPoolCount) {
+                pool.recordUsageAfterCollection(used, committed);
+            }
+        }
+        n.collector.recordGcInfoExtensions(r.extensions);
+        n.recording = false;
+        n.recorded = recorded + 1;
+    }
+
+    /**
+     * Copies the record of the most recent completed collection.
+     *
+     * @return {@code false} if no collection has completed since the notifier was installed
+     */
+    private boolean copyLastRecord(Record r) {
+        synchronized (REFERENCE_LOCK) {
+            final long recorded = this.recorded;
+            if (recorded == 0) {
+                return false;
+            }
+            ring[(int) ((recorded - 1) % RING_LENGTH)].copyTo(r);
+            return true;
+        }
+    }
+
+    /**
+     * Waits for the next record not yet published and copies it.
+     */
+    private void takeNextRecord(Record r) {
+        synchronized (REFERENCE_LOCK) {
+            while (published == recorded) {
+                try {
+                    REFERENCE_LOCK.wait();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+            if (recorded - published > RING_LENGTH) {
+                published = recorded - RING_LENGTH;
+            }
+            ring[(int) (published % RING_LENGTH)].copyTo(r);
+            published++;
+        }
+    }
+
+    /**
+     * Gets the information of the most recent collection.
+     *
+     * @return {@code null} if no collection has completed since the notifier was installed
+     */
+    public GcInfo lastGcInfo() {
+        final Record r = new Record(pools.length, gcInfoItems.length - GC_INFO_ITEMS.length);
+        if (!copyLastRecord(r)) {
+            return null;
+        }
+        return GcInfo.from(toGcInfo(r));
+    }
+
+    /**
+     * Starts the thread publishing notifications, if not already started.
+     */
+    public synchronized void startPublisher() {
+        if (publisher == null) {
+            publisher = new Publisher();
+            publisher.start();
+        }
+    }
+
+    private final class Publisher extends Thread {
+        Publisher() {
+            super(VmThread.systemThreadGroup, "GC Notification");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            final Record r = new Record(pools.length, gcInfoItems.length - GC_INFO_ITEMS.length);
+            while (true) {
+                takeNextRecord(r);
+                collector.sendNotification(toNotification(r));
+            }
+        }
+    }
+
+    private Notification toNotification(Record r) {
+        final Object[] values = {collector.getName(), r.full ? MAJOR_GC : MINOR_GC, r.cause, toGcInfo(r)};
+        final Notification notification = new Notification(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION,
+                        collector.getObjectName(), ++sequenceNumber, System.currentTimeMillis(), collector.getName());
+        try {
+            notification.setUserData(new CompositeDataSupport(notificationType, NOTIFICATION_ITEMS, values));
+        } catch (OpenDataException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return notification;
+    }
+
+    private CompositeData toGcInfo(Record r) {
+        final Object[] values = new Object[gcInfoItems.length];
+        values[0] = r.id;
+        values[1] = r.startTime;
+        values[2] = r.endTime;
+        values[3] = r.endTime - r.startTime;
+        try {
+            values[4] = toUsageMap(r.usedBefore, r.committedBefore);
+            values[5] = toUsageMap(r.usedAfter, r.committedAfter);
+            for (int i = 0; i < r.extensions.length; i++) {
+                values[GC_INFO_ITEMS.length + i] = r.extensions[i];
+            }
+            return new CompositeDataSupport(gcInfoType, gcInfoItems, values);
+        } catch (OpenDataException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private TabularData toUsageMap(long[] used, long[] committed) throws OpenDataException {
+        final TabularDataSupport map = new TabularDataSupport(mapType);
+        for (int i = 0; i < pools.length; i++) {
+            final MemoryPoolMXBeanAdaptor pool = pools[i];
+            final CompositeData usage = new CompositeDataSupport(memoryUsageType, MEMORY_USAGE_ITEMS,
+                            new Object[] {committed[i], pool.init(), pool.max(), used[i]});
+            map.put(new CompositeDataSupport(mapRowType, MAP_ROW_ITEMS, new Object[] {pool.getName(), usage}));
+        }
+        return map;
+    }
+}
@@ -52,26 +52,48 @@ public class MemoryManagement {
         return theMemoryPoolMXBeans.toArray(new MemoryPoolMXBean[theMemoryPoolMXBeans.size()]);
     }
 
+    /**
+     * The memory managers, created on first use. They are cached so that the pools keep their peak and collection usage,
+     * and so that listeners registered with the garbage collector receive its notifications.
+     */
+    private static MemoryManagerMXBean codeManager;
+    private static MemoryManagerMXBean immortalManager;
+    private static GarbageCollectorMXBean heapCollector;
+
+    private static synchronized void initializeMemoryManagers() {
+        if (heapCollector == null) {
+            codeManager = Code.getMemoryManagerMXBean();
+            immortalManager = ImmortalHeap.getMemoryManagerMXBean();
+            final GarbageCollectorMXBean collector = vmConfig().heapScheme().getGarbageCollectorMXBean();
+            if (collector.isValid() && collector instanceof HeapSchemeAdaptor.GarbageCollectorMXBeanAdaptor) {
+                ((HeapSchemeAdaptor.GarbageCollectorMXBeanAdaptor) collector).enableNotifications(getMemoryManagerMXBeanPools(codeManager).getAll());
+            }
+            heapCollector = collector;
+        }
+    }
+
     public static MemoryManagerMXBean[] getMemoryManagers() {
         /*
          * In a complete implementation there would be a manager for code, non-heap data and heap data.
-         * Currently, we only support code and heap. This information probably could be cached safely.
+         * Currently, we only support code and heap.
          */
+        initializeMemoryManagers();
         final MemoryManagerMXBean[] result = new MemoryManagerMXBean[3];
-        result[0] = Code.getMemoryManagerMXBean();
-        result[1] = ImmortalHeap.getMemoryManagerMXBean();
-        result[2] = vmConfig().heapScheme().getGarbageCollectorMXBean();
+        result[0] = codeManager;
+        result[1] = immortalManager;
+        result[2] = heapCollector;
         return result;
     }
 
     public static MemoryUsage getMemoryUsage(boolean heap) {
+        initializeMemoryManagers();
         List<MemoryPoolMXBean> pools = null;
         if (heap) {
             pools = new ArrayList<MemoryPoolMXBean>();
-            pools.addAll(getMemoryManagerMXBeanPools(ImmortalHeap.getMemoryManagerMXBean()).getAll());
-            pools.addAll(getMemoryManagerMXBeanPools(vmConfig().heapScheme().getGarbageCollectorMXBean()).getAll());
+            pools.addAll(getMemoryManagerMXBeanPools(immortalManager).getAll());
+            pools.addAll(getMemoryManagerMXBeanPools(heapCollector).getAll());
         } else {
-            pools = getMemoryManagerMXBeanPools(Code.getMemoryManagerMXBean()).getAll();
+            pools = getMemoryManagerMXBeanPools(codeManager).getAll();
         }
         return sum(pools);
     }
@@ -33,12 +33,29 @@ import com.sun.max.memory.*;
  * Each instance has an associated MemoryRegion and an associated manager (MemoryManagerMXBean).
  * The management API supports multiple managers for a given memory pool but we don't exploit that currently.
  *
+ * Pools that are not backed by a single MemoryRegion (e.g., heap spaces made of several regions) are created
+ * with a name and override {@link #used()}, {@link #committed()}, {@link #max()} and {@link #init()}.
+ * These accessors must not allocate as they are sampled by the GC before and after each collection
+ * (see {@link GarbageCollectionNotifier}).
  */
 
 public class MemoryPoolMXBeanAdaptor implements MemoryPoolMXBean {
     protected MemoryManagerMXBean manager;
     protected MemoryRegion region;
     private MemoryType type;
+    private String name;
+
+    /**
+     * Highest used and committed bytes observed since creation or the last {@link #resetPeakUsage()}.
+     */
+    private long peakUsed;
+    private long peakCommitted;
+
+    /**
+     * Used and committed bytes right after the most recent collection, or -1 if none was recorded yet.
+     */
+    private long collectionUsed = -1L;
+    private long collectionCommitted;
 
     private MemoryPoolMXBeanAdaptor() {
     }
@@ -46,10 +63,76 @@ public class MemoryPoolMXBeanAdaptor implements MemoryPoolMXBean {
     public MemoryPoolMXBeanAdaptor(MemoryType type, MemoryRegion region, MemoryManagerMXBean manager) {
         this.type = type;
         this.region = region;
+        this.manager = manager;
+    }
+
+    public MemoryPoolMXBeanAdaptor(MemoryType type, String name, MemoryManagerMXBean manager) {
+        this.type = type;
+        this.name = name;
+        this.manager = manager;
+    }
+
+    /**
+     * Number of bytes currently used in the pool.
+     */
+    public long used() {
+        if (region instanceof LinearAllocationMemoryRegion) {
+            return ((LinearAllocationMemoryRegion) region).used().toLong();
+        }
+        return region.size().toLong();
+    }
+
+    /**
+     * Number of bytes currently committed to the pool.
+     */
+    public long committed() {
+        return region.size().toLong();
+    }
+
+    /**
+     * Maximum number of bytes the pool can grow to.
+     */
+    public long max() {
+        return region.size().toLong();
+    }
+
+    /**
+     * Number of bytes initially committed to the pool.
+     */
+    public long init() {
+        return region.size().toLong();
+    }
+
+    /**
+     * Records the usage of the pool before a collection. Called by the GC thread.
+     */
+    void recordUsageBeforeCollection(long used, long committed) {
+        updatePeak(used, committed);
+    }
+
+    /**
+     * Records the usage of the pool after a collection. Called by the GC thread.
+     */
+    void recordUsageAfterCollection(long used, long committed) {
+        collectionCommitted = committed;
+        collectionUsed = used;
+    }
+
+    private void updatePeak(long used, long committed) {
+        if (used > peakUsed) {
+            peakUsed = used;
+        }
+        if (committed > peakCommitted) {
+            peakCommitted = committed;
+        }
     }
 
     public MemoryUsage getCollectionUsage() {
-        return null;
+        final long used = collectionUsed;
+        if (used < 0L) {
+            return null;
+        }
+        return new MemoryUsage(init(), used, collectionCommitted, max());
     }
 
     public long getCollectionUsageThreshold() {
@@ -65,11 +148,12 @@ public class MemoryPoolMXBeanAdaptor implements MemoryPoolMXBean {
     }
 
     public String getName() {
-        return region.regionName();
+        return name != null ? name : region.regionName();
     }
 
     public MemoryUsage getPeakUsage() {
-        return null;
+        updatePeak(used(), committed());
+        return new MemoryUsage(init(), peakUsed, peakCommitted, max());
     }
 
     public MemoryType getType() {
@@ -77,7 +161,10 @@ public class MemoryPoolMXBeanAdaptor implements MemoryPoolMXBean {
     }
 
     public MemoryUsage getUsage() {
-        return region.getUsage();
+        final long used = used();
+        final long committed = committed();
+        updatePeak(used, committed);
+        return new MemoryUsage(init(), used, committed, max());
     }
 
     public long getUsageThreshold() {
@@ -109,6 +196,8 @@ public class MemoryPoolMXBeanAdaptor implements MemoryPoolMXBean {
     }
 
     public void resetPeakUsage() {
+        peakUsed = used();
+        peakCommitted = committed();
     }
 
     public void setCollectionUsageThreshold(long threhsold) {
@@ -26,6 +26,8 @@ import java.lang.management.*;
 import java.lang.reflect.*;
 import java.util.*;
 
+import static com.sun.max.vm.VMConfiguration.*;
+
 import com.sun.max.unsafe.*;
 import com.sun.max.vm.jdk.*;
 import com.sun.max.vm.runtime.*;
@@ -43,6 +45,10 @@ public class ThreadManagement {
      */
     private static Constructor<?> threadInfoConstructor;
 
+    private static boolean threadCpuTimeEnabled = true;
+
+    private static boolean threadAllocatedMemoryEnabled = true;
+
     public static Thread[] getThreads() {
         return VmThreadMap.getThreads(false);
     }
@@ -67,14 +73,167 @@ public class ThreadManagement {
         return VmThreadMap.getLiveTheadCount();
     }
 
+    /**
+     * Sets whether thread CPU time can be queried.
+     *
+     * @return the previous setting
+     */
     public static boolean setThreadCpuTimeEnabled(boolean enable) {
-        // TODO
-        return false;
+        final boolean previous = threadCpuTimeEnabled;
+        threadCpuTimeEnabled = enable;
+        return previous;
+    }
+
+    public static boolean isThreadCpuTimeEnabled() {
+        return threadCpuTimeEnabled;
     }
 
+    /**
+     * Sets whether the bytes allocated by a thread can be queried.
+     *
+     * @return the previous setting
+     */
+    public static boolean setThreadAllocatedMemoryEnabled(boolean enable) {
+        final boolean previous = threadAllocatedMemoryEnabled;
+        threadAllocatedMemoryEnabled = enable;
+        return previous;
+    }
+
+    public static boolean isThreadAllocatedMemoryEnabled() {
+        return threadAllocatedMemoryEnabled;
+    }
+
+    /**
+     * Sets whether the time threads spend blocked or waiting on monitors is measured.
+     * The times are reset when measuring is enabled.
+     *
+     * @return the previous setting
+     */
     public static boolean setThreadContentionMonitoringEnabled(boolean enable) {
-        // TODO
-        return false;
+        final boolean previous = VmThread.timeContention;
+        if (enable && !previous) {
+            resetContentionTimes(0);
+        }
+        VmThread.timeContention = enable;
+        return previous;
+    }
+
+    public static boolean isThreadContentionMonitoringEnabled() {
+        return VmThread.timeContention;
+    }
+
+    /**
+     * Resets the contention times of a thread.
+     *
+     * @param id the id of the thread, or 0 for all threads
+     */
+    public static void resetContentionTimes(final long id) {
+        final Pointer.Procedure procedure = new Pointer.Procedure() {
+            public void run(Pointer tla) {
+                final VmThread vmThread = VmThread.fromTLA(tla);
+                final Thread thread = vmThread.javaThread();
+                // a thread that is still attaching has no java.lang.Thread yet
+                if (thread != null && (id == 0 || thread.getId() == id)) {
+                    vmThread.resetContentionTimes();
+                }
+            }
+        };
+        synchronized (VmThreadMap.THREAD_LOCK) {
+            VmThreadMap.ACTIVE.forAllThreadLocals(null, procedure);
+        }
+    }
+
+    /**
+     * The per-thread metrics that can be queried by thread id.
+     */
+    enum ThreadMetric {
+        TOTAL_CPU_TIME,
+        USER_CPU_TIME,
+        ALLOCATED_BYTES;
+
+        long of(VmThread vmThread) {
+            switch (this) {
+                case TOTAL_CPU_TIME:
+                    return vmThread.cpuTime(false);
+                case USER_CPU_TIME:
+                    return vmThread.cpuTime(true);
+                default:
+                    return vmConfig().heapScheme().allocatedBytes(vmThread.tla());
+            }
+        }
+    }
+
+    static final class ThreadMetricProcedure implements Pointer.Procedure {
+        private final ThreadMetric metric;
+        private final long[] ids;
+        private final long[] result;
+
+        ThreadMetricProcedure(ThreadMetric metric, long[] ids, long[] result) {
+            this.metric = metric;
+            this.ids = ids;
+            this.result = result;
+        }
+
+        public void run(Pointer tla) {
+            final VmThread vmThread = VmThread.fromTLA(tla);
+            final Thread thread = vmThread.javaThread();
+            if (thread == null) {
+                // still attaching
+                return;
+            }
+            final long id = thread.getId();
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    result[i] = metric.of(vmThread);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets a metric for a set of threads. The value for a thread that is not alive is -1.
+     *
+     * @param ids thread ids
+     * @param result the array in which to store the values
+     */
+    private static void getThreadMetric(ThreadMetric metric, long[] ids, long[] result) {
+        Arrays.fill(result, -1L);
+        final ThreadMetricProcedure procedure = new ThreadMetricProcedure(metric, ids, result);
+        // The lock keeps the threads, and so their native threads and thread locals, alive while they are queried
+        synchronized (VmThreadMap.THREAD_LOCK) {
+            VmThreadMap.ACTIVE.forAllThreadLocals(null, procedure);
+        }
+    }
+
+    /**
+     * Gets a metric for a thread.
+     *
+     * @param id the id of the thread, or 0 for the current thread
+     * @return the value, or -1 if the thread is not alive
+     */
+    private static long getThreadMetric(ThreadMetric metric, long id) {
+        if (id == 0 || id == Thread.currentThread().getId()) {
+            return metric.of(VmThread.current());
+        }
+        final long[] result = new long[1];
+        getThreadMetric(metric, new long[] {id}, result);
+        return result[0];
+    }
+
+    public static long getThreadCpuTime(long id, boolean userOnly) {
+        return getThreadMetric(userOnly ? ThreadMetric.USER_CPU_TIME : ThreadMetric.TOTAL_CPU_TIME, id);
+    }
+
+    public static void getThreadCpuTime(long[] ids, long[] result, boolean userOnly) {
+        getThreadMetric(userOnly ? ThreadMetric.USER_CPU_TIME : ThreadMetric.TOTAL_CPU_TIME, ids, result);
+    }
+
+    public static long getThreadAllocatedBytes(long id) {
+        return getThreadMetric(ThreadMetric.ALLOCATED_BYTES, id);
+    }
+
+    public static void getThreadAllocatedBytes(long[] ids, long[] result) {
+        getThreadMetric(ThreadMetric.ALLOCATED_BYTES, ids, result);
     }
 
     public static void getThreadInfo(long[] ids, int maxDepth, ThreadInfo[] result) {
@@ -91,11 +250,13 @@ public class ThreadManagement {
                 result[i] = null;
             } else {
                 // we don't handle any of the lock information yet
+                final VmThread vmThread = VmThread.fromJava(thread);
+                final boolean timed = VmThread.timeContention;
                 try {
                     final Object obj = threadInfoConstructor.newInstance(new Object[] {
                         thread, thread.getState().ordinal(), null, null,
-                        0, 0,
-                        0, 0,
+                        vmThread.contendedEnterCount(), timed ? vmThread.contendedEnterNanos() / 1000000L : -1L,
+                        vmThread.monitorWaitCount(), timed ? vmThread.monitorWaitNanos() / 1000000L : -1L,
                         maxDepth == 0 ? new StackTraceElement[0] : getStackTrace(thread, maxDepth),
                         null,
                         null,
@@ -531,4 +531,28 @@ public final class MaxMethodHandles {
         return UnsafeCast.asClassMethodActor(target.getVmTarget());
     }
 
+    /**
+     * Variant of {@link #getInvokerForInvokeBasic(Object)} for a compiler binding a call through
+     * a constant method handle. Returns {@code null} instead of failing if the handle's lambda
+     * form has not been linked yet.
+     *
+     * @param mh
+     * @return The MethodActor or null
+     */
+    public static ClassMethodActor findInvokerForInvokeBasic(Object mh) {
+        Object lambdaForm = asThis(mh).form;
+        if (lambdaForm == null) {
+            return null;
+        }
+        Object memberName = asThis(lambdaForm).vmentry;
+        if (memberName == null) {
+            return null;
+        }
+        VMTarget target = VMTarget.fromMemberName(memberName);
+        if (target == null || !target.isMethod()) {
+            return null;
+        }
+        return target.asClassMethodActor();
+    }
+
 }
@@ -52,8 +52,8 @@ public final class BiasedLockEpoch extends Word {
         if (this.equals(MAX)) {
             return MIN;
         }
-        int epoch = toIntInternal();
-        return BiasedLockEpoch.from(Address.fromUnsignedInt(epoch++).shiftedLeft(BiasedLockword.EPOCH_SHIFT));
+        final int epoch = toIntInternal();
+        return BiasedLockEpoch.from(Address.fromUnsignedInt(epoch + 1).shiftedLeft(BiasedLockword.EPOCH_SHIFT));
     }
 
     @INLINE
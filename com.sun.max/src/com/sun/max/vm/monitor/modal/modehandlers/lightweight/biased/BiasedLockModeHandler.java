@@ -129,6 +129,82 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
         }
     }
 
+    /**
+     * Gets the revocation heuristics of the class of a given object, creating them if necessary.
+     */
+    protected BiasedLockRevocationHeuristics getHeuristics(Object object) {
+        final Hub hub = ObjectAccess.readHub(object);
+        final BiasedLockRevocationHeuristics revocationHeuristics = hub.biasedLockRevocationHeuristics();
+        if (revocationHeuristics == null) {
+            // Concurrent revokers race to install their instance; all of them then count in the winner's.
+            return hub.installBiasedLockRevocationHeuristics(new BiasedLockRevocationHeuristics());
+        }
+        return revocationHeuristics;
+    }
+
+    /**
+     * Moves an object whose class has been {@linkplain BiasedLockEpoch#isBulkRevocation() bulk revoked} out of the biased
+     * mode. Objects that are neither biased nor locked are moved to the delegate mode directly, otherwise the bias is
+     * revoked.
+     *
+     * @return the lock word of {@code object} after the transition
+     */
+    protected ModalLockword revokeForBulkRevokedClass(Object object, BiasedLockword biasedLockword, int lockwordThreadID) {
+        if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
+            // Object is not biased or locked, change the lockword to the next locking mode
+            final ModalLockword newLockword = delegate().prepareModalLockword(object, biasedLockword);
+            final ModalLockword currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newLockword));
+            if (!currentLockword.equals(biasedLockword)) {
+                delegate().cancelPreparedModalLockword(newLockword);
+                return currentLockword;
+            }
+            if (Monitor.TraceMonitors) {
+                final boolean lockDisabledSafepoints = Log.lock();
+                Log.print("New object bulk revocation: ");
+                Log.println(object.getClass().getName());
+                Log.unlock(lockDisabledSafepoints);
+            }
+            return newLockword;
+        } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID) {
+            // Object is biased and locked by the current thread. Revoke the bias.
+            return revokeWithoutSafepointing(object);
+        }
+        // Object is biased to another thread. Revoke the bias.
+        final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
+        return revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
+    }
+
+    /**
+     * Disables biased locking for the class of a given object and revokes the bias of the object.
+     * Other objects of the class leave the biased mode lazily, see {@link #revokeForBulkRevokedClass}.
+     */
+    class BulkRevokeOperation extends VmOperation {
+        private final Object object;
+        ModalLockword postRevokeLockword;
+        BulkRevokeOperation(Object object) {
+            super("BulkRevoke", null, Mode.Safepoint, false);
+            this.object = object;
+        }
+        @Override
+        protected void doIt() {
+            final Hub hub = ObjectAccess.readHub(object);
+            hub.biasedLockEpoch = BiasedLockEpoch.bulkRevocation();
+            postRevokeLockword = revokeBias(object);
+        }
+    }
+
+    protected ModalLockword performBulkRevocation(Object object) {
+        if (Monitor.TraceMonitors) {
+            final boolean lockDisabledSafepoints = Log.lock();
+            Log.print("BULK_REVOCATION: ");
+            Log.println(object.getClass().getName());
+            Log.unlock(lockDisabledSafepoints);
+        }
+        BulkRevokeOperation operation = new BulkRevokeOperation(object);
+        operation.submit();
+        return operation.postRevokeLockword;
+    }
+
     public Word createMisc(Object object) {
         return BiasedLockword.anonBiasedFromHashcode(monitorScheme().createHashCode(object));
     }
@@ -259,8 +335,11 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
             ModalLockword currentLockword = lockword;
             while (BiasedLockword.isBiasedLockword(currentLockword)) {
                 final BiasedLockword biasedLockword = BiasedLockword.from(currentLockword);
-                // Is the lock unbiased and biasable?
-                if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
+                if (ObjectAccess.readHub(object).biasedLockEpoch.isBulkRevocation()) {
+                    // Objects of this class are no longer eligible for biased locking
+                    currentLockword = revokeForBulkRevokedClass(object, biasedLockword, lockwordThreadID);
+                } else if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
+                    // The lock is unbiased and biasable
                     // Try to get the bias
                     final BiasedLockword newBiasedLockword = biasedLockword.asBiasedAndLockedOnceBy(lockwordThreadID);
                     currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newBiasedLockword));
@@ -275,19 +354,34 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
                     // Another thread holds the bias - so revoke.
                     // Note the revoking thread has no special priviledges, we simply revoke and then
                     // drop into the next locking mode's monitor enter code.
-                    if (Monitor.TraceMonitors) {
-                        final boolean lockDisabledSafepoints = Log.lock();
-                        Log.print("Safepointed revoke for monitorEnter: ");
-                        Log.println(object.getClass().getName());
-                        Log.unlock(lockDisabledSafepoints);
-                    }
-                    final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
-                    currentLockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
+                    currentLockword = performRevocation(object, biasedLockword);
                 }
             }
             delegate().delegateMonitorEnter(object, currentLockword, lockwordThreadID);
         }
 
+        private ModalLockword performRevocation(Object object, BiasedLockword lockword) {
+            final BiasedLockRevocationHeuristics revocationHeuristics = getHeuristics(object);
+            final RevocationType type = revocationHeuristics.notifyContentionRevocationRequest();
+            if (type == RevocationType.BULK_REVOCATION) {
+                return performBulkRevocation(object);
+            }
+            // Without an epoch in the lock word there is no cheap way to invalidate the biases of all objects
+            // of a class, so a bulk rebias request degenerates to a single object revocation. It still starts
+            // the decay period, so that the count of a class revoked only occasionally is eventually reset.
+            if (type == RevocationType.BULK_REBIAS) {
+                revocationHeuristics.notifyBulkRebiasComplete();
+            }
+            if (Monitor.TraceMonitors) {
+                final boolean lockDisabledSafepoints = Log.lock();
+                Log.print("Safepointed revoke for monitorEnter: ");
+                Log.println(object.getClass().getName());
+                Log.unlock(lockDisabledSafepoints);
+            }
+            final int vmThreadMapThreadID = decodeLockwordThreadID(lockword.getBiasOwnerID());
+            return revokeWithOwnerSafepointed(object, vmThreadMapThreadID, lockword);
+        }
+
         public int makeHashCode(Object object) {
             if (MaxineVM.isHosted()) {
                 return monitorScheme().createHashCode(object);
@@ -370,35 +464,17 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
                 final BiasedLockEpoch classEpoch = ObjectAccess.readHub(object).biasedLockEpoch;
                 if (classEpoch.isBulkRevocation()) {
                     // Objects of this class are no longer eligible for biased locking
-                    if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
-                        // Object is not biased or locked, change the lockword to the next locking mode
-                        final ModalLockword newLockword = delegate().prepareModalLockword(object, currentLockword);
-                        currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newLockword));
-                        if (!currentLockword.equals(biasedLockword)) {
-                            delegate().cancelPreparedModalLockword(newLockword);
-                        }
-                        if (Monitor.TraceMonitors) {
-                            final boolean lockDisabledSafepoints = Log.lock();
-                            Log.print("New object bulk revocation: ");
-                            Log.println(object.getClass().getName());
-                            Log.unlock(lockDisabledSafepoints);
-                        }
-                    } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID) {
-                        // Object is biased and locked by the current thread. Revoke the bias.
-                        currentLockword = revokeWithoutSafepointing(object);
-                    } else {
-                        // Object is biased to another thread. Revoke the bias.
-                        final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
-                        currentLockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
-                    }
+                    currentLockword = revokeForBulkRevokedClass(object, biasedLockword, lockwordThreadID);
                 } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID && !biasedLockword.getEpoch().equals(classEpoch) &&
                            !biasedLockword.countUnderflow() && !biasedLockword.countOverflow()) {
                     // Object is biased to and locked by the current thread, but the object's class has been rebiased.
                     // We lock as normal. When the lock is released, the object will be rebiased.
                     ObjectAccess.writeMisc(object, biasedLockword.incrementCount());
                     return;
-                } else if (biasedLockword.equals(biasedLockword.asAnonBiased()) || !biasedLockword.getEpoch().equals(classEpoch)) {
-                    // Object is not biased or it's bias is not in the current epoch. Try to get the bias.
+                } else if (biasedLockword.equals(biasedLockword.asAnonBiased()) ||
+                           (!biasedLockword.getEpoch().equals(classEpoch) && biasedLockword.countUnderflow())) {
+                    // Object is not biased, or its bias is not in the current epoch and it is unlocked. Try to get the bias.
+                    // A stale bias whose owner still holds the lock must be revoked rather than stolen.
                     final BiasedLockword newBiasedLockword = biasedLockword.asBiasedAndLockedOnceBy(lockwordThreadID, classEpoch);
                     currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newBiasedLockword));
                     if (currentLockword.equals(biasedLockword)) {
@@ -469,18 +545,6 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
             return delegate().delegateMakeHashcode(object, lockword);
         }
 
-        private BiasedLockRevocationHeuristics getHeuristics(Object object) {
-            final Hub hub = ObjectAccess.readHub(object);
-            BiasedLockRevocationHeuristics revocationHeuristics = hub.biasedLockRevocationHeuristics();
-            if (revocationHeuristics == null) {
-                // This is purposely not synchronised.
-                // We only may miss an update to the heuristics.
-                revocationHeuristics = new BiasedLockRevocationHeuristics();
-                hub.setBiasedLockRevocationHeuristics(revocationHeuristics);
-            }
-            return revocationHeuristics;
-        }
-
         private ModalLockword performRevocation(Object object, BiasedLockword lockword) {
             final BiasedLockRevocationHeuristics revocationHeuristics = getHeuristics(object);
             final RevocationType type = revocationHeuristics.notifyContentionRevocationRequest();
@@ -511,37 +575,13 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
                     break;
                 }
                 case BULK_REVOCATION: {
-                    if (Monitor.TraceMonitors) {
-                        final boolean lockDisabledSafepoints = Log.lock();
-                        Log.print("BULK_REVOCATION: ");
-                        Log.println(object.getClass().getName());
-                        Log.unlock(lockDisabledSafepoints);
-                    }
-
-                    BulkRevokeOperation operation = new BulkRevokeOperation(object);
-                    operation.submit();
-                    postRevokeLockword = operation.postRevokeLockword;
+                    postRevokeLockword = performBulkRevocation(object);
                     break;
                 }
             }
             return postRevokeLockword;
         }
 
-        class BulkRevokeOperation extends VmOperation {
-            private final Object object;
-            ModalLockword postRevokeLockword;
-            BulkRevokeOperation(Object object) {
-                super("BulkRevoke", null, Mode.Safepoint, false);
-                this.object = object;
-            }
-            @Override
-            protected void doIt() {
-                final Hub hub = ObjectAccess.readHub(object);
-                hub.biasedLockEpoch = BiasedLockEpoch.bulkRevocation();
-                postRevokeLockword = revokeBias(object);
-            }
-        }
-
         class BulkRebiasOperation extends VmOperation {
             private final Object object;
             ModalLockword postRebiasLockword;
@@ -553,7 +593,10 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
             protected void doIt() {
                 final Hub hub = ObjectAccess.readHub(object);
                 final BiasedLockEpoch epoch = hub.biasedLockEpoch;
-                hub.biasedLockEpoch = epoch.increment();
+                if (!epoch.isBulkRevocation()) {
+                    // Bumping the class epoch invalidates the biases of all unlocked objects of the class at once
+                    hub.biasedLockEpoch = epoch.increment();
+                }
                 postRebiasLockword = revokeBias(object);
             }
         }
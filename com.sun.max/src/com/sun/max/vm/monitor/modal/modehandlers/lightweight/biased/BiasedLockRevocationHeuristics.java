@@ -23,16 +23,29 @@
 package com.sun.max.vm.monitor.modal.modehandlers.lightweight.biased;
 
 import com.sun.max.atomic.*;
+import com.sun.max.vm.*;
 
 /**
+ * Per-class bias revocation heuristics. An instance is attached to the {@link com.sun.max.vm.actor.holder.Hub hub} of a
+ * class the first time an object of that class has its bias revoked due to contention, and counts the revocations
+ * for the class. Once the count crosses {@link #BiasedLockingBulkRebiasThreshold} the class is bulk rebiased, and once
+ * it crosses {@link #BiasedLockingBulkRevokeThreshold} biasing is disabled for the class altogether.
  */
 public class BiasedLockRevocationHeuristics {
 
     enum RevocationType {SINGLE_OBJECT_REVOCATION, BULK_REBIAS, BULK_REVOCATION}
 
-    private static final int BULK_REBIAS_THRESHOLD = 20;
-    private static final int BULK_REVOCATION_THRESHOLD = 40;
-    private static final int BULK_REBIAS_DECAY_TIME = 25000;
+    private static int BiasedLockingBulkRebiasThreshold = 20;
+    private static int BiasedLockingBulkRevokeThreshold = 40;
+    private static int BiasedLockingDecayTime = 25000;
+    static {
+        VMOptions.addFieldOption("-XX:", "BiasedLockingBulkRebiasThreshold", BiasedLockRevocationHeuristics.class,
+            "Number of bias revocations for a class after which its objects are bulk rebiased.");
+        VMOptions.addFieldOption("-XX:", "BiasedLockingBulkRevokeThreshold", BiasedLockRevocationHeuristics.class,
+            "Number of bias revocations for a class after which biased locking is disabled for the class.");
+        VMOptions.addFieldOption("-XX:", "BiasedLockingDecayTime", BiasedLockRevocationHeuristics.class,
+            "Time (in milliseconds) after a bulk rebias after which the revocation count of a class is reset.");
+    }
 
     private final AtomicInteger revocationCount = new AtomicInteger();
     private long lastBulkRebiasTime = 0;
@@ -44,21 +57,21 @@ public class BiasedLockRevocationHeuristics {
         int currentRevocationCount = revocationCount.get();
         final long bulkRebiasTime = lastBulkRebiasTime;
         final long currentTime = System.currentTimeMillis();
-        if (currentRevocationCount >= BULK_REBIAS_THRESHOLD &&
-            currentRevocationCount < BULK_REVOCATION_THRESHOLD &&
-            lastBulkRebiasTime != 0 &&
-            currentTime - bulkRebiasTime > BULK_REBIAS_DECAY_TIME) {
+        if (currentRevocationCount >= BiasedLockingBulkRebiasThreshold &&
+            currentRevocationCount < BiasedLockingBulkRevokeThreshold &&
+            bulkRebiasTime != 0 &&
+            currentTime - bulkRebiasTime > BiasedLockingDecayTime) {
             currentRevocationCount = 0;
             revocationCount.set(0);
         }
 
-        if (currentRevocationCount <= BULK_REVOCATION_THRESHOLD) {
+        if (currentRevocationCount <= BiasedLockingBulkRevokeThreshold) {
             currentRevocationCount = revocationCountAtomicInc();
         }
 
-        if (currentRevocationCount == BULK_REBIAS_THRESHOLD) {
+        if (currentRevocationCount == BiasedLockingBulkRebiasThreshold) {
             return RevocationType.BULK_REBIAS;
-        } else if (currentRevocationCount == BULK_REVOCATION_THRESHOLD) {
+        } else if (currentRevocationCount == BiasedLockingBulkRevokeThreshold) {
             return RevocationType.BULK_REVOCATION;
         }
         return RevocationType.SINGLE_OBJECT_REVOCATION;
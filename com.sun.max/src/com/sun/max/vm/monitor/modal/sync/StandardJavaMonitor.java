@@ -95,9 +95,13 @@ public class StandardJavaMonitor extends AbstractJavaMonitor {
             traceEndMonitorEnter(currentThread);
             return;
         }
+        final long contendedStart = ownerThread != null ? currentThread.beginContendedEnter() : -1L;
         currentThread.setState(Thread.State.BLOCKED);
         mutex.lock();
         currentThread.setState(Thread.State.RUNNABLE);
+        if (contendedStart >= 0L) {
+            currentThread.endContendedEnter(contendedStart);
+        }
         ownerThread = currentThread;
         setBindingProtection(BindingProtection.PROTECTED);
         recursionCount = 1;
@@ -149,7 +153,9 @@ public class StandardJavaMonitor extends AbstractJavaMonitor {
             // The wait is prematurely interrupted and never calls native code
             interrupted = true;
         } else {
+            final long waitStart = ownerThread.beginMonitorWait();
             waitingCondition.threadWait(mutex, timeoutMilliSeconds);
+            ownerThread.endMonitorWait(waitStart);
             interrupted = ownerThread.isInterrupted(true);
         }
 
@@ -43,14 +43,14 @@ public class MethodInstrumentation {
      */
     public static final double PROTECTION_PERCENTAGE = 0.9;
 
-    public static int protectionThreshold = (int) (1 - PROTECTION_PERCENTAGE) * initialEntryBackedgeCount;
+    public static int protectionThreshold = (int) ((1 - PROTECTION_PERCENTAGE) * initialEntryBackedgeCount);
 
     private static boolean enabled;
 
     public static void enable(int initialEntryCount) {
         enabled = true;
         MethodInstrumentation.initialEntryBackedgeCount = initialEntryCount;
-        MethodInstrumentation.protectionThreshold = (int) (1 - PROTECTION_PERCENTAGE) * initialEntryCount;
+        MethodInstrumentation.protectionThreshold = (int) ((1 - PROTECTION_PERCENTAGE) * initialEntryCount);
     }
 
     public static MethodProfile.Builder createMethodProfile(ClassMethodActor classMethodActor) {
@@ -170,7 +170,10 @@ public class MethodInstrumentation {
     private static Hub typeIdToHub(Integer typeId) {
         if (typeId != MethodProfile.UNDEFINED_TYPE_ID) {
             ClassActor classActor = ClassIDManager.toClassActor(typeId);
-            return classActor.dynamicHub();
+            // the class may have been unloaded since it was profiled
+            if (classActor != null) {
+                return classActor.dynamicHub();
+            }
         }
         return null;
     }
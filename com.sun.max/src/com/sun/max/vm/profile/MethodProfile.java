@@ -90,6 +90,12 @@ public class MethodProfile {
      */
     public int entryBackedgeCount;
 
+    /**
+     * The value of {@link #entryBackedgeCount} when it was last {@linkplain #sampleEntryBackedgeDelta() sampled}
+     * by {@linkplain com.sun.max.vm.code.CodeEviction code eviction}.
+     */
+    private int sampledEntryBackedgeCount;
+
     /**
      * Records actual counts of a count entry.
      */
@@ -572,6 +578,18 @@ public class MethodProfile {
         return entryBackedgeCount <= MethodInstrumentation.protectionThreshold;
     }
 
+    /**
+     * Gets the number of method entries and backward branches counted since the previous call of this method.
+     * If the counter was reset in the meantime (e.g., because recompilation was triggered), the method is
+     * considered to have been very active and {@link Integer#MAX_VALUE} is returned.
+     */
+    public int sampleEntryBackedgeDelta() {
+        final int current = entryBackedgeCount;
+        final int delta = current > sampledEntryBackedgeCount ? Integer.MAX_VALUE : sampledEntryBackedgeCount - current;
+        sampledEntryBackedgeCount = current;
+        return delta;
+    }
+
     /**
      * This class implements a builder that collects the instrumentation created for a particular
      * method and then packs the information into a dense, sorted representation in the form of
@@ -586,6 +604,7 @@ public class MethodProfile {
 
         public void addEntryBackedgeCounter(int initialValue) {
             mpo.entryBackedgeCount = initialValue;
+            mpo.sampledEntryBackedgeCount = initialValue;
         }
 
         public int addGotoCounter(int bci) {
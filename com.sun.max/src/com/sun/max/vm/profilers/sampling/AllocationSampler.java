@@ -0,0 +1,729 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.profilers.sampling;
+
+import static com.sun.max.vm.intrinsics.Infopoints.*;
+import static com.sun.max.vm.runtime.VMRegister.*;
+import static com.sun.max.vm.thread.VmThread.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.classfile.constant.*;
+import com.sun.max.vm.code.*;
+import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.heap.*;
+import com.sun.max.vm.layout.*;
+import com.sun.max.vm.object.*;
+import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.stack.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * Low overhead allocation sampler driven from the TLAB refill path of {@link HeapSchemeWithTLAB}.
+ * <p>
+ * Unlike {@link HeapSamplingProfiler}, which stops all threads every N bytes, and the NUMA profiler, which records
+ * every allocation, this sampler costs nothing on the inline allocation path. Each time a thread takes the allocation
+ * slow path the bytes it consumed since the previous slow path are added to a per-thread counter and, when the counter
+ * crosses a randomized threshold (uniformly distributed around {@link #AllocationSampleInterval}), the allocation that
+ * caused the slow path is sampled. A sample is the allocated class, the allocation size, the number of bytes the sample
+ * stands for (its weight) and the id of the allocating stack in a shared, fixed-size {@linkplain #stackIps stack table}.
+ * <p>
+ * The stack table holds the instruction pointers of the compiled frames found by a raw stack walk, together with the
+ * {@linkplain CodeEviction#evictionCount() code eviction count}. They are only mapped to source frames, including
+ * inlined ones, when the first sample of a stack is drained, so that taking a sample does not decode debug info and
+ * the table does not keep classes from being unloaded. A stack whose code was evicted before it could be mapped is
+ * reported as such.
+ * <p>
+ * A sample is taken before the cell is formatted, so its class is only read at the thread's next slow path (or when
+ * the thread detaches). A GC in between may move the cell, so the sample is then dropped. None of this allocates:
+ * samples go into a single-writer, single-reader ring {@linkplain SampleBuffer buffer} claimed by the thread from a
+ * preallocated pool and returned to the pool when the thread detaches.
+ * <p>
+ * The buffers are drained into a per-allocation-site histogram by {@link #dump()}, which is called periodically if
+ * {@link #AllocationSampleDump} is non-zero, at VM termination, and may be called on demand. The buffer of a
+ * detaching thread is drained by that thread.
+ */
+public final class AllocationSampler extends Thread {
+
+    /**
+     * Mean number of bytes allocated by a thread between two samples. Zero disables the sampler.
+     */
+    private static int AllocationSampleInterval;
+
+    /**
+     * Number of compiled frames recorded for each allocation site. Each may stand for several inlined source frames.
+     */
+    private static int AllocationSampleDepth = 8;
+
+    /**
+     * Period in seconds between dumps of the histogram. Zero implies only at VM termination.
+     */
+    private static int AllocationSampleDump;
+
+    /**
+     * Maximum number of allocation sites printed by a dump.
+     */
+    private static int AllocationSampleSites = 50;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "AllocationSampleInterval", AllocationSampler.class,
+            "Sample an allocation on average every N bytes allocated by a thread (0 disables sampling).", MaxineVM.Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "AllocationSampleDepth", AllocationSampler.class,
+            "Number of compiled frames recorded for each sampled allocation site.", MaxineVM.Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "AllocationSampleDump", AllocationSampler.class,
+            "Period in seconds between dumps of the allocation sample histogram (0 means only at termination).", MaxineVM.Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "AllocationSampleSites", AllocationSampler.class,
+            "Maximum number of allocation sites printed by an allocation sample dump.", MaxineVM.Phase.PRISTINE);
+    }
+
+    /**
+     * Number of sample buffers, i.e., the maximum number of threads concurrently sampled.
+     */
+    private static final int BUFFER_COUNT = 256;
+
+    /**
+     * Number of samples a buffer holds before it is drained. Must be a power of two.
+     */
+    private static final int BUFFER_CAPACITY = 1024;
+
+    /**
+     * Number of entries in the stack table. Must be a power of two.
+     */
+    private static final int STACK_TABLE_SIZE = 8192;
+
+    private static final int FREE = 0;
+    private static final int OWNED = 1;
+
+    private static final int STACK_WRITING = 1;
+    private static final int STACK_PUBLISHED = 2;
+
+    /**
+     * Value of {@link #ALLOCATION_SAMPLE_BUFFER} for a thread that found no free buffer.
+     */
+    private static final int NO_BUFFER = -1;
+
+    /**
+     * One plus the index of the {@linkplain SampleBuffer buffer} claimed by a thread, {@link #NO_BUFFER} if the pool
+     * was exhausted, or zero if the thread has not taken an allocation slow path yet.
+     */
+    private static final VmThreadLocal ALLOCATION_SAMPLE_BUFFER =
+        new VmThreadLocal("ALLOCATION_SAMPLE_BUFFER", false, "AllocationSampler: index of the thread's sample buffer", VmThreadLocal.Nature.Single);
+
+    /**
+     * Set once the buffers are allocated; tested by the heap scheme before calling {@link #sampleAllocation}.
+     */
+    private static boolean enabled;
+
+    /**
+     * Incremented before each GC. A pending sample is only resolved if no GC happened since it was taken.
+     */
+    private static volatile int gcEpoch;
+
+    static {
+        Heap.registerGCCallback(new Heap.GCCallback() {
+            public void gcCallback(Heap.GCCallbackPhase gcCallbackPhase) {
+                if (gcCallbackPhase == Heap.GCCallbackPhase.BEFORE) {
+                    gcEpoch++;
+                }
+            }
+        });
+    }
+
+    private static SampleBuffer[] buffers;
+    private static AtomicIntegerArray bufferStates;
+
+    /*
+     * The stack table. Entry i uses the instruction pointers [i * depth, i * depth + stackDepths[i]), top frame first,
+     * recorded when the eviction count was stackEvictions[i]. An entry is only read once its state is STACK_PUBLISHED.
+     * Entries are never removed.
+     */
+    private static AtomicIntegerArray stackStates;
+    private static int[] stackHashes;
+    private static int[] stackDepths;
+    private static int[] stackEvictions;
+    private static long[] stackIps;
+    private static int stackTableDepth;
+
+    /**
+     * The source frames of the stack table entries, innermost first, computed when the first sample of an entry is
+     * drained. Only accessed when holding the lock of {@link #aggregator}.
+     */
+    private static String[][] stackFrames;
+
+    /**
+     * Value of {@link #stackFrames} for an entry whose code was evicted before its frames could be computed.
+     */
+    private static final String[] EVICTED_STACK = {};
+
+    /**
+     * Samples lost because a buffer was full or the stack table overflowed.
+     */
+    private static volatile long droppedSamples;
+
+    /**
+     * Samples lost because a GC happened before the class of the sampled cell could be read.
+     */
+    private static volatile long unresolvedSamples;
+
+    private static AllocationSampler aggregator;
+
+    /**
+     * The thread of {@link #aggregator} once it runs. Its own allocations are not sampled.
+     */
+    private static VmThread aggregatorThread;
+
+    /**
+     * The histogram, keyed by (class, stack). Only accessed when holding the lock of {@link #aggregator}.
+     */
+    private final Map<Site, Site> sites = new HashMap<Site, Site>();
+
+    private final Site probe = new Site();
+
+    private final Symbolizer symbolizer = new Symbolizer();
+
+    private long sampleCount;
+
+    private AllocationSampler() {
+        super(VmThread.systemThreadGroup, "Allocation Sampler");
+        setDaemon(true);
+    }
+
+    /**
+     * Determines if allocations are being sampled.
+     */
+    @INLINE
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Allocates the buffers and the stack table and starts the periodic dump thread if requested.
+     * Called when the VM reaches the {@link MaxineVM.Phase#RUNNING} phase.
+     */
+    public static void initialize() {
+        if (AllocationSampleInterval <= 0) {
+            return;
+        }
+        if (!(VMConfiguration.vmConfig().heapScheme() instanceof HeapSchemeWithTLAB)) {
+            Log.println("-XX:AllocationSampleInterval requires a heap scheme that allocates from TLABs");
+            return;
+        }
+        stackTableDepth = Math.max(1, AllocationSampleDepth);
+        stackStates = new AtomicIntegerArray(STACK_TABLE_SIZE);
+        stackHashes = new int[STACK_TABLE_SIZE];
+        stackDepths = new int[STACK_TABLE_SIZE];
+        stackEvictions = new int[STACK_TABLE_SIZE];
+        stackIps = new long[STACK_TABLE_SIZE * stackTableDepth];
+        stackFrames = new String[STACK_TABLE_SIZE][];
+        buffers = new SampleBuffer[BUFFER_COUNT];
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            buffers[i] = new SampleBuffer(stackTableDepth, i);
+        }
+        bufferStates = new AtomicIntegerArray(BUFFER_COUNT);
+        aggregator = new AllocationSampler();
+        enabled = true;
+        if (AllocationSampleDump > 0) {
+            aggregator.start();
+        }
+    }
+
+    /**
+     * Dumps the histogram at VM termination.
+     */
+    public static void terminate() {
+        if (enabled) {
+            dump();
+            enabled = false;
+        }
+    }
+
+    @Override
+    public void run() {
+        aggregatorThread = VmThread.current();
+        while (true) {
+            try {
+                Thread.sleep(AllocationSampleDump * 1000L);
+            } catch (InterruptedException ex) {
+            }
+            dump();
+        }
+    }
+
+    /**
+     * Samples (if the current thread crossed its threshold) an allocation that took the slow path.
+     * Must not allocate, nor reach a safepoint, as {@code cell} is not yet formatted.
+     *
+     * @param etla the current thread's safepoints-enabled TLA
+     * @param oldAllocationMark the TLAB allocation mark when the slow path was entered
+     * @param newAllocationMark the TLAB allocation mark once {@code cell} was allocated
+     * @param cell the allocated cell
+     * @param size the size of {@code cell}
+     */
+    @NO_SAFEPOINT_POLLS("object allocation and initialization must be atomic")
+    @NEVER_INLINE
+    public static void sampleAllocation(Pointer etla, Pointer oldAllocationMark, Pointer newAllocationMark, Pointer cell, Size size) {
+        final SampleBuffer buffer = bufferFor(etla);
+        if (buffer == null) {
+            return;
+        }
+        buffer.resolvePending();
+        long consumed = size.toLong();
+        if (!buffer.tlabBase.isZero() && oldAllocationMark.greaterEqual(buffer.tlabBase)) {
+            consumed += oldAllocationMark.minus(buffer.tlabBase).toLong();
+        }
+        buffer.tlabBase = newAllocationMark;
+        buffer.bytesSinceSample += consumed;
+        if (buffer.bytesSinceSample >= buffer.nextSample) {
+            buffer.pendingStack = recordStack(buffer);
+            buffer.pendingCell = cell;
+            buffer.pendingSize = size.toLong();
+            buffer.pendingWeight = buffer.bytesSinceSample;
+            buffer.pendingEpoch = gcEpoch;
+            buffer.bytesSinceSample = 0;
+            buffer.nextSample = buffer.nextInterval();
+        }
+    }
+
+    /**
+     * Resolves the current thread's pending sample, drains its buffer into the histogram and returns the buffer to
+     * the pool. Called when the thread detaches.
+     */
+    public static void threadDetached(Pointer etla) {
+        final int index = ALLOCATION_SAMPLE_BUFFER.load(etla).toInt();
+        // draining allocates, which must not sample into the buffer being drained
+        ALLOCATION_SAMPLE_BUFFER.store(etla, Address.fromInt(NO_BUFFER));
+        if (index > 0) {
+            final SampleBuffer buffer = buffers[index - 1];
+            buffer.resolvePending();
+            synchronized (aggregator) {
+                aggregator.drain(buffer);
+            }
+            bufferStates.set(index - 1, FREE);
+        }
+        ALLOCATION_SAMPLE_BUFFER.store(etla, Address.zero());
+    }
+
+    @INLINE
+    private static SampleBuffer bufferFor(Pointer etla) {
+        final int index = ALLOCATION_SAMPLE_BUFFER.load(etla).toInt();
+        if (index > 0) {
+            return buffers[index - 1];
+        }
+        if (index == NO_BUFFER) {
+            return null;
+        }
+        return claimBuffer(etla);
+    }
+
+    private static SampleBuffer claimBuffer(Pointer etla) {
+        if (VmThread.current() == aggregatorThread) {
+            ALLOCATION_SAMPLE_BUFFER.store(etla, Address.fromInt(NO_BUFFER));
+            return null;
+        }
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            if (bufferStates.get(i) == FREE && bufferStates.compareAndSet(i, FREE, OWNED)) {
+                final SampleBuffer buffer = buffers[i];
+                buffer.reset();
+                ALLOCATION_SAMPLE_BUFFER.store(etla, Address.fromInt(i + 1));
+                return buffer;
+            }
+        }
+        ALLOCATION_SAMPLE_BUFFER.store(etla, Address.fromInt(NO_BUFFER));
+        return null;
+    }
+
+    /**
+     * Walks the current stack into the buffer's scratch instruction pointers and finds or enters it in the stack table.
+     *
+     * @return the stack id, or -1 if the stack table is full
+     */
+    @NEVER_INLINE
+    private static int recordStack(SampleBuffer buffer) {
+        final SiteVisitor visitor = buffer.visitor;
+        visitor.reset();
+        VmThread.current().stackDumpStackFrameWalker().inspect(Pointer.fromLong(here()), getCpuStackPointer(), getCpuFramePointer(), visitor);
+        final int depth = visitor.depth;
+        // there is no safepoint, and so no code eviction, before the stack is entered
+        final int eviction = CodeEviction.evictionCount();
+        int hash = depth * 31 + eviction;
+        for (int i = 0; i < depth; i++) {
+            final long ip = visitor.ips[i];
+            hash = hash * 31 + (int) (ip ^ (ip >>> 32));
+        }
+        final int mask = STACK_TABLE_SIZE - 1;
+        int index = hash & mask;
+        for (int probes = 0; probes < STACK_TABLE_SIZE; probes++) {
+            int state = stackStates.get(index);
+            if (state == FREE && stackStates.compareAndSet(index, FREE, STACK_WRITING)) {
+                final int base = index * stackTableDepth;
+                for (int i = 0; i < depth; i++) {
+                    stackIps[base + i] = visitor.ips[i];
+                }
+                stackHashes[index] = hash;
+                stackDepths[index] = depth;
+                stackEvictions[index] = eviction;
+                stackStates.set(index, STACK_PUBLISHED);
+                return index;
+            }
+            while (state != STACK_PUBLISHED) {
+                // another thread is entering a stack in this slot
+                state = stackStates.get(index);
+            }
+            if (stackHashes[index] == hash && sameStack(index, visitor, eviction)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean sameStack(int index, SiteVisitor visitor, int eviction) {
+        if (stackDepths[index] != visitor.depth || stackEvictions[index] != eviction) {
+            return false;
+        }
+        final int base = index * stackTableDepth;
+        for (int i = 0; i < visitor.depth; i++) {
+            if (stackIps[base + i] != visitor.ips[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drains all the sample buffers into the histogram and prints the heaviest sites to the {@link Log}.
+     * Can be called at any time from a thread other than the VM operation thread.
+     */
+    public static void dump() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (aggregator) {
+            aggregator.drain();
+            aggregator.print();
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            if (bufferStates.get(i) == OWNED) {
+                drain(buffers[i]);
+            }
+        }
+    }
+
+    private void drain(SampleBuffer buffer) {
+        final int head = buffer.head;
+        for (int tail = buffer.tail; tail != head; tail++) {
+            final int slot = tail & (BUFFER_CAPACITY - 1);
+            probe.className = buffer.classActors[slot].name;
+            probe.stack = buffer.stacks[slot];
+            Site site = sites.get(probe);
+            if (site == null) {
+                site = new Site();
+                site.className = probe.className;
+                site.stack = probe.stack;
+                sites.put(site, site);
+                if (site.stack >= 0 && stackFrames[site.stack] == null) {
+                    stackFrames[site.stack] = symbolize(site.stack);
+                }
+            }
+            site.samples++;
+            site.sampledBytes += buffer.sizes[slot];
+            site.estimatedBytes += buffer.weights[slot];
+            sampleCount++;
+            buffer.classActors[slot] = null;
+        }
+        buffer.tail = head;
+    }
+
+    private void print() {
+        final Site[] sorted = sites.values().toArray(new Site[sites.size()]);
+        Arrays.sort(sorted, new Comparator<Site>() {
+            public int compare(Site a, Site b) {
+                return a.estimatedBytes < b.estimatedBytes ? 1 : a.estimatedBytes > b.estimatedBytes ? -1 : 0;
+            }
+        });
+        long total = 0;
+        for (Site site : sorted) {
+            total += site.estimatedBytes;
+        }
+        boolean state = Log.lock();
+        Log.print("Allocation samples: ");
+        Log.print(sampleCount);
+        Log.print(", sites: ");
+        Log.print(sorted.length);
+        Log.print(", estimated allocation: ");
+        Log.print(total / 1024);
+        Log.print("KB, dropped: ");
+        Log.print(droppedSamples);
+        Log.print(", unresolved: ");
+        Log.println(unresolvedSamples);
+        final int count = Math.min(sorted.length, AllocationSampleSites);
+        for (int i = 0; i < count; i++) {
+            final Site site = sorted[i];
+            Log.print("  ");
+            Log.print(site.estimatedBytes / 1024);
+            Log.print("KB ");
+            Log.print(site.samples);
+            Log.print(" samples (");
+            Log.print(site.sampledBytes / site.samples);
+            Log.print(" bytes avg) ");
+            Log.println(site.className.toString());
+            printStack(site.stack);
+        }
+        Log.println();
+        Log.unlock(state);
+    }
+
+    private static void printStack(int stack) {
+        if (stack < 0) {
+            Log.println("    <stack table full>");
+            return;
+        }
+        if (stackFrames[stack] == EVICTED_STACK) {
+            Log.println("    <stack code evicted>");
+            return;
+        }
+        for (String frame : stackFrames[stack]) {
+            Log.print("    at ");
+            Log.println(frame);
+        }
+    }
+
+    /**
+     * Maps the instruction pointers of a stack table entry to source frames.
+     */
+    private String[] symbolize(int stack) {
+        if (stackEvictions[stack] != CodeEviction.evictionCount()) {
+            return EVICTED_STACK;
+        }
+        symbolizer.reset();
+        final int base = stack * stackTableDepth;
+        for (int i = 0; i < stackDepths[stack]; i++) {
+            final long ip = stackIps[base + i];
+            final TargetMethod tm = Code.codePointerToTargetMethod(Pointer.fromLong(ip));
+            if (tm == null || tm.classMethodActor == null) {
+                symbolizer.frames.add("<unknown>");
+            } else {
+                symbolizer.visitTargetFrame(tm, CodePointer.from(ip), false, 0);
+            }
+        }
+        return symbolizer.frames.toArray(new String[symbolizer.frames.size()]);
+    }
+
+    /**
+     * An allocation site: the name of a class and an allocating stack.
+     */
+    private static final class Site {
+        Utf8Constant className;
+        int stack;
+        long samples;
+        long sampledBytes;
+        long estimatedBytes;
+
+        @Override
+        public int hashCode() {
+            return className.hashCode() ^ stack;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            final Site other = (Site) o;
+            return other.className == className && other.stack == stack;
+        }
+    }
+
+    /**
+     * Per thread sampling state. Samples are written by the owning thread and read by the aggregator; {@link #head}
+     * and {@link #tail} are each written by only one of them.
+     */
+    private static final class SampleBuffer {
+        final ClassActor[] classActors = new ClassActor[BUFFER_CAPACITY];
+        final int[] stacks = new int[BUFFER_CAPACITY];
+        final long[] sizes = new long[BUFFER_CAPACITY];
+        final long[] weights = new long[BUFFER_CAPACITY];
+        volatile int head;
+        volatile int tail;
+
+        final SiteVisitor visitor;
+
+        /**
+         * Allocation mark of the thread's TLAB after its last slow path.
+         */
+        Pointer tlabBase;
+        long bytesSinceSample;
+        long nextSample;
+        int seed;
+
+        /**
+         * The sample taken at the last slow path, whose cell was not yet formatted. Zero if none.
+         */
+        Pointer pendingCell;
+        long pendingSize;
+        long pendingWeight;
+        int pendingStack;
+        int pendingEpoch;
+
+        SampleBuffer(int depth, int index) {
+            visitor = new SiteVisitor(depth);
+            seed = 0x9E3779B9 * (index + 1);
+        }
+
+        void reset() {
+            tlabBase = Pointer.zero();
+            pendingCell = Pointer.zero();
+            bytesSinceSample = 0;
+            nextSample = nextInterval();
+        }
+
+        /**
+         * A uniformly distributed interval in [interval / 2, 3 * interval / 2), to avoid sampling in lock-step
+         * with a periodic allocation pattern.
+         */
+        long nextInterval() {
+            int x = seed;
+            x ^= x << 13;
+            x ^= x >>> 17;
+            x ^= x << 5;
+            seed = x;
+            final long interval = AllocationSampleInterval;
+            return interval / 2 + ((x & 0x7fffffff) % interval);
+        }
+
+        @NO_SAFEPOINT_POLLS("object allocation and initialization must be atomic")
+        void resolvePending() {
+            if (pendingCell.isZero()) {
+                return;
+            }
+            final Pointer cell = pendingCell;
+            pendingCell = Pointer.zero();
+            if (pendingEpoch != gcEpoch) {
+                unresolvedSamples++;
+                return;
+            }
+            if (head - tail == BUFFER_CAPACITY) {
+                droppedSamples++;
+                return;
+            }
+            final Hub hub = Layout.getHub(Layout.cellToOrigin(cell));
+            final int slot = head & (BUFFER_CAPACITY - 1);
+            classActors[slot] = hub.classActor;
+            stacks[slot] = pendingStack;
+            sizes[slot] = pendingSize;
+            weights[slot] = pendingWeight;
+            head = head + 1;
+        }
+    }
+
+    /**
+     * Allocation free visitor recording the instruction pointers of the compiled frames above the allocator into a
+     * scratch array. Frames are not decoded, as that allocates.
+     */
+    private static final class SiteVisitor extends RawStackFrameVisitor {
+        final long[] ips;
+        int depth;
+        boolean inAllocator;
+
+        SiteVisitor(int maxDepth) {
+            ips = new long[maxDepth];
+        }
+
+        void reset() {
+            depth = 0;
+            inAllocator = true;
+        }
+
+        @Override
+        public boolean visitFrame(StackFrameCursor current, StackFrameCursor callee) {
+            final TargetMethod targetMethod = current.targetMethod();
+            if (targetMethod == null || targetMethod.classMethodActor == null) {
+                // ignore native frames, stubs, trampolines, adapters etc
+                return true;
+            }
+            if (inAllocator) {
+                if (isAllocatorFrame(targetMethod.classMethodActor.holder())) {
+                    return true;
+                }
+                inAllocator = false;
+            }
+            ips[depth++] = current.ipAsPointer().toLong();
+            return depth < ips.length;
+        }
+    }
+
+    /**
+     * Formats the source frames at recorded instruction pointers, innermost first, leaving out the allocator frames
+     * inlined into the top frame.
+     */
+    private static final class Symbolizer extends SourceFrameVisitor {
+        final ArrayList<String> frames = new ArrayList<String>();
+        boolean inAllocator;
+
+        void reset() {
+            frames.clear();
+            inAllocator = true;
+        }
+
+        @Override
+        public boolean visitSourceFrame(ClassMethodActor method, int bci, boolean trapped, long frameId) {
+            if (inAllocator) {
+                if (isAllocatorFrame(method.holder())) {
+                    return true;
+                }
+                inAllocator = false;
+            }
+            method = method.original();
+            final StringBuilder sb = new StringBuilder();
+            sb.append(method.holder().name).append('.').append(method.name()).append('(');
+            if (method.isNative()) {
+                sb.append("Native Method");
+            } else {
+                sb.append(method.holder().sourceFileName);
+                final int line = bci >= 0 ? method.sourceLineNumber(bci) : -1;
+                if (line > 0) {
+                    sb.append(':').append(line);
+                }
+            }
+            frames.add(sb.append(')').toString());
+            return true;
+        }
+    }
+
+    private static final ClassActor heapSchemeActor = ClassActor.fromJava(HeapScheme.class);
+    private static final ClassActor heapActor = ClassActor.fromJava(Heap.class);
+    private static final ClassActor snippetsActor = ClassActor.fromJava(Snippets.class);
+    private static final ClassActor objectAccessActor = ClassActor.fromJava(ObjectAccess.class);
+    private static final ClassActor samplerActor = ClassActor.fromJava(AllocationSampler.class);
+
+    /**
+     * Determines if frames of a given class are part of the allocation machinery rather than the allocation site.
+     */
+    private static boolean isAllocatorFrame(ClassActor holder) {
+        return holder == samplerActor || holder == heapActor || holder == snippetsActor || holder == objectAccessActor ||
+            heapSchemeActor.isAssignableFrom(holder);
+    }
+}
@@ -0,0 +1,586 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.profilers.sampling;
+
+import static com.sun.max.vm.thread.VmThread.*;
+import static com.sun.max.vm.thread.VmThreadLocal.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.lang.*;
+import com.sun.max.memory.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.code.*;
+import com.sun.max.vm.compiler.*;
+import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.heap.*;
+import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.stack.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * Asynchronous CPU sampling profiler. Unlike {@link CPUSamplingProfiler}, which periodically stops all threads at
+ * safepoints and therefore only ever sees them at safepoint polls, each profiled thread has a timer measuring its own
+ * CPU time that sends it {@code SIGPROF}. The native signal handler (see {@code profileSignalHandler} in trap.c) calls
+ * {@link #sample} with the interrupted context, which walks the stack with a thread-private
+ * {@linkplain StackFrameWalker#isAsynchronous() asynchronous} raw stack walker and records the instruction pointers
+ * into a single-writer ring buffer. No thread is ever stopped by another one.
+ * <p>
+ * The signal may arrive at any time, so everything {@link #sample} writes is out of reach of a moving GC: the rings
+ * and their walkers are allocated in the immortal heap and the samples themselves in native memory. A thread is only
+ * sampled while it executes Java code. A GC, and the code eviction that may come with it, only runs once all mutator
+ * threads are out of Java code, so a thread interrupted in Java code is never sampled during a GC. A thread that is
+ * running native code, or stopping for a GC, is counted as {@linkplain #skippedSamples skipped}.
+ * <p>
+ * A daemon thread periodically drains the rings, maps the instruction pointers to source frames (including inlined
+ * ones) with {@link Code#codePointerToTargetMethod} and aggregates the stacks. The output is in the collapsed stack
+ * format ({@code thread;frame;...;frame count}) used by flame graph tools. It is written at termination and
+ * optionally every {@code dump} seconds, to {@code file} if given or else to the {@link Log}.
+ * <p>
+ * Limitations: threads started before the profiler other than the main thread (i.e. the VM system threads) are not
+ * profiled, time spent in JNI code is not attributed, a walk stops at the first native frame below the top one,
+ * samples taken before a code eviction are discarded, and per-thread CPU time timers are only available on Linux.
+ */
+public final class AsyncSamplingProfiler extends Thread {
+
+    /**
+     * Default period in milliseconds of thread CPU time between samples.
+     */
+    private static final int DEFAULT_PERIOD = 10;
+
+    /**
+     * Default maximum number of frames recorded for a sample.
+     */
+    private static final int DEFAULT_DEPTH = 64;
+
+    /**
+     * Number of rings, i.e., the maximum number of threads concurrently profiled.
+     */
+    private static final int RING_COUNT = 256;
+
+    /**
+     * Words in a ring. Must be a power of two.
+     */
+    private static final int RING_CAPACITY = 1 << 14;
+
+    /**
+     * Period in milliseconds between two drains of the rings. Kept short so that few samples are lost to code eviction.
+     */
+    private static final int DRAIN_PERIOD = 100;
+
+    /**
+     * Recorded in place of the instruction pointer of a native frame.
+     */
+    private static final long NATIVE_FRAME = 1L;
+
+    private static final int FREE = 0;
+    private static final int OWNED = 1;
+    private static final int RETIRED = 2;
+
+    /**
+     * One plus the index of the ring of a profiled thread, zero otherwise.
+     */
+    private static final VmThreadLocal ASYNC_PROFILER_RING =
+        new VmThreadLocal("ASYNC_PROFILER_RING", false, "AsyncSamplingProfiler: index of the thread's sample ring", Nature.Single);
+
+    /**
+     * The handle by which the address of {@link #sample} is communicated to the native signal handler.
+     */
+    private static final CriticalMethod sampleMethod = new CriticalMethod(AsyncSamplingProfiler.class, "sample", null, CallEntryPoint.C_ENTRY_POINT);
+
+    @C_FUNCTION
+    private static native boolean nativeProfileInitialize(Address sampleFunction);
+
+    @C_FUNCTION
+    private static native Address nativeProfileStartThreadTimer(long periodNanos);
+
+    @C_FUNCTION
+    private static native void nativeProfileStopThreadTimer(Address timer);
+
+    private static AsyncSamplingProfiler profiler;
+    private static volatile boolean profiling;
+
+    /**
+     * The rings, in the immortal heap. A ring is created by the first thread that claims it.
+     */
+    private static SampleRing[] rings;
+    private static AtomicIntegerArray ringStates;
+    private static int maxDepth;
+
+    /**
+     * Samples lost because a ring was full or the stack could not be walked.
+     */
+    private static volatile long missedSamples;
+
+    /**
+     * Samples not taken because the thread was not executing Java code or was stopping for a GC.
+     */
+    private static volatile long skippedSamples;
+
+    /**
+     * Samples discarded because code was evicted before they were drained.
+     */
+    private long staleSamples;
+
+    /**
+     * Threads not profiled because no ring or timer was available.
+     */
+    private static volatile int unprofiledThreads;
+
+    private final long periodNanos;
+    private final long dumpInterval;
+    private final String outputFile;
+
+    /**
+     * Sample count of each collapsed stack. Only accessed when holding the lock of this object.
+     */
+    private final Map<String, long[]> stacks = new HashMap<String, long[]>();
+    private long sampleCount;
+
+    /**
+     * Symbolized instruction pointers, valid for the eviction count in {@link #symbolsEviction}.
+     */
+    private final Map<Long, String> symbols = new HashMap<Long, String>();
+    private int symbolsEviction;
+    private final Symbolizer symbolizer = new Symbolizer();
+    private final StringBuilder line = new StringBuilder();
+
+    private AsyncSamplingProfiler(int period, String outputFile, int dumpPeriod) {
+        super(VmThread.systemThreadGroup, "Async Sampling Profiler");
+        setDaemon(true);
+        this.periodNanos = period * 1000000L;
+        this.outputFile = outputFile;
+        this.dumpInterval = dumpPeriod * 1000000000L;
+    }
+
+    /**
+     * Creates and starts the profiler with the options given by {@code optionValue}.
+     *
+     * @param optionPrefix the option name, for the usage message
+     * @param optionValue a string of the form {@code :frequency=f,depth=d,dump=t,file=path} where any element may be omitted
+     * @return the profiler or {@code null} if asynchronous sampling is not supported on this platform
+     */
+    public static AsyncSamplingProfiler create(String optionPrefix, String optionValue) {
+        int period = DEFAULT_PERIOD;
+        int depth = DEFAULT_DEPTH;
+        int dumpPeriod = 0;
+        String file = null;
+        if (optionValue.length() > 0) {
+            if (optionValue.charAt(0) != ':') {
+                usage(optionPrefix);
+            }
+            for (String option : optionValue.substring(1).split(",")) {
+                final int index = option.indexOf('=');
+                if (index < 0) {
+                    usage(optionPrefix);
+                }
+                final String value = option.substring(index + 1);
+                if (option.startsWith("frequency")) {
+                    period = Integer.parseInt(value);
+                } else if (option.startsWith("depth")) {
+                    depth = Integer.parseInt(value);
+                } else if (option.startsWith("dump")) {
+                    dumpPeriod = Integer.parseInt(value);
+                } else if (option.startsWith("file")) {
+                    file = value;
+                } else {
+                    usage(optionPrefix);
+                }
+            }
+        }
+        if (period <= 0 || depth <= 0) {
+            usage(optionPrefix);
+        }
+        if (!nativeProfileInitialize(sampleMethod.address())) {
+            Log.println("Asynchronous sampling profiling is not supported on this platform");
+            return null;
+        }
+        maxDepth = Math.min(depth, RING_CAPACITY / 4);
+        Heap.enableImmortalMemoryAllocation();
+        try {
+            rings = new SampleRing[RING_COUNT];
+        } finally {
+            Heap.disableImmortalMemoryAllocation();
+        }
+        ringStates = new AtomicIntegerArray(RING_COUNT);
+        profiler = new AsyncSamplingProfiler(period, file, dumpPeriod);
+        profiling = true;
+        profiler.start();
+        threadStarted();
+        return profiler;
+    }
+
+    private static void usage(String optionPrefix) {
+        System.err.println("usage: " + optionPrefix + ":frequency=f,depth=d,dump=t,file=path");
+        MaxineVM.native_exit(1);
+    }
+
+    /**
+     * Starts profiling the current thread. Called when a thread starts or attaches.
+     */
+    public static void threadStarted() {
+        if (profiler == null || !profiling || Thread.currentThread() == profiler) {
+            return;
+        }
+        final Pointer etla = ETLA.load(currentTLA());
+        for (int i = 0; i < RING_COUNT; i++) {
+            if (ringStates.get(i) == FREE && ringStates.compareAndSet(i, FREE, OWNED)) {
+                if (rings[i] == null) {
+                    rings[i] = newRing();
+                    if (rings[i] == null) {
+                        ringStates.set(i, FREE);
+                        break;
+                    }
+                }
+                final SampleRing ring = rings[i];
+                ring.attach(etla, VmThread.current().getName());
+                final Address timer = nativeProfileStartThreadTimer(profiler.periodNanos);
+                if (timer.isZero()) {
+                    ringStates.set(i, FREE);
+                    break;
+                }
+                ring.timer = timer;
+                ASYNC_PROFILER_RING.store(etla, Address.fromInt(i + 1));
+                return;
+            }
+        }
+        unprofiledThreads++;
+    }
+
+    /**
+     * Creates a ring in the immortal heap, with its samples in native memory.
+     *
+     * @return the ring or {@code null} if no native memory is available
+     */
+    private static SampleRing newRing() {
+        final Pointer words = Memory.allocate(Size.fromInt(RING_CAPACITY * Longs.SIZE));
+        if (words.isZero()) {
+            return null;
+        }
+        Heap.enableImmortalMemoryAllocation();
+        try {
+            return new SampleRing(words);
+        } finally {
+            Heap.disableImmortalMemoryAllocation();
+        }
+    }
+
+    /**
+     * Stops profiling the current thread. Called when a thread detaches.
+     */
+    public static void threadDetached() {
+        if (profiler == null) {
+            return;
+        }
+        final Pointer etla = ETLA.load(currentTLA());
+        final int index = ASYNC_PROFILER_RING.load(etla).toInt();
+        if (index > 0) {
+            // signals still pending for this thread are ignored from now on
+            ASYNC_PROFILER_RING.store(etla, Address.zero());
+            nativeProfileStopThreadTimer(rings[index - 1].timer);
+            ringStates.set(index - 1, RETIRED);
+        }
+    }
+
+    /**
+     * Records the stack of a thread interrupted by {@code SIGPROF}.
+     *
+     * This code is called from within a native signal handler and so must not block, allocate,
+     * cause any exception or assume that the thread pointer/safepoint latch is set up correctly.
+     * It must not write to any object that a GC may move.
+     *
+     * @param tla the thread locals of the interrupted thread
+     * @param ip the interrupted instruction
+     * @param sp the stack pointer of the interrupted context
+     * @param fp the frame pointer of the interrupted context
+     */
+    @VM_ENTRY_POINT
+    @NO_SAFEPOINT_POLLS("executes inside a native signal handler")
+    private static void sample(Pointer tla, Pointer ip, Pointer sp, Pointer fp) {
+        final Pointer etla = ETLA.load(tla);
+        final int index = ASYNC_PROFILER_RING.load(etla).toInt();
+        if (index <= 0 || !profiling) {
+            return;
+        }
+        // While the thread is in Java code no GC can start. Once the thread stops for a GC it prepares
+        // its stack reference map, and must not be walked by the same thread in the middle of that.
+        if (!MUTATOR_STATE.load(etla).equals(VmOperation.THREAD_IN_JAVA) || !LOWEST_ACTIVE_STACK_SLOT_ADDRESS.load(etla).isZero()) {
+            skippedSamples++;
+            return;
+        }
+        final Pointer latch = VMRegister.getSafepointLatchRegister();
+        SafepointPoll.setLatchRegister(DTLA.load(tla));
+        rings[index - 1].record(ip, sp, fp);
+        SafepointPoll.setLatchRegister(latch);
+    }
+
+    @Override
+    public void run() {
+        long lastDump = System.nanoTime();
+        while (true) {
+            try {
+                Thread.sleep(DRAIN_PERIOD);
+            } catch (InterruptedException ex) {
+            }
+            synchronized (this) {
+                drain();
+            }
+            final long now = System.nanoTime();
+            if (dumpInterval > 0 && now > lastDump + dumpInterval) {
+                dump();
+                lastDump = now;
+            }
+        }
+    }
+
+    /**
+     * Stops sampling and writes the profile. Called at VM termination.
+     */
+    public void terminate() {
+        profiling = false;
+        dump();
+    }
+
+    /**
+     * Drains the rings and writes the collapsed stacks, most frequent first.
+     */
+    public synchronized void dump() {
+        drain();
+        final List<Map.Entry<String, long[]>> entries = new ArrayList<Map.Entry<String, long[]>>(stacks.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, long[]>>() {
+            public int compare(Map.Entry<String, long[]> a, Map.Entry<String, long[]> b) {
+                final long ca = a.getValue()[0];
+                final long cb = b.getValue()[0];
+                return ca < cb ? 1 : ca > cb ? -1 : 0;
+            }
+        });
+        if (outputFile != null) {
+            try {
+                final PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputFile)));
+                for (Map.Entry<String, long[]> entry : entries) {
+                    out.print(entry.getKey());
+                    out.print(' ');
+                    out.println(entry.getValue()[0]);
+                }
+                out.close();
+            } catch (IOException ex) {
+                Log.println("Could not write " + outputFile + ": " + ex);
+            }
+        }
+        boolean state = Log.lock();
+        Log.print("Async Sampling Profiler, #samples: ");
+        Log.print(sampleCount);
+        Log.print(", missed: ");
+        Log.print(missedSamples);
+        Log.print(", skipped: ");
+        Log.print(skippedSamples);
+        Log.print(", stale: ");
+        Log.print(staleSamples);
+        Log.print(", unprofiled threads: ");
+        Log.println(unprofiledThreads);
+        if (outputFile == null) {
+            for (Map.Entry<String, long[]> entry : entries) {
+                Log.print(entry.getKey());
+                Log.print(' ');
+                Log.println(entry.getValue()[0]);
+            }
+        }
+        Log.unlock(state);
+    }
+
+    private void drain() {
+        final int eviction = CodeEviction.evictionCount();
+        if (eviction != symbolsEviction) {
+            symbols.clear();
+            symbolsEviction = eviction;
+        }
+        for (int i = 0; i < RING_COUNT; i++) {
+            final int state = ringStates.get(i);
+            if (state == FREE) {
+                continue;
+            }
+            drain(rings[i], eviction);
+            if (state == RETIRED) {
+                // the owner is gone, so what was just drained is all there is
+                ringStates.set(i, FREE);
+            }
+        }
+    }
+
+    private void drain(SampleRing ring, int eviction) {
+        final Pointer words = ring.words;
+        final int mask = RING_CAPACITY - 1;
+        final int head = ring.head;
+        int tail = ring.tail;
+        while (tail != head) {
+            final long header = words.getLong(tail & mask);
+            final int frames = (int) header;
+            if ((int) (header >>> 32) != eviction) {
+                staleSamples++;
+            } else {
+                line.setLength(0);
+                line.append(ring.threadName.replace(';', '_'));
+                // frames are recorded from the top of the stack down
+                for (int f = frames; f >= 1; f--) {
+                    line.append(';').append(symbolize(words.getLong((tail + f) & mask)));
+                }
+                final String key = line.toString();
+                long[] count = stacks.get(key);
+                if (count == null) {
+                    count = new long[1];
+                    stacks.put(key, count);
+                }
+                count[0]++;
+                sampleCount++;
+            }
+            tail += 1 + frames;
+        }
+        ring.tail = tail;
+    }
+
+    /**
+     * Gets the source frames, outermost first and separated by ';', executing at a recorded instruction pointer.
+     */
+    private String symbolize(long ip) {
+        if (ip == NATIVE_FRAME) {
+            return "[native]";
+        }
+        final Long key = ip;
+        String result = symbols.get(key);
+        if (result == null) {
+            final TargetMethod tm = Code.codePointerToTargetMethod(Pointer.fromLong(ip));
+            if (tm == null) {
+                result = "[unknown]";
+            } else if (tm.classMethodActor == null) {
+                result = "[" + tm.regionName() + "]";
+            } else {
+                symbolizer.names.clear();
+                symbolizer.visitTargetFrame(tm, CodePointer.from(ip), false, 0);
+                final StringBuilder sb = new StringBuilder();
+                for (int i = symbolizer.names.size() - 1; i >= 0; i--) {
+                    sb.append(symbolizer.names.get(i));
+                    if (i > 0) {
+                        sb.append(';');
+                    }
+                }
+                result = sb.toString();
+            }
+            symbols.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Collects the names of the (possibly inlined) source frames at a code position, innermost first.
+     */
+    private static final class Symbolizer extends SourceFrameVisitor {
+        final ArrayList<String> names = new ArrayList<String>();
+
+        @Override
+        public boolean visitSourceFrame(ClassMethodActor method, int bci, boolean trapped, long frameId) {
+            method = method.original();
+            names.add(method.holder().name.toString() + "." + method.name());
+            return true;
+        }
+    }
+
+    /**
+     * The samples of one thread. Written only by the owning thread from within the signal handler
+     * and read only by the profiler thread; {@link #head} and {@link #tail} are each written by only one of them.
+     * A sample is a header word (eviction count in the high half, frame count in the low half) followed
+     * by the instruction pointers of the frames, top frame first. A ring, and so its walker, is allocated
+     * in the immortal heap and its {@link #words} in native memory.
+     */
+    private static final class SampleRing extends RawStackFrameVisitor {
+        final Pointer words;
+        volatile int head;
+        volatile int tail;
+
+        final VmStackFrameWalker walker = new VmStackFrameWalker(Pointer.zero());
+        String threadName;
+        Address timer;
+
+        /**
+         * Bounds of the owner's stack; a walk that leaves them has gone astray and is cut short.
+         */
+        Pointer lowestSlot;
+        Pointer highestSlot;
+
+        /*
+         * State of the sample being recorded.
+         */
+        int start;
+        int frames;
+        int limit;
+
+        SampleRing(Pointer words) {
+            this.words = words;
+            walker.setAsynchronous(true);
+        }
+
+        void attach(Pointer etla, String name) {
+            walker.setTLA(etla);
+            lowestSlot = LOWEST_STACK_SLOT_ADDRESS.load(etla);
+            highestSlot = HIGHEST_STACK_SLOT_ADDRESS.load(etla);
+            threadName = name;
+        }
+
+        @NO_SAFEPOINT_POLLS("executes inside a native signal handler")
+        void record(Pointer ip, Pointer sp, Pointer fp) {
+            final int free = RING_CAPACITY - (head - tail);
+            limit = Math.min(free - 1, maxDepth);
+            if (limit <= 0 || sp.isZero()) {
+                missedSamples++;
+                return;
+            }
+            start = head;
+            frames = 0;
+            walker.inspect(ip, sp, fp, this);
+            if (frames == 0) {
+                missedSamples++;
+                return;
+            }
+            words.setLong(start & (RING_CAPACITY - 1), ((long) CodeEviction.evictionCount() << 32) | frames);
+            head = start + 1 + frames;
+        }
+
+        @Override
+        public boolean visitFrame(StackFrameCursor current, StackFrameCursor callee) {
+            final Pointer sp = current.sp();
+            if (sp.lessThan(lowestSlot) || sp.greaterThan(highestSlot)) {
+                return false;
+            }
+            final boolean isJava = current.targetMethod() != null;
+            words.setLong((start + 1 + frames) & (RING_CAPACITY - 1), isJava ? current.ipAsPointer().toLong() : NATIVE_FRAME);
+            frames++;
+            if (frames == limit) {
+                return false;
+            }
+            // Only a native top frame can be followed, through the last Java frame anchor. Below the top,
+            // a native frame is either the bottom of the stack or a walk gone astray.
+            return isJava || current.isTopFrame();
+        }
+    }
+}
@@ -30,9 +30,11 @@ import com.sun.max.vm.MaxineVM.Phase;
 import com.sun.max.vm.actor.holder.ClassActor;
 import com.sun.max.vm.actor.member.MethodActor;
 import com.sun.max.vm.actor.member.StaticMethodActor;
+import com.sun.max.vm.classfile.SharedClassList;
 import com.sun.max.vm.compiler.*;
 import com.sun.max.vm.compiler.deopt.Deoptimization;
 import com.sun.max.vm.heap.Heap;
+import com.sun.max.vm.heap.HeapDump;
 import com.sun.max.vm.hosted.CompiledPrototype;
 import com.sun.max.vm.instrument.InstrumentationManager;
 import com.sun.max.vm.jdk.JDK_sun_launcher_LauncherHelper;
@@ -47,6 +49,7 @@ import com.sun.max.vm.runtime.FatalError;
 import com.sun.max.vm.runtime.PrintThreads;
 import com.sun.max.vm.thread.VmThread;
 import com.sun.max.vm.ti.VMTI;
+import com.sun.max.vm.type.ClassUnloader;
 import com.sun.max.vm.type.SignatureDescriptor;
 import com.sun.max.vm.type.VMClassLoader;
 import sun.misc.Launcher;
@@ -98,6 +101,8 @@ public class JavaRunScheme extends AbstractVMScheme implements RunScheme {
         "-Xprof", false, null, "run CPU sampling profiler"), MaxineVM.Phase.STARTING);
     private static final VMStringOption hprofOption = register(new VMStringOption(
         "-Xhprof", false, null, "run heap sampling profiler"), MaxineVM.Phase.STARTING);
+    private static final VMStringOption aprofOption = register(new VMStringOption(
+        "-Xaprof", false, null, "run asynchronous signal-based CPU sampling profiler"), MaxineVM.Phase.STARTING);
     private static final VMStringOption showSettingsOption = register(new VMStringOption(
         "-XshowSettings", false, ":all",
         "show all settings and continue (optionally limit to vm, properties or locale settings appending :vm, :properties and :locale respectively)"),
@@ -110,6 +115,7 @@ public class JavaRunScheme extends AbstractVMScheme implements RunScheme {
     private static List<String> reinitClasses = new LinkedList<String>();
     private static CPUSamplingProfiler cpuSamplingProfiler;
     private static HeapSamplingProfiler heapSamplingProfiler;
+    private static AsyncSamplingProfiler asyncSamplingProfiler;
     private static String mainClassName;
 
     @HOSTED_ONLY
@@ -191,6 +197,10 @@ public class JavaRunScheme extends AbstractVMScheme implements RunScheme {
         if (MaxineVM.numaProfiler != null) {
             MaxineVM.numaProfiler.terminate();
         }
+        AllocationSampler.terminate();
+        if (asyncSamplingProfiler != null) {
+            asyncSamplingProfiler.terminate();
+        }
     }
 
     public static void restartProfilers() {
@@ -257,6 +267,12 @@ public class JavaRunScheme extends AbstractVMScheme implements RunScheme {
                     final String heapProfOptionPrefix = hprofOption.toString();
                     heapSamplingProfiler = new HeapSamplingProfiler(heapProfOptionPrefix, heapProfOptionValue);
                 }
+                AllocationSampler.initialize();
+                ClassUnloader.initialize();
+                final String asyncProfOptionValue = aprofOption.getValue();
+                if (asyncProfOptionValue != null) {
+                    asyncSamplingProfiler = AsyncSamplingProfiler.create(aprofOption.toString(), asyncProfOptionValue);
+                }
                 // Initialize the NUMA Profiler
                 if (useNUMAProfiler) {
                     // Initialization is allowed only for one policy (or none).
@@ -267,6 +283,7 @@ public class JavaRunScheme extends AbstractVMScheme implements RunScheme {
                             "NUMAProfilerExplicitGCThreshold and NUMAProfilerFlareAllocationThresholds");
                     }
                 }
+                VMLog.vmLog().vmRunning();
                 break;
             }
 
@@ -302,6 +319,7 @@ public class JavaRunScheme extends AbstractVMScheme implements RunScheme {
             }
             // Install the signal handler for dumping threads when SIGHUP is received
             Signal.handle(new Signal("QUIT"), new PrintThreads(false));
+            HeapDump.initialize();
         }
     }
 
@@ -352,6 +370,7 @@ public class JavaRunScheme extends AbstractVMScheme implements RunScheme {
             VMTI.handler().threadStart(VmThread.current());
             // load -javaagent agents
             loadJavaAgents();
+            SharedClassList.initialize();
             classKindName = "main";
             Class<?> mainClass = loadMainClass();
             if (mainClass != null) {
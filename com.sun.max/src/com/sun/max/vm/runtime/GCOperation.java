@@ -29,6 +29,7 @@ import com.sun.max.annotate.*;
 import com.sun.max.unsafe.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.heap.*;
+import com.sun.max.vm.management.*;
 import com.sun.max.vm.monitor.*;
 import com.sun.max.vm.stack.*;
 import com.sun.max.vm.thread.*;
@@ -45,6 +46,14 @@ public abstract class GCOperation extends VmOperation {
      */
     protected abstract void collect(int invocationCount);
 
+    /**
+     * Tells whether the last call to {@link #collect(int)} collected the whole heap.
+     * Generational collectors override this so that management clients can tell minor from major collections.
+     */
+    protected boolean lastCollectionWasFull() {
+        return true;
+    }
+
     @Override
     protected boolean disablesHeapAllocation() {
         return true;
@@ -192,7 +201,9 @@ public abstract class GCOperation extends VmOperation {
             Log.unlock(lockDisabledSafepoints);
         }
 
+        GarbageCollectionNotifier.collectionStarted(callingThread().gcRequest);
         collect(invocationCount);
+        GarbageCollectionNotifier.collectionEnded(lastCollectionWasFull());
 
         if (Heap.verbose()) {
             final long afterUsed = Heap.reportUsedSpace();
@@ -82,11 +82,28 @@ public class SourceFrameVisitor extends RawStackFrameVisitor implements TargetMe
         }
 
         // TODO this value is not stable in the face of deoptimzation as frames can move.
-        frameId = current.sp().toLong() << 16;
+        final long id = current.sp().toLong() << 16;
 
-        trapped = callee.targetMethod() != null && callee.targetMethod().is(TrapStub);
+        final boolean isTrapped = callee.targetMethod() != null && callee.targetMethod().is(TrapStub);
+        return visitTargetFrame(targetMethod, current.vmIP(), isTrapped, id);
+    }
+
+    /**
+     * Iterates over the source method frames of a single compiled frame, calling
+     * {@link #visitSourceFrame(ClassMethodActor, int, boolean, long)} for each of them.
+     * This can also be used to decode frames recorded earlier as (target method, code pointer) pairs.
+     *
+     * @param targetMethod the compiled method of the frame
+     * @param ip the execution point within {@code targetMethod}
+     * @param trapped specifies if execution is stopped in {@code targetMethod} at a trap
+     * @param frameId a unique identifier for the frame
+     * @return {@code true} if the stack walk should continue
+     */
+    public boolean visitTargetFrame(TargetMethod targetMethod, CodePointer ip, boolean trapped, long frameId) {
+        this.frameId = frameId;
+        this.trapped = trapped;
         stopped = false;
-        int count = targetMethod.forEachCodePos(this, current.vmIP());
+        int count = targetMethod.forEachCodePos(this, ip);
         if (count == 0 && !stopped) {
             return visitSourceFrame(targetMethod.classMethodActor, -1, trapped, frameId);
         }
@@ -110,6 +110,12 @@ public abstract class StackFrameWalker {
     @HOSTED_ONLY
     private StackFrame calleeStackFrame;
 
+    /**
+     * Set if the walks performed by this walker may start at an arbitrary instruction, e.g. one interrupted
+     * by a profiling signal, instead of at a safepoint or call.
+     */
+    private boolean asynchronous;
+
     protected StackFrameWalker() {
         // These initializations are overridden by the Inspector with variant cursor implementations.
         // This is an awkward and fragile way to handle the override, but it avoids object initialization problems
@@ -612,6 +618,17 @@ public abstract class StackFrameWalker {
 
     public abstract byte readByte(Address address, int offset);
 
+    /**
+     * Determines if the top frame of a walk by this walker may be stopped at an arbitrary instruction.
+     */
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    public void setAsynchronous(boolean flag) {
+        asynchronous = flag;
+    }
+
     public abstract int readInt(Address address, int offset);
 
     /**
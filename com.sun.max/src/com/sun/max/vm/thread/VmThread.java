@@ -52,6 +52,7 @@ import com.sun.max.vm.jni.*;
 import com.sun.max.vm.log.*;
 import com.sun.max.vm.monitor.modal.sync.*;
 import com.sun.max.vm.object.*;
+import com.sun.max.vm.profilers.sampling.*;
 import com.sun.max.vm.profilers.tracing.numa.NUMAProfiler;
 import com.sun.max.vm.reference.*;
 import com.sun.max.vm.runtime.*;
@@ -306,6 +307,32 @@ public class VmThread {
 
     private boolean yellowZoneUnprotected;
 
+    /**
+     * Determines if the time threads spend blocked entering or waiting on monitors is measured,
+     * in addition to the number of times they do so.
+     */
+    public static boolean timeContention;
+
+    /**
+     * Number of times this thread blocked entering a monitor owned by another thread.
+     */
+    private long contendedEnterCount;
+
+    /**
+     * Nanoseconds this thread spent blocked entering monitors while {@link #timeContention} was set.
+     */
+    private long contendedEnterNanos;
+
+    /**
+     * Number of times this thread waited on a monitor.
+     */
+    private long monitorWaitCount;
+
+    /**
+     * Nanoseconds this thread spent waiting on monitors while {@link #timeContention} was set.
+     */
+    private long monitorWaitNanos;
+
     /**
      * Number of shadow zone pages for overflow checking.
      */
@@ -650,6 +677,7 @@ public class VmThread {
         thread.initializationComplete();
 
         thread.traceThreadAfterInitialization(stackBase, stackEnd);
+        AsyncSamplingProfiler.threadStarted();
 
         // If this is the main thread, then start up the VM operation thread and other special VM threads
         if (thread == mainThread) {
@@ -765,6 +793,7 @@ public class VmThread {
             thread.initializationComplete();
 
             thread.traceThreadAfterInitialization(stackBase, stackEnd);
+            AsyncSamplingProfiler.threadStarted();
             return JniFunctions.JNI_OK;
 
         } catch (OutOfMemoryError oome) {
@@ -820,6 +849,8 @@ public class VmThread {
 
         thread.traceThreadAfterTermination();
 
+        AsyncSamplingProfiler.threadDetached();
+
         // GC may now reclaim or prepare any of its resources before the thread vanishes forever.
         vmConfig().heapScheme().notifyCurrentThreadDetach();
 
@@ -867,6 +898,22 @@ public class VmThread {
 
     private static native void nativeSetPriority(Word nativeThread, int newPriority);
 
+    private static native long nativeCpuTime(Word nativeThread, boolean userOnly);
+
+    /**
+     * Gets the CPU time consumed by this thread. For a thread other than the current one, the caller
+     * must hold {@link VmThreadMap#THREAD_LOCK} to ensure the native thread does not vanish.
+     *
+     * @param userOnly if {@code true}, only time spent in user mode is returned
+     * @return the CPU time in nanoseconds, or -1 if it is not available
+     */
+    public final long cpuTime(boolean userOnly) {
+        if (nativeThread.isZero()) {
+            return -1;
+        }
+        return nativeCpuTime(nativeThread, userOnly);
+    }
+
     /**
      * This exists for the benefit of the primordial thread.
      *
@@ -1118,6 +1165,59 @@ public class VmThread {
         this.name = name;
     }
 
+    /**
+     * Records that this thread is about to block entering a monitor owned by another thread.
+     *
+     * @return the value to pass to {@link #endContendedEnter(long)}
+     */
+    public final long beginContendedEnter() {
+        contendedEnterCount++;
+        return timeContention ? System.nanoTime() : 0L;
+    }
+
+    public final void endContendedEnter(long start) {
+        if (start != 0L) {
+            contendedEnterNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Records that this thread is about to wait on a monitor.
+     *
+     * @return the value to pass to {@link #endMonitorWait(long)}
+     */
+    public final long beginMonitorWait() {
+        monitorWaitCount++;
+        return timeContention ? System.nanoTime() : 0L;
+    }
+
+    public final void endMonitorWait(long start) {
+        if (start != 0L) {
+            monitorWaitNanos += System.nanoTime() - start;
+        }
+    }
+
+    public final long contendedEnterCount() {
+        return contendedEnterCount;
+    }
+
+    public final long contendedEnterNanos() {
+        return contendedEnterNanos;
+    }
+
+    public final long monitorWaitCount() {
+        return monitorWaitCount;
+    }
+
+    public final long monitorWaitNanos() {
+        return monitorWaitNanos;
+    }
+
+    public final void resetContentionTimes() {
+        contendedEnterNanos = 0L;
+        monitorWaitNanos = 0L;
+    }
+
     @INLINE
     public final ConditionVariable waitingCondition() {
         return waitingCondition;
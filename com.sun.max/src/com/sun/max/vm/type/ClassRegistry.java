@@ -117,6 +117,7 @@ public final class ClassRegistry {
     public static final ArrayClassActor<DoubleValue> DOUBLE_ARRAY = createPrimitiveArrayClass(DOUBLE);
 
     public static final FieldActor ClassActor_javaClass = findField(ClassActor.class, "javaClass");
+    public static final FieldActor Hub_biasedLockRevocationHeuristics = findField(Hub.class, "biasedLockRevocationHeuristics");
     public static final FieldActor Buffer_address = findField(Buffer.class, "address");
     public static final FieldActor JLRReference_referent = findField(java.lang.ref.Reference.class, "referent");
 
@@ -181,6 +182,12 @@ public final class ClassRegistry {
      */
     public final ClassLoader classLoader;
 
+    /**
+     * The classes defined by the class loader, recorded for {@linkplain ClassUnloader unloading}.
+     * Created on the first definition if the class loader can be unloaded. Guarded by this registry.
+     */
+    ClassUnloader.DefinedClasses definedClasses;
+
     private ClassRegistry(ClassLoader classLoader) {
         propertyMaps = Utils.cast(new ConcurrentHashMap[Property.VALUES.size()]);
         for (Property property : Property.VALUES) {
@@ -281,6 +288,7 @@ public final class ClassRegistry {
 
         // Add to class hierarchy, initialize vtables, and do possible deoptimizations.
         DependenciesManager.addToHierarchy(classActor);
+        ClassUnloader.recordDefinition(this, classActor);
 
         if (MaxineVM.isHosted()) {
             bootImageClasses.add(classActor);
@@ -381,6 +389,7 @@ public final class ClassRegistry {
         ANNOTATION_DEFAULT_BYTES(MethodActor.class, byte[].class, MethodActor.NO_ANNOTATION_DEFAULT_BYTES),
         ACCESSOR(MethodActor.class, Class.class, null),
         INVOCATION_STUB(false, MethodActor.class, InvocationStub.class, null),
+        JAVA_INVOCATION_STUB(false, MethodActor.class, InvocationStub.class, null),
         RUNTIME_VISIBLE_PARAMETER_ANNOTATION_BYTES(MethodActor.class, byte[].class, MethodActor.NO_RUNTIME_VISIBLE_PARAMETER_ANNOTATION_BYTES);
 
         public static final List<Property> VALUES = java.util.Arrays.asList(values());
@@ -485,6 +494,10 @@ public final class ClassRegistry {
         return unloadCount;
     }
 
+    static synchronized void recordUnloading(int count) {
+        unloadCount += count;
+    }
+
     /**
      * Classes in the boot image from this registry.
      */
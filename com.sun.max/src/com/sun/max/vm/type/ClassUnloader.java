@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.type;
+
+import java.lang.ref.*;
+import java.util.*;
+
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.compiler.deps.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * Unloads the classes of class loaders that have become unreachable.
+ * <p>
+ * The classes defined by a class loader other than the boot and VM class loaders are only referenced
+ * {@linkplain ClassIDManager weakly} by the class identifier map. Their identifiers are {@linkplain DefinedClasses
+ * recorded} in a weak reference to the class loader, which a garbage collection clears once the class loader and,
+ * as each class references its class loader, all of its classes are unreachable. A daemon thread then takes the
+ * cleared record off its queue, removes the classes from the class hierarchy, which invalidates and deoptimizes
+ * the dependencies referring to them, and finally releases their identifiers for reuse.
+ * <p>
+ * A class stays reachable while code compiled for one of its methods is in a code region, and while it is the
+ * context of a {@linkplain DependenciesManager dependency}. The class loader of such a class is therefore only
+ * unloaded once its baseline code has been {@linkplain com.sun.max.vm.code.CodeEviction evicted}; classes with
+ * optimized code or context dependencies are never unloaded.
+ */
+public final class ClassUnloader {
+
+    /**
+     * Determines if the classes of unreachable class loaders are unloaded.
+     */
+    public static boolean ClassUnloading = true;
+
+    /**
+     * Trace class unloading.
+     */
+    public static boolean TraceClassUnloading;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "ClassUnloading", ClassUnloader.class, "Unload the classes of unreachable class loaders.");
+        VMOptions.addFieldOption("-XX:", "TraceClassUnloading", ClassUnloader.class, "Trace class unloading.");
+    }
+
+    private ClassUnloader() {
+    }
+
+    /**
+     * The identifiers of the classes defined by a class loader, recorded without referencing the classes.
+     */
+    static final class DefinedClasses extends WeakReference<ClassLoader> {
+
+        /**
+         * The identifiers of the defined classes.
+         */
+        private int[] classIDs = new int[16];
+
+        /**
+         * For each defined instance class, the identifier of its superclass followed by the identifiers of all its
+         * super-types (see {@link DependenciesManager#removeFromHierarchy(int[], int[][], int)}). {@code null} for the
+         * other classes, which are not part of the class hierarchy.
+         */
+        private int[][] superTypeIDs = new int[16][];
+
+        private int count;
+
+        DefinedClasses(ClassLoader classLoader) {
+            super(classLoader, queue);
+        }
+
+        synchronized void add(ClassActor classActor) {
+            if (count == classIDs.length) {
+                classIDs = Arrays.copyOf(classIDs, count * 2);
+                superTypeIDs = Arrays.copyOf(superTypeIDs, count * 2);
+            }
+            classIDs[count] = classActor.id;
+            superTypeIDs[count] = classActor.isInstanceClass() ? superTypeIDs(classActor) : null;
+            count++;
+        }
+
+        private static int[] superTypeIDs(ClassActor classActor) {
+            final ClassActor superClassActor = classActor.superClassActor;
+            int length = 1;
+            for (ClassActor c = superClassActor; c != null; c = c.superClassActor) {
+                length++;
+            }
+            final Set<InterfaceActor> interfaces = classActor.getAllInterfaceActors();
+            final int[] ids = new int[length + interfaces.size()];
+            ids[0] = superClassActor == null ? ClassIDManager.NULL_CLASS_ID : superClassActor.id;
+            int i = 1;
+            for (ClassActor c = superClassActor; c != null; c = c.superClassActor) {
+                ids[i++] = c.id;
+            }
+            for (InterfaceActor iface : interfaces) {
+                ids[i++] = iface.id;
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * The queue onto which the records of unreachable class loaders are put by the garbage collector.
+     */
+    private static final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<ClassLoader>();
+
+    /**
+     * The records of the class loaders not unloaded yet, which keeps the records reachable until they are enqueued.
+     * Guarded by the lock of this class.
+     */
+    private static final HashSet<DefinedClasses> records = new HashSet<DefinedClasses>();
+
+    private static Unloader unloader;
+
+    /**
+     * Determines if the classes of a given class loader can be unloaded.
+     */
+    public static boolean isUnloadable(ClassLoader classLoader) {
+        if (MaxineVM.isHosted() || !ClassUnloading) {
+            return false;
+        }
+        return classLoader != BootClassLoader.BOOT_CLASS_LOADER && classLoader != VMClassLoader.VM_CLASS_LOADER;
+    }
+
+    /**
+     * Records a class that has just been defined in a given registry, if its class loader can be unloaded.
+     */
+    static void recordDefinition(ClassRegistry registry, ClassActor classActor) {
+        if (!isUnloadable(registry.classLoader)) {
+            return;
+        }
+        DefinedClasses definedClasses;
+        synchronized (ClassUnloader.class) {
+            definedClasses = registry.definedClasses;
+            if (definedClasses == null) {
+                definedClasses = new DefinedClasses(registry.classLoader);
+                registry.definedClasses = definedClasses;
+                records.add(definedClasses);
+            }
+        }
+        definedClasses.add(classActor);
+    }
+
+    /**
+     * Starts the thread unloading the classes of unreachable class loaders.
+     */
+    public static synchronized void initialize() {
+        if (ClassUnloading && unloader == null) {
+            unloader = new Unloader();
+            unloader.start();
+        }
+    }
+
+    private static final class Unloader extends Thread {
+        Unloader() {
+            super(VmThread.systemThreadGroup, "Class Unloader");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    unload((DefinedClasses) queue.remove());
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Unloads the classes of a class loader that has been collected.
+     */
+    private static void unload(DefinedClasses definedClasses) {
+        synchronized (ClassUnloader.class) {
+            records.remove(definedClasses);
+        }
+        final int[] classIDs;
+        final int[][] superTypeIDs;
+        final int count;
+        synchronized (definedClasses) {
+            classIDs = definedClasses.classIDs;
+            superTypeIDs = definedClasses.superTypeIDs;
+            count = definedClasses.count;
+        }
+        // All classes of the class loader are unreachable once the class loader is, so they have been collected too.
+        // The identifiers must not be released before the class hierarchy no longer refers to them.
+        DependenciesManager.removeFromHierarchy(classIDs, superTypeIDs, count);
+        ClassIDManager.release(classIDs, count);
+        ClassRegistry.recordUnloading(count);
+        if (TraceClassUnloading) {
+            Log.println("[Unloaded " + count + " classes]");
+        }
+    }
+}
@@ -22,6 +22,8 @@
  */
 package com.sun.max.vm.verifier;
 
+import java.util.*;
+
 import com.sun.max.vm.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
@@ -46,20 +48,28 @@ public abstract class ClassVerifier extends Verifier {
         if (TraceVerifierLevel >= TRACE_CLASS) {
             Log.println("[Verifying class " + classActor.name + "]");
         }
-        verifyMethods(classActor.localVirtualMethodActors());
-        verifyMethods(classActor.localStaticMethodActors());
-        verifyMethods(classActor.localInterfaceMethodActors());
+        final ArrayList<ClassMethodActor> methods = new ArrayList<ClassMethodActor>();
+        collectMethods(classActor.localVirtualMethodActors(), methods);
+        collectMethods(classActor.localStaticMethodActors(), methods);
+        collectMethods(classActor.localInterfaceMethodActors(), methods);
+        if (ParallelVerifier.appliesTo(this, methods)) {
+            ParallelVerifier.verify(this, methods);
+        } else {
+            for (ClassMethodActor classMethodActor : methods) {
+                verifyMethod(classMethodActor);
+            }
+        }
         if (TraceVerifierLevel >= TRACE_CLASS) {
             Log.println("[Verified class " + classActor.name + "]");
         }
     }
 
-    private void verifyMethods(MethodActor[] methodActors) {
+    private static void collectMethods(MethodActor[] methodActors, ArrayList<ClassMethodActor> methods) {
         for (MethodActor methodActor : methodActors) {
             if (methodActor instanceof ClassMethodActor && !methodActor.isProxyToDefault()) {
                 final ClassMethodActor classMethodActor = (ClassMethodActor) methodActor;
                 if (classMethodActor.compilee() == classMethodActor) {
-                    verifyMethod(classMethodActor);
+                    methods.add(classMethodActor);
                 } else {
                     // Cannot verify substituted methods as the receiver and holder type will not match
                 }
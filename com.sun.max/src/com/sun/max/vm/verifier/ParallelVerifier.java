@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.verifier;
+
+import static com.sun.max.vm.VMOptions.*;
+
+import java.util.*;
+
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.thread.*;
+import com.sun.max.vm.type.*;
+
+/**
+ * Verifies the methods of a class in parallel. The thread requesting the verification takes part in it,
+ * while a pool of daemon threads picks up the remaining methods. Each thread uses its own {@link ClassVerifier}
+ * instance, as verifiers keep per-method state.
+ * <p>
+ * Verification may load classes through the class loader of the verified class, now on a worker thread. This is
+ * only done for classes of the boot class loader and of the system class loader and its ancestors, which is where
+ * the classes verified by default come from. The loading code of these loaders is part of the JDK and does not
+ * initialize, and so verify, classes while it holds a class loading lock that a worker could need. Other class loaders
+ * run application code when loading and their classes are verified sequentially.
+ */
+public final class ParallelVerifier {
+
+    /**
+     * Number of worker threads; 0 disables parallel verification.
+     */
+    public static int ParallelVerificationThreads;
+
+    /**
+     * Classes with fewer methods to verify are verified sequentially.
+     */
+    public static int ParallelVerificationMinMethods = 16;
+
+    static {
+        addFieldOption("-XX:", "ParallelVerificationThreads", ParallelVerifier.class,
+            "Number of threads verifying methods of classes of the boot and system class loaders in parallel; " +
+            "0 disables parallel verification (default: 0).");
+        addFieldOption("-XX:", "ParallelVerificationMinMethods", ParallelVerifier.class,
+            "Verify classes with at least this many methods in parallel (default: 16).");
+    }
+
+    private ParallelVerifier() {
+    }
+
+    /**
+     * The methods of one class being verified.
+     */
+    static final class Task {
+        final ClassActor classActor;
+        final ClassMethodActor[] methods;
+        final VerificationCache.Record record;
+        private int next;
+        private int completed;
+        private Throwable error;
+        private Thread errorThread;
+
+        Task(ClassActor classActor, ClassMethodActor[] methods, VerificationCache.Record record) {
+            this.classActor = classActor;
+            this.methods = methods;
+            this.record = record;
+        }
+
+        private synchronized ClassMethodActor take() {
+            if (error != null || next == methods.length) {
+                return null;
+            }
+            return methods[next++];
+        }
+
+        private synchronized void done(Throwable throwable) {
+            if (throwable != null && error == null) {
+                error = throwable;
+                errorThread = Thread.currentThread();
+                // methods not yet taken are skipped
+                completed += methods.length - next;
+                next = methods.length;
+            }
+            if (++completed == methods.length) {
+                notifyAll();
+            }
+        }
+
+        /**
+         * Verifies a method of this task.
+         */
+        void verify(ClassMethodActor method, ClassVerifier verifier) {
+            Throwable throwable = null;
+            try {
+                method.verify(verifier);
+            } catch (Throwable t) {
+                throwable = t;
+            }
+            done(throwable);
+        }
+
+        synchronized Throwable awaitCompletion() {
+            while (completed != methods.length) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // continue waiting: the methods must be verified before the class can be used
+                }
+            }
+            return error;
+        }
+    }
+
+    /**
+     * The tasks with methods not taken yet. A task is removed by the thread that finds it has none left.
+     */
+    private static final LinkedList<Task> pending = new LinkedList<Task>();
+
+    private static Thread[] threads;
+
+    static final class VerificationThread extends Thread {
+        VerificationThread() {
+            super(VmThread.systemThreadGroup, "Verifier");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Task current = null;
+            ClassVerifier verifier = null;
+            while (true) {
+                Task task;
+                ClassMethodActor method;
+                synchronized (pending) {
+                    while (true) {
+                        task = pending.peek();
+                        if (task == null) {
+                            try {
+                                pending.wait();
+                            } catch (InterruptedException e) {
+                                // keep polling
+                            }
+                            continue;
+                        }
+                        method = task.take();
+                        if (method != null) {
+                            break;
+                        }
+                        pending.poll();
+                    }
+                }
+                if (task != current) {
+                    current = task;
+                    verifier = Verifier.verifierFor(task.classActor);
+                    verifier.record = task.record;
+                }
+                task.verify(method, verifier);
+            }
+        }
+    }
+
+    private static synchronized void startThreads() {
+        if (threads == null) {
+            threads = new Thread[ParallelVerificationThreads];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new VerificationThread();
+                threads[i].start();
+            }
+        }
+    }
+
+    /**
+     * Determines whether the methods of the class verified by {@code verifier} are verified in parallel.
+     */
+    static boolean appliesTo(ClassVerifier verifier, ArrayList<ClassMethodActor> methods) {
+        if (ParallelVerificationThreads <= 0 || methods.size() < ParallelVerificationMinMethods ||
+            MaxineVM.isHosted() || MaxineVM.vm().phase != MaxineVM.Phase.RUNNING) {
+            return false;
+        }
+        final ClassLoader classLoader = verifier.classActor.classLoader;
+        return classLoader == BootClassLoader.BOOT_CLASS_LOADER || Verifier.isTrustedLoader(classLoader);
+    }
+
+    /**
+     * Verifies the given methods using the worker threads and the current thread, which uses {@code verifier}.
+     * Returns once all methods have been verified, rethrowing the first error encountered. An error raised on a
+     * worker thread gets the stack trace of the current thread, as if it had been raised by sequential verification.
+     */
+    static void verify(ClassVerifier verifier, ArrayList<ClassMethodActor> methods) {
+        startThreads();
+        final Task task = new Task(verifier.classActor, methods.toArray(new ClassMethodActor[methods.size()]), verifier.record);
+        synchronized (pending) {
+            pending.add(task);
+            pending.notifyAll();
+        }
+        ClassMethodActor method;
+        while ((method = task.take()) != null) {
+            task.verify(method, verifier);
+        }
+        synchronized (pending) {
+            pending.remove(task);
+        }
+        final Throwable error = task.awaitCompletion();
+        if (error != null && task.errorThread != Thread.currentThread()) {
+            error.fillInStackTrace();
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        }
+    }
+}
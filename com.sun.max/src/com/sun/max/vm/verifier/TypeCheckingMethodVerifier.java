@@ -952,6 +952,7 @@ public class TypeCheckingMethodVerifier extends MethodVerifier {
             while (superClassActor != null) {
                 if (superClassActor.typeDescriptor.equals(fieldHolder)) {
                     // Accessing a field from a super class of the current class.
+                    classVerifier().noteUncacheable();
                     final FieldActor fieldActor = fieldRef.resolve(constantPool(), index);
                     if (!fieldActor.isProtected()) {
                         break;
@@ -1241,6 +1242,7 @@ public class TypeCheckingMethodVerifier extends MethodVerifier {
             while (superClassActor != null) {
                 if (superClassActor.typeDescriptor.equals(methodHolder)) {
                     // Accessing a method from a super class of the current class.
+                    classVerifier().noteUncacheable();
                     final MethodActor methodActor = methodRef.resolve(constantPool(), index);
                     if (!methodActor.isProtected()) {
                         break;
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.verifier;
+
+import static com.sun.max.vm.VMOptions.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.security.*;
+import java.util.*;
+
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.type.*;
+
+/**
+ * A persistent cache of successful bytecode verifications, enabled with {@code -XX:VerificationCache=<file>}.
+ * <p>
+ * An entry is keyed by the SHA-256 hash of a class file and records the assumptions the verification relied on:
+ * for each class resolved by the verifier (and the verified class itself), its name, whether it is an interface and
+ * the names of its superclasses. Those facts determine every answer the type checker obtains from the class
+ * hierarchy. When a class with a cached hash is to be verified, the recorded classes are resolved through its class
+ * loader and compared against the record; only if all of them match is verification skipped. Any mismatch, any
+ * resolution failure or a missing entry falls back to full verification.
+ * <p>
+ * Only classes verified by type checking (class file version 50 and above) are cached, as the type inferencing
+ * verifier also rewrites code. Verifications that resolved a field or method (for protected access checks) or that
+ * failed over to the type inferencing verifier are not cached either.
+ * <p>
+ * The file is mapped read-only when first needed, so that concurrently starting VMs can share it. New entries are
+ * appended when the VM exits, under an exclusive file lock. The cache must be protected like the class files
+ * themselves: whoever can write it can disable verification of the recorded class files.
+ */
+public final class VerificationCache {
+
+    private static String VerificationCache;
+
+    static {
+        addFieldOption("-XX:", "VerificationCache", VerificationCache.class,
+            "Skip verification of class files recorded as verified in the given file, and record new ones.");
+    }
+
+    private VerificationCache() {
+    }
+
+    /**
+     * The assumptions made during the verification of one class. Shared by the verifiers of a class when
+     * its methods are verified in parallel.
+     */
+    static final class Record {
+        private final Set<ClassActor> resolvedClasses = new HashSet<ClassActor>();
+        private boolean cacheable = true;
+
+        synchronized void resolvedClass(ClassActor classActor) {
+            resolvedClasses.add(classActor);
+        }
+
+        synchronized void markUncacheable() {
+            cacheable = false;
+        }
+
+        synchronized boolean isCacheable() {
+            return cacheable;
+        }
+
+        synchronized String assumptions(ClassActor verifiedClass) {
+            final StringBuilder sb = new StringBuilder();
+            encode(verifiedClass, sb);
+            for (ClassActor classActor : resolvedClasses) {
+                if (classActor != verifiedClass) {
+                    sb.append(' ');
+                    encode(classActor, sb);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Encodes the facts about a class that verification may depend on.
+     */
+    private static void encode(ClassActor classActor, StringBuilder sb) {
+        sb.append(classActor.typeDescriptor).append(classActor.isInterface() ? "|I" : "|C");
+        for (ClassActor superClass = classActor.superClassActor; superClass != null; superClass = superClass.superClassActor) {
+            sb.append('|').append(superClass.typeDescriptor);
+        }
+    }
+
+    /**
+     * The entries read from the cache file, mapping a class file hash to the encoded assumptions.
+     */
+    private static Map<String, String> entries;
+
+    /**
+     * The entries added by this VM.
+     */
+    private static final Map<String, String> newEntries = new HashMap<String, String>();
+
+    /**
+     * Records the hash of the class file of a class that will need verification. The hash is kept on the class
+     * actor itself and cleared once the class is verified.
+     */
+    public static void recordClassfile(ClassActor classActor, byte[] bytes, int offset, int length) {
+        if (VerificationCache == null || classActor.majorVersion < 50) {
+            return;
+        }
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes, offset, length);
+            final StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            classActor.classfileHash = sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            VerificationCache = null;
+        }
+    }
+
+    /**
+     * Verifies a class, unless it is recorded in the cache with assumptions that still hold.
+     */
+    public static void verify(ClassActor classActor) {
+        final String hash = classActor.classfileHash;
+        classActor.classfileHash = null;
+        if (hash == null) {
+            Verifier.verifierFor(classActor).verify();
+            return;
+        }
+        final String assumptions = lookup(hash);
+        if (assumptions != null && holds(classActor, assumptions)) {
+            if (Verifier.TraceVerifierLevel >= Verifier.TRACE_CLASS) {
+                Log.println("[Verification of class " + classActor.name + " found in cache]");
+            }
+            return;
+        }
+        final ClassVerifier verifier = Verifier.verifierFor(classActor);
+        final Record record = new Record();
+        verifier.record = record;
+        verifier.verify();
+        if (record.isCacheable()) {
+            add(hash, record.assumptions(classActor));
+        }
+    }
+
+    private static boolean holds(ClassActor classActor, String assumptions) {
+        final StringBuilder sb = new StringBuilder();
+        for (String expected : assumptions.split(" ")) {
+            final String name = expected.substring(0, expected.indexOf('|'));
+            try {
+                final ClassActor resolved = ClassActor.fromJava(JavaTypeDescriptor.parseTypeDescriptor(name).resolveType(classActor.classLoader));
+                sb.setLength(0);
+                encode(resolved, sb);
+                if (!sb.toString().equals(expected)) {
+                    return false;
+                }
+            } catch (Throwable t) {
+                // let full verification report the problem
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static synchronized String lookup(String hash) {
+        if (entries == null) {
+            entries = read(new File(VerificationCache));
+            try {
+                Runtime.getRuntime().addShutdownHook(new Thread("VerificationCacheWriter") {
+                    @Override
+                    public void run() {
+                        write(new File(VerificationCache));
+                    }
+                });
+            } catch (IllegalStateException e) {
+                // already shutting down: new entries are not saved
+            }
+        }
+        final String assumptions = entries.get(hash);
+        return assumptions != null ? assumptions : newEntries.get(hash);
+    }
+
+    private static synchronized void add(String hash, String assumptions) {
+        newEntries.put(hash, assumptions);
+    }
+
+    /**
+     * Reads the cache file, whose lines have the form {@code <hash> <assumption> <assumption>...}.
+     */
+    private static Map<String, String> read(File file) {
+        final Map<String, String> result = new HashMap<String, String>();
+        if (!file.exists()) {
+            return result;
+        }
+        try {
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                final FileChannel channel = raf.getChannel();
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                final StringBuilder line = new StringBuilder();
+                while (buffer.hasRemaining()) {
+                    final char c = (char) (buffer.get() & 0xff);
+                    if (c == '\n') {
+                        addLine(line, result);
+                        line.setLength(0);
+                    } else {
+                        line.append(c);
+                    }
+                }
+                addLine(line, result);
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            Log.println("Could not read verification cache " + file + ": " + e);
+        }
+        return result;
+    }
+
+    private static void addLine(StringBuilder line, Map<String, String> result) {
+        final int space = line.indexOf(" ");
+        if (space > 0) {
+            result.put(line.substring(0, space), line.substring(space + 1));
+        }
+    }
+
+    private static synchronized void write(File file) {
+        if (newEntries.isEmpty()) {
+            return;
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : newEntries.entrySet()) {
+            sb.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        try {
+            final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                final FileChannel channel = raf.getChannel();
+                final FileLock lock = channel.lock();
+                try {
+                    channel.position(channel.size());
+                    channel.write(ByteBuffer.wrap(sb.toString().getBytes("ISO-8859-1")));
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            Log.println("Could not write verification cache " + file + ": " + e);
+        }
+    }
+}
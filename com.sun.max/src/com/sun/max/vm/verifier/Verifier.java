@@ -145,7 +145,7 @@ public class Verifier implements VerificationRegistry {
         return !needVerify;
     }
 
-    private static boolean isTrustedLoader(ClassLoader classLoader) {
+    static boolean isTrustedLoader(ClassLoader classLoader) {
         ClassLoader cl = ClassLoader.getSystemClassLoader();
         while (cl != null) {
             if (cl == classLoader) {
@@ -162,6 +162,11 @@ public class Verifier implements VerificationRegistry {
     private IntHashMap<Subroutine> subroutines;
     public boolean verbose;
 
+    /**
+     * The assumptions recorded for the {@linkplain VerificationCache verification cache}, or {@code null}.
+     */
+    VerificationCache.Record record;
+
     public Verifier(ConstantPool constantPool) {
         this.constantPool = constantPool;
         this.objectTypes = new HashMap<TypeDescriptor, ObjectType>();
@@ -237,6 +242,20 @@ public class Verifier implements VerificationRegistry {
      * Resolves a given TypeDescriptor to a class actor.
      */
     public ClassActor resolve(TypeDescriptor type) {
-        return ClassActor.fromJava(type.resolveType(constantPool().classLoader()));
+        final ClassActor classActor = ClassActor.fromJava(type.resolveType(constantPool().classLoader()));
+        if (record != null) {
+            record.resolvedClass(classActor);
+        }
+        return classActor;
+    }
+
+    /**
+     * Notes that the outcome of this verification depends on more than the class hierarchy and so
+     * cannot be recorded in the {@linkplain VerificationCache verification cache}.
+     */
+    void noteUncacheable() {
+        if (record != null) {
+            record.markUncacheable();
+        }
     }
 }
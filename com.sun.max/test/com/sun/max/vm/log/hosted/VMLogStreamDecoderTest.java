@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.log.hosted;
+
+import static com.sun.max.vm.log.nat.thread.var.std.VMLogNativeThreadVariableStdStream.*;
+
+import java.io.*;
+import java.nio.*;
+
+import junit.framework.*;
+
+import com.sun.max.vm.log.VMLog.*;
+
+public class VMLogStreamDecoderTest extends TestCase {
+
+    private static final int LOGGER_ID = 1;
+
+    public VMLogStreamDecoderTest(String name) {
+        super(name);
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeByte(1);
+        out.writeByte(8);
+        out.writeByte(8);
+        out.writeUTF("Test");
+        out.writeInt(1);
+        out.writeInt(LOGGER_ID);
+        out.writeUTF("Logger");
+        out.writeInt(1);
+        out.writeUTF("op");
+    }
+
+    private static void writeThread(DataOutputStream out, int threadId, String name) throws IOException {
+        out.writeByte(TAG_THREAD);
+        out.writeInt(threadId);
+        out.writeUTF(name);
+    }
+
+    /**
+     * Writes a block holding one record with a single argument.
+     */
+    private static void writeBlock(DataOutputStream out, int threadId, int uuid, long arg) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        block.putInt(1 | (LOGGER_ID << Record.LOGGER_ID_SHIFT) | (threadId << Record.THREAD_SHIFT));
+        block.putInt(uuid);
+        block.putLong(arg);
+        out.writeByte(TAG_BLOCK);
+        out.writeInt(threadId);
+        out.writeInt(block.capacity());
+        out.write(block.array());
+    }
+
+    private static String decode(byte[] stream) throws IOException {
+        VMLogStreamDecoder decoder = new VMLogStreamDecoder();
+        decoder.read(new DataInputStream(new ByteArrayInputStream(stream)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        decoder.print(new PrintStream(output, true), false);
+        return output.toString();
+    }
+
+    /**
+     * A stream that was never closed ends in the zeros of the last mapped chunk.
+     */
+    public void test_unclosedStream() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeHeader(out);
+        writeThread(out, 1, "main");
+        writeBlock(out, 1, 7, 42);
+        out.write(new byte[4096]);
+        assertEquals("7 main[id=1] Logger.op 0x2a", decode(bytes.toByteArray()).trim());
+    }
+
+    public void test_reusedThreadId() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeHeader(out);
+        writeThread(out, 1, "main");
+        writeBlock(out, 1, 1, 1);
+        writeThread(out, 1, "worker");
+        writeBlock(out, 1, 2, 2);
+        out.writeByte(TAG_END);
+        String[] lines = decode(bytes.toByteArray()).trim().split("\\r?\\n");
+        assertEquals(2, lines.length);
+        assertEquals("1 main[id=1] Logger.op 0x1", lines[0]);
+        assertEquals("2 worker[id=1] Logger.op 0x2", lines[1]);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package jtt.jni;
+
+/*
+ * @Harness: java
+ * @Runs: 0 = 6; 1 = 5; 2 = 15
+ */
+public class JNI_Critical {
+    public static int test(int arg) {
+        if (arg == 0) {
+            return sum(new int[] {1, 2, 3}, 0);
+        }
+        if (arg == 1) {
+            return sum(null, 5);
+        }
+        if (arg == 2) {
+            return sum(new int[] {1, 2, 3, 4}, 5);
+        }
+        return -1;
+    }
+
+    /**
+     * Implemented by a {@code JavaCritical_} entry point as well as a JNI one.
+     */
+    private static native int sum(int[] array, int extra);
+}
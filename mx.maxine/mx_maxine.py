@@ -195,6 +195,17 @@ def hcfdis(args):
     mx.run_java(['-cp', mx.classpath('com.oracle.max.hcfdis'), 'com.oracle.max.hcfdis.HexCodeFileDis'] + args)
 
 
+def heapanalyzer(args):
+    """analyze an HPROF heap dump
+
+    Prints a class histogram and the objects with the largest retained
+    sizes of a heap dump written by the VM, for example in response to
+    -XX:HeapDumpOnSignal or the GC.heap_dump diagnostic command.
+
+    Use "mx heapanalyzer -help" to see what other options this command accepts."""
+    mx.run_java(['-cp', mx.classpath('com.oracle.max.tools'), 'com.oracle.max.tools.heap.HeapDumpAnalyzer'] + args)
+
+
 def helloworld(args):
     """run the 'hello world' program on the Maxine VM"""
     mx.run([join(_vmdir, 'maxvm'), '-cp', mx.classpath('test')] + args + ['test.output.HelloWorld'], env=ldenv)
@@ -1039,6 +1050,7 @@ def mx_init(suite):
         'gate': [gate, '[-nocheck] [args...]'],
         'gitinit': [gitinit, ''],
         'hcfdis': [hcfdis, '[options] files...'],
+        'heapanalyzer': [heapanalyzer, '[options] heapdump'],
         'helloworld': [helloworld, '[VM options]'],
         'inspecthelloworld': [inspecthelloworld, '[VM options]'],
         'image': [image, '[options] classes|packages...'],
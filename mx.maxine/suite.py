@@ -183,7 +183,7 @@ suite = {
         },
 
         "com.oracle.max.tools": {
-            "sourceDirs": ["src"],
+            "sourceDirs": ["src", "test"],
             "dependencies": [
                 "JDK_TOOLS",
                 "com.sun.max",
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+/*
+ * @Harness: java
+ * @Runs: (4, 200) = true;
+ */
+package test.bench.gc;
+
+import test.bench.util.*;
+
+/**
+ * Measures the cost of a garbage collection when a number of threads have deep stacks.
+ * The root scanning of every such collection maps each return address on the stacks to its
+ * target method, which makes this benchmark sensitive to the cost of that lookup.
+ */
+public class DeepStackGC extends RunBench {
+
+    protected static final int DEFAULT_NT = 4;
+    protected static final int DEFAULT_DEPTH = 200;
+
+    protected DeepStackGC(Bench bench) {
+        super(bench);
+    }
+
+    public static boolean test(int nt, int depth) {
+        final Bench bench = new Bench(nt, depth);
+        try {
+            return new DeepStackGC(bench).runBench();
+        } finally {
+            bench.stop();
+        }
+    }
+
+    static class Bench extends MicroBenchmark {
+        private final int depth;
+        private final Barrier started;
+        private final Thread[] threads;
+
+        Bench(int nt, int depth) {
+            this.depth = depth;
+            this.started = new Barrier(nt + 1);
+            this.threads = new Thread[nt];
+            for (int i = 0; i < nt; i++) {
+                threads[i] = new Thread(new DeepThread(), "Deep-" + i);
+                threads[i].setDaemon(true);
+                threads[i].start();
+            }
+            started.waitForRelease();
+        }
+
+        /**
+         * Unwinds and terminates the deep threads.
+         */
+        void stop() {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException ex) {
+                }
+            }
+        }
+
+        @Override
+        public long run() {
+            System.gc();
+            return defaultResult;
+        }
+
+        class DeepThread implements Runnable {
+            public void run() {
+                recurse(depth);
+            }
+
+            private int recurse(int n) {
+                if (n == 0) {
+                    started.waitForRelease();
+                    park();
+                    return 0;
+                }
+                return recurse(n - 1) + 1;
+            }
+
+            private void park() {
+                // the thread stays at this depth until it is interrupted by stop()
+                try {
+                    while (true) {
+                        Thread.sleep(1000);
+                    }
+                } catch (InterruptedException ex) {
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int nt = DEFAULT_NT;
+        int depth = DEFAULT_DEPTH;
+        if (args.length > 0) {
+            nt = Integer.parseInt(args[0]);
+            if (args.length > 1) {
+                depth = Integer.parseInt(args[1]);
+            }
+        }
+        test(nt, depth);
+    }
+
+}
@@ -41,6 +41,8 @@ import test.bench.util.*;
  * <li>{@value WORKLOAD_PROPERTY}: a value designating the amount of work the JNI call does, default {@value DEFAULT_WORKLOAD}
  * <li>{@value GC_PROPERTY}: if set, create a GC thread
  * <li>{@value GC_INTERVAL_PROPERTY}: interval between garbage collections, default {@value DEFAULT_GC_INTERVAL}
+ * <li>{@value GLOBALREFS_PROPERTY}: if non-zero, each JNI call instead creates and deletes this many global
+ * and weak global references, measuring the scalability of the JNI global handle pools, default {@value DEFAULT_GLOBALREFS}
  * </ul>
  */
 
@@ -60,6 +62,11 @@ public class JNI_invocations extends RunBench {
      */
     private static native long nativework(long workload);
 
+    /**
+     * A native method that creates and deletes {@code count} global and weak global references to {@code object}.
+     */
+    private static native void globalrefchurn(Object object, int count);
+
     static class Bench extends MicroBenchmark {
         private static Barrier barrier1;
         private static Barrier barrier2;
@@ -67,10 +74,12 @@ public class JNI_invocations extends RunBench {
         private static final int DEFAULT_JNICALLS = 1000;
         private static final int DEFAULT_WORKLOAD = 10;
         private static final int DEFAULT_GC_INTERVAL = 100;
+        private static final int DEFAULT_GLOBALREFS = 0;
         private static int nrThreads;
         private static int nrJNICalls;
         private static int workload;
         private static int gcInterval;
+        private static int globalRefs;
         private static boolean gc;
         private static boolean trace = System.getProperty("trace") != null;
         private static final String THREADS_PROPERTY = "test.bench.threads.jni.threads";
@@ -78,11 +87,13 @@ public class JNI_invocations extends RunBench {
         private static final String WORKLOAD_PROPERTY = "test.bench.threads.jni.work";
         private static final String GC_PROPERTY = "test.bench.threads.jni.gc";
         private static final String GC_INTERVAL_PROPERTY = "test.bench.threads.jni.gc.interval";
+        private static final String GLOBALREFS_PROPERTY = "test.bench.threads.jni.globalrefs";
 
         Bench() {
             nrThreads = getIntProperty(THREADS_PROPERTY, DEFAULT_THREADS);
             nrJNICalls = getIntProperty(JNICALLS_PROPERTY, DEFAULT_JNICALLS);
             workload = getIntProperty(WORKLOAD_PROPERTY, DEFAULT_WORKLOAD);
+            globalRefs = getIntProperty(GLOBALREFS_PROPERTY, DEFAULT_GLOBALREFS);
             gc = System.getProperty(GC_PROPERTY) != null;
             if (gc) {
                 gcInterval = getIntProperty(GC_INTERVAL_PROPERTY, DEFAULT_GC_INTERVAL);
@@ -133,8 +144,14 @@ public class JNI_invocations extends RunBench {
 
             public void run() {
                 barrier1.waitForRelease();
-                for (int i = 0; i < nrJNIcalls; i++) {
-                    nativework(workload);
+                if (globalRefs > 0) {
+                    for (int i = 0; i < nrJNIcalls; i++) {
+                        globalrefchurn(this, globalRefs);
+                    }
+                } else {
+                    for (int i = 0; i < nrJNIcalls; i++) {
+                        nativework(workload);
+                    }
                 }
                 barrier2.waitForRelease();
             }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package test.output;
+
+import java.io.*;
+import java.lang.management.*;
+import java.lang.ref.*;
+
+/**
+ * Loads a subclass through a class loader that is then dropped, and checks that the class loader is collected and
+ * its class unloaded, and that the same class can be loaded again afterwards.
+ */
+public class ClassUnloading {
+
+    public abstract static class Base {
+        public abstract String name();
+    }
+
+    public static class Impl extends Base {
+        @Override
+        public String name() {
+            return "Impl";
+        }
+    }
+
+    /**
+     * Defines {@link Impl} itself instead of delegating to its parent.
+     */
+    static class ChildFirstLoader extends ClassLoader {
+        ChildFirstLoader() {
+            super(ClassUnloading.class.getClassLoader());
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(Impl.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            Class<?> c = findLoadedClass(name);
+            if (c == null) {
+                final byte[] bytes = read(name.replace('.', '/') + ".class");
+                c = defineClass(name, bytes, 0, bytes.length);
+            }
+            return c;
+        }
+
+        private byte[] read(String resource) throws ClassNotFoundException {
+            final InputStream in = getParent().getResourceAsStream(resource);
+            if (in == null) {
+                throw new ClassNotFoundException(resource);
+            }
+            try {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
+                }
+                in.close();
+                return out.toByteArray();
+            } catch (IOException e) {
+                throw new ClassNotFoundException(resource, e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final ClassLoadingMXBean bean = ManagementFactory.getClassLoadingMXBean();
+        final long unloaded = bean.getUnloadedClassCount();
+        final WeakReference<ClassLoader> loader = load("first");
+        boolean collected = false;
+        for (int i = 0; i < 100 && !(collected && bean.getUnloadedClassCount() > unloaded); i++) {
+            System.gc();
+            Thread.sleep(20);
+            collected = loader.get() == null;
+        }
+        System.out.println("loader collected: " + collected);
+        System.out.println("class unloaded: " + (bean.getUnloadedClassCount() > unloaded));
+        load("second");
+    }
+
+    /**
+     * Loads {@link Impl} through a new class loader without initializing it.
+     *
+     * @return a weak reference to the class loader
+     */
+    private static WeakReference<ClassLoader> load(String attempt) throws ClassNotFoundException {
+        final ClassLoader loader = new ChildFirstLoader();
+        final Class<?> c = Class.forName(Impl.class.getName(), false, loader);
+        System.out.println(attempt + ": defined by child: " + (c.getClassLoader() == loader) + ", distinct: " + (c != Impl.class) +
+                        ", subclass of Base: " + Base.class.isAssignableFrom(c));
+        return new WeakReference<ClassLoader>(loader);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package test.output;
+
+/**
+ * Exercises {@link String#intern()}: identity with literals, growth of the intern table, interning of the same
+ * strings from several threads at once, and interning again after the GC may have cleared unreferenced strings.
+ */
+public class StringIntern {
+
+    private static final int STRINGS = 50000;
+    private static final int THREADS = 4;
+
+    private static String make(String prefix, int i) {
+        return new StringBuilder(prefix).append(i).toString();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final String literal = "StringIntern.literal";
+        final String copy = make("StringIntern.", 0).substring(0, 13) + "literal";
+        System.out.println("copy is literal: " + (copy == literal));
+        System.out.println("intern is literal: " + (copy.intern() == literal));
+
+        // enough distinct strings to make the table grow
+        final String[] kept = new String[STRINGS];
+        for (int i = 0; i < STRINGS; i++) {
+            kept[i] = make("kept", i).intern();
+        }
+        int mismatches = 0;
+        for (int i = 0; i < STRINGS; i++) {
+            if (make("kept", i).intern() != kept[i]) {
+                mismatches++;
+            }
+        }
+        System.out.println("mismatches after growth: " + mismatches);
+
+        // the same strings interned concurrently must yield a single instance each
+        final String[][] results = new String[THREADS][];
+        final Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    final String[] interned = new String[STRINGS];
+                    for (int i = 0; i < STRINGS; i++) {
+                        interned[i] = make("shared", i).intern();
+                    }
+                    results[id] = interned;
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        mismatches = 0;
+        for (int t = 1; t < THREADS; t++) {
+            for (int i = 0; i < STRINGS; i++) {
+                if (results[t][i] != results[0][i]) {
+                    mismatches++;
+                }
+            }
+        }
+        System.out.println("mismatches between threads: " + mismatches);
+
+        // unreferenced interned strings may be cleared; interning them again must still work
+        for (int i = 0; i < STRINGS; i++) {
+            make("dropped", i).intern();
+        }
+        System.gc();
+        mismatches = 0;
+        for (int i = 0; i < STRINGS; i++) {
+            final String s = make("dropped", i);
+            final String interned = s.intern();
+            if (!interned.equals(s) || make("dropped", i).intern() != interned) {
+                mismatches++;
+            }
+            if (make("kept", i).intern() != kept[i]) {
+                mismatches++;
+            }
+        }
+        System.out.println("mismatches after GC: " + mismatches);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package test.output;
+
+import java.lang.management.*;
+import java.util.concurrent.*;
+
+/**
+ * Checks the CPU time and allocated bytes reported by the {@link ThreadMXBean} for the current thread,
+ * for another live thread and for a thread that has terminated.
+ */
+public class ThreadMetrics {
+
+    private static final int ALLOCATION = 8 * 1024 * 1024;
+
+    static volatile Object sink;
+
+    /**
+     * Allocates {@link #ALLOCATION} bytes in small arrays and burns some CPU time.
+     */
+    static long work() {
+        long sum = 0;
+        for (int i = 0; i < ALLOCATION / 1024; i++) {
+            final byte[] bytes = new byte[1024];
+            sink = bytes;
+            for (int j = 0; j < 1000; j++) {
+                sum += j * i;
+            }
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.out.println("cpu time supported: " + bean.isThreadCpuTimeSupported());
+        System.out.println("allocated memory supported: " + bean.isThreadAllocatedMemorySupported());
+
+        final long self = Thread.currentThread().getId();
+        final long cpuBefore = bean.getThreadCpuTime(self);
+        final long allocatedBefore = bean.getThreadAllocatedBytes(self);
+        work();
+        System.out.println("current thread cpu time increased: " + (bean.getThreadCpuTime(self) > cpuBefore));
+        System.out.println("current thread allocated bytes increased: " + (bean.getThreadAllocatedBytes(self) - allocatedBefore >= ALLOCATION));
+        System.out.println("user time at most total time: " + (bean.getCurrentThreadUserTime() <= bean.getCurrentThreadCpuTime()));
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final Thread worker = new Thread("worker") {
+            @Override
+            public void run() {
+                work();
+                done.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                }
+            }
+        };
+        worker.start();
+        done.await();
+        final long[] ids = {worker.getId(), self};
+        final long[] allocated = bean.getThreadAllocatedBytes(ids);
+        System.out.println("worker cpu time positive: " + (bean.getThreadCpuTime(worker.getId()) > 0));
+        System.out.println("worker allocated bytes: " + (bean.getThreadAllocatedBytes(worker.getId()) >= ALLOCATION));
+        System.out.println("batched allocated bytes: " + (allocated[0] >= ALLOCATION && allocated[1] >= ALLOCATION));
+        finish.countDown();
+        worker.join();
+
+        System.out.println("terminated thread cpu time: " + bean.getThreadCpuTime(worker.getId()));
+        System.out.println("terminated thread allocated bytes: " + bean.getThreadAllocatedBytes(worker.getId()));
+        System.out.println("terminated thread in batch: " + bean.getThreadAllocatedBytes(ids)[0]);
+    }
+}